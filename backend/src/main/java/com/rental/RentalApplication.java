@@ -2,11 +2,13 @@ package com.rental;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * 智能房屋租赁系统 - Spring Boot 启动类
  */
 @SpringBootApplication
+@EnableScheduling
 public class RentalApplication {
 
     public static void main(String[] args) {
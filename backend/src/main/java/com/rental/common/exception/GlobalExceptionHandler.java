@@ -2,6 +2,7 @@ package com.rental.common.exception;
 
 import com.rental.common.Result;
 import com.rental.common.ResultCode;
+import com.rental.modules.ml.exception.MlServiceException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
@@ -35,6 +36,16 @@ public class GlobalExceptionHandler {
         return Result.error(e.getCode(), e.getMessage());
     }
 
+    /**
+     * ML 服务不可用
+     */
+    @ExceptionHandler(MlServiceException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public Result<Void> handleMlServiceException(MlServiceException e) {
+        log.error("ML 服务异常: code={}, message={}", e.getCode(), e.getMessage());
+        return Result.error(e.getCode(), e.getMessage());
+    }
+
     /**
      * 认证异常
      */
@@ -0,0 +1,167 @@
+package com.rental.common.http;
+
+import com.rental.config.HttpClientConfig;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 外部 HTTP 调用客户端工厂
+ * 基于 Reactor Netty，为每个目标维护独立连接池，统一超时、带抖动的指数退避重试与指标：
+ * - http.client.requests：Spring Boot 自动配置的请求耗时指标
+ * - reactor.netty.connection.provider.*：连接池使用情况（按目标名区分）
+ * - http.client.retries：重试次数
+ * 另按目标名提供熔断器与舱壁（resilience4j.circuitbreaker/bulkhead.instances.*），状态指标为 resilience4j.circuitbreaker.*
+ */
+@Slf4j
+@Component
+public class OutboundHttpClients {
+
+    private final HttpClientConfig config;
+    private final WebClient.Builder webClientBuilder;
+    private final MeterRegistry meterRegistry;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+
+    private final Map<String, WebClient> clients = new ConcurrentHashMap<>();
+    private final Map<String, ConnectionProvider> providers = new ConcurrentHashMap<>();
+
+    public OutboundHttpClients(HttpClientConfig config, WebClient.Builder webClientBuilder, MeterRegistry meterRegistry,
+                               CircuitBreakerRegistry circuitBreakerRegistry, BulkheadRegistry bulkheadRegistry) {
+        this.config = config;
+        this.webClientBuilder = webClientBuilder;
+        this.meterRegistry = meterRegistry;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+    }
+
+    /**
+     * 获取目标对应的 WebClient（同名复用同一连接池）
+     */
+    public WebClient client(String name) {
+        return clients.computeIfAbsent(name, this::createClient);
+    }
+
+    /**
+     * 目标对应的重试策略：仅对连接失败、超时、429 与 5xx 重试，重试耗尽后抛出最后一次的原始异常
+     */
+    public Retry retry(String name) {
+        HttpClientConfig.Client settings = config.forName(name);
+        if (settings.getMaxAttempts() <= 1) {
+            return Retry.max(0);
+        }
+        return Retry.backoff(settings.getMaxAttempts() - 1L, settings.getBackoff())
+                .maxBackoff(settings.getMaxBackoff())
+                .jitter(0.5)
+                .filter(OutboundHttpClients::isRetryable)
+                .doBeforeRetry(signal -> {
+                    meterRegistry.counter("http.client.retries", "client", name).increment();
+                    log.warn("外部调用重试: client={}, attempt={}, err={}",
+                            name, signal.totalRetries() + 1, signal.failure().getMessage());
+                })
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    /**
+     * 为一次调用加上重试、熔断与舱壁：重试在熔断内侧，熔断器只统计每次逻辑调用的最终结果；
+     * 熔断打开或并发已满时立即失败（{@link #isRejected}），不再等待超时
+     */
+    public <T> Mono<T> guard(String name, Mono<T> call) {
+        return protect(name, call.retryWhen(retry(name)));
+    }
+
+    /**
+     * 只加熔断与舱壁、不含重试：每次尝试前需要重新占用其他资源（如 LLM 节点名额）的调用，
+     * 由调用方在外层按 {@link #retry} 重试，熔断器统计每次尝试的结果
+     */
+    public <T> Mono<T> protect(String name, Mono<T> call) {
+        return call.transformDeferred(CircuitBreakerOperator.of(circuitBreaker(name)))
+                .transformDeferred(BulkheadOperator.of(bulkhead(name)));
+    }
+
+    /**
+     * 流式调用的熔断与舱壁（不重试，已输出部分内容后重试会导致重复）；舱壁许可在整个流结束后释放
+     */
+    public <T> Flux<T> guard(String name, Flux<T> call) {
+        return call.transformDeferred(CircuitBreakerOperator.of(circuitBreaker(name)))
+                .transformDeferred(BulkheadOperator.of(bulkhead(name)));
+    }
+
+    public CircuitBreaker circuitBreaker(String name) {
+        return circuitBreakerRegistry.circuitBreaker(name);
+    }
+
+    public Bulkhead bulkhead(String name) {
+        return bulkheadRegistry.bulkhead(name);
+    }
+
+    /**
+     * 是否为熔断或舱壁直接拒绝（未实际发出请求）
+     */
+    public static boolean isRejected(Throwable e) {
+        return e instanceof CallNotPermittedException || e instanceof BulkheadFullException;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        providers.values().forEach(ConnectionProvider::dispose);
+    }
+
+    private WebClient createClient(String name) {
+        HttpClientConfig.Client settings = config.forName(name);
+        ConnectionProvider provider = ConnectionProvider.builder("outbound-" + name)
+                .maxConnections(settings.getMaxConnections())
+                .pendingAcquireTimeout(settings.getPendingAcquireTimeout())
+                .pendingAcquireMaxCount(settings.getPendingAcquireMaxCount())
+                .maxIdleTime(settings.getMaxIdleTime())
+                .metrics(true)
+                .build();
+        providers.put(name, provider);
+
+        HttpClient httpClient = HttpClient.create(provider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) settings.getConnectTimeout().toMillis())
+                .responseTimeout(settings.getResponseTimeout());
+
+        log.info("外部 HTTP 客户端初始化: client={}, maxConnections={}, connectTimeout={}, responseTimeout={}, maxAttempts={}",
+                name, settings.getMaxConnections(), settings.getConnectTimeout(),
+                settings.getResponseTimeout(), settings.getMaxAttempts());
+
+        return webClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    private static boolean isRetryable(Throwable e) {
+        if (e instanceof WebClientResponseException responseException) {
+            return responseException.getStatusCode().is5xxServerError()
+                    || responseException.getStatusCode().value() == 429;
+        }
+        return e instanceof WebClientRequestException
+                || e instanceof TimeoutException
+                || e instanceof IOException;
+    }
+}
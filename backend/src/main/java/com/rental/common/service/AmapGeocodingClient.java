@@ -0,0 +1,91 @@
+package com.rental.common.service;
+
+import com.rental.common.http.OutboundHttpClients;
+import com.rental.common.util.SingleFlight;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.Optional;
+
+/**
+ * 高德地理编码客户端
+ * 相同地址的并发请求合并为一次外部调用；连接池、超时与重试见 app.http.clients.amap，熔断与舱壁见 resilience4j.*.instances.amap
+ */
+@Slf4j
+@Component
+public class AmapGeocodingClient {
+
+    private static final String GEOCODE_URL = "https://restapi.amap.com/v3/geocode/geo?address={address}&key={key}";
+
+    @Value("${app.amap.key:5ea5ff6504753ba6e4cce1132a876451}")
+    private String amapKey;
+
+    private static final String CLIENT_NAME = "amap";
+
+    private final OutboundHttpClients outboundHttpClients;
+    private final WebClient webClient;
+
+    private final SingleFlight<String, Optional<double[]>> geocodeFlight = new SingleFlight<>();
+
+    public AmapGeocodingClient(OutboundHttpClients outboundHttpClients) {
+        this.outboundHttpClients = outboundHttpClients;
+        this.webClient = outboundHttpClients.client(CLIENT_NAME);
+    }
+
+    /**
+     * 地址转坐标
+     * @return [经度, 纬度]，无法解析或调用失败时返回 null
+     */
+    public double[] geocode(String address) {
+        if (address == null || address.isBlank()) {
+            return null;
+        }
+        String key = address.trim();
+        double[] coords = geocodeFlight.execute(key, () -> Optional.ofNullable(requestGeocode(key))).orElse(null);
+        // 等待者共享同一结果，返回副本避免互相影响
+        return coords != null ? coords.clone() : null;
+    }
+
+    private double[] requestGeocode(String address) {
+        log.info("调用高德API获取地址 {} 的坐标...", address);
+        try {
+            String response = outboundHttpClients.guard(CLIENT_NAME, webClient.get()
+                            .uri(GEOCODE_URL, address, amapKey)
+                            .retrieve()
+                            .bodyToMono(String.class))
+                    .block();
+            log.info("高德API响应: {}", response);
+
+            if (response != null && response.contains("\"status\":\"1\"")) {
+                int geocodesIndex = response.indexOf("\"geocodes\"");
+                if (geocodesIndex > 0) {
+                    int locationStart = response.indexOf("\"location\":\"", geocodesIndex);
+                    if (locationStart > 0) {
+                        int locationEnd = response.indexOf("\"", locationStart + 12);
+                        if (locationEnd > locationStart) {
+                            String location = response.substring(locationStart + 12, locationEnd);
+                            String[] parts = location.split(",");
+                            if (parts.length == 2) {
+                                double lon = Double.parseDouble(parts[0]);
+                                double lat = Double.parseDouble(parts[1]);
+                                log.info("高德API成功获取地址 {} 的坐标: 经度={}, 纬度={}", address, lon, lat);
+                                return new double[]{lon, lat};
+                            }
+                        }
+                    }
+                }
+            }
+            log.warn("高德API未能解析地址 {} 的坐标", address);
+        } catch (Exception e) {
+            if (OutboundHttpClients.isRejected(e)) {
+                // 熔断打开时不等待超时，调用方使用数据库/内存中已有坐标或后备坐标
+                log.debug("高德API熔断中，跳过地址 {}", address);
+            } else {
+                log.warn("高德API调用失败: {}", e.getMessage());
+            }
+        }
+        return null;
+    }
+}
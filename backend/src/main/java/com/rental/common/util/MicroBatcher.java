@@ -0,0 +1,124 @@
+package com.rental.common.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 并发请求微批（micro-batching）
+ * 时间窗口内到达的单个请求合并为一次批量调用，结果按提交顺序拆分回各调用方：
+ * 窗口从批次中第一个请求到达时开始计时，到期或攒满 maxBatchSize 时立即发出；
+ * 批量调用失败时同批所有调用方收到相同的异常
+ *
+ * @param <T> 单个请求
+ * @param <R> 单个结果
+ */
+public class MicroBatcher<T, R> {
+
+    private final int maxBatchSize;
+    private final Executor delayedFlush;
+    private final Function<List<T>, CompletableFuture<List<R>>> batchCall;
+
+    private List<T> items = new ArrayList<>();
+    private List<CompletableFuture<R>> waiters = new ArrayList<>();
+
+    /**
+     * @param batchCall 批量上游调用，返回结果须与入参一一对应、顺序一致；应为非阻塞调用
+     */
+    public MicroBatcher(int maxBatchSize, Duration window, Function<List<T>, CompletableFuture<List<R>>> batchCall) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize 必须大于 0");
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.delayedFlush = CompletableFuture.delayedExecutor(window.toNanos(), TimeUnit.NANOSECONDS);
+        this.batchCall = batchCall;
+    }
+
+    /**
+     * 提交请求并等待所在批次返回
+     */
+    public R execute(T item) {
+        try {
+            return submit(item).join();
+        } catch (CompletionException e) {
+            // 还原上游抛出的原始异常
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    public CompletableFuture<R> submit(T item) {
+        CompletableFuture<R> waiter = new CompletableFuture<>();
+        List<T> fullItems = null;
+        List<CompletableFuture<R>> fullWaiters = null;
+        synchronized (this) {
+            items.add(item);
+            waiters.add(waiter);
+            if (items.size() >= maxBatchSize) {
+                fullItems = items;
+                fullWaiters = waiters;
+                items = new ArrayList<>();
+                waiters = new ArrayList<>();
+            } else if (items.size() == 1) {
+                List<T> batch = items;
+                delayedFlush.execute(() -> flushIfCurrent(batch));
+            }
+        }
+        if (fullItems != null) {
+            dispatch(fullItems, fullWaiters);
+        }
+        return waiter;
+    }
+
+    /**
+     * 窗口到期：批次未因攒满而提前发出时发出
+     */
+    private void flushIfCurrent(List<T> batch) {
+        List<CompletableFuture<R>> batchWaiters;
+        synchronized (this) {
+            if (items != batch) {
+                return;
+            }
+            batchWaiters = waiters;
+            items = new ArrayList<>();
+            waiters = new ArrayList<>();
+        }
+        dispatch(batch, batchWaiters);
+    }
+
+    private void dispatch(List<T> batch, List<CompletableFuture<R>> batchWaiters) {
+        CompletableFuture<List<R>> call;
+        try {
+            call = batchCall.apply(batch);
+        } catch (RuntimeException | Error e) {
+            batchWaiters.forEach(w -> w.completeExceptionally(e));
+            return;
+        }
+        call.whenComplete((results, error) -> {
+            if (error == null && (results == null || results.size() != batch.size())) {
+                error = new IllegalStateException("批量调用返回 " + (results == null ? 0 : results.size())
+                        + " 条结果，请求 " + batch.size() + " 条");
+            }
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                batchWaiters.forEach(w -> w.completeExceptionally(cause));
+                return;
+            }
+            for (int i = 0; i < batchWaiters.size(); i++) {
+                batchWaiters.get(i).complete(results.get(i));
+            }
+        });
+    }
+}
@@ -0,0 +1,127 @@
+package com.rental.common.util;
+
+/**
+ * 可删除的流式分位数草图（对数分桶，同 DDSketch 思路）
+ * 正数按 ceil(log_γ(x)) 落入对数桶，γ = (1 + α) / (1 - α)，分位数估计值的相对误差不超过 α；
+ * 与 t-digest 不同，桶计数可直接减回，房源调价、下架时能精确撤销原来的样本。
+ * 内存只与取值跨度有关（租金 500～100000 元、α = 1% 约 270 个桶），与样本数无关。
+ * 非线程安全，由调用方加锁
+ */
+public class QuantileSketch {
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+
+    /**
+     * counts[i] 为桶 offset + i 的样本数
+     */
+    private int[] counts = new int[0];
+    private int offset;
+    private long count;
+
+    public QuantileSketch(double relativeAccuracy) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("relativeAccuracy 须在 (0, 1) 之间");
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * 加入一个样本；非正数与非有限值忽略
+     */
+    public void add(double value) {
+        if (!accepts(value)) {
+            return;
+        }
+        int index = index(value);
+        ensureCapacity(index);
+        counts[index - offset]++;
+        count++;
+    }
+
+    /**
+     * 撤销一个之前加入的样本
+     * @return 对应的桶中有样本并已减去时返回 true
+     */
+    public boolean remove(double value) {
+        if (!accepts(value) || count == 0) {
+            return false;
+        }
+        int slot = index(value) - offset;
+        if (slot < 0 || slot >= counts.length || counts[slot] == 0) {
+            return false;
+        }
+        counts[slot]--;
+        count--;
+        return true;
+    }
+
+    /**
+     * 分位数估计（q 取 0～1），空草图返回 NaN
+     */
+    public double quantile(double q) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) Math.floor(Math.min(1, Math.max(0, q)) * (count - 1));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                return value(offset + i);
+            }
+        }
+        return value(offset + counts.length - 1);
+    }
+
+    private static boolean accepts(double value) {
+        return value > 0 && Double.isFinite(value);
+    }
+
+    private int index(double value) {
+        return (int) Math.ceil(Math.log(value) / logGamma);
+    }
+
+    /**
+     * 桶的代表值：桶区间 (γ^(i-1), γ^i] 内相对误差最小的点
+     */
+    private double value(int index) {
+        return 2 * Math.pow(gamma, index) / (gamma + 1);
+    }
+
+    private void ensureCapacity(int index) {
+        if (counts.length == 0) {
+            counts = new int[16];
+            offset = index - 8;
+            return;
+        }
+        if (index >= offset && index < offset + counts.length) {
+            return;
+        }
+        int low = Math.min(offset, index);
+        int high = Math.max(offset + counts.length - 1, index);
+        // 额外预留一些桶，避免相邻取值反复扩容
+        int margin = Math.max(8, (high - low + 1) / 4);
+        int newOffset = index < offset ? low - margin : offset;
+        int newLength = (index < offset ? high - newOffset + 1 : high - newOffset + 1 + margin);
+        int[] grown = new int[newLength];
+        System.arraycopy(counts, 0, grown, offset - newOffset, counts.length);
+        counts = grown;
+        offset = newOffset;
+    }
+}
@@ -0,0 +1,67 @@
+package com.rental.common.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 并发请求合并（single-flight）
+ * 同一 key 同时只有一个调用真正执行，期间到达的相同请求等待并共享其结果或异常；
+ * 调用结束即移除，不做缓存（需要缓存时在外层另行处理）
+ *
+ * @param <K> 请求 key，需正确实现 equals/hashCode，调用方负责归一化
+ * @param <V> 结果类型
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 执行或加入同 key 的进行中调用
+     * @param key 归一化后的请求 key
+     * @param supplier 实际的上游调用，只会由第一个到达的线程执行
+     * @return 上游调用结果（所有等待者共享同一对象，调用方不应修改）
+     */
+    public V execute(K key, Supplier<V> supplier) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            V value = supplier.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * 当前进行中的调用数
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            // 还原上游抛出的原始异常，等待者与执行者看到相同的错误
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
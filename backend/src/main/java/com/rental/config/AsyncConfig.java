@@ -0,0 +1,85 @@
+package com.rental.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 异步任务配置
+ */
+@Slf4j
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    /**
+     * 默认任务线程池
+     * 声明了下面的专用线程池后 Spring Boot 不再自动创建 applicationTaskExecutor，
+     * 这里按 spring.task.execution.* 配置显式定义，供未指定线程池的 @Async 与 MVC 异步请求使用
+     */
+    @Primary
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * 消息检索索引线程池
+     * 单线程保证启动重建与增量更新串行执行；队列满时丢弃并记录，不阻塞发消息的线程
+     */
+    @Bean(name = "searchIndexExecutor")
+    public ThreadPoolTaskExecutor searchIndexExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(10000);
+        executor.setThreadNamePrefix("search-index-");
+        executor.setRejectedExecutionHandler((r, e) -> log.warn("检索索引任务队列已满，丢弃一次索引更新"));
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 房源向量索引线程池
+     * 单线程保证启动同步、增量更新与落盘串行执行；向量化可能调用外部模型，与消息检索索引分开避免互相阻塞
+     */
+    @Bean(name = "vectorIndexExecutor")
+    public ThreadPoolTaskExecutor vectorIndexExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(10000);
+        executor.setThreadNamePrefix("vector-index-");
+        executor.setRejectedExecutionHandler((r, e) -> log.warn("向量索引任务队列已满，丢弃一次索引更新"));
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 房源公允租金打分线程池
+     * 各批房源并行预测；线程数与 app.ml.scoring.parallelism 一致，队列满时由打分线程自己执行（背压）
+     */
+    @Bean(name = "fairPriceExecutor")
+    public ThreadPoolTaskExecutor fairPriceExecutor(MlScoringConfig scoringConfig) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(scoringConfig.getParallelism());
+        executor.setMaxPoolSize(scoringConfig.getParallelism());
+        executor.setQueueCapacity(scoringConfig.getParallelism() * 2);
+        executor.setThreadNamePrefix("fair-price-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,38 @@
+package com.rental.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 外部依赖后台健康探测配置（ML 服务、LLM 节点、支付监控服务）
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.health")
+public class HealthProbeConfig {
+
+    private boolean enabled = true;
+
+    /**
+     * 两轮探测之间的间隔（毫秒）
+     */
+    private long interval = 15000;
+
+    /**
+     * 启动后首轮探测的延迟（毫秒）
+     */
+    private long initialDelay = 5000;
+
+    /**
+     * 单次探测超时
+     */
+    private Duration timeout = Duration.ofSeconds(3);
+
+    /**
+     * 连续失败多少次后判定为不可用；一次成功即恢复
+     */
+    private int failureThreshold = 2;
+}
@@ -0,0 +1,109 @@
+package com.rental.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 外部 HTTP 调用配置
+ * 每个目标（llm、ml、amap 等）独立的连接池、超时与重试参数，目标未配置的项逐项回落到 defaults
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.http")
+public class HttpClientConfig {
+
+    private Client defaults = new Client();
+
+    private Map<String, Client> clients = new HashMap<>();
+
+    /**
+     * 获取目标的配置：逐项合并，目标未配置的项取 defaults，defaults 也未配置的取内置默认值
+     */
+    public Client forName(String name) {
+        return Client.BUILT_IN.overriddenBy(defaults).overriddenBy(clients.get(name));
+    }
+
+    /**
+     * 单个目标的配置，未设置的项为 null，由 forName 合并后使用
+     */
+    @Data
+    public static class Client {
+
+        private static final Client BUILT_IN = builtIn();
+
+        /**
+         * 建立连接超时，默认 3s
+         */
+        private Duration connectTimeout;
+        /**
+         * 响应超时：两次网络读之间的最大间隔（流式响应下即 token 间隔），默认 30s
+         */
+        private Duration responseTimeout;
+        /**
+         * 连接池最大连接数，即对该目标的最大并发请求数，默认 50
+         */
+        private Integer maxConnections;
+        /**
+         * 连接池耗尽时等待连接的最长时间，超时快速失败而不是无限占用业务线程，默认 5s
+         */
+        private Duration pendingAcquireTimeout;
+        /**
+         * 等待连接的最大排队数，默认 200
+         */
+        private Integer pendingAcquireMaxCount;
+        /**
+         * 空闲连接回收时间，默认 30s
+         */
+        private Duration maxIdleTime;
+        /**
+         * 最大尝试次数（含首次），1 表示不重试，默认 1
+         */
+        private Integer maxAttempts;
+        /**
+         * 重试初始退避，按指数增长并加入随机抖动，默认 200ms，上限默认 2s
+         */
+        private Duration backoff;
+        private Duration maxBackoff;
+
+        private static Client builtIn() {
+            Client client = new Client();
+            client.setConnectTimeout(Duration.ofSeconds(3));
+            client.setResponseTimeout(Duration.ofSeconds(30));
+            client.setMaxConnections(50);
+            client.setPendingAcquireTimeout(Duration.ofSeconds(5));
+            client.setPendingAcquireMaxCount(200);
+            client.setMaxIdleTime(Duration.ofSeconds(30));
+            client.setMaxAttempts(1);
+            client.setBackoff(Duration.ofMillis(200));
+            client.setMaxBackoff(Duration.ofSeconds(2));
+            return client;
+        }
+
+        /**
+         * 以 override 中已设置的项覆盖当前配置，返回新对象
+         */
+        Client overriddenBy(Client override) {
+            Client o = override != null ? override : new Client();
+            Client merged = new Client();
+            merged.setConnectTimeout(pick(o.connectTimeout, connectTimeout));
+            merged.setResponseTimeout(pick(o.responseTimeout, responseTimeout));
+            merged.setMaxConnections(pick(o.maxConnections, maxConnections));
+            merged.setPendingAcquireTimeout(pick(o.pendingAcquireTimeout, pendingAcquireTimeout));
+            merged.setPendingAcquireMaxCount(pick(o.pendingAcquireMaxCount, pendingAcquireMaxCount));
+            merged.setMaxIdleTime(pick(o.maxIdleTime, maxIdleTime));
+            merged.setMaxAttempts(pick(o.maxAttempts, maxAttempts));
+            merged.setBackoff(pick(o.backoff, backoff));
+            merged.setMaxBackoff(pick(o.maxBackoff, maxBackoff));
+            return merged;
+        }
+
+        private static <T> T pick(T value, T fallback) {
+            return value != null ? value : fallback;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.rental.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 租金行情统计配置（按城市、区域、户型维护挂牌租金分位数草图）
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.market-stats")
+public class MarketStatsConfig {
+
+    private boolean enabled = true;
+
+    /**
+     * 分位数的相对误差上限（0.01 即 1%）
+     */
+    private double relativeAccuracy = 0.01;
+
+    /**
+     * 样本数少于该值时放宽到更大的范围（先忽略区域，再忽略户型）
+     */
+    private int minSamples = 5;
+
+    /**
+     * 全量重建的 cron；平时跟随房源事件增量更新，定期重建用于纠正遗漏的事件
+     */
+    private String rebuildCron = "0 15 4 * * ?";
+}
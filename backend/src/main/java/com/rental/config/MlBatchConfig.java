@@ -0,0 +1,37 @@
+package com.rental.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * ML 服务批量预测配置
+ * 并发到达的单条预测在 window 内合并为一次 /api/v1/predict/batch 调用；批量接口每次最多 max-size 条
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.ml.batch")
+public class MlBatchConfig {
+
+    /**
+     * 是否合并并发的单条预测请求
+     */
+    private boolean enabled = true;
+
+    /**
+     * 合并窗口，从批次中第一个请求到达开始计时
+     */
+    private Duration window = Duration.ofMillis(5);
+
+    /**
+     * 单次上游批量调用的最大条数
+     */
+    private int maxSize = 64;
+
+    /**
+     * /ml/predict/batch 单次请求允许的最大条数
+     */
+    private int maxRequestItems = 500;
+}
@@ -0,0 +1,34 @@
+package com.rental.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 租金预测结果缓存配置
+ * 以补全默认值、归一化后的特征为 key，面积按 area-bucket 分桶，模型版本变化时整体清空
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.ml.cache")
+public class MlCacheConfig {
+
+    private boolean enabled = true;
+
+    /**
+     * 最多缓存的特征组合数
+     */
+    private long maxSize = 20000;
+
+    /**
+     * 写入后的有效期
+     */
+    private Duration ttl = Duration.ofHours(6);
+
+    /**
+     * 面积分桶宽度（平方米），同一桶内的面积共用一条预测结果；不大于 0 表示不分桶
+     */
+    private double areaBucket = 1.0;
+}
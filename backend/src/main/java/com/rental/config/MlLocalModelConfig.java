@@ -0,0 +1,25 @@
+package com.rental.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * JVM 内租金预测模型配置
+ * 模型由 rent-price-ml/export_model.py 导出；文件不存在或加载失败时租金预测全部走远程 ML 服务
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.ml.local")
+public class MlLocalModelConfig {
+
+    /**
+     * 是否优先使用 JVM 内模型预测租金
+     */
+    private boolean enabled = true;
+
+    /**
+     * 导出的模型文件路径（相对路径以后端启动目录为准）
+     */
+    private String modelPath = "../rent-price-ml/models/rent_model.json";
+}
@@ -0,0 +1,36 @@
+package com.rental.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 房源公允租金后台打分配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.ml.scoring")
+public class MlScoringConfig {
+
+    private boolean enabled = true;
+
+    /**
+     * 两轮打分之间的间隔（毫秒）；每轮只处理新房源、特征变化或模型版本过期的房源
+     */
+    private long interval = 600000;
+
+    /**
+     * 启动后首轮打分的延迟（毫秒）
+     */
+    private long initialDelay = 60000;
+
+    /**
+     * 每批预测的房源数
+     */
+    private int batchSize = 200;
+
+    /**
+     * 并行预测的批数
+     */
+    private int parallelism = 4;
+}
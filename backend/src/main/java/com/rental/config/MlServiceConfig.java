@@ -3,32 +3,19 @@ package com.rental.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.client.RestTemplate;
 
 /**
  * ML 服务配置
+ * 连接池、超时与重试见 app.http.clients.ml（取自 app.ml.service.timeout / retry）
  */
 @Configuration
 public class MlServiceConfig {
 
-    @Value("${ml.service.url:http://localhost:5000}")
+    @Value("${app.ml.service.url:http://localhost:5000}")
     private String mlServiceUrl;
 
-    @Value("${ml.service.timeout:30000}")
-    private Integer mlServiceTimeout;
-
-    @Bean
-    public RestTemplate mlRestTemplate() {
-        return new RestTemplate();
-    }
-
     @Bean
     public String mlServiceUrl() {
         return mlServiceUrl;
     }
-
-    @Bean
-    public Integer mlServiceTimeout() {
-        return mlServiceTimeout;
-    }
 }
@@ -0,0 +1,48 @@
+package com.rental.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 租金模型影子对比配置：按比例把线上预测请求异步转发给候选模型服务，对比两者的预测结果
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.ml.shadow")
+public class MlShadowConfig {
+
+    private boolean enabled = false;
+
+    /**
+     * 候选模型服务地址（与 app.ml.service.url 接口一致的另一实例）
+     */
+    private String url;
+
+    /**
+     * 转发给候选模型的线上请求比例（0-1）
+     */
+    private double sampleRate = 0.05;
+
+    /**
+     * 同时进行中的影子调用上限，超出的采样直接丢弃，不排队
+     */
+    private int maxInFlight = 16;
+
+    /**
+     * 单次影子调用超时
+     */
+    private Duration timeout = Duration.ofSeconds(5);
+
+    /**
+     * 滚动统计保留的最近成对预测数
+     */
+    private int windowSize = 5000;
+
+    /**
+     * 相对差异超过该比例计为分歧（0.1 即 10%）
+     */
+    private double divergenceThreshold = 0.1;
+}
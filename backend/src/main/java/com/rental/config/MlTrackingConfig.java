@@ -0,0 +1,49 @@
+package com.rental.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 租金预测记录与准确率统计配置
+ * 预测结果先进入内存队列，由后台定时批量写入 rent_predictions；队列满时丢弃并计数，不阻塞预测接口
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.ml.tracking")
+public class MlTrackingConfig {
+
+    private boolean enabled = true;
+
+    /**
+     * 待写入队列容量
+     */
+    private int queueCapacity = 10000;
+
+    /**
+     * 每批写入的最大条数
+     */
+    private int batchSize = 500;
+
+    /**
+     * 批量写入间隔（毫秒）
+     */
+    private long flushInterval = 2000;
+
+    /**
+     * 准确率统计间隔（毫秒）
+     */
+    private long evaluateInterval = 600000;
+
+    /**
+     * 每轮统计最多回填的预测条数
+     */
+    private int evaluateBatchSize = 2000;
+
+    /**
+     * 预测后等待多久再与挂牌价比较（给房东按预测结果调整挂牌价的时间）
+     */
+    private Duration evaluationDelay = Duration.ofHours(24);
+}
@@ -0,0 +1,36 @@
+package com.rental.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 租客个性化推荐配置（内存候选目录与按用户的推荐结果缓存）
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.recommendation")
+public class RecommendationConfig {
+
+    /**
+     * 每次返回的推荐房源数
+     */
+    private int limit = 20;
+
+    /**
+     * 缓存推荐结果的用户数上限，0 表示不缓存
+     */
+    private long cacheMaxSize = 10000;
+
+    /**
+     * 推荐结果的缓存时长；偏好或相关房源变化时提前失效
+     */
+    private Duration cacheTtl = Duration.ofMinutes(30);
+
+    /**
+     * 候选目录全量重建的 cron；平时跟随房源事件增量更新
+     */
+    private String rebuildCron = "0 20 4 * * ?";
+}
@@ -1,6 +1,7 @@
 package com.rental.config;
 
 import com.rental.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -45,16 +46,20 @@ public class SecurityConfig {
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 // 配置请求授权
                 .authorizeHttpRequests(auth -> auth
+                        // 异步分发（SSE 长连接）与错误分发沿用首次请求的鉴权结果
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                         // 公开端点
                         .requestMatchers(AntPathRequestMatcher.antMatcher("/auth/**")).permitAll()
                         .requestMatchers(AntPathRequestMatcher.antMatcher("/swagger-ui/**")).permitAll()
                         .requestMatchers(AntPathRequestMatcher.antMatcher("/v3/api-docs/**")).permitAll()
                         .requestMatchers(AntPathRequestMatcher.antMatcher("/ml/status")).permitAll()
+                        .requestMatchers(AntPathRequestMatcher.antMatcher("/health/status")).permitAll()
                         .requestMatchers(AntPathRequestMatcher.antMatcher("/ml/closest")).permitAll()
                         // AI 服务公开访问
                         .requestMatchers(AntPathRequestMatcher.antMatcher("/ai/**")).permitAll()
                         // 健康检查
                         .requestMatchers(AntPathRequestMatcher.antMatcher("/actuator/health")).permitAll()
+                        .requestMatchers(AntPathRequestMatcher.antMatcher("/actuator/**")).hasRole("admin")
                         // 静态资源（图片等）公开访问
                         .requestMatchers(AntPathRequestMatcher.antMatcher("/uploads/**")).permitAll()
                         .requestMatchers(AntPathRequestMatcher.antMatcher("/api/uploads/**")).permitAll()
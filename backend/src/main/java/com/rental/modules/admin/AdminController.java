@@ -1,13 +1,24 @@
 package com.rental.modules.admin;
 
 import com.rental.common.Result;
+import com.rental.modules.admin.dto.BackendStatus;
 import com.rental.modules.admin.dto.Dashboard;
 import com.rental.modules.conversation.service.ConversationService;
+import com.rental.modules.health.dto.BackendHealth;
+import com.rental.modules.health.service.BackendHealthMonitor;
+import com.rental.modules.ml.dto.PredictionAccuracy;
+import com.rental.modules.ml.dto.ShadowComparisonReport;
+import com.rental.modules.ml.service.PredictionAccuracyTracker;
+import com.rental.modules.ml.service.ShadowComparisonService;
 import com.rental.modules.payment.service.PaymentService;
 import com.rental.modules.property.entity.Property;
 import com.rental.modules.property.service.PropertyService;
 import com.rental.modules.user.entity.UserEntity;
 import com.rental.modules.user.service.UserService;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -16,6 +27,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -33,6 +45,11 @@ public class AdminController {
     private final UserService userService;
     private final ConversationService conversationService;
     private final PaymentService paymentService;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final PredictionAccuracyTracker predictionAccuracyTracker;
+    private final BackendHealthMonitor healthMonitor;
+    private final ShadowComparisonService shadowComparisonService;
 
     /**
      * 获取数据看板统计信息
@@ -96,4 +113,60 @@ public class AdminController {
         UserEntity user = enabled ? userService.enableUser(id) : userService.disableUser(id);
         return ResponseEntity.ok(Result.success(user));
     }
+
+    /**
+     * 获取外部依赖的熔断与舱壁状态
+     */
+    @GetMapping("/backends")
+    @Operation(summary = "获取外部依赖熔断状态", description = "LLM、ML、高德等外部依赖的熔断器状态与舱壁并发占用")
+    public ResponseEntity<Result<List<BackendStatus>>> getBackendStatuses() {
+        List<BackendStatus> statuses = circuitBreakerRegistry.getAllCircuitBreakers().stream()
+                .sorted(Comparator.comparing(CircuitBreaker::getName))
+                .map(this::toBackendStatus)
+                .toList();
+        return ResponseEntity.ok(Result.success(statuses));
+    }
+
+    /**
+     * 获取外部依赖的后台探测状态（含最近一次失败原因）
+     */
+    @GetMapping("/backends/health")
+    @Operation(summary = "获取外部依赖健康状态", description = "ML 服务、LLM 节点与支付监控服务的探测状态、延迟与最近错误")
+    public ResponseEntity<Result<List<BackendHealth>>> getBackendHealth() {
+        return ResponseEntity.ok(Result.success(healthMonitor.getStatuses(true)));
+    }
+
+    /**
+     * 获取租金预测准确率（预测值与挂牌价对比，按模型版本与城市统计）
+     */
+    @GetMapping("/ml/accuracy")
+    @Operation(summary = "获取租金预测准确率", description = "按模型版本与城市统计的平均绝对误差、均方根误差、平均百分比误差与偏差")
+    public ResponseEntity<Result<List<PredictionAccuracy>>> getPredictionAccuracy() {
+        return ResponseEntity.ok(Result.success(predictionAccuracyTracker.getAccuracy()));
+    }
+
+    /**
+     * 获取候选租金模型的影子对比报告（上线前评估）
+     */
+    @GetMapping("/ml/shadow")
+    @Operation(summary = "获取影子模型对比报告", description = "候选模型与线上模型对同一批线上请求的预测差异分布、影子调用成功率，以及两者按挂牌价评估的误差")
+    public ResponseEntity<Result<ShadowComparisonReport>> getShadowComparison() {
+        return ResponseEntity.ok(Result.success(shadowComparisonService.getReport()));
+    }
+
+    private BackendStatus toBackendStatus(CircuitBreaker circuitBreaker) {
+        CircuitBreaker.Metrics metrics = circuitBreaker.getMetrics();
+        Bulkhead bulkhead = bulkheadRegistry.find(circuitBreaker.getName()).orElse(null);
+        return BackendStatus.builder()
+                .name(circuitBreaker.getName())
+                .state(circuitBreaker.getState().name())
+                .failureRate(metrics.getFailureRate())
+                .slowCallRate(metrics.getSlowCallRate())
+                .bufferedCalls(metrics.getNumberOfBufferedCalls())
+                .failedCalls(metrics.getNumberOfFailedCalls())
+                .notPermittedCalls(metrics.getNumberOfNotPermittedCalls())
+                .availableConcurrentCalls(bulkhead != null ? bulkhead.getMetrics().getAvailableConcurrentCalls() : null)
+                .maxConcurrentCalls(bulkhead != null ? bulkhead.getMetrics().getMaxAllowedConcurrentCalls() : null)
+                .build();
+    }
 }
@@ -0,0 +1,60 @@
+package com.rental.modules.admin.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 外部依赖（LLM、ML、高德）熔断与舱壁状态 DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BackendStatus {
+    /**
+     * 依赖名称，如 llm、ml、amap
+     */
+    private String name;
+
+    /**
+     * 熔断器状态：CLOSED / OPEN / HALF_OPEN 等
+     */
+    private String state;
+
+    /**
+     * 失败率（%），统计窗口内调用数不足时为 -1
+     */
+    private float failureRate;
+
+    /**
+     * 慢调用率（%），统计窗口内调用数不足时为 -1
+     */
+    private float slowCallRate;
+
+    /**
+     * 统计窗口内的调用数
+     */
+    private int bufferedCalls;
+
+    /**
+     * 统计窗口内的失败数
+     */
+    private int failedCalls;
+
+    /**
+     * 熔断打开期间被拒绝的调用数
+     */
+    private long notPermittedCalls;
+
+    /**
+     * 舱壁剩余可用并发数
+     */
+    private Integer availableConcurrentCalls;
+
+    /**
+     * 舱壁最大并发数
+     */
+    private Integer maxConcurrentCalls;
+}
@@ -0,0 +1,186 @@
+package com.rental.modules.ai.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rental.modules.ai.client.LlmRouter;
+import com.rental.modules.ai.config.AiConfig;
+import com.rental.modules.ai.dto.SearchCriteria;
+import com.rental.modules.property.entity.Property;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * LLM 结果缓存
+ * 模型部分取自路由的全部节点（provider:model 去重排序），多节点部署不同模型时与单一全局配置区分开；
+ * 1. 查询条件：按「模型 + 归一化查询文本」缓存 LLM 解析出的 SearchCriteria，近似重复的查询（空格、全半角、常见同义写法不同）共用一条
+ * 2. 总结回答：按「模型 + 条件 + 结果集房源ID及更新时间」缓存，房源变更后自然失效
+ * 命中率通过 cache.gets 等指标导出；每次命中按近期 LLM 实际耗时的滑动平均累计到 ai.llm.cache.saved
+ */
+@Component
+public class LlmResultCache {
+
+    private static final Pattern WHITESPACE_PUNCT = Pattern.compile("[\\s\\p{P}\\p{S}&&[^.]]+");
+    private static final Pattern DIGIT_GROUPING = Pattern.compile("(?<=\\d),(?=\\d{3}(?!\\d))");
+    private static final Pattern THOUSAND = Pattern.compile("(\\d+(?:\\.\\d+)?)\\s*k");
+    private static final Pattern TEN_THOUSAND = Pattern.compile("(\\d+(?:\\.\\d+)?)\\s*万");
+
+    /**
+     * 常见同义写法，归一化为同一形式
+     */
+    private static final String[][] SYNONYMS = {
+            {"两", "二"}, {"居室", "室"}, {"房间", "室"}, {"以下", "以内"}, {"之内", "以内"},
+            {"元", ""}, {"块", ""}, {"每月", ""}, {"/月", ""}, {"月租", "租金"}
+    };
+
+    private final String modelKey;
+    private final Cache<String, SearchCriteria> criteriaCache;
+    private final Cache<String, String> answerCache;
+    private final LatencyTracker criteriaLatency;
+    private final LatencyTracker answerLatency;
+
+    public LlmResultCache(AiConfig aiConfig, LlmRouter router, MeterRegistry meterRegistry) {
+        this.modelKey = router.getEndpoints().stream()
+                .map(endpoint -> endpoint.getConfig().getProvider() + ":" + endpoint.getConfig().getModel())
+                .distinct()
+                .sorted()
+                .collect(Collectors.joining(",")) + "|";
+        AiConfig.Cache config = aiConfig.getCache();
+        this.criteriaCache = Caffeine.newBuilder()
+                .maximumSize(config.getCriteriaMaxSize())
+                .expireAfterWrite(config.getCriteriaTtl())
+                .recordStats()
+                .build();
+        this.answerCache = Caffeine.newBuilder()
+                .maximumSize(config.getAnswerMaxSize())
+                .expireAfterWrite(config.getAnswerTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, criteriaCache, "ai.criteria");
+        CaffeineCacheMetrics.monitor(meterRegistry, answerCache, "ai.answer");
+        this.criteriaLatency = new LatencyTracker(meterRegistry, "ai.criteria");
+        this.answerLatency = new LatencyTracker(meterRegistry, "ai.answer");
+    }
+
+    // ==================== 查询条件 ====================
+
+    public String criteriaKey(String query) {
+        return modelKey + normalizeQuery(query);
+    }
+
+    public SearchCriteria getCriteria(String key) {
+        SearchCriteria cached = criteriaCache.getIfPresent(key);
+        if (cached != null) {
+            criteriaLatency.recordHit();
+        }
+        return cached;
+    }
+
+    /**
+     * 写入解析结果
+     * @param elapsedNanos 本次 LLM 解析实际耗时，用于估算后续命中节省的时间
+     */
+    public void putCriteria(String key, SearchCriteria criteria, long elapsedNanos) {
+        criteriaCache.put(key, criteria);
+        criteriaLatency.recordLoad(elapsedNanos);
+    }
+
+    // ==================== 总结回答 ====================
+
+    public String answerKey(SearchCriteria criteria, List<Property> properties) {
+        String resultSet = properties.stream()
+                .map(p -> p.getId() + "@" + p.getUpdatedAt())
+                .collect(Collectors.joining(","));
+        return modelKey + criteria + "|" + resultSet;
+    }
+
+    public String getAnswer(String key) {
+        String cached = answerCache.getIfPresent(key);
+        if (cached != null) {
+            answerLatency.recordHit();
+        }
+        return cached;
+    }
+
+    public void putAnswer(String key, String answer, long elapsedNanos) {
+        answerCache.put(key, answer);
+        answerLatency.recordLoad(elapsedNanos);
+    }
+
+    /**
+     * 查询文本归一化：NFKC（全角转半角）、小写、统一常见同义写法与金额单位、去除空白与标点
+     * 如 "杭州 两室 5000以内"、"杭州两居室，5k以下" 均归一为 "杭州二室5000以内"；
+     * 两段数字之间的分隔保留为一个 "-"，"3000-5000"、"3000 5000"、"3k~5k" 均归一为 "3000-5000"，不与 "30005000" 混淆
+     */
+    public static String normalizeQuery(String query) {
+        if (query == null) {
+            return "";
+        }
+        String text = Normalizer.normalize(query, Normalizer.Form.NFKC).toLowerCase();
+        for (String[] synonym : SYNONYMS) {
+            text = text.replace(synonym[0], synonym[1]);
+        }
+        text = DIGIT_GROUPING.matcher(text).replaceAll("");
+        text = scale(THOUSAND.matcher(text), 1000);
+        text = scale(TEN_THOUSAND.matcher(text), 10000);
+        return stripSeparators(text);
+    }
+
+    private static String stripSeparators(String text) {
+        Matcher matcher = WHITESPACE_PUNCT.matcher(text);
+        StringBuilder sb = new StringBuilder();
+        while (matcher.find()) {
+            boolean betweenDigits = matcher.start() > 0 && matcher.end() < text.length()
+                    && Character.isDigit(text.charAt(matcher.start() - 1))
+                    && Character.isDigit(text.charAt(matcher.end()));
+            matcher.appendReplacement(sb, betweenDigits ? "-" : "");
+        }
+        matcher.appendTail(sb);
+        return sb.toString();
+    }
+
+    private static String scale(Matcher matcher, int factor) {
+        StringBuilder sb = new StringBuilder();
+        while (matcher.find()) {
+            long value = Math.round(Double.parseDouble(matcher.group(1)) * factor);
+            matcher.appendReplacement(sb, Long.toString(value));
+        }
+        matcher.appendTail(sb);
+        return sb.toString();
+    }
+
+    /**
+     * 记录未命中时 LLM 的耗时（指数滑动平均），命中时按该平均值累计节省时间
+     */
+    private static class LatencyTracker {
+
+        private static final double ALPHA = 0.2;
+
+        private final AtomicLong averageNanos = new AtomicLong();
+        private final Counter saved;
+
+        LatencyTracker(MeterRegistry meterRegistry, String cacheName) {
+            this.saved = Counter.builder("ai.llm.cache.saved")
+                    .description("缓存命中估算节省的 LLM 调用时间")
+                    .baseUnit("seconds")
+                    .tag("cache", cacheName)
+                    .register(meterRegistry);
+        }
+
+        void recordLoad(long elapsedNanos) {
+            averageNanos.updateAndGet(avg -> avg == 0 ? elapsedNanos : (long) (avg + ALPHA * (elapsedNanos - avg)));
+        }
+
+        void recordHit() {
+            saved.increment(averageNanos.get() / 1_000_000_000.0);
+        }
+    }
+}
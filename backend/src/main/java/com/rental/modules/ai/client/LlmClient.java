@@ -0,0 +1,22 @@
+package com.rental.modules.ai.client;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * LLM 调用客户端
+ * 屏蔽 Ollama 与 OpenAI 兼容接口的差异，提供一次性补全与逐 token 流式两种调用方式
+ */
+public interface LlmClient {
+
+    /**
+     * 一次性补全（阻塞直到生成结束）
+     * @param operation 调用场景，用于指标标签，如 chat、suggest、search-parse
+     */
+    String complete(String operation, String prompt);
+
+    /**
+     * 流式补全，按生成顺序逐段发出文本增量
+     * @param operation 调用场景，用于指标标签
+     */
+    Flux<String> stream(String operation, String prompt);
+}
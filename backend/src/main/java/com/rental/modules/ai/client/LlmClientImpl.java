@@ -0,0 +1,326 @@
+package com.rental.modules.ai.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rental.common.http.OutboundHttpClients;
+import com.rental.modules.ai.config.AiConfig;
+import com.rental.modules.ai.prompt.TokenEstimator;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.SynchronousSink;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * LLM 调用客户端实现
+ * 基于连接池化的 WebClient（app.http.clients.llm），经 {@link LlmScheduler} 按优先级排队取得节点名额，
+ * 由 {@link LlmRouter} 在多个节点间选择最空闲的一个：
+ * - 一次性补全：首个请求耗时超过近期延迟分位数后，向另一节点发出对冲请求，取先返回的结果并取消另一个
+ * - 流式调用：Ollama 返回 NDJSON（每行一个 JSON 片段），OpenAI 兼容接口返回 SSE（data: {...}，以 [DONE] 结束），不做对冲
+ */
+@Slf4j
+@Component
+public class LlmClientImpl implements LlmClient {
+
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_TYPE =
+            new ParameterizedTypeReference<>() { };
+
+    private static final String CLIENT_NAME = "llm";
+
+    private final AiConfig aiConfig;
+    private final LlmRouter router;
+    private final LlmScheduler scheduler;
+    private final OutboundHttpClients outboundHttpClients;
+    private final WebClient webClient;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public LlmClientImpl(AiConfig aiConfig, LlmRouter router, LlmScheduler scheduler,
+                         OutboundHttpClients outboundHttpClients, MeterRegistry meterRegistry) {
+        this.aiConfig = aiConfig;
+        this.router = router;
+        this.scheduler = scheduler;
+        this.outboundHttpClients = outboundHttpClients;
+        this.webClient = outboundHttpClients.client(CLIENT_NAME);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public String complete(String operation, String prompt) {
+        recordPromptTokens(operation, prompt);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            // 先排队取得节点名额再进入熔断/舱壁，排队时间不计入下游调用
+            // 熔断/舱壁拒绝时内部请求不会被订阅，由外层兜底归还名额（重复归还无副作用）
+            // 重试在名额之外：每次尝试重新排队取名额，不会在已归还的名额上再发请求
+            return scheduler.acquire(operation)
+                    .flatMap(ticket -> outboundHttpClients.protect(CLIENT_NAME, hedgedComplete(operation, ticket, prompt))
+                            .doFinally(signal -> scheduler.release(ticket)))
+                    .retryWhen(outboundHttpClients.retry(CLIENT_NAME))
+                    .block();
+        } catch (LlmOverloadedException e) {
+            outcome = "rejected";
+            throw e;
+        } catch (RuntimeException e) {
+            outcome = "error";
+            if (OutboundHttpClients.isRejected(e)) {
+                // 熔断打开或并发已满：立即失败，由调用方走本地降级
+                throw new IllegalStateException("LLM 服务熔断或繁忙: " + e.getMessage(), e);
+            }
+            log.error("调用 LLM 失败: operation={}, err={}", operation, e.getMessage());
+            throw new RuntimeException(aiConfig.isOllama()
+                    ? "Ollama 服务调用失败，请确保已安装并启动 Ollama: " + e.getMessage()
+                    : "AI 服务调用失败: " + e.getMessage());
+        } finally {
+            sample.stop(meterRegistry.timer("ai.llm.request", "operation", operation,
+                    "provider", provider(), "outcome", outcome));
+        }
+    }
+
+    @Override
+    public Flux<String> stream(String operation, String prompt) {
+        return Flux.defer(() -> {
+            recordPromptTokens(operation, prompt);
+            return scheduler.acquire(operation).flatMapMany(ticket -> streamOn(operation, ticket, prompt));
+        });
+    }
+
+    private Flux<String> streamOn(String operation, LlmScheduler.Ticket ticket, String prompt) {
+        LlmEndpoint endpoint = ticket.endpoint();
+        long start = System.nanoTime();
+        AtomicBoolean firstToken = new AtomicBoolean(true);
+        Flux<String> tokens = endpoint.getConfig().isOllama()
+                ? streamOllama(endpoint.getConfig(), prompt)
+                : streamOpenAiCompatible(endpoint.getConfig(), prompt);
+        return outboundHttpClients.guard(CLIENT_NAME, tokens)
+                .doOnNext(token -> {
+                    if (firstToken.compareAndSet(true, false)) {
+                        // 首 token 时延：用户实际感知的等待时间
+                        meterRegistry.timer("ai.llm.ttft", "operation", operation, "provider", provider())
+                                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    }
+                })
+                .doOnError(e -> {
+                    endpoint.recordFailure(System.nanoTime() - start);
+                    log.error("LLM 流式调用失败: operation={}, endpoint={}, err={}",
+                            operation, endpoint.getName(), e.getMessage());
+                })
+                .doFinally(signal -> {
+                    scheduler.release(ticket);
+                    meterRegistry.timer("ai.llm.stream.duration", "operation", operation,
+                                    "provider", provider(), "outcome", signal.name().toLowerCase())
+                            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                });
+    }
+
+    /**
+     * 对冲补全：先向最空闲节点发出请求，超过对冲等待时间仍未返回时再向另一节点发出，取先成功的结果
+     * 首个请求失败时对冲请求同样会在等待时间后发出，相当于一次换节点重试；有请求在排队时不发对冲，把名额留给排队者
+     */
+    private Mono<String> hedgedComplete(String operation, LlmScheduler.Ticket ticket, String prompt) {
+        return Mono.defer(() -> {
+            LlmEndpoint primary = ticket.endpoint();
+            Mono<String> first = completeOn(ticket, prompt);
+            if (!router.isHedgingEnabled()) {
+                return first;
+            }
+
+            Duration delay = router.hedgeDelay();
+            Mono<String> hedged = Mono.delay(delay).flatMap(tick -> {
+                LlmScheduler.Ticket backupTicket = scheduler.tryAcquireIdle(operation, List.of(primary));
+                if (backupTicket == null) {
+                    return Mono.<String>empty();
+                }
+                LlmEndpoint backup = backupTicket.endpoint();
+                log.info("LLM 对冲请求: primary={}, backup={}, delay={}ms", primary.getName(), backup.getName(), delay.toMillis());
+                meterRegistry.counter("ai.llm.hedge", "result", "fired").increment();
+                return completeOn(backupTicket, prompt)
+                        .doOnNext(answer -> meterRegistry.counter("ai.llm.hedge", "result", "won").increment());
+            });
+            return Mono.firstWithValue(first, hedged);
+        });
+    }
+
+    /**
+     * 在指定节点上执行一次补全（节点名额已由调度器占用，结束后归还），并记录该节点的延迟
+     */
+    private Mono<String> completeOn(LlmScheduler.Ticket ticket, String prompt) {
+        LlmEndpoint endpoint = ticket.endpoint();
+        AiConfig.Endpoint config = endpoint.getConfig();
+        Mono<String> request = config.isOllama()
+                ? postJson(ollamaChatUrl(config), null, ollamaBody(config, prompt, false)).map(this::parseOllamaResponse)
+                : postJson(config.getUrl(), bearerToken(config), openAiBody(config, prompt, false)).map(this::parseOpenAiResponse);
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return request
+                    .doOnSuccess(answer -> endpoint.recordSuccess(System.nanoTime() - start))
+                    .doOnError(e -> {
+                        endpoint.recordFailure(System.nanoTime() - start);
+                        log.warn("LLM 节点调用失败: endpoint={}, err={}", endpoint.getName(), e.getMessage());
+                    });
+        }).doFinally((SignalType signal) -> scheduler.release(ticket));
+    }
+
+    private Mono<String> postJson(String url, String authorization, Map<String, Object> body) {
+        WebClient.RequestBodySpec spec = webClient.post()
+                .uri(url)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (authorization != null) {
+            spec = spec.header(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        return spec.bodyValue(body)
+                .retrieve()
+                .bodyToMono(String.class);
+    }
+
+    // ==================== Ollama ====================
+
+    private String ollamaChatUrl(AiConfig.Endpoint config) {
+        String url = config.getUrl();
+        if (url == null || url.isEmpty()) {
+            url = "http://localhost:11434";
+        }
+        return url.replaceAll("/$", "") + "/api/chat";
+    }
+
+    private Map<String, Object> ollamaBody(AiConfig.Endpoint config, String prompt, boolean stream) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", config.getModel() != null ? config.getModel() : "qwen3:4b");
+        requestBody.put("messages", List.of(Map.<String, String>of("role", "user", "content", prompt)));
+        requestBody.put("stream", stream);
+        return requestBody;
+    }
+
+    /**
+     * 解析 Ollama（免费本地 LLM）的非流式响应
+     */
+    private String parseOllamaResponse(String response) {
+        JsonNode message = readJson(response).get("message");
+        if (message != null && message.has("content")) {
+            return message.get("content").asText();
+        }
+        return "Ollama 响应解析失败";
+    }
+
+    /**
+     * Ollama 流式接口：每行一个 JSON，message.content 为增量文本，done=true 表示结束
+     */
+    private Flux<String> streamOllama(AiConfig.Endpoint config, String prompt) {
+        return webClient.post()
+                .uri(ollamaChatUrl(config))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(ollamaBody(config, prompt, true))
+                .retrieve()
+                .bodyToFlux(String.class)
+                .handle((String line, SynchronousSink<String> sink) -> {
+                    if (line.isBlank()) {
+                        return;
+                    }
+                    JsonNode node = readJson(line);
+                    if (node.hasNonNull("error")) {
+                        sink.error(new RuntimeException("Ollama 返回错误: " + node.get("error").asText()));
+                        return;
+                    }
+                    String content = node.path("message").path("content").asText("");
+                    if (!content.isEmpty()) {
+                        sink.next(content);
+                    }
+                    if (node.path("done").asBoolean(false)) {
+                        sink.complete();
+                    }
+                });
+    }
+
+    // ==================== OpenAI 兼容 ====================
+
+    private Map<String, Object> openAiBody(AiConfig.Endpoint config, String prompt, boolean stream) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", config.getModel());
+        requestBody.put("messages", new Object[]{Map.of("role", "user", "content", prompt)});
+        requestBody.put("temperature", 0.7);
+        if (stream) {
+            requestBody.put("stream", true);
+        }
+        return requestBody;
+    }
+
+    private String bearerToken(AiConfig.Endpoint config) {
+        return "Bearer " + (config.getApiKey() != null ? config.getApiKey() : "");
+    }
+
+    /**
+     * 解析 OpenAI 兼容 API（DeepSeek/OpenAI 等）的非流式响应
+     */
+    private String parseOpenAiResponse(String response) {
+        JsonNode choices = readJson(response).get("choices");
+        if (choices != null && choices.isArray() && choices.size() > 0) {
+            return choices.get(0).get("message").get("content").asText();
+        }
+        return "AI 响应解析失败";
+    }
+
+    /**
+     * OpenAI 兼容流式接口：SSE，每个事件 data 为 JSON，choices[0].delta.content 为增量文本，data: [DONE] 结束
+     */
+    private Flux<String> streamOpenAiCompatible(AiConfig.Endpoint config, String prompt) {
+        return webClient.post()
+                .uri(config.getUrl())
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header(HttpHeaders.AUTHORIZATION, bearerToken(config))
+                .bodyValue(openAiBody(config, prompt, true))
+                .retrieve()
+                .bodyToFlux(SSE_TYPE)
+                .map(event -> event.data() != null ? event.data().trim() : "")
+                .takeWhile(data -> !"[DONE]".equals(data))
+                .handle((String data, SynchronousSink<String> sink) -> {
+                    if (data.isEmpty()) {
+                        return;
+                    }
+                    String content = readJson(data).path("choices").path(0).path("delta").path("content").asText("");
+                    if (!content.isEmpty()) {
+                        sink.next(content);
+                    }
+                });
+    }
+
+    private JsonNode readJson(String text) {
+        try {
+            return objectMapper.readTree(text);
+        } catch (Exception e) {
+            throw new IllegalStateException("LLM 响应解析失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 记录每次调用的 prompt token 数（估算），与 ai.llm.request / ai.llm.stream.duration 按 operation 对照延迟
+     */
+    private void recordPromptTokens(String operation, String prompt) {
+        DistributionSummary.builder("ai.llm.prompt.tokens")
+                .baseUnit("tokens")
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .record(TokenEstimator.estimate(prompt));
+    }
+
+    private String provider() {
+        return aiConfig.isOllama() ? "ollama" : "openai";
+    }
+}
@@ -0,0 +1,127 @@
+package com.rental.modules.ai.client;
+
+import com.rental.modules.ai.config.AiConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * LLM 节点运行时状态：当前并发数、近期延迟样本、短暂的故障冷却与后台健康探测结果
+ */
+public class LlmEndpoint {
+
+    /**
+     * 延迟样本窗口大小（环形缓冲）
+     */
+    private static final int WINDOW_SIZE = 256;
+
+    /**
+     * 调用失败后暂停分配的时间
+     */
+    private static final long COOL_DOWN_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final AiConfig.Endpoint config;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final long[] latencies = new long[WINDOW_SIZE];
+    private int latencyCount;
+    private int latencyCursor;
+    private volatile long coolDownUntil;
+    private volatile boolean probeHealthy = true;
+
+    private final Timer successTimer;
+    private final Timer errorTimer;
+
+    public LlmEndpoint(AiConfig.Endpoint config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.successTimer = meterRegistry.timer("ai.llm.endpoint.latency", "endpoint", config.getName(), "outcome", "success");
+        this.errorTimer = meterRegistry.timer("ai.llm.endpoint.latency", "endpoint", config.getName(), "outcome", "error");
+        meterRegistry.gauge("ai.llm.endpoint.inflight", Tags.of("endpoint", config.getName()), inFlight);
+    }
+
+    public AiConfig.Endpoint getConfig() {
+        return config;
+    }
+
+    public String getName() {
+        return config.getName();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * 未达到并发上限时占用一个名额
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= config.getMaxConcurrency()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public boolean isCoolingDown() {
+        return System.nanoTime() - coolDownUntil < 0;
+    }
+
+    /**
+     * 后台健康探测结果（BackendHealthMonitor 维护），未探测时视为健康
+     */
+    public boolean isProbeHealthy() {
+        return probeHealthy;
+    }
+
+    public void setProbeHealthy(boolean probeHealthy) {
+        this.probeHealthy = probeHealthy;
+    }
+
+    /**
+     * 可正常分配：未处于故障冷却且后台探测未判定为不可用
+     */
+    public boolean isHealthy() {
+        return probeHealthy && !isCoolingDown();
+    }
+
+    /**
+     * 负载分数：(并发数 + 1) / 权重，越小越空闲
+     */
+    public double loadScore() {
+        return (inFlight.get() + 1.0) / Math.max(1, config.getWeight());
+    }
+
+    public void recordSuccess(long elapsedNanos) {
+        successTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        synchronized (latencies) {
+            latencies[latencyCursor] = elapsedNanos;
+            latencyCursor = (latencyCursor + 1) % WINDOW_SIZE;
+            latencyCount = Math.min(latencyCount + 1, WINDOW_SIZE);
+        }
+    }
+
+    public void recordFailure(long elapsedNanos) {
+        errorTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        coolDownUntil = System.nanoTime() + COOL_DOWN_NANOS;
+    }
+
+    /**
+     * 近期成功调用的延迟样本（副本）
+     */
+    public long[] latencySamples() {
+        synchronized (latencies) {
+            return Arrays.copyOf(latencies, latencyCount);
+        }
+    }
+}
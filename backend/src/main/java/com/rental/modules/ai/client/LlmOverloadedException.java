@@ -0,0 +1,21 @@
+package com.rental.modules.ai.client;
+
+import lombok.Getter;
+
+/**
+ * LLM 调度拒绝：队列已满、排队超过截止时间或低优先级请求在繁忙时被降级
+ * 调用方应走本地兜底逻辑，而不是重试
+ */
+@Getter
+public class LlmOverloadedException extends RuntimeException {
+
+    private final LlmPriority priority;
+
+    private final String reason;
+
+    public LlmOverloadedException(LlmPriority priority, String reason, String message) {
+        super(message);
+        this.priority = priority;
+        this.reason = reason;
+    }
+}
@@ -0,0 +1,14 @@
+package com.rental.modules.ai.client;
+
+/**
+ * LLM 调用优先级，声明顺序即调度顺序（靠前的先获得节点名额）
+ */
+public enum LlmPriority {
+    INTERACTIVE, // 搜索条件解析与搜索总结：用户在页面上等待结果
+    CHAT,        // AI 问答
+    BACKGROUND;  // 咨询回复建议等辅助功能，繁忙时优先降级
+
+    public String tag() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,133 @@
+package com.rental.modules.ai.client;
+
+import com.rental.modules.ai.config.AiConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * LLM 多节点路由
+ * 按 (并发数 + 1) / 权重 选择最空闲的节点，节点达到并发上限、处于故障冷却或后台探测不可用时跳过；
+ * 常规节点全部不可用时才使用溢出节点（如云 API）。同时根据各节点近期延迟给出对冲等待时间
+ */
+@Slf4j
+@Component
+public class LlmRouter {
+
+    private final AiConfig.Hedge hedge;
+    private final List<LlmEndpoint> endpoints;
+
+    public LlmRouter(AiConfig aiConfig, MeterRegistry meterRegistry) {
+        this.hedge = aiConfig.getRouter().getHedge();
+        List<AiConfig.Endpoint> configured = aiConfig.getRouter().getEndpoints();
+        if (configured == null || configured.isEmpty()) {
+            configured = List.of(legacyEndpoint(aiConfig));
+        }
+        List<LlmEndpoint> list = new ArrayList<>();
+        for (int i = 0; i < configured.size(); i++) {
+            AiConfig.Endpoint endpoint = configured.get(i);
+            if (endpoint.getName() == null || endpoint.getName().isEmpty()) {
+                endpoint.setName(endpoint.getProvider() + "-" + i);
+            }
+            if (endpoint.getModel() == null || endpoint.getModel().isEmpty()) {
+                endpoint.setModel(aiConfig.getModel());
+            }
+            list.add(new LlmEndpoint(endpoint, meterRegistry));
+            log.info("LLM 节点: name={}, provider={}, url={}, weight={}, maxConcurrency={}, overflow={}",
+                    endpoint.getName(), endpoint.getProvider(), endpoint.getUrl(),
+                    endpoint.getWeight(), endpoint.getMaxConcurrency(), endpoint.isOverflow());
+        }
+        this.endpoints = List.copyOf(list);
+    }
+
+    public List<LlmEndpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * 选择并占用一个节点
+     * @param exclude 不参与选择的节点（如对冲时的首发节点）
+     * @return 已占用并发名额的节点，全部满载时返回 null；使用完毕须调用 {@link LlmEndpoint#release()}
+     */
+    public LlmEndpoint acquire(Collection<LlmEndpoint> exclude) {
+        // 依次尝试：健康的常规节点 → 健康的溢出节点 → 冷却中或探测不可用的节点
+        LlmEndpoint endpoint = acquireFrom(exclude, false, false);
+        if (endpoint == null) {
+            endpoint = acquireFrom(exclude, true, false);
+        }
+        if (endpoint == null) {
+            endpoint = acquireFrom(exclude, true, true);
+        }
+        return endpoint;
+    }
+
+    /**
+     * 对冲等待时间：所有节点近期成功延迟的指定分位数，样本不足时使用初始值
+     */
+    public Duration hedgeDelay() {
+        long[] samples = endpoints.stream()
+                .map(LlmEndpoint::latencySamples)
+                .flatMapToLong(Arrays::stream)
+                .sorted()
+                .toArray();
+        if (samples.length < hedge.getMinSamples()) {
+            return hedge.getInitialDelay();
+        }
+        int index = (int) Math.min(samples.length - 1, Math.ceil(hedge.getPercentile() * samples.length) - 1);
+        Duration delay = Duration.ofNanos(samples[Math.max(0, index)]);
+        if (delay.compareTo(hedge.getMinDelay()) < 0) {
+            return hedge.getMinDelay();
+        }
+        return delay.compareTo(hedge.getMaxDelay()) > 0 ? hedge.getMaxDelay() : delay;
+    }
+
+    /**
+     * 是否值得发出对冲请求（启用且存在其他节点）
+     */
+    public boolean isHedgingEnabled() {
+        return hedge.isEnabled() && endpoints.size() > 1;
+    }
+
+    private LlmEndpoint acquireFrom(Collection<LlmEndpoint> exclude, boolean includeOverflow, boolean includeUnhealthy) {
+        List<LlmEndpoint> eligible = endpoints.stream()
+                .filter(e -> !exclude.contains(e))
+                .filter(e -> includeOverflow || !e.getConfig().isOverflow())
+                .filter(e -> includeUnhealthy || e.isHealthy())
+                .collect(Collectors.toCollection(ArrayList::new));
+        // 先随机打散再按负载快照稳定排序：同分节点轮流命中；快照避免排序过程中分数变化
+        Collections.shuffle(eligible, ThreadLocalRandom.current());
+        Map<LlmEndpoint, Double> scores = new IdentityHashMap<>();
+        eligible.forEach(e -> scores.put(e, e.loadScore()));
+        List<LlmEndpoint> candidates = eligible.stream()
+                .sorted(Comparator.comparingDouble(scores::get))
+                .toList();
+        for (LlmEndpoint candidate : candidates) {
+            if (candidate.tryAcquire()) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static AiConfig.Endpoint legacyEndpoint(AiConfig aiConfig) {
+        AiConfig.Endpoint endpoint = new AiConfig.Endpoint();
+        endpoint.setName("default");
+        endpoint.setProvider(aiConfig.getProvider());
+        endpoint.setUrl(aiConfig.isOllama() ? aiConfig.getOllamaUrl() : aiConfig.getApiUrl());
+        endpoint.setModel(aiConfig.getModel());
+        endpoint.setApiKey(aiConfig.getApiKey());
+        return endpoint;
+    }
+}
@@ -0,0 +1,269 @@
+package com.rental.modules.ai.client;
+
+import com.rental.modules.ai.config.AiConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * LLM 调用调度器
+ * 所有 LLM 调用先在这里取得节点名额（{@link Ticket}）再发请求：
+ * - 节点并发上限仍由 {@link LlmRouter} 按节点控制，全部满载时请求按优先级排队，名额释放后由高优先级先取
+ * - 每个优先级限制排队长度、排队截止时间与可占用的名额比例，避免回复建议等后台请求占满节点、饿死搜索
+ * - 被拒绝或超时的请求抛出 {@link LlmOverloadedException}，调用方走本地兜底
+ */
+@Slf4j
+@Component
+public class LlmScheduler {
+
+    private final LlmRouter router;
+    private final AiConfig.Scheduler config;
+    private final MeterRegistry meterRegistry;
+    private final int capacity;
+
+    private final Map<LlmPriority, Deque<Waiter>> queues = new EnumMap<>(LlmPriority.class);
+    private final Map<LlmPriority, AtomicInteger> inFlight = new EnumMap<>(LlmPriority.class);
+
+    /**
+     * 已占用的节点名额，使用完毕须调用 {@link #release(Ticket)}；重复归还只生效一次
+     */
+    public static final class Ticket {
+        private final LlmEndpoint endpoint;
+        private final LlmPriority priority;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private Ticket(LlmEndpoint endpoint, LlmPriority priority) {
+            this.endpoint = endpoint;
+            this.priority = priority;
+        }
+
+        public LlmEndpoint endpoint() {
+            return endpoint;
+        }
+
+        public LlmPriority priority() {
+            return priority;
+        }
+    }
+
+    private static final class Waiter {
+        final LlmPriority priority;
+        final MonoSink<Ticket> sink;
+        final long enqueuedAt = System.nanoTime();
+        volatile Disposable timeout;
+
+        Waiter(LlmPriority priority, MonoSink<Ticket> sink) {
+            this.priority = priority;
+            this.sink = sink;
+        }
+    }
+
+    public LlmScheduler(AiConfig aiConfig, LlmRouter router, MeterRegistry meterRegistry) {
+        this.router = router;
+        this.config = aiConfig.getScheduler();
+        this.meterRegistry = meterRegistry;
+        this.capacity = router.getEndpoints().stream()
+                .mapToInt(e -> e.getConfig().getMaxConcurrency())
+                .sum();
+        for (LlmPriority priority : LlmPriority.values()) {
+            queues.put(priority, new ArrayDeque<>());
+            AtomicInteger counter = new AtomicInteger();
+            inFlight.put(priority, counter);
+            Gauge.builder("ai.llm.queue.depth", this, s -> s.queueDepth(priority))
+                    .description("等待 LLM 节点名额的请求数")
+                    .tag("priority", priority.tag())
+                    .register(meterRegistry);
+            Gauge.builder("ai.llm.scheduler.inflight", counter, AtomicInteger::get)
+                    .description("已占用 LLM 节点名额的请求数")
+                    .tag("priority", priority.tag())
+                    .register(meterRegistry);
+        }
+        log.info("LLM 调度器: capacity={}, classes={}", capacity, config.getClasses());
+    }
+
+    public LlmPriority priorityOf(String operation) {
+        LlmPriority priority = config.getOperations().get(operation);
+        return priority != null ? priority : config.getDefaultPriority();
+    }
+
+    public synchronized int queueDepth(LlmPriority priority) {
+        return queues.get(priority).size();
+    }
+
+    /**
+     * 申请节点名额：有空闲且没有同级或更高优先级在排队时立即获得，否则排队等待
+     */
+    public Mono<Ticket> acquire(String operation) {
+        LlmPriority priority = priorityOf(operation);
+        AiConfig.PriorityClass limits = config.limits(priority);
+        return Mono.<Ticket>create(sink -> {
+            Ticket ticket = null;
+            Waiter waiter = null;
+            String rejectReason = null;
+            synchronized (this) {
+                if (!hasQueuedAtOrAbove(priority)) {
+                    ticket = tryGrant(priority, List.of());
+                }
+                if (ticket == null) {
+                    if (limits.isShedWhenBusy() && hasQueuedAbove(priority)) {
+                        rejectReason = "shed";
+                    } else if (queues.get(priority).size() >= limits.getMaxQueue()) {
+                        rejectReason = "queue_full";
+                    } else {
+                        waiter = new Waiter(priority, sink);
+                        queues.get(priority).addLast(waiter);
+                    }
+                }
+            }
+
+            if (ticket != null) {
+                recordWait(priority, 0);
+                sink.success(ticket);
+            } else if (rejectReason != null) {
+                sink.error(reject(priority, rejectReason));
+            } else {
+                Waiter queued = waiter;
+                queued.timeout = Schedulers.parallel().schedule(() -> expire(queued),
+                        limits.getMaxWait().toMillis(), TimeUnit.MILLISECONDS);
+                sink.onCancel(() -> cancel(queued));
+            }
+        }).doOnDiscard(Ticket.class, this::release);
+    }
+
+    /**
+     * 仅在完全空闲（无人排队）时立即占用另一节点的名额，用于对冲请求；不排队，取不到返回 null
+     */
+    public synchronized Ticket tryAcquireIdle(String operation, Collection<LlmEndpoint> exclude) {
+        for (Deque<Waiter> queue : queues.values()) {
+            if (!queue.isEmpty()) {
+                return null;
+            }
+        }
+        return tryGrant(priorityOf(operation), exclude);
+    }
+
+    /**
+     * 归还名额并把空出的名额分配给排队中的请求
+     */
+    public void release(Ticket ticket) {
+        if (!ticket.released.compareAndSet(false, true)) {
+            return;
+        }
+        List<Waiter> granted = new ArrayList<>();
+        List<Ticket> tickets = new ArrayList<>();
+        synchronized (this) {
+            ticket.endpoint().release();
+            inFlight.get(ticket.priority()).decrementAndGet();
+
+            for (LlmPriority priority : LlmPriority.values()) {
+                Deque<Waiter> queue = queues.get(priority);
+                while (!queue.isEmpty()) {
+                    if (inFlight.get(priority).get() >= permits(priority)) {
+                        break; // 该优先级名额比例已满，轮到下一优先级
+                    }
+                    Ticket next = tryGrant(priority, List.of());
+                    if (next == null) {
+                        break;
+                    }
+                    granted.add(queue.pollFirst());
+                    tickets.add(next);
+                }
+            }
+        }
+        // 在锁外通知等待方，避免下游在锁内同步发起请求
+        for (int i = 0; i < granted.size(); i++) {
+            Waiter waiter = granted.get(i);
+            Disposable timeout = waiter.timeout;
+            if (timeout != null) {
+                timeout.dispose();
+            }
+            recordWait(waiter.priority, System.nanoTime() - waiter.enqueuedAt);
+            waiter.sink.success(tickets.get(i));
+        }
+    }
+
+    private Ticket tryGrant(LlmPriority priority, Collection<LlmEndpoint> exclude) {
+        if (inFlight.get(priority).get() >= permits(priority)) {
+            return null;
+        }
+        LlmEndpoint endpoint = router.acquire(exclude);
+        if (endpoint == null) {
+            return null;
+        }
+        inFlight.get(priority).incrementAndGet();
+        return new Ticket(endpoint, priority);
+    }
+
+    private int permits(LlmPriority priority) {
+        return Math.max(1, (int) Math.floor(capacity * config.limits(priority).getMaxShare()));
+    }
+
+    private boolean hasQueuedAtOrAbove(LlmPriority priority) {
+        for (LlmPriority p : LlmPriority.values()) {
+            if (p.ordinal() <= priority.ordinal() && !queues.get(p).isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasQueuedAbove(LlmPriority priority) {
+        for (LlmPriority p : LlmPriority.values()) {
+            if (p.ordinal() < priority.ordinal() && !queues.get(p).isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void expire(Waiter waiter) {
+        boolean removed;
+        synchronized (this) {
+            removed = queues.get(waiter.priority).remove(waiter);
+        }
+        if (removed) {
+            waiter.sink.error(reject(waiter.priority, "deadline"));
+        }
+    }
+
+    private void cancel(Waiter waiter) {
+        Disposable timeout = waiter.timeout;
+        if (timeout != null) {
+            timeout.dispose();
+        }
+        synchronized (this) {
+            queues.get(waiter.priority).remove(waiter);
+        }
+    }
+
+    private LlmOverloadedException reject(LlmPriority priority, String reason) {
+        meterRegistry.counter("ai.llm.scheduler.rejected", "priority", priority.tag(), "reason", reason).increment();
+        String message = switch (reason) {
+            case "deadline" -> "LLM 排队超时";
+            case "shed" -> "LLM 繁忙，低优先级请求已降级";
+            default -> "LLM 排队已满";
+        };
+        log.warn("{}: priority={}", message, priority.tag());
+        return new LlmOverloadedException(priority, reason, message);
+    }
+
+    private void recordWait(LlmPriority priority, long nanos) {
+        meterRegistry.timer("ai.llm.queue.wait", "priority", priority.tag()).record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
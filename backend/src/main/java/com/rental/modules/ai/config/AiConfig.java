@@ -1,10 +1,18 @@
 package com.rental.modules.ai.config;
 
+import com.rental.modules.ai.client.LlmPriority;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import org.springframework.boot.context.properties.ConfigurationProperties;
-import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * AI 服务配置类
@@ -43,6 +51,200 @@ public class AiConfig {
      */
     private boolean enabled = true;
 
+    /**
+     * LLM 结果缓存
+     */
+    private Cache cache = new Cache();
+
+    @Data
+    public static class Cache {
+        /**
+         * 查询条件解析结果缓存条数上限
+         */
+        private long criteriaMaxSize = 10000;
+        private Duration criteriaTtl = Duration.ofHours(6);
+        /**
+         * 搜索总结回答缓存条数上限
+         */
+        private long answerMaxSize = 2000;
+        private Duration answerTtl = Duration.ofMinutes(30);
+    }
+
+    /**
+     * Prompt 长度控制
+     */
+    private Prompt prompt = new Prompt();
+
+    @Data
+    public static class Prompt {
+        /**
+         * 搜索总结 Prompt 中房源表格的 token 预算，超出时按搜索结果顺序从末尾截断
+         */
+        private int answerTokenBudget = 1200;
+        /**
+         * 每套房源简介保留的最大字符数
+         */
+        private int descriptionChars = 40;
+    }
+
+    /**
+     * 多节点路由（负载均衡与对冲请求）
+     */
+    private Router router = new Router();
+
+    @Data
+    public static class Router {
+        /**
+         * LLM 节点列表；为空时使用上面的单节点配置（provider / ollama-url / api / model）
+         */
+        private List<Endpoint> endpoints = new ArrayList<>();
+        private Hedge hedge = new Hedge();
+    }
+
+    @Data
+    public static class Endpoint {
+        private String name;
+        /**
+         * ollama | openai
+         */
+        private String provider = "ollama";
+        /**
+         * ollama 为服务地址（如 http://gpu-1:11434），openai 为完整的 chat/completions 地址
+         */
+        private String url;
+        private String model;
+        private String apiKey;
+        /**
+         * 权重，越大分到的请求越多
+         */
+        private int weight = 1;
+        /**
+         * 该节点最大并发请求数，达到后不再分配
+         */
+        private int maxConcurrency = 8;
+        /**
+         * 溢出节点（如云 API）：仅在常规节点全部满载或不可用时使用
+         */
+        private boolean overflow = false;
+
+        public boolean isOllama() {
+            return "ollama".equalsIgnoreCase(provider);
+        }
+    }
+
+    @Data
+    public static class Hedge {
+        private boolean enabled = true;
+        /**
+         * 首个请求耗时超过近期延迟的该分位数后，向另一节点发出对冲请求
+         */
+        private double percentile = 0.95;
+        /**
+         * 样本不足时使用的对冲等待时间
+         */
+        private Duration initialDelay = Duration.ofSeconds(5);
+        private Duration minDelay = Duration.ofMillis(500);
+        private Duration maxDelay = Duration.ofSeconds(15);
+        private int minSamples = 20;
+    }
+
+    /**
+     * LLM 调用调度：按优先级排队，节点名额由高优先级先取
+     */
+    private Scheduler scheduler = new Scheduler();
+
+    @Data
+    public static class Scheduler {
+        /**
+         * 调用场景（LlmClient 的 operation）到优先级的映射，未列出的场景按 defaultPriority
+         */
+        private Map<String, LlmPriority> operations = new HashMap<>(Map.of(
+                "search-parse", LlmPriority.INTERACTIVE,
+                "search-answer", LlmPriority.INTERACTIVE,
+                "chat", LlmPriority.CHAT,
+                "suggest", LlmPriority.BACKGROUND));
+        private LlmPriority defaultPriority = LlmPriority.CHAT;
+        /**
+         * 各优先级的排队与并发限制
+         */
+        private Map<LlmPriority, PriorityClass> classes = new EnumMap<>(Map.of(
+                LlmPriority.INTERACTIVE, new PriorityClass(200, Duration.ofSeconds(15), 1.0, false),
+                LlmPriority.CHAT, new PriorityClass(100, Duration.ofSeconds(20), 0.8, false),
+                LlmPriority.BACKGROUND, new PriorityClass(20, Duration.ofSeconds(3), 0.5, true)));
+
+        public PriorityClass limits(LlmPriority priority) {
+            PriorityClass limits = classes.get(priority);
+            return limits != null ? limits : new PriorityClass();
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PriorityClass {
+        /**
+         * 最多排队的请求数，超出直接拒绝
+         */
+        private int maxQueue = 100;
+        /**
+         * 排队截止时间，超时未获得节点名额即放弃
+         */
+        private Duration maxWait = Duration.ofSeconds(15);
+        /**
+         * 该优先级最多占用全部节点并发名额的比例，为更高优先级预留余量
+         */
+        private double maxShare = 1.0;
+        /**
+         * 有更高优先级请求在排队时不再排队，直接拒绝（调用方走兜底）
+         */
+        private boolean shedWhenBusy = false;
+    }
+
+    /**
+     * 语义检索：房源向量化与 HNSW 近邻索引
+     */
+    private Embedding embedding = new Embedding();
+
+    @Data
+    public static class Embedding {
+        /**
+         * 向量化方式：hash（本地特征哈希，无外部依赖）| ollama（Ollama embeddings 接口）
+         */
+        private String provider = "hash";
+        /**
+         * Ollama 向量模型，如 nomic-embed-text、bge-m3
+         */
+        private String model = "nomic-embed-text";
+        /**
+         * hash 方式的向量维度；ollama 方式由模型决定
+         */
+        private int dimension = 384;
+        /**
+         * 索引持久化文件，启动时加载后按房源更新时间增量补齐
+         */
+        private String indexPath = "./data/listing-vectors.bin";
+        /**
+         * HNSW 每个节点的邻居数上限（第 0 层为其两倍）
+         */
+        private int m = 16;
+        /**
+         * 建索引时的候选集大小，越大召回越好、构建越慢
+         */
+        private int efConstruction = 200;
+        /**
+         * 查询时的候选集大小
+         */
+        private int efSearch = 100;
+        /**
+         * 结构化条件过滤前的候选倍数（返回条数 × 该值）
+         */
+        private int oversample = 10;
+        /**
+         * 有变更时定期落盘的间隔（毫秒）
+         */
+        private long saveInterval = 60000;
+    }
+
     /**
      * 是否使用 Ollama（本地免费 LLM）
      */
@@ -57,9 +259,4 @@ public class AiConfig {
     public String getApiUrl() {
         return api != null && api.getUrl() != null ? api.getUrl() : "https://api.deepseek.com/v1/chat/completions";
     }
-
-    @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
-    }
 }
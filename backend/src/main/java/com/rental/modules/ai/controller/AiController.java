@@ -9,13 +9,19 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.Map;
 
 /**
  * AI 服务控制器
+ * 流式接口以 SSE 返回：result（搜索结果，仅搜索）→ token（增量文本，data 为 {"content": ...}）→ done；出错时发送 error
  */
 @Slf4j
 @RestController
@@ -74,4 +80,67 @@ public class AiController {
 
         return ResponseEntity.ok(Result.success(suggestion));
     }
+
+    /**
+     * AI 智能搜索（流式）
+     * POST /api/ai/search/stream
+     */
+    @PostMapping(value = "/search/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "AI 智能搜索（流式）", description = "先返回房源结果，再逐段推送 AI 总结")
+    public Flux<ServerSentEvent<Object>> aiSearchStream(@Valid @RequestBody AiSearchRequest request) {
+        log.info("AI 流式搜索请求: query={}", request.getQuery());
+
+        // 条件解析与查库是阻塞调用，放到弹性线程池执行
+        return Mono.fromCallable(() -> aiSearchService.prepareSearch(request))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(prepared -> Flux.concat(
+                        Mono.just(event("result", prepared)),
+                        toTokenEvents(aiSearchService.streamSearchAnswer(request, prepared))))
+                .onErrorResume(this::errorEvent);
+    }
+
+    /**
+     * AI 问答（流式）
+     * POST /api/ai/chat/stream
+     */
+    @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "AI 问答（流式）", description = "逐段推送 AI 回答")
+    public Flux<ServerSentEvent<Object>> aiChatStream(@RequestBody Map<String, String> request) {
+        String question = request.get("question");
+        log.info("AI 流式问答请求: question={}", question);
+
+        return toTokenEvents(aiSearchService.chatStream(question)).onErrorResume(this::errorEvent);
+    }
+
+    /**
+     * 咨询场景下为租客生成回复建议（流式）
+     * POST /api/ai/chat/suggest/stream
+     */
+    @PostMapping(value = "/chat/suggest/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "AI 智能回复建议（流式）", description = "逐段推送回复建议")
+    public Flux<ServerSentEvent<Object>> suggestReplyStream(@RequestBody Map<String, String> request) {
+        log.info("AI 流式回复建议: listing={}", request.get("listingTitle"));
+
+        return toTokenEvents(aiSearchService.suggestReplyStream(
+                request.get("listingTitle"),
+                request.get("listingPrice"),
+                request.get("listingDescription"),
+                request.get("recentMessages")))
+                .onErrorResume(this::errorEvent);
+    }
+
+    private Flux<ServerSentEvent<Object>> toTokenEvents(Flux<String> tokens) {
+        // 增量文本包一层 JSON，避免换行符破坏 SSE 帧格式
+        return tokens.map(token -> event("token", Map.of("content", token)))
+                .concatWith(Mono.just(event("done", Map.of())));
+    }
+
+    private Flux<ServerSentEvent<Object>> errorEvent(Throwable e) {
+        log.error("AI 流式响应中断: {}", e.getMessage());
+        return Flux.just(event("error", Map.of("message", "AI 服务暂时不可用，请稍后重试")));
+    }
+
+    private static ServerSentEvent<Object> event(String name, Object data) {
+        return ServerSentEvent.builder(data).event(name).build();
+    }
 }
@@ -13,4 +13,13 @@ public class AiSearchRequest {
     private String query;  // 用户自然语言输入，如 "浦东2000以内的一室一厅"
 
     private Integer limit;  // 返回结果数量限制，默认 10
+
+    /**
+     * 检索方式：keyword（默认，按解析出的条件筛选）| semantic（向量相似度召回后再按条件过滤）
+     */
+    private String mode;
+
+    public boolean isSemantic() {
+        return "semantic".equalsIgnoreCase(mode);
+    }
 }
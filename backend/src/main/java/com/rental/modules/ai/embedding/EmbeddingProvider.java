@@ -0,0 +1,35 @@
+package com.rental.modules.ai.embedding;
+
+/**
+ * 文本向量化接口
+ * 实现需返回 L2 归一化的向量，索引用点积计算余弦相似度
+ */
+public interface EmbeddingProvider {
+
+    /**
+     * 将文本转换为归一化向量
+     */
+    float[] embed(String text);
+
+    /**
+     * 向量空间标识（方式 + 模型 + 维度）；与已持久化的索引不一致时需要全量重建
+     */
+    String signature();
+
+    /**
+     * 将向量原地归一化为单位长度，零向量保持不变
+     */
+    static float[] normalize(float[] vector) {
+        double sum = 0;
+        for (float v : vector) {
+            sum += v * v;
+        }
+        if (sum > 0) {
+            float norm = (float) Math.sqrt(sum);
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] /= norm;
+            }
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,50 @@
+package com.rental.modules.ai.embedding;
+
+import com.rental.modules.ai.config.AiConfig;
+import com.rental.modules.conversation.search.NgramTokenizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 本地特征哈希向量化（默认方式）
+ * 文本按 NgramTokenizer 切成中文二元组与英文数字词，每个词哈希到固定维度并带随机符号累加，
+ * 不依赖外部模型，语义能力有限但能覆盖近义表述中的共同字词；需要更好效果时切换为 ollama
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.ai.embedding", name = "provider", havingValue = "hash", matchIfMissing = true)
+public class HashingEmbeddingProvider implements EmbeddingProvider {
+
+    private final int dimension;
+
+    public HashingEmbeddingProvider(AiConfig aiConfig) {
+        this.dimension = aiConfig.getEmbedding().getDimension();
+    }
+
+    @Override
+    public float[] embed(String text) {
+        float[] vector = new float[dimension];
+        for (String token : NgramTokenizer.tokenize(text)) {
+            long hash = fnv1a64(token);
+            int index = (int) Math.floorMod(hash, (long) dimension);
+            // 用哈希的高位决定符号，使不同词的碰撞在期望上相互抵消
+            vector[index] += (hash >>> 63) == 0 ? 1f : -1f;
+        }
+        return EmbeddingProvider.normalize(vector);
+    }
+
+    @Override
+    public String signature() {
+        return "hash-fnv1a-" + dimension;
+    }
+
+    private static long fnv1a64(String token) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : token.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,61 @@
+package com.rental.modules.ai.embedding;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.rental.common.http.OutboundHttpClients;
+import com.rental.modules.ai.config.AiConfig;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.Map;
+
+/**
+ * Ollama 向量化：调用 {ollama-url}/api/embeddings
+ * 与 LLM 共用 llm 连接池、熔断与舱壁，Ollama 不可用时向量化失败，语义检索降级为关键词检索
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.ai.embedding", name = "provider", havingValue = "ollama")
+public class OllamaEmbeddingProvider implements EmbeddingProvider {
+
+    private static final String CLIENT_NAME = "llm";
+
+    private final AiConfig aiConfig;
+    private final OutboundHttpClients outboundHttpClients;
+    private final WebClient webClient;
+
+    public OllamaEmbeddingProvider(AiConfig aiConfig, OutboundHttpClients outboundHttpClients) {
+        this.aiConfig = aiConfig;
+        this.outboundHttpClients = outboundHttpClients;
+        this.webClient = outboundHttpClients.client(CLIENT_NAME);
+    }
+
+    @Override
+    public float[] embed(String text) {
+        String url = aiConfig.getOllamaUrl() + "/api/embeddings";
+        Map<String, Object> body = Map.of(
+                "model", aiConfig.getEmbedding().getModel(),
+                "prompt", text == null ? "" : text);
+        JsonNode response = outboundHttpClients.guard(CLIENT_NAME, webClient.post()
+                .uri(url)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .retrieve()
+                .bodyToMono(JsonNode.class)).block();
+
+        JsonNode embedding = response != null ? response.get("embedding") : null;
+        if (embedding == null || !embedding.isArray() || embedding.isEmpty()) {
+            throw new IllegalStateException("Ollama 未返回向量: model=" + aiConfig.getEmbedding().getModel());
+        }
+        float[] vector = new float[embedding.size()];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = (float) embedding.get(i).asDouble();
+        }
+        return EmbeddingProvider.normalize(vector);
+    }
+
+    @Override
+    public String signature() {
+        return "ollama-" + aiConfig.getEmbedding().getModel();
+    }
+}
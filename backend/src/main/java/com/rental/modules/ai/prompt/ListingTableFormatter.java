@@ -0,0 +1,125 @@
+package com.rental.modules.ai.prompt;
+
+import com.rental.modules.property.entity.Property;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 将房源列表序列化为紧凑的表格文本，只保留回答需要的字段
+ * 保持搜索结果的相关度顺序，超出 token 预算时从末尾截断，并在表头注明总数与价格范围，保证总结不受截断影响
+ */
+public final class ListingTableFormatter {
+
+    private static final String HEADER = "编号|标题|城市区域|户型|面积㎡|租金元/月|朝向|装修|简介";
+
+    private ListingTableFormatter() {
+    }
+
+    /**
+     * @param properties 搜索结果
+     * @param tokenBudget 表格部分的 token 预算
+     * @param descriptionChars 每套房源简介保留的最大字符数
+     */
+    public static String format(List<Property> properties, int tokenBudget, int descriptionChars) {
+        if (properties == null || properties.isEmpty()) {
+            return "（无）";
+        }
+
+        StringBuilder rows = new StringBuilder();
+        int used = TokenEstimator.estimate(HEADER);
+        int included = 0;
+        for (Property property : properties) {
+            String row = row(property, descriptionChars);
+            int cost = TokenEstimator.estimate(row) + 1;
+            if (included > 0 && used + cost > tokenBudget) {
+                break;
+            }
+            rows.append(row).append('\n');
+            used += cost;
+            included++;
+        }
+
+        return summary(properties, included) + '\n' + HEADER + '\n' + rows;
+    }
+
+    private static String summary(List<Property> properties, int included) {
+        BigDecimal min = properties.stream().map(Property::getPrice).filter(p -> p != null)
+                .min(BigDecimal::compareTo).orElse(BigDecimal.ZERO);
+        BigDecimal max = properties.stream().map(Property::getPrice).filter(p -> p != null)
+                .max(BigDecimal::compareTo).orElse(BigDecimal.ZERO);
+        String summary = "共 " + properties.size() + " 套，租金 " + plain(min) + "-" + plain(max) + " 元/月";
+        if (included < properties.size()) {
+            summary += "；以下按搜索结果顺序列出前 " + included + " 套";
+        }
+        return summary;
+    }
+
+    private static String row(Property p, int descriptionChars) {
+        return String.join("|",
+                String.valueOf(p.getId()),
+                clean(p.getTitle(), 30),
+                clean(nullToEmpty(p.getCity()) + nullToEmpty(p.getRegion()), 20),
+                layout(p),
+                p.getArea() != null ? plain(p.getArea()) : "",
+                p.getPrice() != null ? plain(p.getPrice()) : "",
+                orientation(p.getOrientation()),
+                decoration(p.getDecoration()),
+                clean(p.getDescription(), descriptionChars));
+    }
+
+    private static String layout(Property p) {
+        StringBuilder sb = new StringBuilder();
+        if (p.getBedrooms() != null) {
+            sb.append(p.getBedrooms()).append('室');
+        }
+        if (p.getBathrooms() != null) {
+            double bathrooms = p.getBathrooms();
+            sb.append(bathrooms == Math.floor(bathrooms) ? String.valueOf((int) bathrooms) : String.valueOf(bathrooms)).append('卫');
+        }
+        return sb.toString();
+    }
+
+    private static String orientation(Property.Orientation orientation) {
+        if (orientation == null) {
+            return "";
+        }
+        return switch (orientation) {
+            case east -> "东";
+            case south -> "南";
+            case west -> "西";
+            case north -> "北";
+        };
+    }
+
+    private static String decoration(Property.Decoration decoration) {
+        if (decoration == null) {
+            return "";
+        }
+        return switch (decoration) {
+            case rough -> "毛坯";
+            case simple -> "简装";
+            case fine -> "精装";
+            case luxury -> "豪华";
+        };
+    }
+
+    /**
+     * 去掉换行与分隔符并截断，保证一行一套房源
+     */
+    private static String clean(String text, int maxChars) {
+        if (text == null || maxChars <= 0) {
+            return "";
+        }
+        String cleaned = text.replaceAll("[\\r\\n|]+", " ").trim();
+        return cleaned.length() > maxChars ? cleaned.substring(0, maxChars) + "…" : cleaned;
+    }
+
+    private static String plain(BigDecimal value) {
+        return value.stripTrailingZeros().toPlainString();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
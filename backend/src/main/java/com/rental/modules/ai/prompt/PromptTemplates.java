@@ -47,16 +47,18 @@ public class PromptTemplates {
 
     /**
      * 构建回答 Prompt
-     * 根据搜索结果生成 AI 总结回答
+     * 根据搜索结果生成 AI 总结回答；搜索结果以紧凑表格给出，受 token 预算限制
+     * @param tokenBudget 搜索结果表格的 token 预算
+     * @param descriptionChars 每套房源简介保留的最大字符数
      */
-    public static String buildAnswerPrompt(String userQuery, List<Property> properties) {
+    public static String buildAnswerPrompt(String userQuery, List<Property> properties, int tokenBudget, int descriptionChars) {
         return """
             你是一个房屋租赁顾问。请根据用户的查询条件和搜索结果，给出友好的回答。
 
             用户查询: %s
 
-            搜索结果: %s
-
+            搜索结果（表格，字段以 | 分隔）:
+            %s
             请用友好的语气总结搜索结果，包括：
             1. 一共找到多少套符合条件的房源
             2. 价格范围是多少
@@ -64,7 +66,7 @@ public class PromptTemplates {
             4. 给出一些租房建议
 
             如果没有找到房源，请友好地说明，并建议用户放宽条件。
-            """.formatted(userQuery, properties.toString());
+            """.formatted(userQuery, ListingTableFormatter.format(properties, tokenBudget, descriptionChars));
     }
 
     /**
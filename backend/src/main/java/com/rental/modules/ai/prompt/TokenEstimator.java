@@ -0,0 +1,29 @@
+package com.rental.modules.ai.prompt;
+
+/**
+ * Prompt token 数估算
+ * 不依赖具体模型的分词器：中日韩字符按 1 token/字，其余字符按约 4 字符/token 估算，
+ * 对 Qwen、Gemma、DeepSeek 等模型的中文 prompt 误差在可接受范围内
+ */
+public final class TokenEstimator {
+
+    private TokenEstimator() {
+    }
+
+    public static int estimate(CharSequence text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int cjk = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isIdeographic(c) || (c >= '\u3000' && c <= '\u30ff') || (c >= '\uff00' && c <= '\uffef')) {
+                cjk++;
+            } else {
+                other++;
+            }
+        }
+        return cjk + (other + 3) / 4;
+    }
+}
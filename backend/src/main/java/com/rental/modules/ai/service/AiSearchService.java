@@ -2,6 +2,7 @@ package com.rental.modules.ai.service;
 
 import com.rental.modules.ai.dto.AiSearchRequest;
 import com.rental.modules.ai.dto.AiSearchResponse;
+import reactor.core.publisher.Flux;
 
 /**
  * AI 搜索服务接口
@@ -31,4 +32,26 @@ public interface AiSearchService {
      * @return 建议回复文案
      */
     String suggestReplyForConsultation(String listingTitle, String listingPrice, String listingDescription, String recentMessages);
+
+    /**
+     * AI 问答（流式），逐段返回生成内容
+     * @param question 用户问题
+     */
+    Flux<String> chatStream(String question);
+
+    /**
+     * 咨询回复建议（流式），参数同 {@link #suggestReplyForConsultation}
+     */
+    Flux<String> suggestReplyStream(String listingTitle, String listingPrice, String listingDescription, String recentMessages);
+
+    /**
+     * 流式搜索第一阶段：解析条件并查询房源（阻塞）
+     * 需要 LLM 生成总结时 aiAnswer 为 null，由 {@link #streamSearchAnswer} 补全
+     */
+    AiSearchResponse prepareSearch(AiSearchRequest request);
+
+    /**
+     * 流式搜索第二阶段：基于已查到的房源逐段生成总结回答
+     */
+    Flux<String> streamSearchAnswer(AiSearchRequest request, AiSearchResponse prepared);
 }
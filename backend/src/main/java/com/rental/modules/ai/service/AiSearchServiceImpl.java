@@ -2,20 +2,25 @@ package com.rental.modules.ai.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rental.common.util.SingleFlight;
+import com.rental.modules.ai.cache.LlmResultCache;
+import com.rental.modules.ai.client.LlmClient;
 import com.rental.modules.ai.config.AiConfig;
 import com.rental.modules.ai.dto.*;
 import com.rental.modules.ai.prompt.PromptTemplates;
+import com.rental.modules.ai.vector.HnswIndex;
+import com.rental.modules.ai.vector.ListingVectorIndex;
 import com.rental.modules.property.entity.Property;
 import com.rental.modules.property.service.PropertyService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Flux;
 
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * AI 搜索服务实现
@@ -26,19 +31,21 @@ import java.util.*;
 public class AiSearchServiceImpl implements AiSearchService {
 
     private final PropertyService propertyService;
-    private final RestTemplate restTemplate;
+    private final LlmClient llmClient;
+    private final LlmResultCache llmResultCache;
+    private final ListingVectorIndex listingVectorIndex;
     private final AiConfig aiConfig;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    // 相同缓存 key 的并发未命中请求共享一次 LLM 调用
+    private final SingleFlight<String, SearchCriteria> criteriaFlight = new SingleFlight<>();
+    private final SingleFlight<String, String> answerFlight = new SingleFlight<>();
+
     @Override
     public AiSearchResponse search(AiSearchRequest request) {
-        log.info("AI 搜索请求: query={}", request.getQuery());
-
-        // 判断是否使用 LLM：Ollama（本地免费）或 OpenAI/DeepSeek（需 API Key）
-        boolean useLlm = aiConfig.isEnabled()
-                && (aiConfig.isOllama() || (aiConfig.getApiKey() != null && !aiConfig.getApiKey().isEmpty()));
+        log.info("AI 搜索请求: query={}, mode={}", request.getQuery(), request.getMode());
 
-        if (!useLlm) {
+        if (!isLlmAvailable()) {
             log.info("未启用 LLM，使用本地解析");
             return searchWithLocalParser(request);
         }
@@ -48,8 +55,8 @@ public class AiSearchServiceImpl implements AiSearchService {
             SearchCriteria criteria = parseQueryToCriteria(request.getQuery());
             log.info("AI 解析条件: {}", criteria);
 
-            // Step 2: 调用 PropertyService 查询房源
-            List<Property> properties = searchProperties(criteria, request.getLimit());
+            // Step 2: 按条件（或向量相似度 + 条件）查询房源
+            List<Property> properties = findProperties(request, criteria);
 
             // Step 3: 调用 LLM 生成总结回答
             String aiAnswer = generateAiAnswer(request.getQuery(), properties, criteria);
@@ -70,15 +77,13 @@ public class AiSearchServiceImpl implements AiSearchService {
 
     @Override
     public String chat(String question) {
-        boolean useLlm = aiConfig.isEnabled()
-                && (aiConfig.isOllama() || (aiConfig.getApiKey() != null && !aiConfig.getApiKey().isEmpty()));
-        if (!useLlm) {
+        if (!isLlmAvailable()) {
             return "AI 问答功能暂时不可用，请配置 Ollama（本地）或 AI API Key 后使用。";
         }
 
         try {
             String prompt = PromptTemplates.buildChatPrompt(question);
-            return callLlm(prompt);
+            return llmClient.complete("chat", prompt);
         } catch (Exception e) {
             log.error("AI 问答失败: {}", e.getMessage());
             return "抱歉，处理您的问题时出现错误，请稍后重试。";
@@ -87,25 +92,104 @@ public class AiSearchServiceImpl implements AiSearchService {
 
     @Override
     public String suggestReplyForConsultation(String listingTitle, String listingPrice, String listingDescription, String recentMessages) {
-        boolean useLlm = aiConfig.isEnabled()
-                && (aiConfig.isOllama() || (aiConfig.getApiKey() != null && !aiConfig.getApiKey().isEmpty()));
-        if (!useLlm) {
+        if (!isLlmAvailable()) {
             return "请问方便什么时候看房？以及付款方式如何？";
         }
         try {
             String prompt = PromptTemplates.buildConsultationReplyPrompt(listingTitle, listingPrice, listingDescription, recentMessages);
-            return callLlm(prompt);
+            return llmClient.complete("suggest", prompt);
         } catch (Exception e) {
             log.error("AI 回复建议失败: {}", e.getMessage());
             return "请问方便约个时间看房吗？";
         }
     }
 
+    @Override
+    public Flux<String> chatStream(String question) {
+        if (!isLlmAvailable()) {
+            return Flux.just("AI 问答功能暂时不可用，请配置 Ollama（本地）或 AI API Key 后使用。");
+        }
+        String prompt = PromptTemplates.buildChatPrompt(question);
+        return withFallback(llmClient.stream("chat", prompt), "抱歉，处理您的问题时出现错误，请稍后重试。");
+    }
+
+    @Override
+    public Flux<String> suggestReplyStream(String listingTitle, String listingPrice, String listingDescription, String recentMessages) {
+        if (!isLlmAvailable()) {
+            return Flux.just("请问方便什么时候看房？以及付款方式如何？");
+        }
+        String prompt = PromptTemplates.buildConsultationReplyPrompt(listingTitle, listingPrice, listingDescription, recentMessages);
+        return withFallback(llmClient.stream("suggest", prompt), "请问方便约个时间看房吗？");
+    }
+
+    @Override
+    public AiSearchResponse prepareSearch(AiSearchRequest request) {
+        if (!isLlmAvailable()) {
+            return searchWithLocalParser(request);
+        }
+        try {
+            SearchCriteria criteria = parseQueryToCriteria(request.getQuery());
+            List<Property> properties = findProperties(request, criteria);
+            return AiSearchResponse.builder()
+                    // 有结果时总结回答交给 streamSearchAnswer 逐段生成
+                    .aiAnswer(properties.isEmpty() ? generateLocalAnswer(request.getQuery(), properties, criteria) : null)
+                    .properties(properties)
+                    .criteria(criteria)
+                    .totalFound(properties.size())
+                    .build();
+        } catch (Exception e) {
+            log.error("AI 搜索条件解析失败，使用本地解析: {}", e.getMessage());
+            return searchWithLocalParser(request);
+        }
+    }
+
+    @Override
+    public Flux<String> streamSearchAnswer(AiSearchRequest request, AiSearchResponse prepared) {
+        if (prepared.getAiAnswer() != null) {
+            return Flux.just(prepared.getAiAnswer());
+        }
+        String cacheKey = llmResultCache.answerKey(prepared.getCriteria(), prepared.getProperties());
+        String cached = llmResultCache.getAnswer(cacheKey);
+        if (cached != null) {
+            return Flux.just(cached);
+        }
+        String prompt = buildAnswerPrompt(request.getQuery(), prepared.getProperties());
+        Flux<String> tokens = Flux.defer(() -> {
+            long start = System.nanoTime();
+            StringBuilder answer = new StringBuilder();
+            // 完整生成后才写入缓存，中途失败的半截回答不缓存
+            return llmClient.stream("search-answer", prompt)
+                    .doOnNext(answer::append)
+                    .doOnComplete(() -> llmResultCache.putAnswer(cacheKey, answer.toString(), System.nanoTime() - start));
+        });
+        return withFallback(tokens,
+                generateLocalAnswer(request.getQuery(), prepared.getProperties(), prepared.getCriteria()));
+    }
+
     /**
      * 使用本地正则解析（当未配置 LLM API 时使用）
      */
     private AiSearchResponse searchWithLocalParser(AiSearchRequest request) {
-        String q = request.getQuery();
+        SearchCriteria criteria = parseLocalCriteria(request.getQuery());
+
+        // 查询房源
+        List<Property> properties = findProperties(request, criteria);
+
+        // 生成简单的 AI 回答
+        String aiAnswer = generateLocalAnswer(request.getQuery(), properties, criteria);
+
+        return AiSearchResponse.builder()
+                .aiAnswer(aiAnswer)
+                .properties(properties)
+                .criteria(criteria)
+                .totalFound(properties.size())
+                .build();
+    }
+
+    /**
+     * 本地正则解析城市、卧室数与价格上限
+     */
+    private SearchCriteria parseLocalCriteria(String q) {
 
         // 本地解析城市
         List<String> knownCities = Arrays.asList("Kolkata", "Mumbai", "Bangalore", "Delhi", "Chennai", "Hyderabad");
@@ -162,24 +246,11 @@ public class AiSearchServiceImpl implements AiSearchService {
         }
 
         // 构建搜索条件
-        SearchCriteria criteria = SearchCriteria.builder()
+        return SearchCriteria.builder()
                 .city(city)
                 .bedrooms(bedrooms)
                 .maxPrice(maxPrice)
                 .build();
-
-        // 查询房源
-        List<Property> properties = searchProperties(criteria, request.getLimit());
-
-        // 生成简单的 AI 回答
-        String aiAnswer = generateLocalAnswer(request.getQuery(), properties, criteria);
-
-        return AiSearchResponse.builder()
-                .aiAnswer(aiAnswer)
-                .properties(properties)
-                .criteria(criteria)
-                .totalFound(properties.size())
-                .build();
     }
 
     /**
@@ -222,13 +293,28 @@ public class AiSearchServiceImpl implements AiSearchService {
      * 调用 LLM API 解析查询条件
      */
     private SearchCriteria parseQueryToCriteria(String query) {
-        String prompt = PromptTemplates.buildParsePrompt(query);
-        String llmResponse = callLlm(prompt);
-        return parseLlmResponseToCriteria(llmResponse);
+        String cacheKey = llmResultCache.criteriaKey(query);
+        SearchCriteria cached = llmResultCache.getCriteria(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        return criteriaFlight.execute(cacheKey, () -> {
+            long start = System.nanoTime();
+            String prompt = PromptTemplates.buildParsePrompt(query);
+            String llmResponse = llmClient.complete("search-parse", prompt);
+            SearchCriteria criteria = parseLlmResponseToCriteria(llmResponse);
+            if (criteria == null) {
+                // 解析失败时返回空条件，且不缓存
+                return new SearchCriteria();
+            }
+            llmResultCache.putCriteria(cacheKey, criteria, System.nanoTime() - start);
+            return criteria;
+        });
     }
 
     /**
-     * 解析 LLM 返回的 JSON 为 SearchCriteria
+     * 解析 LLM 返回的 JSON 为 SearchCriteria，无法解析时返回 null
      */
     private SearchCriteria parseLlmResponseToCriteria(String jsonResponse) {
         try {
@@ -261,8 +347,7 @@ public class AiSearchServiceImpl implements AiSearchService {
             return criteria;
         } catch (Exception e) {
             log.error("解析 LLM 响应失败: {}", e.getMessage());
-            // 解析失败时返回空条件
-            return new SearchCriteria();
+            return null;
         }
     }
 
@@ -274,85 +359,75 @@ public class AiSearchServiceImpl implements AiSearchService {
             return "抱歉，没有找到符合条件的房源。建议您放宽搜索条件，例如调整价格范围或选择其他城市。";
         }
 
-        String prompt = PromptTemplates.buildAnswerPrompt(query, properties);
-        return callLlm(prompt);
+        String cacheKey = llmResultCache.answerKey(criteria, properties);
+        String cached = llmResultCache.getAnswer(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        return answerFlight.execute(cacheKey, () -> {
+            long start = System.nanoTime();
+            String prompt = buildAnswerPrompt(query, properties);
+            String answer = llmClient.complete("search-answer", prompt);
+            llmResultCache.putAnswer(cacheKey, answer, System.nanoTime() - start);
+            return answer;
+        });
     }
 
     /**
-     * 调用 LLM API（根据 provider 分发到 Ollama 或 OpenAI）
+     * 按请求的检索方式查询房源；语义索引尚未就绪或无结果时回退为条件检索
      */
-    private String callLlm(String prompt) {
-        if (aiConfig.isOllama()) {
-            return callOllama(prompt);
+    private List<Property> findProperties(AiSearchRequest request, SearchCriteria criteria) {
+        if (request.isSemantic() && listingVectorIndex.isReady()) {
+            try {
+                List<Property> properties = semanticSearch(request.getQuery(), criteria, request.getLimit());
+                if (!properties.isEmpty()) {
+                    return properties;
+                }
+            } catch (Exception e) {
+                log.warn("语义检索失败，改用条件检索: {}", e.getMessage());
+            }
         }
-        return callOpenAiCompatible(prompt);
+        return searchProperties(criteria, request.getLimit());
     }
 
     /**
-     * 调用 Ollama 本地 LLM（免费）
+     * 语义检索：先从向量索引召回 limit × oversample 个最相似的房源，再按解析出的结构化条件过滤，保持相似度顺序
      */
-    private String callOllama(String prompt) {
-        String url = aiConfig.getOllamaUrl();
-        if (url == null || url.isEmpty()) {
-            url = "http://localhost:11434";
+    private List<Property> semanticSearch(String query, SearchCriteria criteria, Integer limit) {
+        int pageSize = limit != null ? limit : 10;
+        List<HnswIndex.Result> hits = listingVectorIndex.search(query,
+                pageSize * Math.max(1, aiConfig.getEmbedding().getOversample()));
+        if (hits.isEmpty()) {
+            return List.of();
         }
-        url = url.replaceAll("/$", "") + "/api/chat";
-
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("model", aiConfig.getModel() != null ? aiConfig.getModel() : "qwen3:4b");
-        requestBody.put("messages", List.of(Map.<String, String>of("role", "user", "content", prompt)));
-        requestBody.put("stream", false);
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
-
-        try {
-            ResponseEntity<String> response = restTemplate.postForEntity(url, request, String.class);
-            JsonNode root = objectMapper.readTree(response.getBody());
-            JsonNode message = root.get("message");
-            if (message != null && message.has("content")) {
-                return message.get("content").asText();
+        Map<Long, Property> byId = new HashMap<>();
+        for (Property p : propertyService.findByIds(hits.stream().map(HnswIndex.Result::id).toList())) {
+            byId.put(p.getId(), p);
+        }
+        List<Property> properties = new ArrayList<>(pageSize);
+        for (HnswIndex.Result hit : hits) {
+            Property p = byId.get(hit.id());
+            if (p != null && matches(p, criteria)) {
+                properties.add(p);
+                if (properties.size() == pageSize) {
+                    break;
+                }
             }
-            return "Ollama 响应解析失败";
-        } catch (Exception e) {
-            log.error("调用 Ollama 失败: {}", e.getMessage());
-            throw new RuntimeException("Ollama 服务调用失败，请确保已安装并启动 Ollama: " + e.getMessage());
         }
+        return properties;
     }
 
     /**
-     * 调用 OpenAI 兼容 API（DeepSeek/OpenAI 等）
+     * 与 findByFilters 相同的筛选语义（仅上架房源）
      */
-    private String callOpenAiCompatible(String prompt) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.set("Authorization", "Bearer " + (aiConfig.getApiKey() != null ? aiConfig.getApiKey() : ""));
-
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("model", aiConfig.getModel());
-        requestBody.put("messages", new Object[]{Map.of("role", "user", "content", prompt)});
-        requestBody.put("temperature", 0.7);
-
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
-
-        try {
-            ResponseEntity<String> response = restTemplate.postForEntity(
-                    aiConfig.getApiUrl(),
-                    request,
-                    String.class
-            );
-
-            JsonNode root = objectMapper.readTree(response.getBody());
-            JsonNode choices = root.get("choices");
-            if (choices != null && choices.isArray() && choices.size() > 0) {
-                return choices.get(0).get("message").get("content").asText();
-            }
-            return "AI 响应解析失败";
-        } catch (Exception e) {
-            log.error("调用 LLM API 失败: {}", e.getMessage());
-            throw new RuntimeException("AI 服务调用失败: " + e.getMessage());
-        }
+    private boolean matches(Property p, SearchCriteria criteria) {
+        return p.getStatus() == Property.PropertyStatus.available
+                && (criteria.getCity() == null || criteria.getCity().equals(p.getCity()))
+                && (criteria.getRegion() == null || criteria.getRegion().equals(p.getRegion()))
+                && (criteria.getMinPrice() == null || (p.getPrice() != null && p.getPrice().compareTo(criteria.getMinPrice()) >= 0))
+                && (criteria.getMaxPrice() == null || (p.getPrice() != null && p.getPrice().compareTo(criteria.getMaxPrice()) <= 0))
+                && (criteria.getBedrooms() == null || criteria.getBedrooms().equals(p.getBedrooms()));
     }
 
     /**
@@ -374,4 +449,30 @@ public class AiSearchServiceImpl implements AiSearchService {
 
         return result.getContent();
     }
+
+    private String buildAnswerPrompt(String query, List<Property> properties) {
+        AiConfig.Prompt promptConfig = aiConfig.getPrompt();
+        return PromptTemplates.buildAnswerPrompt(query, properties,
+                promptConfig.getAnswerTokenBudget(), promptConfig.getDescriptionChars());
+    }
+
+    /**
+     * 判断是否使用 LLM：Ollama（本地免费）或 OpenAI/DeepSeek（需 API Key）
+     */
+    private boolean isLlmAvailable() {
+        return aiConfig.isEnabled()
+                && (aiConfig.isOllama() || (aiConfig.getApiKey() != null && !aiConfig.getApiKey().isEmpty()));
+    }
+
+    /**
+     * 流式输出的降级：尚未输出任何内容时改为返回兜底文案；已输出部分内容则把错误交给调用方
+     */
+    private Flux<String> withFallback(Flux<String> tokens, String fallback) {
+        return Flux.defer(() -> {
+            AtomicBoolean emitted = new AtomicBoolean(false);
+            return tokens
+                    .doOnNext(t -> emitted.set(true))
+                    .onErrorResume(e -> emitted.get() ? Flux.error(e) : Flux.just(fallback));
+        });
+    }
 }
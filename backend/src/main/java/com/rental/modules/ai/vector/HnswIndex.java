@@ -0,0 +1,460 @@
+package com.rental.modules.ai.vector;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * HNSW（Hierarchical Navigable Small World）近似最近邻索引
+ * 向量需预先 L2 归一化，距离取 1 - 点积（余弦距离）。
+ * 更新为「标记旧节点删除 + 插入新节点」：已删除节点仍参与图上导航，但不出现在结果里，
+ * 删除比例过高时由调用方通过 {@link #compact()} 重建。查询持读锁可并发，写入持写锁串行。
+ */
+public class HnswIndex {
+
+    private static final int MAGIC = 0x484E5357; // "HNSW"
+    private static final int FORMAT_VERSION = 1;
+
+    private final int dimension;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final Random random = new Random(42);
+
+    private final List<Node> nodes = new ArrayList<>();
+    private final Map<Long, Integer> idToNode = new HashMap<>();
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+    private int deletedCount;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public HnswIndex(int dimension, int m, int efConstruction) {
+        if (dimension <= 0 || m < 2 || efConstruction < 1) {
+            throw new IllegalArgumentException("HNSW 参数非法: dimension=" + dimension + ", m=" + m
+                    + ", efConstruction=" + efConstruction);
+        }
+        this.dimension = dimension;
+        this.m = m;
+        this.maxM0 = m * 2;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+    }
+
+    /**
+     * 查询结果：外部 ID 与余弦相似度
+     */
+    public record Result(long id, float score) {
+    }
+
+    private static final class Node {
+        final long id;
+        final float[] vector;
+        final int[][] links;
+        final int[] linkCounts;
+        boolean deleted;
+
+        Node(long id, float[] vector, int level, int m, int maxM0) {
+            this.id = id;
+            this.vector = vector;
+            this.links = new int[level + 1][];
+            this.linkCounts = new int[level + 1];
+            for (int l = 0; l <= level; l++) {
+                links[l] = new int[l == 0 ? maxM0 : m];
+            }
+        }
+
+        int level() {
+            return links.length - 1;
+        }
+    }
+
+    private record Candidate(int node, float distance) {
+    }
+
+    private static final Comparator<Candidate> NEAREST_FIRST = Comparator.comparingDouble(Candidate::distance);
+    private static final Comparator<Candidate> FARTHEST_FIRST = NEAREST_FIRST.reversed();
+
+    /**
+     * 插入或更新向量（同一 ID 已存在时旧节点标记删除）
+     */
+    public void add(long id, float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("向量维度不匹配: expected=" + dimension + ", actual=" + vector.length);
+        }
+        lock.writeLock().lock();
+        try {
+            Integer existing = idToNode.get(id);
+            if (existing != null) {
+                markDeleted(existing);
+            }
+            int level = randomLevel();
+            int index = nodes.size();
+            Node node = new Node(id, vector.clone(), level, m, maxM0);
+            nodes.add(node);
+            idToNode.put(id, index);
+
+            if (entryPoint < 0) {
+                entryPoint = index;
+                maxLevel = level;
+                return;
+            }
+
+            int ep = entryPoint;
+            for (int l = maxLevel; l > level; l--) {
+                ep = greedyClosest(node.vector, ep, l);
+            }
+            for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+                List<Candidate> found = sortedNearestFirst(searchLayer(node.vector, ep, efConstruction, l));
+                List<Candidate> selected = selectNeighbors(found, l == 0 ? maxM0 : m);
+                for (Candidate c : selected) {
+                    node.links[l][node.linkCounts[l]++] = c.node();
+                    connect(c.node(), index, l);
+                }
+                ep = found.get(0).node();
+            }
+            if (level > maxLevel) {
+                maxLevel = level;
+                entryPoint = index;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除向量，返回是否存在
+     */
+    public boolean remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Integer index = idToNode.get(id);
+            if (index == null) {
+                return false;
+            }
+            markDeleted(index);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(long id) {
+        lock.readLock().lock();
+        try {
+            return idToNode.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 查询与 query 最相似的 k 个向量，按相似度降序
+     *
+     * @param ef 搜索候选集大小，不小于 k；越大召回越高、耗时越长
+     */
+    public List<Result> search(float[] query, int k, int ef) {
+        if (query.length != dimension) {
+            throw new IllegalArgumentException("向量维度不匹配: expected=" + dimension + ", actual=" + query.length);
+        }
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0 || k <= 0) {
+                return List.of();
+            }
+            int ep = entryPoint;
+            for (int l = maxLevel; l > 0; l--) {
+                ep = greedyClosest(query, ep, l);
+            }
+            // 已删除节点会占用候选位置，按删除数量放大候选集
+            int candidates = Math.max(ef, k) + Math.min(deletedCount, Math.max(ef, k));
+            List<Result> results = new ArrayList<>(k);
+            for (Candidate c : sortedNearestFirst(searchLayer(query, ep, candidates, 0))) {
+                Node node = nodes.get(c.node());
+                if (!node.deleted) {
+                    results.add(new Result(node.id, 1 - c.distance()));
+                    if (results.size() == k) {
+                        break;
+                    }
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 有效向量数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return idToNode.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * 已删除节点占图中节点的比例
+     */
+    public double deletedRatio() {
+        lock.readLock().lock();
+        try {
+            return nodes.isEmpty() ? 0 : (double) deletedCount / nodes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 仅用有效节点重建一个新索引（不修改当前索引）
+     */
+    public HnswIndex compact() {
+        lock.readLock().lock();
+        try {
+            HnswIndex compacted = new HnswIndex(dimension, m, efConstruction);
+            for (Node node : nodes) {
+                if (!node.deleted) {
+                    compacted.add(node.id, node.vector);
+                }
+            }
+            return compacted;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(dimension);
+            out.writeInt(m);
+            out.writeInt(efConstruction);
+            out.writeInt(nodes.size());
+            out.writeInt(entryPoint);
+            out.writeInt(maxLevel);
+            for (Node node : nodes) {
+                out.writeLong(node.id);
+                out.writeBoolean(node.deleted);
+                out.writeInt(node.level());
+                for (float v : node.vector) {
+                    out.writeFloat(v);
+                }
+                for (int l = 0; l <= node.level(); l++) {
+                    out.writeInt(node.linkCounts[l]);
+                    for (int i = 0; i < node.linkCounts[l]; i++) {
+                        out.writeInt(node.links[l][i]);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static HnswIndex readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("不是 HNSW 索引文件");
+        }
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("不支持的 HNSW 索引版本: " + version);
+        }
+        HnswIndex index = new HnswIndex(in.readInt(), in.readInt(), in.readInt());
+        int nodeCount = in.readInt();
+        index.entryPoint = in.readInt();
+        index.maxLevel = in.readInt();
+        for (int n = 0; n < nodeCount; n++) {
+            long id = in.readLong();
+            boolean deleted = in.readBoolean();
+            int level = in.readInt();
+            float[] vector = new float[index.dimension];
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] = in.readFloat();
+            }
+            Node node = new Node(id, vector, level, index.m, index.maxM0);
+            for (int l = 0; l <= level; l++) {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    node.links[l][i] = in.readInt();
+                }
+                node.linkCounts[l] = count;
+            }
+            node.deleted = deleted;
+            index.nodes.add(node);
+            if (deleted) {
+                index.deletedCount++;
+            } else {
+                index.idToNode.put(id, n);
+            }
+        }
+        return index;
+    }
+
+    private void markDeleted(int index) {
+        Node node = nodes.get(index);
+        if (!node.deleted) {
+            node.deleted = true;
+            deletedCount++;
+            idToNode.remove(node.id);
+        }
+    }
+
+    private int randomLevel() {
+        return (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+    }
+
+    private float distance(float[] a, float[] b) {
+        float dot = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+        }
+        return 1 - dot;
+    }
+
+    private float distance(float[] query, int node) {
+        return distance(query, nodes.get(node).vector);
+    }
+
+    /**
+     * 上层贪心下降：沿邻居移动到更近的节点，直到局部最优
+     */
+    private int greedyClosest(float[] query, int ep, int level) {
+        int current = ep;
+        float best = distance(query, current);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            Node node = nodes.get(current);
+            for (int i = 0; i < node.linkCounts[level]; i++) {
+                int neighbor = node.links[level][i];
+                float d = distance(query, neighbor);
+                if (d < best) {
+                    best = d;
+                    current = neighbor;
+                    changed = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 单层束搜索，返回最近的 ef 个候选（堆顶为最远）
+     */
+    private PriorityQueue<Candidate> searchLayer(float[] query, int ep, int ef, int level) {
+        BitSet visited = new BitSet(nodes.size());
+        visited.set(ep);
+        Candidate start = new Candidate(ep, distance(query, ep));
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(NEAREST_FIRST);
+        PriorityQueue<Candidate> results = new PriorityQueue<>(FARTHEST_FIRST);
+        candidates.add(start);
+        results.add(start);
+
+        while (!candidates.isEmpty()) {
+            Candidate current = candidates.poll();
+            if (results.size() >= ef && current.distance() > results.peek().distance()) {
+                break;
+            }
+            Node node = nodes.get(current.node());
+            for (int i = 0; i < node.linkCounts[level]; i++) {
+                int neighbor = node.links[level][i];
+                if (visited.get(neighbor)) {
+                    continue;
+                }
+                visited.set(neighbor);
+                float d = distance(query, neighbor);
+                if (results.size() < ef || d < results.peek().distance()) {
+                    Candidate c = new Candidate(neighbor, d);
+                    candidates.add(c);
+                    results.add(c);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    private static List<Candidate> sortedNearestFirst(PriorityQueue<Candidate> heap) {
+        List<Candidate> sorted = new ArrayList<>(heap);
+        sorted.sort(NEAREST_FIRST);
+        return sorted;
+    }
+
+    /**
+     * 邻居选择启发式：候选比已选邻居更靠近新节点时才保留，使邻居分布在不同方向，
+     * 保证图在聚簇数据上的连通性；不足 max 个时用被裁掉的候选补齐
+     */
+    private List<Candidate> selectNeighbors(List<Candidate> nearestFirst, int max) {
+        if (nearestFirst.size() <= max) {
+            return nearestFirst;
+        }
+        List<Candidate> selected = new ArrayList<>(max);
+        List<Candidate> pruned = new ArrayList<>();
+        for (Candidate c : nearestFirst) {
+            if (selected.size() >= max) {
+                break;
+            }
+            float[] vector = nodes.get(c.node()).vector;
+            boolean diverse = true;
+            for (Candidate s : selected) {
+                if (distance(vector, s.node()) < c.distance()) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected.add(c);
+            } else {
+                pruned.add(c);
+            }
+        }
+        for (int i = 0; i < pruned.size() && selected.size() < max; i++) {
+            selected.add(pruned.get(i));
+        }
+        return selected;
+    }
+
+    /**
+     * 为已有节点添加反向连接，超出上限时重新选择邻居
+     */
+    private void connect(int from, int to, int level) {
+        Node node = nodes.get(from);
+        int[] links = node.links[level];
+        if (node.linkCounts[level] < links.length) {
+            links[node.linkCounts[level]++] = to;
+            return;
+        }
+        List<Candidate> candidates = new ArrayList<>(links.length + 1);
+        for (int i = 0; i < node.linkCounts[level]; i++) {
+            candidates.add(new Candidate(links[i], distance(node.vector, links[i])));
+        }
+        candidates.add(new Candidate(to, distance(node.vector, to)));
+        candidates.sort(NEAREST_FIRST);
+        List<Candidate> selected = selectNeighbors(candidates, links.length);
+        for (int i = 0; i < selected.size(); i++) {
+            links[i] = selected.get(i).node();
+        }
+        node.linkCounts[level] = selected.size();
+    }
+}
@@ -0,0 +1,254 @@
+package com.rental.modules.ai.vector;
+
+import com.rental.modules.ai.config.AiConfig;
+import com.rental.modules.ai.embedding.EmbeddingProvider;
+import com.rental.modules.property.entity.Property;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 房源向量索引
+ * 房源标题、城市区域与简介经 EmbeddingProvider 向量化后写入 HNSW 索引，并持久化到 app.ai.embedding.index-path。
+ * 每套房源记录更新时间与文本摘要：更新时间未变则跳过，文本未变（如仅状态变化）则不重新向量化。
+ * 写入与落盘串行执行（由 ListingVectorIndexer 在单线程上调用），查询可与写入并发。
+ */
+@Slf4j
+@Component
+public class ListingVectorIndex {
+
+    private static final int FILE_MAGIC = 0x4C565831; // "LVX1"
+    private static final double COMPACT_DELETED_RATIO = 0.3;
+    private static final int DESCRIPTION_CHARS = 500;
+
+    private final EmbeddingProvider embeddingProvider;
+    private final AiConfig.Embedding config;
+    private final Timer embedTimer;
+
+    private volatile HnswIndex index;
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean(false);
+    private volatile boolean ready;
+
+    /**
+     * 已索引房源的版本：更新时间（毫秒）与向量化文本的摘要
+     */
+    private record Entry(long updatedAt, int textHash) {
+    }
+
+    public ListingVectorIndex(EmbeddingProvider embeddingProvider, AiConfig aiConfig, MeterRegistry meterRegistry) {
+        this.embeddingProvider = embeddingProvider;
+        this.config = aiConfig.getEmbedding();
+        this.embedTimer = Timer.builder("ai.embedding.duration")
+                .description("文本向量化耗时")
+                .tag("provider", config.getProvider())
+                .register(meterRegistry);
+        Gauge.builder("ai.vector.index.size", entries, Map::size)
+                .description("房源向量索引中的房源数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 启动同步完成后才对外提供查询，之前语义检索降级为关键词检索
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void markReady() {
+        this.ready = true;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 已索引房源的更新时间（毫秒），未索引返回 null
+     */
+    public Long indexedVersion(Long propertyId) {
+        Entry entry = entries.get(propertyId);
+        return entry != null ? entry.updatedAt() : null;
+    }
+
+    public Set<Long> indexedIds() {
+        return Set.copyOf(entries.keySet());
+    }
+
+    /**
+     * 写入或更新房源向量
+     */
+    public synchronized void upsert(Property property) {
+        long updatedAt = toMillis(property.getUpdatedAt());
+        Entry existing = entries.get(property.getId());
+        if (existing != null && existing.updatedAt() == updatedAt) {
+            return;
+        }
+        String text = listingText(property);
+        int textHash = text.hashCode();
+        if (existing == null || existing.textHash() != textHash) {
+            float[] vector = embedTimer.record(() -> embeddingProvider.embed(text));
+            HnswIndex current = index;
+            if (current == null || current.getDimension() != vector.length) {
+                if (current != null) {
+                    log.warn("向量维度变化({} -> {})，清空房源向量索引", current.getDimension(), vector.length);
+                    entries.clear();
+                }
+                current = new HnswIndex(vector.length, config.getM(), config.getEfConstruction());
+                index = current;
+            }
+            current.add(property.getId(), vector);
+        }
+        entries.put(property.getId(), new Entry(updatedAt, textHash));
+        dirty.set(true);
+    }
+
+    public synchronized void remove(Long propertyId) {
+        if (entries.remove(propertyId) != null) {
+            HnswIndex current = index;
+            if (current != null) {
+                current.remove(propertyId);
+            }
+            dirty.set(true);
+        }
+    }
+
+    /**
+     * 查询与自然语言描述最相似的房源ID，按相似度降序
+     */
+    public List<HnswIndex.Result> search(String query, int k) {
+        HnswIndex current = index;
+        if (current == null || query == null || query.isBlank()) {
+            return List.of();
+        }
+        float[] vector = embedTimer.record(() -> embeddingProvider.embed(query));
+        if (vector.length != current.getDimension()) {
+            return List.of();
+        }
+        return current.search(vector, k, Math.max(config.getEfSearch(), k));
+    }
+
+    /**
+     * 从磁盘加载索引；文件不存在、损坏或向量空间标识不一致时从空索引开始
+     */
+    public synchronized void load() {
+        Path path = Paths.get(config.getIndexPath());
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != FILE_MAGIC) {
+                throw new IOException("文件格式不正确");
+            }
+            String signature = in.readUTF();
+            if (!signature.equals(embeddingProvider.signature())) {
+                log.info("向量化方式已变更({} -> {})，房源向量索引将全量重建", signature, embeddingProvider.signature());
+                return;
+            }
+            int count = in.readInt();
+            Map<Long, Entry> loaded = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                loaded.put(in.readLong(), new Entry(in.readLong(), in.readInt()));
+            }
+            HnswIndex loadedIndex = in.readBoolean() ? HnswIndex.readFrom(in) : null;
+            entries.clear();
+            entries.putAll(loaded);
+            index = loadedIndex;
+            log.info("房源向量索引已加载: listings={}, path={}", entries.size(), path);
+        } catch (Exception e) {
+            log.warn("房源向量索引加载失败，将全量重建: path={}, err={}", path, e.getMessage());
+            entries.clear();
+            index = null;
+        }
+    }
+
+    /**
+     * 有变更时落盘：先写临时文件再原子替换，删除节点过多时先压缩
+     */
+    public synchronized void saveIfDirty() {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        HnswIndex current = index;
+        if (current != null && current.deletedRatio() > COMPACT_DELETED_RATIO) {
+            current = current.compact();
+            index = current;
+        }
+        Path path = Paths.get(config.getIndexPath());
+        try {
+            Path dir = path.toAbsolutePath().getParent();
+            if (dir != null) {
+                Files.createDirectories(dir);
+            }
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(FILE_MAGIC);
+                out.writeUTF(embeddingProvider.signature());
+                Map<Long, Entry> snapshot = new HashMap<>(entries);
+                out.writeInt(snapshot.size());
+                for (Map.Entry<Long, Entry> e : snapshot.entrySet()) {
+                    out.writeLong(e.getKey());
+                    out.writeLong(e.getValue().updatedAt());
+                    out.writeInt(e.getValue().textHash());
+                }
+                out.writeBoolean(current != null);
+                if (current != null) {
+                    current.writeTo(out);
+                }
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty.set(true);
+            log.warn("房源向量索引保存失败: path={}, err={}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * 参与向量化的房源文本：标题、城市区域、户型与简介（截断）
+     */
+    static String listingText(Property property) {
+        StringBuilder text = new StringBuilder();
+        append(text, property.getTitle());
+        append(text, property.getCity());
+        append(text, property.getRegion());
+        if (property.getBedrooms() != null) {
+            text.append(property.getBedrooms()).append("室 ");
+        }
+        String description = property.getDescription();
+        if (description != null && description.length() > DESCRIPTION_CHARS) {
+            description = description.substring(0, DESCRIPTION_CHARS);
+        }
+        append(text, description);
+        return text.toString().trim();
+    }
+
+    private static void append(StringBuilder text, String value) {
+        if (value != null && !value.isBlank()) {
+            text.append(value.trim()).append(' ');
+        }
+    }
+
+    public static long toMillis(LocalDateTime updatedAt) {
+        return updatedAt != null ? updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L;
+    }
+}
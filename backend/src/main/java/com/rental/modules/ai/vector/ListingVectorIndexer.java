@@ -0,0 +1,104 @@
+package com.rental.modules.ai.vector;
+
+import com.rental.modules.property.entity.Property;
+import com.rental.modules.property.event.PropertyChangedEvent;
+import com.rental.modules.property.repository.PropertyRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 房源向量索引维护
+ * 启动时加载磁盘上的索引，再按房源更新时间增量补齐（新增/修改的重新向量化，已删除的移除）；
+ * 之后跟随房源事件增量更新，定期落盘。均在 vectorIndexExecutor 单线程上异步执行，不增加房源写操作的响应时间
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ListingVectorIndexer {
+
+    private static final int SYNC_BATCH_SIZE = 200;
+
+    private final ListingVectorIndex index;
+    private final PropertyRepository propertyRepository;
+
+    @Async("vectorIndexExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void sync() {
+        long start = System.currentTimeMillis();
+        int updated = 0;
+        int removed = 0;
+        try {
+            index.load();
+
+            Set<Long> existing = new HashSet<>();
+            List<Long> stale = new ArrayList<>();
+            for (Object[] row : propertyRepository.findAllIdAndUpdatedAt()) {
+                Long propertyId = (Long) row[0];
+                existing.add(propertyId);
+                Long indexed = index.indexedVersion(propertyId);
+                if (indexed == null || indexed != ListingVectorIndex.toMillis((LocalDateTime) row[1])) {
+                    stale.add(propertyId);
+                }
+            }
+            for (Long propertyId : index.indexedIds()) {
+                if (!existing.contains(propertyId)) {
+                    index.remove(propertyId);
+                    removed++;
+                }
+            }
+            for (int i = 0; i < stale.size(); i += SYNC_BATCH_SIZE) {
+                List<Long> batch = stale.subList(i, Math.min(i + SYNC_BATCH_SIZE, stale.size()));
+                for (Property property : propertyRepository.findAllById(batch)) {
+                    index.upsert(property);
+                    updated++;
+                }
+            }
+            index.saveIfDirty();
+            log.info("房源向量索引同步完成: listings={}, updated={}, removed={}, 耗时 {} ms",
+                    index.size(), updated, removed, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("房源向量索引同步失败: updated={}, err={}", updated, e.getMessage());
+        } finally {
+            // 同步失败时已有部分仍可查询，缺失的房源由后续事件补齐
+            index.markReady();
+        }
+    }
+
+    @Async("vectorIndexExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        try {
+            if (event.getType() == PropertyChangedEvent.Type.DELETED) {
+                index.remove(event.getPropertyId());
+                return;
+            }
+            propertyRepository.findById(event.getPropertyId())
+                    .ifPresentOrElse(index::upsert, () -> index.remove(event.getPropertyId()));
+        } catch (Exception e) {
+            log.warn("房源向量索引更新失败: propertyId={}, err={}", event.getPropertyId(), e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.ai.embedding.save-interval:60000}")
+    public void flush() {
+        index.saveIfDirty();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        index.saveIfDirty();
+    }
+}
@@ -1,9 +1,16 @@
 package com.rental.modules.conversation.controller;
 
 import com.rental.common.Result;
+import com.rental.modules.conversation.dto.InboxSlice;
+import com.rental.modules.conversation.dto.MessageSearchResult;
+import com.rental.modules.conversation.dto.MessageSlice;
 import com.rental.modules.conversation.entity.Conversation;
 import com.rental.modules.conversation.entity.Message;
+import com.rental.modules.conversation.realtime.ChatPushEvent;
+import com.rental.modules.conversation.realtime.ChatSessionRegistry;
 import com.rental.modules.conversation.service.ConversationService;
+import com.rental.modules.conversation.service.InboxService;
+import com.rental.modules.conversation.service.MessageSearchService;
 import com.rental.modules.conversation.service.MessageService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -17,13 +24,16 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -39,6 +49,9 @@ public class ConversationController {
 
     private final ConversationService conversationService;
     private final MessageService messageService;
+    private final ChatSessionRegistry chatSessionRegistry;
+    private final InboxService inboxService;
+    private final MessageSearchService messageSearchService;
 
     private static final long MAX_IMAGE_SIZE = 5 * 1024 * 1024; // 5MB
     private static final List<String> ALLOWED_IMAGE_TYPES = List.of("image/jpeg", "image/jpg", "image/png", "image/webp");
@@ -122,7 +135,51 @@ public class ConversationController {
     }
 
     /**
-     * 获取对话详情（含消息历史）
+     * 获取当前用户的收件箱（读模型，游标分页）
+     * 返回对方展示名、房源标题/封面、最后消息和未读数，无需逐行子查询
+     */
+    @GetMapping("/inbox")
+    @PreAuthorize("hasAnyRole('landlord', 'tenant')")
+    @Operation(summary = "获取收件箱", description = "按 (lastMessageAt, id) 游标分页，翻页时传入上一页返回的 nextCursorAt/nextCursorId")
+    public ResponseEntity<Result<InboxSlice>> getInbox(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorAt,
+            @RequestParam(required = false) Long cursorId,
+            @RequestParam(required = false) Integer limit,
+            HttpServletRequest httpRequest) {
+        Long userId = (Long) httpRequest.getAttribute("userId");
+
+        Conversation.ConversationStatus conversationStatus = null;
+        if (status != null && !status.isEmpty()) {
+            conversationStatus = Conversation.ConversationStatus.valueOf(status);
+        }
+
+        InboxSlice slice = inboxService.getInbox(userId, conversationStatus, cursorAt, cursorId, limit);
+
+        return ResponseEntity.ok(Result.success(slice));
+    }
+
+    /**
+     * 在当前用户参与的对话中全文检索消息
+     */
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('landlord', 'tenant')")
+    @Operation(summary = "检索消息", description = "中文按二元组匹配，结果按时间倒序分页，snippet 中关键词以 <em> 标记")
+    public ResponseEntity<Result<MessageSearchResult>> searchMessages(
+            @RequestParam String q,
+            @RequestParam(required = false) Long conversationId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            HttpServletRequest httpRequest) {
+        Long userId = (Long) httpRequest.getAttribute("userId");
+
+        MessageSearchResult result = messageSearchService.search(userId, q, conversationId, page, size);
+
+        return ResponseEntity.ok(Result.success(result));
+    }
+
+    /**
+     * 获取对话详情（含最新一页消息，更早的消息通过 /{id}/messages/history 按游标加载）
      */
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('landlord', 'tenant')")
@@ -133,11 +190,12 @@ public class ConversationController {
         Long userId = (Long) httpRequest.getAttribute("userId");
 
         Conversation conversation = conversationService.getConversationById(id, userId);
-        List<Message> messages = messageService.getMessagesByConversationId(id);
+        MessageSlice slice = messageService.getMessageSlice(id, null, null, null);
 
         ConversationDetailResponse response = new ConversationDetailResponse();
         response.setConversation(conversation);
-        response.setMessages(messages);
+        response.setMessages(slice.getMessages());
+        response.setHasMoreMessages(slice.isHasMore());
 
         return ResponseEntity.ok(Result.success(response));
     }
@@ -161,6 +219,30 @@ public class ConversationController {
         return ResponseEntity.ok(Result.success(messages));
     }
 
+    /**
+     * 游标分页获取消息历史
+     * 不带游标返回最新一页；before 向上翻更早的消息；after/since 获取某条消息之后的新消息（增量拉取）
+     */
+    @GetMapping("/{id}/messages/history")
+    @PreAuthorize("hasAnyRole('landlord', 'tenant')")
+    @Operation(summary = "游标分页获取消息", description = "before/after 基于消息 id；since 为 after 的别名，用于增量拉取")
+    public ResponseEntity<Result<MessageSlice>> getMessageHistory(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Integer limit,
+            HttpServletRequest httpRequest) {
+        Long userId = (Long) httpRequest.getAttribute("userId");
+
+        // 验证用户有权访问此对话
+        conversationService.getConversationById(id, userId);
+
+        MessageSlice slice = messageService.getMessageSlice(id, before, after != null ? after : since, limit);
+
+        return ResponseEntity.ok(Result.success(slice));
+    }
+
     /**
      * 发送消息（文字与图片共用此接口，图片存库）
      * 请求格式：multipart/form-data，content 必填，image 可选
@@ -207,6 +289,30 @@ public class ConversationController {
                 .body(Result.success(message));
     }
 
+    /**
+     * 获取消息图片（实时推送与列表之外按需加载图片）
+     */
+    @GetMapping("/messages/{messageId}/image")
+    @PreAuthorize("hasAnyRole('landlord', 'tenant')")
+    @Operation(summary = "获取消息图片")
+    public ResponseEntity<byte[]> getMessageImage(
+            @PathVariable Long messageId,
+            HttpServletRequest httpRequest) {
+        Long userId = (Long) httpRequest.getAttribute("userId");
+
+        Message message = messageService.getMessageById(messageId);
+        // 验证用户有权访问此对话
+        conversationService.getConversationById(message.getConversationId(), userId);
+        if (message.getImageData() == null || message.getImageData().length == 0) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(message.getImageContentType() != null
+                        ? message.getImageContentType() : MediaType.IMAGE_JPEG_VALUE))
+                .body(message.getImageData());
+    }
+
     /**
      * 删除消息（仅发送者可删除自己的消息）
      */
@@ -292,6 +398,25 @@ public class ConversationController {
         return ResponseEntity.ok(Result.success(count));
     }
 
+    /**
+     * 建立实时推送连接（SSE）
+     * 推送新消息、撤回、删除、已读回执和未读数变化，替代客户端轮询
+     * 浏览器 EventSource 无法设置请求头，可通过 access_token 查询参数携带 Token
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('landlord', 'tenant')")
+    @Operation(summary = "订阅实时消息推送")
+    public SseEmitter stream(HttpServletRequest httpRequest) {
+        Long userId = (Long) httpRequest.getAttribute("userId");
+        String role = (String) httpRequest.getAttribute("role");
+
+        SseEmitter emitter = chatSessionRegistry.register(userId);
+        // 连接建立后先按数据库校正并推送一次当前未读数，客户端无需再单独请求
+        chatSessionRegistry.sendToUser(userId, ChatPushEvent.of(
+                ChatPushEvent.TYPE_UNREAD_COUNT, null, conversationService.reconcileUnreadCount(userId, role)));
+        return emitter;
+    }
+
     // ==================== 请求类 ====================
 
     @Data
@@ -310,5 +435,6 @@ public class ConversationController {
     public static class ConversationDetailResponse {
         private Conversation conversation;
         private List<Message> messages;
+        private boolean hasMoreMessages;
     }
 }
@@ -0,0 +1,58 @@
+package com.rental.modules.conversation.dto;
+
+import com.rental.modules.conversation.entity.Message;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 归档块中的消息 DTO
+ * 不含图片二进制：图片单独存放在 message_archive_images，读取时只为返回的、带 imageContentType 的消息按需加载
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedMessage {
+
+    private Long id;
+
+    private Long conversationId;
+
+    private Long senderId;
+
+    private String senderUsername;
+
+    private String senderRealName;
+
+    private Message.SenderRole senderRole;
+
+    private String content;
+
+    private String imageUrl;
+
+    private String imageContentType;
+
+    private Boolean isRead;
+
+    private LocalDateTime createdAt;
+
+    public Message toMessage() {
+        return Message.builder()
+                .id(id)
+                .conversationId(conversationId)
+                .senderId(senderId)
+                .senderUsername(senderUsername)
+                .senderRealName(senderRealName)
+                .senderRole(senderRole)
+                .content(content)
+                .imageUrl(imageUrl)
+                .imageContentType(imageContentType)
+                .isRead(isRead)
+                .createdAt(createdAt)
+                .build();
+    }
+}
@@ -0,0 +1,28 @@
+package com.rental.modules.conversation.dto;
+
+import com.rental.modules.conversation.entity.ConversationInbox;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 收件箱游标分页结果 DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InboxSlice {
+
+    private List<ConversationInbox> items;  // 本页对话（按最后消息时间倒序）
+
+    private boolean hasMore;                // 是否还有下一页
+
+    private LocalDateTime nextCursorAt;     // 下一页游标：本页最后一条的 lastMessageAt
+
+    private Long nextCursorId;              // 下一页游标：本页最后一条的 id
+}
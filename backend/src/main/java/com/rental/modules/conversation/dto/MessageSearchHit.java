@@ -0,0 +1,35 @@
+package com.rental.modules.conversation.dto;
+
+import com.rental.modules.conversation.entity.Message;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 消息检索命中 DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageSearchHit {
+
+    private Long messageId;
+
+    private Long conversationId;
+
+    private Long senderId;
+
+    private Message.SenderRole senderRole;
+
+    private LocalDateTime createdAt;
+
+    private String snippet;              // 命中片段，关键词以 <em></em> 包裹，其余内容已做 HTML 转义
+
+    private String counterpartName;      // 对方展示名（来自收件箱读模型）
+
+    private String propertyTitle;        // 房源标题（来自收件箱读模型）
+}
@@ -0,0 +1,28 @@
+package com.rental.modules.conversation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 消息检索结果 DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageSearchResult {
+
+    private List<MessageSearchHit> hits;  // 本页命中（最新在前）
+
+    private long total;                   // 命中总数；totalEstimated 为 true 时是上限估计（已校验命中数 + 未校验的候选数）
+
+    private boolean totalEstimated;       // 候选未全部校验时为 true
+
+    private int page;
+
+    private int size;
+}
@@ -0,0 +1,28 @@
+package com.rental.modules.conversation.dto;
+
+import com.rental.modules.conversation.entity.Message;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 消息游标分页结果 DTO
+ * 消息始终按 id 正序返回，便于客户端直接拼接
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageSlice {
+
+    private List<Message> messages;  // 本页消息（按 id 正序）
+
+    private boolean hasMore;         // 游标方向上是否还有更多消息
+
+    private Long prevCursor;         // 更早一页的游标（传给 before），即本页最小 id
+
+    private Long nextCursor;         // 更新一页的游标（传给 after/since），即本页最大 id
+}
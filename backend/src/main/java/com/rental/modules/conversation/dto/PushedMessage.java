@@ -0,0 +1,62 @@
+package com.rental.modules.conversation.dto;
+
+import com.rental.modules.conversation.entity.Message;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 实时推送的消息 DTO
+ * 不含图片二进制：带图片的消息给出 imagePath，客户端收到后按需通过该地址获取图片
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PushedMessage {
+
+    private Long id;
+
+    private Long conversationId;
+
+    private Long senderId;
+
+    private String senderUsername;
+
+    private String senderRealName;
+
+    private Message.SenderRole senderRole;
+
+    private String content;
+
+    private String imageUrl;
+
+    private String imageContentType;
+
+    private String imagePath;        // 图片获取地址（相对 /api），无图片时为空
+
+    private Boolean isRead;
+
+    private LocalDateTime createdAt;
+
+    public static PushedMessage of(Message message) {
+        boolean hasImage = message.getImageData() != null && message.getImageData().length > 0;
+        return PushedMessage.builder()
+                .id(message.getId())
+                .conversationId(message.getConversationId())
+                .senderId(message.getSenderId())
+                .senderUsername(message.getSenderUsername())
+                .senderRealName(message.getSenderRealName())
+                .senderRole(message.getSenderRole())
+                .content(message.getContent())
+                .imageUrl(message.getImageUrl())
+                .imageContentType(hasImage ? message.getImageContentType() : null)
+                .imagePath(hasImage ? "/conversations/messages/" + message.getId() + "/image" : null)
+                .isRead(message.getIsRead())
+                .createdAt(message.getCreatedAt())
+                .build();
+    }
+}
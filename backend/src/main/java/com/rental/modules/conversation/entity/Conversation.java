@@ -20,7 +20,10 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "conversations")
+@Table(name = "conversations", indexes = {
+        @Index(name = "idx_landlord_last_message", columnList = "landlord_id, last_message_at"),
+        @Index(name = "idx_tenant_last_message", columnList = "tenant_id, last_message_at")
+})
 public class Conversation {
 
     @Id
@@ -0,0 +1,97 @@
+package com.rental.modules.conversation.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * 对话收件箱（读模型）
+ * 每个对话为房东、租客各维护一行，冗余对方展示名、房源标题/封面、最后消息和未读数，
+ * 列表查询无需再对每行执行 @Formula 子查询。由消息、用户资料、房源变更事件维护。
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "conversation_inbox",
+        uniqueConstraints = @UniqueConstraint(name = "uk_user_conversation", columnNames = {"user_id", "conversation_id"}),
+        indexes = {
+                @Index(name = "idx_user_last_message", columnList = "user_id, last_message_at, id"),
+                @Index(name = "idx_counterpart_id", columnList = "counterpart_id"),
+                @Index(name = "idx_property_id", columnList = "property_id"),
+                @Index(name = "idx_conversation_id", columnList = "conversation_id")
+        })
+public class ConversationInbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 收件箱所属用户ID
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * 所属用户在对话中的角色
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "role", nullable = false, length = 20)
+    private Message.SenderRole role;
+
+    @Column(name = "conversation_id", nullable = false)
+    private Long conversationId;
+
+    /**
+     * 对方用户ID及展示名
+     */
+    @Column(name = "counterpart_id", nullable = false)
+    private Long counterpartId;
+
+    @Column(name = "counterpart_username", length = 50)
+    private String counterpartUsername;
+
+    @Column(name = "counterpart_real_name", length = 50)
+    private String counterpartRealName;
+
+    @Column(name = "property_id", nullable = false)
+    private Long propertyId;
+
+    @Column(name = "property_title", length = 200)
+    private String propertyTitle;
+
+    /**
+     * 房源封面图（排序第一的图片）
+     */
+    @Column(name = "property_cover_url", length = 500)
+    private String propertyCoverUrl;
+
+    @Column(name = "last_message", length = 500)
+    private String lastMessage;
+
+    /**
+     * 最后消息时间，对话尚无消息时取创建时间，保证排序键非空
+     */
+    @Column(name = "last_message_at", nullable = false)
+    private LocalDateTime lastMessageAt;
+
+    @Column(name = "unread_count", nullable = false)
+    @Builder.Default
+    private Integer unreadCount = 0;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private Conversation.ConversationStatus status = Conversation.ConversationStatus.active;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -19,7 +19,9 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+        @Index(name = "idx_conversation_id_id", columnList = "conversation_id, id")
+})
 public class Message {
 
     @Id
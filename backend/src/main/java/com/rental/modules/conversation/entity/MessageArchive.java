@@ -0,0 +1,54 @@
+package com.rental.modules.conversation.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * 消息冷存储归档块
+ * 已关闭且长期无新消息的对话，其消息按 id 顺序分块序列化为 JSON 并 gzip 压缩后存放于此，
+ * 热表 messages 中对应记录删除。每块覆盖 [firstMessageId, lastMessageId] 区间。
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "message_archives", indexes = {
+        @Index(name = "idx_archive_conversation_first", columnList = "conversation_id, first_message_id"),
+        @Index(name = "idx_archive_conversation_last", columnList = "conversation_id, last_message_id")
+})
+public class MessageArchive {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "conversation_id", nullable = false)
+    private Long conversationId;
+
+    @Column(name = "first_message_id", nullable = false)
+    private Long firstMessageId;
+
+    @Column(name = "last_message_id", nullable = false)
+    private Long lastMessageId;
+
+    @Column(name = "message_count", nullable = false)
+    private Integer messageCount;
+
+    /**
+     * gzip 压缩的消息 JSON 数组
+     */
+    @Lob
+    @Column(nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] payload;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,36 @@
+package com.rental.modules.conversation.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 归档消息的图片
+ * 图片二进制不进入 gzip JSON 归档块（base64 膨胀且每次翻页都要整块解压），按消息 ID 单独存放
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "message_archive_images", indexes = {
+        @Index(name = "idx_archive_image_conversation", columnList = "conversation_id")
+})
+public class MessageArchiveImage {
+
+    @Id
+    @Column(name = "message_id")
+    private Long messageId;
+
+    @Column(name = "conversation_id", nullable = false)
+    private Long conversationId;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Lob
+    @Column(nullable = false, columnDefinition = "MEDIUMBLOB")
+    private byte[] data;
+}
@@ -0,0 +1,57 @@
+package com.rental.modules.conversation.event;
+
+import com.rental.modules.conversation.entity.Message;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 对话消息事件
+ * 消息发送、撤回、删除、已读及对话关闭等操作完成后发布，由实时推送等订阅方在事务提交后处理
+ */
+@Getter
+@AllArgsConstructor
+public class ConversationMessageEvent {
+
+    private final Type type;
+
+    private final Long conversationId;
+
+    private final Long landlordId;
+
+    private final Long tenantId;
+
+    /**
+     * 触发事件的用户ID
+     */
+    private final Long actorId;
+
+    /**
+     * 关联的消息，已读、关闭事件为 null
+     */
+    private final Message message;
+
+    /**
+     * 是否由房东触发
+     */
+    public boolean isActorLandlord() {
+        return landlordId != null && landlordId.equals(actorId);
+    }
+
+    /**
+     * 对方用户ID（相对触发者）
+     */
+    public Long getCounterpartId() {
+        return isActorLandlord() ? tenantId : landlordId;
+    }
+
+    /**
+     * 事件类型枚举
+     */
+    public enum Type {
+        SENT,      // 新消息
+        RECALLED,  // 消息撤回
+        DELETED,   // 消息删除
+        READ,      // 已读回执
+        CLOSED     // 对话关闭
+    }
+}
@@ -0,0 +1,14 @@
+package com.rental.modules.conversation.realtime;
+
+/**
+ * 实时事件分发接口
+ * 默认实现只投递到本节点的连接；多实例部署时可提供 @Primary 实现（如 Redis Pub/Sub），
+ * 将事件广播到所有节点，再由各节点调用 {@link ChatSessionRegistry#sendToUser} 投递
+ */
+public interface ChatEventBroadcaster {
+
+    /**
+     * 向指定用户的所有在线连接推送事件
+     */
+    void broadcast(Long userId, ChatPushEvent event);
+}
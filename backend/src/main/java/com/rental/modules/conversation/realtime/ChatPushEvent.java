@@ -0,0 +1,40 @@
+package com.rental.modules.conversation.realtime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 推送给客户端的实时事件
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatPushEvent {
+
+    public static final String TYPE_MESSAGE = "message";
+    public static final String TYPE_RECALL = "recall";
+    public static final String TYPE_DELETE = "delete";
+    public static final String TYPE_READ = "read";
+    public static final String TYPE_UNREAD_COUNT = "unread-count";
+
+    /**
+     * 事件类型，对应 SSE 的 event 字段
+     */
+    private String type;
+
+    private Long conversationId;
+
+    /**
+     * 事件数据：消息体、已读用户ID或未读数
+     */
+    private Object data;
+
+    private Long timestamp;
+
+    public static ChatPushEvent of(String type, Long conversationId, Object data) {
+        return new ChatPushEvent(type, conversationId, data, System.currentTimeMillis());
+    }
+}
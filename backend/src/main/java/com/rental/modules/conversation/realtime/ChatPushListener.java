@@ -0,0 +1,59 @@
+package com.rental.modules.conversation.realtime;
+
+import com.rental.modules.conversation.dto.PushedMessage;
+import com.rental.modules.conversation.event.ConversationMessageEvent;
+import com.rental.modules.conversation.service.ConversationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+
+/**
+ * 将对话消息事件转换为实时推送
+ * 在事务提交后执行，避免推送未落库的数据；消息以不含图片二进制的 DTO 推送
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChatPushListener {
+
+    private final ChatEventBroadcaster broadcaster;
+    private final ConversationService conversationService;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageEvent(ConversationMessageEvent event) {
+        try {
+            switch (event.getType()) {
+                case SENT -> {
+                    pushToParticipants(event, ChatPushEvent.TYPE_MESSAGE, PushedMessage.of(event.getMessage()));
+                    pushUnreadCount(event.getCounterpartId(), !event.isActorLandlord());
+                }
+                case RECALLED -> pushToParticipants(event, ChatPushEvent.TYPE_RECALL, PushedMessage.of(event.getMessage()));
+                case DELETED -> pushToParticipants(event, ChatPushEvent.TYPE_DELETE,
+                        Map.of("messageId", event.getMessage().getId()));
+                case READ -> {
+                    pushToParticipants(event, ChatPushEvent.TYPE_READ, Map.of("readerId", event.getActorId()));
+                    pushUnreadCount(event.getActorId(), event.isActorLandlord());
+                }
+                default -> { }
+            }
+        } catch (Exception e) {
+            // 推送失败不影响业务，客户端重连后会重新拉取
+            log.warn("实时推送失败: type={}, conversationId={}, err={}",
+                    event.getType(), event.getConversationId(), e.getMessage());
+        }
+    }
+
+    private void pushToParticipants(ConversationMessageEvent event, String type, Object data) {
+        ChatPushEvent pushEvent = ChatPushEvent.of(type, event.getConversationId(), data);
+        broadcaster.broadcast(event.getLandlordId(), pushEvent);
+        broadcaster.broadcast(event.getTenantId(), pushEvent);
+    }
+
+    private void pushUnreadCount(Long userId, boolean landlord) {
+        long count = conversationService.getUnreadCount(userId, landlord ? "landlord" : "tenant");
+        broadcaster.broadcast(userId, ChatPushEvent.of(ChatPushEvent.TYPE_UNREAD_COUNT, null, count));
+    }
+}
@@ -0,0 +1,210 @@
+package com.rental.modules.conversation.realtime;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 实时推送会话注册表（内存）
+ * 记录每个用户在本节点上的 SSE 连接，一个用户可同时有多个标签页/设备在线
+ * 投递：每个连接有自己的待发队列，由有界线程池串行排空，同一连接上的事件保持顺序，
+ * 一个慢连接最多占住一个投递线程；待发事件积压超过上限或发送失败的连接直接关闭，由客户端重连
+ */
+@Slf4j
+@Component
+public class ChatSessionRegistry {
+
+    @Value("${app.chat.stream.timeout:1800000}")
+    private long streamTimeout;
+
+    @Value("${app.chat.stream.delivery-threads:4}")
+    private int deliveryThreads;
+
+    @Value("${app.chat.stream.delivery-queue-capacity:10000}")
+    private int deliveryQueueCapacity;
+
+    @Value("${app.chat.stream.max-pending-per-connection:100}")
+    private int maxPendingPerConnection;
+
+    private final Map<Long, Set<Connection>> sessions = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor deliveryExecutor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger seq = new AtomicInteger();
+        deliveryExecutor = new ThreadPoolExecutor(deliveryThreads, deliveryThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(deliveryQueueCapacity), r -> {
+            Thread t = new Thread(r, "chat-push-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 为用户注册一个新的 SSE 连接
+     */
+    public SseEmitter register(Long userId) {
+        SseEmitter emitter = new SseEmitter(streamTimeout);
+        Connection connection = new Connection(userId, emitter);
+        sessions.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet()).add(connection);
+
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> remove(connection));
+        emitter.onError(e -> remove(connection));
+
+        log.debug("实时连接建立: userId={}, connections={}", userId, sessions.get(userId).size());
+        return emitter;
+    }
+
+    /**
+     * 向用户在本节点的所有连接推送事件（异步）
+     */
+    public void sendToUser(Long userId, ChatPushEvent event) {
+        if (userId == null) {
+            return;
+        }
+        Set<Connection> connections = sessions.get(userId);
+        if (connections == null) {
+            return;
+        }
+        for (Connection connection : connections) {
+            connection.enqueue(SseEmitter.event().name(event.getType()).data(event));
+        }
+    }
+
+    /**
+     * 是否在本节点在线
+     */
+    public boolean isOnline(Long userId) {
+        Set<Connection> connections = sessions.get(userId);
+        return connections != null && !connections.isEmpty();
+    }
+
+    /**
+     * 本节点当前连接总数
+     */
+    public int getConnectionCount() {
+        return sessions.values().stream().mapToInt(Set::size).sum();
+    }
+
+    /**
+     * 定时心跳，防止代理断开空闲连接，同时清理已失效的连接
+     */
+    @Scheduled(fixedDelayString = "${app.chat.stream.heartbeat-interval:25000}")
+    public void heartbeat() {
+        sessions.values().forEach(connections -> connections.forEach(
+                connection -> connection.enqueue(SseEmitter.event().comment("ping"))));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sessions.values().forEach(connections -> connections.forEach(c -> c.emitter.complete()));
+        sessions.clear();
+        deliveryExecutor.shutdownNow();
+    }
+
+    private void remove(Connection connection) {
+        sessions.computeIfPresent(connection.userId, (k, connections) -> {
+            connections.remove(connection);
+            return connections.isEmpty() ? null : connections;
+        });
+    }
+
+    /**
+     * 单个 SSE 连接及其待发队列，draining 保证同一时刻最多一个线程在向该连接写入
+     */
+    private final class Connection {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Connection(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        private void enqueue(SseEmitter.SseEventBuilder event) {
+            if (closed) {
+                return;
+            }
+            if (pendingCount.incrementAndGet() > maxPendingPerConnection) {
+                close("待发事件积压超过上限", null);
+                return;
+            }
+            pending.add(event);
+            schedule();
+        }
+
+        private void schedule() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                deliveryExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+                close("投递线程池已满", null);
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed && (event = pending.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                close("推送失败", e);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // 排空结束与 draining 复位之间可能有新事件入队
+            if (!closed && !pending.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void close(String reason, Exception cause) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pending.clear();
+            remove(this);
+            log.debug("{}，关闭连接: userId={}, err={}", reason, userId, cause != null ? cause.getMessage() : null);
+            try {
+                if (cause != null) {
+                    emitter.completeWithError(cause);
+                } else {
+                    emitter.complete();
+                }
+            } catch (Exception ignored) {
+                // 连接已被容器关闭
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.rental.modules.conversation.realtime;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 单节点事件分发：直接投递到本机会话注册表
+ */
+@Component
+@RequiredArgsConstructor
+public class LocalChatEventBroadcaster implements ChatEventBroadcaster {
+
+    private final ChatSessionRegistry sessionRegistry;
+
+    @Override
+    public void broadcast(Long userId, ChatPushEvent event) {
+        sessionRegistry.sendToUser(userId, event);
+    }
+}
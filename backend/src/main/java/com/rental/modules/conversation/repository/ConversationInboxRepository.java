@@ -0,0 +1,117 @@
+package com.rental.modules.conversation.repository;
+
+import com.rental.modules.conversation.entity.Conversation;
+import com.rental.modules.conversation.entity.ConversationInbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 对话收件箱读模型仓储接口
+ */
+@Repository
+public interface ConversationInboxRepository extends JpaRepository<ConversationInbox, Long> {
+
+    Optional<ConversationInbox> findByUserIdAndConversationId(Long userId, Long conversationId);
+
+    boolean existsByConversationId(Long conversationId);
+
+    long countByConversationId(Long conversationId);
+
+    List<ConversationInbox> findByUserIdAndConversationIdIn(Long userId, Collection<Long> conversationIds);
+
+    /**
+     * 收件箱第一页（按最后消息时间、id 倒序），走 (user_id, last_message_at, id) 索引
+     */
+    @Query("SELECT i FROM ConversationInbox i WHERE i.userId = :userId " +
+           "AND (:status IS NULL OR i.status = :status) " +
+           "ORDER BY i.lastMessageAt DESC, i.id DESC")
+    List<ConversationInbox> findFirstPage(@Param("userId") Long userId,
+                                          @Param("status") Conversation.ConversationStatus status,
+                                          Pageable pageable);
+
+    /**
+     * 收件箱游标翻页：取排在 (cursorAt, cursorId) 之后的记录
+     */
+    @Query("SELECT i FROM ConversationInbox i WHERE i.userId = :userId " +
+           "AND (:status IS NULL OR i.status = :status) " +
+           "AND (i.lastMessageAt < :cursorAt OR (i.lastMessageAt = :cursorAt AND i.id < :cursorId)) " +
+           "ORDER BY i.lastMessageAt DESC, i.id DESC")
+    List<ConversationInbox> findPageAfter(@Param("userId") Long userId,
+                                          @Param("status") Conversation.ConversationStatus status,
+                                          @Param("cursorAt") LocalDateTime cursorAt,
+                                          @Param("cursorId") Long cursorId,
+                                          Pageable pageable);
+
+    /**
+     * 新消息：更新双方的最后消息
+     * 仅在时间不早于已记录的最后消息时更新，乱序到达的旧消息事件不会覆盖新消息
+     */
+    @Modifying
+    @Query("UPDATE ConversationInbox i SET i.lastMessage = :lastMessage, i.lastMessageAt = :lastMessageAt, " +
+           "i.updatedAt = CURRENT_TIMESTAMP WHERE i.conversationId = :conversationId " +
+           "AND (i.lastMessageAt IS NULL OR i.lastMessageAt <= :lastMessageAt)")
+    int updateLastMessage(@Param("conversationId") Long conversationId,
+                          @Param("lastMessage") String lastMessage,
+                          @Param("lastMessageAt") LocalDateTime lastMessageAt);
+
+    /**
+     * 新消息：接收方未读数原子自增
+     */
+    @Modifying
+    @Query("UPDATE ConversationInbox i SET i.unreadCount = i.unreadCount + 1 " +
+           "WHERE i.conversationId = :conversationId AND i.userId = :userId")
+    int incrementUnread(@Param("conversationId") Long conversationId, @Param("userId") Long userId);
+
+    /**
+     * 已读：清零未读数
+     */
+    @Modifying
+    @Query("UPDATE ConversationInbox i SET i.unreadCount = 0 " +
+           "WHERE i.conversationId = :conversationId AND i.userId = :userId")
+    int clearUnread(@Param("conversationId") Long conversationId, @Param("userId") Long userId);
+
+    @Modifying
+    @Query("UPDATE ConversationInbox i SET i.status = :status WHERE i.conversationId = :conversationId")
+    int updateStatus(@Param("conversationId") Long conversationId,
+                     @Param("status") Conversation.ConversationStatus status);
+
+    /**
+     * 用户资料变更：同步其作为对方出现时的展示名
+     */
+    @Modifying
+    @Query("UPDATE ConversationInbox i SET i.counterpartUsername = :username, i.counterpartRealName = :realName " +
+           "WHERE i.counterpartId = :userId")
+    int updateCounterpartName(@Param("userId") Long userId,
+                              @Param("username") String username,
+                              @Param("realName") String realName);
+
+    /**
+     * 房源变更：同步标题和封面
+     */
+    @Modifying
+    @Query("UPDATE ConversationInbox i SET i.propertyTitle = :title, i.propertyCoverUrl = :coverUrl " +
+           "WHERE i.propertyId = :propertyId")
+    int updateProperty(@Param("propertyId") Long propertyId,
+                       @Param("title") String title,
+                       @Param("coverUrl") String coverUrl);
+
+    @Modifying
+    @Query("DELETE FROM ConversationInbox i WHERE i.propertyId = :propertyId")
+    int deleteByPropertyId(@Param("propertyId") Long propertyId);
+
+    /**
+     * 尚未生成收件箱记录的对话（用于回填）
+     */
+    @Query("SELECT c.id FROM Conversation c WHERE NOT EXISTS " +
+           "(SELECT 1 FROM ConversationInbox i WHERE i.conversationId = c.id)")
+    List<Long> findConversationIdsWithoutInbox();
+}
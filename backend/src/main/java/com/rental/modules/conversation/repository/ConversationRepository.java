@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -60,6 +61,12 @@ public interface ConversationRepository extends JpaRepository<Conversation, Long
     @Query("SELECT c FROM Conversation c WHERE c.id = :id AND (c.landlordId = :userId OR c.tenantId = :userId)")
     Optional<Conversation> findByIdAndParticipantId(@Param("id") Long id, @Param("userId") Long userId);
 
+    /**
+     * 用户参与的所有对话ID
+     */
+    @Query("SELECT c.id FROM Conversation c WHERE c.landlordId = :userId OR c.tenantId = :userId")
+    List<Long> findIdsByParticipantId(@Param("userId") Long userId);
+
     /**
      * 统计房东的未读消息总数
      */
@@ -72,6 +79,70 @@ public interface ConversationRepository extends JpaRepository<Conversation, Long
     @Query("SELECT COALESCE(SUM(c.unreadTenantCount), 0) FROM Conversation c WHERE c.tenantId = :tenantId")
     long countUnreadByTenantId(@Param("tenantId") Long tenantId);
 
+    /**
+     * 加载所有存在未读消息的对话的计数（启动时重建内存未读计数）
+     * 返回 [id, landlordId, tenantId, unreadLandlordCount, unreadTenantCount]
+     */
+    @Query("SELECT c.id, c.landlordId, c.tenantId, c.unreadLandlordCount, c.unreadTenantCount FROM Conversation c " +
+           "WHERE c.unreadLandlordCount > 0 OR c.unreadTenantCount > 0")
+    List<Object[]> findUnreadCounters();
+
+    /**
+     * 按 ID 加载对话的未读计数（含未读数为 0 的对话，用于重建期间变更对话的回放）
+     * 返回 [id, landlordId, tenantId, unreadLandlordCount, unreadTenantCount]
+     */
+    @Query("SELECT c.id, c.landlordId, c.tenantId, c.unreadLandlordCount, c.unreadTenantCount FROM Conversation c " +
+           "WHERE c.id IN :ids")
+    List<Object[]> findUnreadCountersByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 加载用户参与的全部对话的未读计数（按用户校正内存未读计数）
+     * 返回 [id, landlordId, tenantId, unreadLandlordCount, unreadTenantCount]
+     */
+    @Query("SELECT c.id, c.landlordId, c.tenantId, c.unreadLandlordCount, c.unreadTenantCount FROM Conversation c " +
+           "WHERE c.landlordId = :userId OR c.tenantId = :userId")
+    List<Object[]> findUnreadCountersByParticipant(@Param("userId") Long userId);
+
+    /**
+     * 原子增加房东未读数并更新最后消息（仅对进行中的对话生效）
+     * @return 受影响行数，0 表示对话不存在或已关闭
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Conversation c SET c.unreadLandlordCount = c.unreadLandlordCount + 1, " +
+           "c.lastMessage = :lastMessage, c.lastMessageAt = :lastMessageAt " +
+           "WHERE c.id = :conversationId AND c.status = com.rental.modules.conversation.entity.Conversation$ConversationStatus.active")
+    int incrementLandlordUnread(@Param("conversationId") Long conversationId,
+                                @Param("lastMessage") String lastMessage,
+                                @Param("lastMessageAt") LocalDateTime lastMessageAt);
+
+    /**
+     * 原子增加租客未读数并更新最后消息（仅对进行中的对话生效）
+     * @return 受影响行数，0 表示对话不存在或已关闭
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Conversation c SET c.unreadTenantCount = c.unreadTenantCount + 1, " +
+           "c.lastMessage = :lastMessage, c.lastMessageAt = :lastMessageAt " +
+           "WHERE c.id = :conversationId AND c.status = com.rental.modules.conversation.entity.Conversation$ConversationStatus.active")
+    int incrementTenantUnread(@Param("conversationId") Long conversationId,
+                              @Param("lastMessage") String lastMessage,
+                              @Param("lastMessageAt") LocalDateTime lastMessageAt);
+
+    /**
+     * 更新对话状态（只改 status 列，不覆盖并发事务维护的未读计数）
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Conversation c SET c.status = :status WHERE c.id = :conversationId")
+    int updateStatus(@Param("conversationId") Long conversationId,
+                     @Param("status") Conversation.ConversationStatus status);
+
+    /**
+     * 待归档的对话：已关闭、最后消息早于截止时间，且热表中仍有消息
+     */
+    @Query("SELECT c.id FROM Conversation c WHERE c.status = com.rental.modules.conversation.entity.Conversation$ConversationStatus.closed " +
+           "AND c.lastMessageAt < :cutoff AND EXISTS (SELECT 1 FROM Message m WHERE m.conversationId = c.id) " +
+           "ORDER BY c.lastMessageAt ASC")
+    List<Long> findIdsToArchive(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
     /**
      * 统计今日新增对话数
      */
@@ -0,0 +1,31 @@
+package com.rental.modules.conversation.repository;
+
+import com.rental.modules.conversation.entity.MessageArchiveImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 归档消息图片仓储接口
+ */
+@Repository
+public interface MessageArchiveImageRepository extends JpaRepository<MessageArchiveImage, Long> {
+
+    List<MessageArchiveImage> findByMessageIdIn(Collection<Long> messageIds);
+
+    /**
+     * 在数据库内把热表中指定 id 区间的消息图片复制到归档图片表，图片二进制不经过应用内存
+     */
+    @Modifying
+    @Query("INSERT INTO MessageArchiveImage (messageId, conversationId, contentType, data) " +
+           "SELECT m.id, m.conversationId, m.imageContentType, m.imageData FROM Message m " +
+           "WHERE m.conversationId = :conversationId AND m.id BETWEEN :fromId AND :toId AND m.imageData IS NOT NULL")
+    int copyFromMessages(@Param("conversationId") Long conversationId,
+                         @Param("fromId") Long fromId,
+                         @Param("toId") Long toId);
+}
@@ -0,0 +1,33 @@
+package com.rental.modules.conversation.repository;
+
+import com.rental.modules.conversation.entity.MessageArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 消息归档块仓储接口
+ * 先只查块 ID，再按需逐块加载，避免一次读出多个压缩载荷
+ */
+@Repository
+public interface MessageArchiveRepository extends JpaRepository<MessageArchive, Long> {
+
+    /**
+     * 含有早于指定消息的归档块（由新到旧）
+     */
+    @Query("SELECT a.id FROM MessageArchive a WHERE a.conversationId = :conversationId " +
+           "AND a.firstMessageId < :beforeId ORDER BY a.firstMessageId DESC")
+    List<Long> findIdsBefore(@Param("conversationId") Long conversationId, @Param("beforeId") Long beforeId);
+
+    /**
+     * 含有晚于指定消息的归档块（由旧到新）
+     */
+    @Query("SELECT a.id FROM MessageArchive a WHERE a.conversationId = :conversationId " +
+           "AND a.lastMessageId > :afterId ORDER BY a.firstMessageId ASC")
+    List<Long> findIdsAfter(@Param("conversationId") Long conversationId, @Param("afterId") Long afterId);
+
+    long countByConversationId(Long conversationId);
+}
@@ -1,12 +1,15 @@
 package com.rental.modules.conversation.repository;
 
+import com.rental.modules.conversation.dto.ArchivedMessage;
 import com.rental.modules.conversation.entity.Message;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -25,6 +28,56 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
      */
     List<Message> findByConversationIdOrderByCreatedAtDesc(Long conversationId);
 
+    /**
+     * 游标分页：最新的一页消息（按 id 倒序），走 (conversation_id, id) 索引
+     */
+    List<Message> findByConversationIdOrderByIdDesc(Long conversationId, Pageable pageable);
+
+    /**
+     * 游标分页：早于指定消息的一页（按 id 倒序）
+     */
+    List<Message> findByConversationIdAndIdLessThanOrderByIdDesc(Long conversationId, Long id, Pageable pageable);
+
+    /**
+     * 游标分页 / 增量拉取：晚于指定消息的一页（按 id 正序）
+     */
+    List<Message> findByConversationIdAndIdGreaterThanOrderByIdAsc(Long conversationId, Long id, Pageable pageable);
+
+    /**
+     * 按 id 顺序分批读取消息文本（重建检索索引用，不加载图片等大字段）
+     * 返回 [id, conversationId, content]
+     */
+    @Query("SELECT m.id, m.conversationId, m.content FROM Message m WHERE m.id > :afterId ORDER BY m.id ASC")
+    List<Object[]> findContentBatch(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * 按 ID 读取检索结果需要的字段（校验候选与生成命中片段用，不加载图片）
+     * 返回 [id, conversationId, senderId, senderRole, createdAt, content]
+     */
+    @Query("SELECT m.id, m.conversationId, m.senderId, m.senderRole, m.createdAt, m.content FROM Message m " +
+           "WHERE m.id IN :ids")
+    List<Object[]> findSearchFieldsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 归档用：按 id 正序读取对话中晚于指定消息的一块消息，不加载图片二进制
+     */
+    @Query("SELECT new com.rental.modules.conversation.dto.ArchivedMessage(m.id, m.conversationId, m.senderId, " +
+           "m.senderUsername, m.senderRealName, m.senderRole, m.content, m.imageUrl, m.imageContentType, " +
+           "m.isRead, m.createdAt) FROM Message m " +
+           "WHERE m.conversationId = :conversationId AND m.id > :afterId ORDER BY m.id ASC")
+    List<ArchivedMessage> findArchiveChunk(@Param("conversationId") Long conversationId,
+                                           @Param("afterId") Long afterId,
+                                           Pageable pageable);
+
+    /**
+     * 删除对话中指定 id 区间的消息（归档后清理热表）
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Message m WHERE m.conversationId = :conversationId AND m.id BETWEEN :fromId AND :toId")
+    int deleteRange(@Param("conversationId") Long conversationId,
+                    @Param("fromId") Long fromId,
+                    @Param("toId") Long toId);
+
     /**
      * 查找对话中未读消息数量
      */
@@ -0,0 +1,103 @@
+package com.rental.modules.conversation.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 消息内容倒排索引（内存）
+ * 词 -> 消息ID 集合；另维护消息ID -> 对话ID，用于按调用者可见的对话过滤。
+ * 删除/撤回只移除正排记录，倒排中的残留 ID 在查询时跳过并顺带清理，避免保存每条消息的词表。
+ */
+@Slf4j
+@Component
+public class MessageSearchIndex {
+
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final Map<Long, Long> messageConversations = new ConcurrentHashMap<>();
+
+    /**
+     * 索引一条消息（重复索引是幂等的）
+     */
+    public void add(Long messageId, Long conversationId, String content) {
+        Set<String> tokens = NgramTokenizer.tokenize(content);
+        if (tokens.isEmpty()) {
+            return;
+        }
+        messageConversations.put(messageId, conversationId);
+        for (String token : tokens) {
+            postings.computeIfAbsent(token, k -> ConcurrentHashMap.newKeySet()).add(messageId);
+        }
+    }
+
+    /**
+     * 移除一条消息
+     */
+    public void remove(Long messageId) {
+        messageConversations.remove(messageId);
+    }
+
+    /**
+     * 查找同时包含所有词、且属于指定对话集合的消息ID（按 id 倒序，即最新在前）
+     * @param tokens 查询词（已分词）
+     * @param conversationIds 允许的对话ID集合
+     */
+    public List<Long> search(Collection<String> tokens, Set<Long> conversationIds) {
+        List<Set<Long>> lists = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            Set<Long> ids = postings.get(token);
+            if (ids == null || ids.isEmpty()) {
+                return List.of();
+            }
+            lists.add(ids);
+        }
+        if (lists.isEmpty()) {
+            return List.of();
+        }
+        // 从最短的倒排表出发求交集
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> smallest = lists.get(0);
+
+        List<Long> result = new ArrayList<>();
+        for (Long messageId : smallest) {
+            Long conversationId = messageConversations.get(messageId);
+            if (conversationId == null) {
+                // 已删除/撤回的残留记录
+                smallest.remove(messageId);
+                continue;
+            }
+            if (!conversationIds.contains(conversationId)) {
+                continue;
+            }
+            boolean all = true;
+            for (int i = 1; i < lists.size() && all; i++) {
+                all = lists.get(i).contains(messageId);
+            }
+            if (all) {
+                result.add(messageId);
+            }
+        }
+        result.sort(Comparator.reverseOrder());
+        return result;
+    }
+
+    public void clear() {
+        postings.clear();
+        messageConversations.clear();
+    }
+
+    public int getDocumentCount() {
+        return messageConversations.size();
+    }
+
+    public int getTermCount() {
+        return postings.size();
+    }
+}
@@ -0,0 +1,78 @@
+package com.rental.modules.conversation.search;
+
+import com.rental.modules.conversation.event.ConversationMessageEvent;
+import com.rental.modules.conversation.repository.MessageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * 消息检索索引维护
+ * 启动时分批重建，之后跟随消息事件增量更新；均在 searchIndexExecutor 单线程上异步执行，
+ * 不增加发消息的响应时间，且重建与增量更新天然串行
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MessageSearchIndexer {
+
+    /**
+     * 撤回后的消息内容（与 MessageServiceImpl#recallMessage 一致），不参与检索
+     */
+    public static final String RECALLED_CONTENT = "[已撤回]";
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final MessageSearchIndex index;
+    private final MessageRepository messageRepository;
+
+    @Async("searchIndexExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        long lastId = 0L;
+        int total = 0;
+        try {
+            while (true) {
+                List<Object[]> batch = messageRepository.findContentBatch(lastId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (Object[] row : batch) {
+                    Long messageId = (Long) row[0];
+                    String content = (String) row[2];
+                    if (!RECALLED_CONTENT.equals(content)) {
+                        index.add(messageId, (Long) row[1], content);
+                    }
+                    lastId = messageId;
+                }
+                total += batch.size();
+                if (batch.size() < REBUILD_BATCH_SIZE) {
+                    break;
+                }
+            }
+            log.info("消息检索索引重建完成: messages={}, terms={}, 耗时 {} ms",
+                    total, index.getTermCount(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("消息检索索引重建失败: indexed={}, err={}", total, e.getMessage());
+        }
+    }
+
+    @Async("searchIndexExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageEvent(ConversationMessageEvent event) {
+        if (event.getMessage() == null) {
+            return;
+        }
+        Long messageId = event.getMessage().getId();
+        switch (event.getType()) {
+            case SENT -> index.add(messageId, event.getConversationId(), event.getMessage().getContent());
+            case RECALLED, DELETED -> index.remove(messageId);
+            default -> { }
+        }
+    }
+}
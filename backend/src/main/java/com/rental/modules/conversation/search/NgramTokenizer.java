@@ -0,0 +1,93 @@
+package com.rental.modules.conversation.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 消息检索分词器
+ * 中日韩文字按二元组（bigram）切分，孤立的单字区分度太低不建索引；
+ * 字母数字按连续片段作为一个词（小写）；其余字符（标点、空白等）视为分隔符。
+ * 索引与查询使用同一套规则，查询的所有词都命中才算匹配。
+ */
+public final class NgramTokenizer {
+
+    private NgramTokenizer() {
+    }
+
+    public static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase();
+
+        StringBuilder word = new StringBuilder();
+        int cjkRunStart = -1;
+        int length = normalized.length();
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? normalized.charAt(i) : ' ';
+            boolean cjk = isCjk(c);
+            boolean alnum = !cjk && Character.isLetterOrDigit(c);
+
+            if (!alnum && word.length() > 0) {
+                tokens.add(word.toString());
+                word.setLength(0);
+            }
+            if (alnum) {
+                word.append(c);
+            }
+
+            if (cjk) {
+                if (cjkRunStart < 0) {
+                    cjkRunStart = i;
+                }
+            } else if (cjkRunStart >= 0) {
+                addCjkRun(normalized, cjkRunStart, i, tokens);
+                cjkRunStart = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * 按与 tokenize 相同的分隔规则切出的连续片段（中日韩文字与字母数字，已规范化并转小写）
+     * 用于校验候选消息是否连续包含关键词的各个片段
+     */
+    public static List<String> segments(String text) {
+        List<String> segments = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return segments;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase();
+        int start = -1;
+        int length = normalized.length();
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? normalized.charAt(i) : ' ';
+            boolean separator = !isCjk(c) && !Character.isLetterOrDigit(c);
+            if (!separator && start < 0) {
+                start = i;
+            } else if (separator && start >= 0) {
+                segments.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return segments;
+    }
+
+    private static void addCjkRun(String text, int start, int end, Set<String> tokens) {
+        for (int i = start; i + 2 <= end; i++) {
+            tokens.add(text.substring(i, i + 2));
+        }
+    }
+
+    private static boolean isCjk(char c) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(c);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
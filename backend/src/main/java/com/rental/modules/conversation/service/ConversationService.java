@@ -62,6 +62,11 @@ public interface ConversationService {
      */
     long getUnreadCount(Long userId, String role);
 
+    /**
+     * 按数据库校正用户的内存未读计数后返回未读消息数
+     */
+    long reconcileUnreadCount(Long userId, String role);
+
     /**
      * 更新对话的最后消息
      */
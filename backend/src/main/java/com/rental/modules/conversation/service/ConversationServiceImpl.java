@@ -4,12 +4,14 @@ import com.rental.common.exception.BusinessException;
 import com.rental.common.ResultCode;
 import com.rental.modules.conversation.entity.Conversation;
 import com.rental.modules.conversation.entity.Message;
+import com.rental.modules.conversation.event.ConversationMessageEvent;
 import com.rental.modules.conversation.repository.ConversationRepository;
 import com.rental.modules.conversation.repository.MessageRepository;
 import com.rental.modules.property.entity.Property;
 import com.rental.modules.property.repository.PropertyRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -29,6 +31,8 @@ public class ConversationServiceImpl implements ConversationService {
     private final ConversationRepository conversationRepository;
     private final MessageRepository messageRepository;
     private final PropertyRepository propertyRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UnreadCounterService unreadCounterService;
 
     @Override
     @Transactional
@@ -71,15 +75,20 @@ public class ConversationServiceImpl implements ConversationService {
                 .content(message)
                 .isRead(false)
                 .build();
-        messageRepository.save(msg);
+        msg = messageRepository.save(msg);
 
-        // 更新对话的最后消息
+        // 更新对话的最后消息，房东未读数原子自增
         String preview = message.length() > 500 ? message.substring(0, 500) : message;
-        conversation.setLastMessage(preview);
-        conversation.setLastMessageAt(LocalDateTime.now());
-        conversation.setUnreadLandlordCount(conversation.getUnreadLandlordCount() + 1);
+        if (conversationRepository.incrementLandlordUnread(conversation.getId(), preview, LocalDateTime.now()) == 0) {
+            throw new BusinessException(ResultCode.MESSAGE_SEND_ERROR, "对话已关闭，无法发送消息");
+        }
+        conversation = conversationRepository.findById(conversation.getId())
+                .orElseThrow(() -> new BusinessException(ResultCode.CONVERSATION_NOT_FOUND));
+
+        eventPublisher.publishEvent(new ConversationMessageEvent(ConversationMessageEvent.Type.SENT,
+                conversation.getId(), conversation.getLandlordId(), conversation.getTenantId(), tenantId, msg));
 
-        return conversationRepository.save(conversation);
+        return conversation;
     }
 
     @Override
@@ -118,8 +127,13 @@ public class ConversationServiceImpl implements ConversationService {
     @Transactional
     public Conversation closeConversation(Long conversationId, Long userId) {
         Conversation conversation = getConversationById(conversationId, userId);
+        // 条件 UPDATE 只改状态列，整行 save 会用旧快照覆盖并发发送消息累加的未读数
+        conversationRepository.updateStatus(conversationId, Conversation.ConversationStatus.closed);
         conversation.setStatus(Conversation.ConversationStatus.closed);
-        return conversationRepository.save(conversation);
+
+        eventPublisher.publishEvent(new ConversationMessageEvent(ConversationMessageEvent.Type.CLOSED,
+                conversationId, conversation.getLandlordId(), conversation.getTenantId(), userId, null));
+        return conversation;
     }
 
     @Override
@@ -132,24 +146,25 @@ public class ConversationServiceImpl implements ConversationService {
             // 房东标记为已读
             messageRepository.markAllAsRead(conversationId);
             conversationRepository.markLandlordMessagesAsRead(conversationId);
-            conversation.setUnreadLandlordCount(0);
-            conversationRepository.save(conversation);
         } else {
             // 租客标记为已读
             messageRepository.markAllAsRead(conversationId);
             conversationRepository.markTenantMessagesAsRead(conversationId);
-            conversation.setUnreadTenantCount(0);
-            conversationRepository.save(conversation);
         }
+
+        eventPublisher.publishEvent(new ConversationMessageEvent(ConversationMessageEvent.Type.READ,
+                conversationId, conversation.getLandlordId(), conversation.getTenantId(), userId, null));
     }
 
     @Override
     public long getUnreadCount(Long userId, String role) {
-        if ("landlord".equals(role)) {
-            return conversationRepository.countUnreadByLandlordId(userId);
-        } else {
-            return conversationRepository.countUnreadByTenantId(userId);
-        }
+        return unreadCounterService.getUserUnread(userId, role);
+    }
+
+    @Override
+    public long reconcileUnreadCount(Long userId, String role) {
+        unreadCounterService.reconcileUser(userId);
+        return unreadCounterService.getUserUnread(userId, role);
     }
 
     @Override
@@ -0,0 +1,101 @@
+package com.rental.modules.conversation.service;
+
+import com.rental.modules.conversation.entity.Conversation;
+import com.rental.modules.conversation.entity.Message;
+import com.rental.modules.conversation.event.ConversationMessageEvent;
+import com.rental.modules.property.event.PropertyChangedEvent;
+import com.rental.modules.user.event.UserProfileChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * 收件箱读模型投影
+ * 在业务事务提交后根据消息、用户资料、房源事件更新 conversation_inbox；
+ * 投影失败只记录日志，不影响业务，可通过重建对话恢复
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InboxProjectionListener {
+
+    private final InboxService inboxService;
+
+    /**
+     * 启动时为历史对话回填收件箱
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            int count = inboxService.backfill();
+            if (count > 0) {
+                log.info("收件箱回填完成: conversations={}", count);
+            }
+        } catch (Exception e) {
+            log.warn("收件箱回填失败: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageEvent(ConversationMessageEvent event) {
+        try {
+            switch (event.getType()) {
+                case SENT -> applySent(event);
+                case READ -> inboxService.clearUnread(event.getConversationId(), event.getActorId());
+                case CLOSED -> inboxService.updateStatus(event.getConversationId(),
+                        Conversation.ConversationStatus.closed);
+                default -> { }
+            }
+        } catch (Exception e) {
+            log.warn("收件箱投影失败: type={}, conversationId={}, err={}",
+                    event.getType(), event.getConversationId(), e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserProfileChanged(UserProfileChangedEvent event) {
+        try {
+            inboxService.updateCounterpartName(event.getUserId(), event.getUsername(), event.getRealName());
+        } catch (Exception e) {
+            log.warn("收件箱同步用户资料失败: userId={}, err={}", event.getUserId(), e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        try {
+            switch (event.getType()) {
+                case UPDATED, IMAGES_CHANGED -> inboxService.refreshProperty(event.getPropertyId());
+                case DELETED -> inboxService.removeProperty(event.getPropertyId());
+                default -> { }
+            }
+        } catch (Exception e) {
+            log.warn("收件箱同步房源失败: propertyId={}, err={}", event.getPropertyId(), e.getMessage());
+        }
+    }
+
+    private void applySent(ConversationMessageEvent event) {
+        Message message = event.getMessage();
+        String preview = message.getContent();
+        if (message.getImageData() != null && message.getImageData().length > 0) {
+            preview = "[图片] " + preview;
+        }
+        if (preview != null && preview.length() > 500) {
+            preview = preview.substring(0, 500);
+        }
+        LocalDateTime sentAt = message.getCreatedAt() != null ? message.getCreatedAt() : LocalDateTime.now();
+
+        try {
+            inboxService.applyMessageSent(event.getConversationId(), event.getCounterpartId(), preview, sentAt);
+        } catch (DataIntegrityViolationException e) {
+            // 新对话的首条消息并发投影时唯一键冲突，此时记录已由另一方写入，重试走增量更新
+            inboxService.applyMessageSent(event.getConversationId(), event.getCounterpartId(), preview, sentAt);
+        }
+    }
+}
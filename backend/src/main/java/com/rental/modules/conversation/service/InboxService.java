@@ -0,0 +1,62 @@
+package com.rental.modules.conversation.service;
+
+import com.rental.modules.conversation.dto.InboxSlice;
+import com.rental.modules.conversation.entity.Conversation;
+
+import java.time.LocalDateTime;
+
+/**
+ * 对话收件箱读模型服务接口
+ */
+public interface InboxService {
+
+    /**
+     * 游标分页获取用户收件箱
+     * @param status 对话状态，null 表示全部
+     * @param cursorAt 上一页最后一条的 lastMessageAt，为空时返回第一页
+     * @param cursorId 上一页最后一条的 id
+     */
+    InboxSlice getInbox(Long userId, Conversation.ConversationStatus status,
+                        LocalDateTime cursorAt, Long cursorId, Integer limit);
+
+    /**
+     * 新消息：更新双方最后消息，接收方未读数加一；收件箱记录不存在时整行投影
+     */
+    void applyMessageSent(Long conversationId, Long recipientId, String preview, LocalDateTime sentAt);
+
+    /**
+     * 已读：清零该用户的未读数
+     */
+    void clearUnread(Long conversationId, Long userId);
+
+    /**
+     * 对话状态变化
+     */
+    void updateStatus(Long conversationId, Conversation.ConversationStatus status);
+
+    /**
+     * 根据对话当前数据重新投影双方的收件箱记录
+     */
+    void rebuildConversation(Long conversationId);
+
+    /**
+     * 用户资料变化：同步其作为对方时的展示名
+     */
+    void updateCounterpartName(Long userId, String username, String realName);
+
+    /**
+     * 房源变化：同步标题和封面
+     */
+    void refreshProperty(Long propertyId);
+
+    /**
+     * 房源删除：移除相关收件箱记录
+     */
+    void removeProperty(Long propertyId);
+
+    /**
+     * 为尚未生成收件箱记录的对话回填
+     * @return 回填的对话数
+     */
+    int backfill();
+}
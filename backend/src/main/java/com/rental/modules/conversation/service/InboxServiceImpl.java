@@ -0,0 +1,169 @@
+package com.rental.modules.conversation.service;
+
+import com.rental.modules.conversation.dto.InboxSlice;
+import com.rental.modules.conversation.entity.Conversation;
+import com.rental.modules.conversation.entity.ConversationInbox;
+import com.rental.modules.conversation.entity.Message;
+import com.rental.modules.conversation.repository.ConversationInboxRepository;
+import com.rental.modules.conversation.repository.ConversationRepository;
+import com.rental.modules.property.entity.PropertyImage;
+import com.rental.modules.property.repository.PropertyImageRepository;
+import com.rental.modules.property.repository.PropertyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 对话收件箱读模型服务实现
+ * 写方法多在业务事务提交后由事件监听器调用，因此使用独立事务
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InboxServiceImpl implements InboxService {
+
+    private final ConversationInboxRepository inboxRepository;
+    private final ConversationRepository conversationRepository;
+    private final PropertyRepository propertyRepository;
+    private final PropertyImageRepository propertyImageRepository;
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Override
+    public InboxSlice getInbox(Long userId, Conversation.ConversationStatus status,
+                               LocalDateTime cursorAt, Long cursorId, Integer limit) {
+        int size = limit == null || limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        PageRequest page = PageRequest.of(0, size + 1);
+
+        List<ConversationInbox> items = new ArrayList<>(cursorAt == null || cursorId == null
+                ? inboxRepository.findFirstPage(userId, status, page)
+                : inboxRepository.findPageAfter(userId, status, cursorAt, cursorId, page));
+
+        boolean hasMore = items.size() > size;
+        if (hasMore) {
+            items.remove(items.size() - 1);
+        }
+        ConversationInbox last = items.isEmpty() ? null : items.get(items.size() - 1);
+
+        return InboxSlice.builder()
+                .items(items)
+                .hasMore(hasMore)
+                .nextCursorAt(last != null ? last.getLastMessageAt() : null)
+                .nextCursorId(last != null ? last.getId() : null)
+                .build();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void applyMessageSent(Long conversationId, Long recipientId, String preview, LocalDateTime sentAt) {
+        int updated = inboxRepository.updateLastMessage(conversationId, preview, sentAt);
+        // 更新行数不足可能只是事件乱序（已记录更晚的消息），此时仍需累加未读数
+        if (updated < 2 && inboxRepository.countByConversationId(conversationId) < 2) {
+            // 新对话的第一条消息（或历史数据缺失），按对话当前数据整行投影，未读数已包含本条
+            rebuild(conversationId);
+            return;
+        }
+        inboxRepository.incrementUnread(conversationId, recipientId);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void clearUnread(Long conversationId, Long userId) {
+        inboxRepository.clearUnread(conversationId, userId);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void updateStatus(Long conversationId, Conversation.ConversationStatus status) {
+        inboxRepository.updateStatus(conversationId, status);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void rebuildConversation(Long conversationId) {
+        rebuild(conversationId);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void updateCounterpartName(Long userId, String username, String realName) {
+        int updated = inboxRepository.updateCounterpartName(userId, username, realName);
+        log.debug("收件箱同步用户资料: userId={}, rows={}", userId, updated);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void refreshProperty(Long propertyId) {
+        propertyRepository.findById(propertyId).ifPresent(property -> {
+            int updated = inboxRepository.updateProperty(propertyId, property.getTitle(), findCoverUrl(propertyId));
+            log.debug("收件箱同步房源: propertyId={}, rows={}", propertyId, updated);
+        });
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void removeProperty(Long propertyId) {
+        inboxRepository.deleteByPropertyId(propertyId);
+    }
+
+    @Override
+    @Transactional
+    public int backfill() {
+        List<Long> conversationIds = inboxRepository.findConversationIdsWithoutInbox();
+        conversationIds.forEach(this::rebuild);
+        return conversationIds.size();
+    }
+
+    /**
+     * 按对话当前数据（含 @Formula 展示名）写入双方的收件箱记录
+     */
+    private void rebuild(Long conversationId) {
+        Conversation conversation = conversationRepository.findById(conversationId).orElse(null);
+        if (conversation == null) {
+            return;
+        }
+        String coverUrl = findCoverUrl(conversation.getPropertyId());
+
+        ConversationInbox landlordRow = inboxRepository
+                .findByUserIdAndConversationId(conversation.getLandlordId(), conversationId)
+                .orElseGet(ConversationInbox::new);
+        fill(landlordRow, conversation, coverUrl, true);
+        inboxRepository.save(landlordRow);
+
+        ConversationInbox tenantRow = inboxRepository
+                .findByUserIdAndConversationId(conversation.getTenantId(), conversationId)
+                .orElseGet(ConversationInbox::new);
+        fill(tenantRow, conversation, coverUrl, false);
+        inboxRepository.save(tenantRow);
+    }
+
+    private void fill(ConversationInbox row, Conversation conversation, String coverUrl, boolean landlordSide) {
+        row.setUserId(landlordSide ? conversation.getLandlordId() : conversation.getTenantId());
+        row.setRole(landlordSide ? Message.SenderRole.landlord : Message.SenderRole.tenant);
+        row.setConversationId(conversation.getId());
+        row.setCounterpartId(landlordSide ? conversation.getTenantId() : conversation.getLandlordId());
+        row.setCounterpartUsername(landlordSide ? conversation.getTenantUsername() : conversation.getLandlordUsername());
+        row.setCounterpartRealName(landlordSide ? conversation.getTenantRealName() : conversation.getLandlordRealName());
+        row.setPropertyId(conversation.getPropertyId());
+        row.setPropertyTitle(conversation.getPropertyTitle());
+        row.setPropertyCoverUrl(coverUrl);
+        row.setLastMessage(conversation.getLastMessage());
+        row.setLastMessageAt(conversation.getLastMessageAt() != null
+                ? conversation.getLastMessageAt() : conversation.getCreatedAt());
+        row.setUnreadCount(landlordSide ? conversation.getUnreadLandlordCount() : conversation.getUnreadTenantCount());
+        row.setStatus(conversation.getStatus());
+    }
+
+    private String findCoverUrl(Long propertyId) {
+        List<PropertyImage> images = propertyImageRepository.findByPropertyIdOrderBySortOrderAsc(propertyId);
+        return images.isEmpty() ? null : images.get(0).getImageUrl();
+    }
+}
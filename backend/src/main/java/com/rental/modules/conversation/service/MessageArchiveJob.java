@@ -0,0 +1,65 @@
+package com.rental.modules.conversation.service;
+
+import com.rental.modules.conversation.repository.ConversationRepository;
+import com.rental.modules.conversation.search.MessageSearchIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 消息冷归档定时任务
+ * 将已关闭且超过 N 天无新消息的对话移入冷存储，每个对话独立事务，单个失败不影响其他对话
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MessageArchiveJob {
+
+    private final ConversationRepository conversationRepository;
+    private final MessageArchiveService messageArchiveService;
+    private final MessageSearchIndex messageSearchIndex;
+
+    @Value("${app.chat.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.chat.archive.after-days:180}")
+    private int afterDays;
+
+    @Value("${app.chat.archive.conversations-per-run:200}")
+    private int conversationsPerRun;
+
+    @Scheduled(cron = "${app.chat.archive.cron:0 30 3 * * ?}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(afterDays);
+        List<Long> conversationIds = conversationRepository.findIdsToArchive(cutoff, PageRequest.of(0, conversationsPerRun));
+        if (conversationIds.isEmpty()) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        int conversations = 0;
+        int messages = 0;
+        for (Long conversationId : conversationIds) {
+            try {
+                List<Long> archivedIds = messageArchiveService.archiveConversation(conversationId);
+                // 冷数据不参与全文检索
+                archivedIds.forEach(messageSearchIndex::remove);
+                conversations++;
+                messages += archivedIds.size();
+            } catch (Exception e) {
+                log.warn("对话消息归档失败: conversationId={}, err={}", conversationId, e.getMessage());
+            }
+        }
+        log.info("消息归档完成: conversations={}, messages={}, 耗时 {} ms",
+                conversations, messages, System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,33 @@
+package com.rental.modules.conversation.service;
+
+import com.rental.modules.conversation.entity.Message;
+
+import java.util.List;
+
+/**
+ * 消息冷存储归档服务接口
+ */
+public interface MessageArchiveService {
+
+    /**
+     * 将对话热表中的全部消息分块压缩归档，并从热表删除
+     * @return 归档的消息 ID（按 id 正序）
+     */
+    List<Long> archiveConversation(Long conversationId);
+
+    /**
+     * 从冷存储读取早于 beforeId 的消息（按 id 倒序）
+     * @param beforeId 为 null 时从最新的归档消息开始
+     */
+    List<Message> findBefore(Long conversationId, Long beforeId, int limit);
+
+    /**
+     * 从冷存储读取晚于 afterId 的消息（按 id 正序）
+     */
+    List<Message> findAfter(Long conversationId, Long afterId, int limit);
+
+    /**
+     * 读取对话的全部归档消息（按 id 正序）
+     */
+    List<Message> findAll(Long conversationId);
+}
@@ -0,0 +1,160 @@
+package com.rental.modules.conversation.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rental.modules.conversation.dto.ArchivedMessage;
+import com.rental.modules.conversation.entity.Message;
+import com.rental.modules.conversation.entity.MessageArchive;
+import com.rental.modules.conversation.entity.MessageArchiveImage;
+import com.rental.modules.conversation.repository.MessageArchiveImageRepository;
+import com.rental.modules.conversation.repository.MessageArchiveRepository;
+import com.rental.modules.conversation.repository.MessageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 消息冷存储归档服务实现
+ * 归档块为 gzip 压缩的消息 JSON 数组，读取时按块解压，只在用户翻到热表之外的历史时才会触达
+ * 图片二进制不写入归档块：归档时按 id 区间在数据库内 INSERT … SELECT 复制到 message_archive_images，
+ * 读取块内消息也不加载图片列；读取时只为返回的消息加载
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MessageArchiveServiceImpl implements MessageArchiveService {
+
+    private static final TypeReference<List<ArchivedMessage>> MESSAGE_LIST = new TypeReference<>() { };
+
+    private final MessageRepository messageRepository;
+    private final MessageArchiveRepository archiveRepository;
+    private final MessageArchiveImageRepository archiveImageRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.chat.archive.chunk-size:500}")
+    private int chunkSize;
+
+    @Override
+    @Transactional
+    public List<Long> archiveConversation(Long conversationId) {
+        List<Long> archivedIds = new ArrayList<>();
+        long lastId = 0L;
+        while (true) {
+            List<ArchivedMessage> chunk = messageRepository.findArchiveChunk(
+                    conversationId, lastId, PageRequest.of(0, chunkSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            Long firstId = chunk.get(0).getId();
+            lastId = chunk.get(chunk.size() - 1).getId();
+
+            archiveRepository.save(MessageArchive.builder()
+                    .conversationId(conversationId)
+                    .firstMessageId(firstId)
+                    .lastMessageId(lastId)
+                    .messageCount(chunk.size())
+                    .payload(compress(chunk))
+                    .build());
+            archiveImageRepository.copyFromMessages(conversationId, firstId, lastId);
+            messageRepository.deleteRange(conversationId, firstId, lastId);
+            chunk.forEach(m -> archivedIds.add(m.getId()));
+        }
+        return archivedIds;
+    }
+
+    @Override
+    public List<Message> findBefore(Long conversationId, Long beforeId, int limit) {
+        long cursor = beforeId != null ? beforeId : Long.MAX_VALUE;
+        List<Message> result = new ArrayList<>(limit);
+        for (Long archiveId : archiveRepository.findIdsBefore(conversationId, cursor)) {
+            List<Message> messages = load(archiveId);
+            for (int i = messages.size() - 1; i >= 0 && result.size() < limit; i--) {
+                if (messages.get(i).getId() < cursor) {
+                    result.add(messages.get(i));
+                }
+            }
+            if (result.size() >= limit) {
+                break;
+            }
+        }
+        return attachImages(result);
+    }
+
+    @Override
+    public List<Message> findAfter(Long conversationId, Long afterId, int limit) {
+        List<Message> result = new ArrayList<>(limit);
+        for (Long archiveId : archiveRepository.findIdsAfter(conversationId, afterId)) {
+            for (Message message : load(archiveId)) {
+                if (message.getId() > afterId && result.size() < limit) {
+                    result.add(message);
+                }
+            }
+            if (result.size() >= limit) {
+                break;
+            }
+        }
+        return attachImages(result);
+    }
+
+    @Override
+    public List<Message> findAll(Long conversationId) {
+        List<Message> result = new ArrayList<>();
+        for (Long archiveId : archiveRepository.findIdsAfter(conversationId, 0L)) {
+            result.addAll(load(archiveId));
+        }
+        return attachImages(result);
+    }
+
+    private List<Message> load(Long archiveId) {
+        return archiveRepository.findById(archiveId)
+                .map(archive -> decompress(archive.getPayload()))
+                .orElse(Collections.emptyList());
+    }
+
+    /**
+     * 只为最终返回的、带图片的归档消息加载图片
+     */
+    private List<Message> attachImages(List<Message> messages) {
+        List<Long> ids = messages.stream().filter(m -> m.getImageContentType() != null).map(Message::getId).toList();
+        if (ids.isEmpty()) {
+            return messages;
+        }
+        Map<Long, byte[]> images = archiveImageRepository.findByMessageIdIn(ids).stream()
+                .collect(Collectors.toMap(MessageArchiveImage::getMessageId, MessageArchiveImage::getData));
+        messages.forEach(m -> m.setImageData(images.get(m.getId())));
+        return messages;
+    }
+
+    private byte[] compress(List<ArchivedMessage> messages) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            objectMapper.writeValue(gzip, messages);
+        } catch (IOException e) {
+            throw new UncheckedIOException("消息归档序列化失败", e);
+        }
+        return out.toByteArray();
+    }
+
+    private List<Message> decompress(byte[] payload) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            return objectMapper.readValue(gzip, MESSAGE_LIST).stream().map(ArchivedMessage::toMessage).toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("消息归档反序列化失败", e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.rental.modules.conversation.service;
+
+import com.rental.modules.conversation.dto.MessageSearchResult;
+
+/**
+ * 消息检索服务接口
+ */
+public interface MessageSearchService {
+
+    /**
+     * 在用户参与的对话中检索消息
+     * @param conversationId 限定在某个对话内检索，可为 null
+     */
+    MessageSearchResult search(Long userId, String keyword, Long conversationId, int page, int size);
+}
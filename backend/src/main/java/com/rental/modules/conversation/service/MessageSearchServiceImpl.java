@@ -0,0 +1,219 @@
+package com.rental.modules.conversation.service;
+
+import com.rental.common.ResultCode;
+import com.rental.common.exception.BusinessException;
+import com.rental.modules.conversation.dto.MessageSearchHit;
+import com.rental.modules.conversation.dto.MessageSearchResult;
+import com.rental.modules.conversation.entity.ConversationInbox;
+import com.rental.modules.conversation.entity.Message;
+import com.rental.modules.conversation.repository.ConversationInboxRepository;
+import com.rental.modules.conversation.repository.ConversationRepository;
+import com.rental.modules.conversation.repository.MessageRepository;
+import com.rental.modules.conversation.search.MessageSearchIndex;
+import com.rental.modules.conversation.search.NgramTokenizer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+
+import java.text.BreakIterator;
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 消息检索服务实现
+ * 候选集来自内存倒排索引（按二元组求交集，可能包含不连续命中的消息），
+ * 按最新在前分批回表读取文本校验，凑够到当前页末尾的命中即停止；总数在候选未校验完时为上限估计
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MessageSearchServiceImpl implements MessageSearchService {
+
+    private final MessageSearchIndex searchIndex;
+    private final MessageRepository messageRepository;
+    private final ConversationRepository conversationRepository;
+    private final ConversationInboxRepository inboxRepository;
+
+    private static final int MAX_PAGE_SIZE = 50;
+    private static final int MAX_KEYWORD_LENGTH = 50;
+    private static final int SNIPPET_LENGTH = 100;
+    private static final int SNIPPET_LEADING = 30;
+    private static final int VERIFY_BATCH = 200;
+
+    @Override
+    public MessageSearchResult search(Long userId, String keyword, Long conversationId, int page, int size) {
+        if (keyword == null || keyword.isBlank()) {
+            throw new BusinessException("请输入搜索关键词");
+        }
+        if (keyword.length() > MAX_KEYWORD_LENGTH) {
+            throw new BusinessException("搜索关键词过长");
+        }
+        Set<String> tokens = NgramTokenizer.tokenize(keyword);
+        if (tokens.isEmpty()) {
+            throw new BusinessException("关键词过短，请至少输入两个字");
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int pageNo = Math.max(0, page);
+
+        // 只在调用者参与的对话中检索
+        Set<Long> allowed = new HashSet<>(conversationRepository.findIdsByParticipantId(userId));
+        if (conversationId != null) {
+            if (!allowed.contains(conversationId)) {
+                throw new BusinessException(ResultCode.CONVERSATION_NOT_FOUND);
+            }
+            allowed = Set.of(conversationId);
+        }
+
+        List<Long> candidates = searchIndex.search(tokens, allowed);
+        List<String> terms = NgramTokenizer.segments(keyword);
+        int from = pageNo * pageSize;
+        int needed = from + pageSize;
+
+        // 逐批校验候选，只保留落在当前页的命中
+        List<Object[]> pageRows = new ArrayList<>(pageSize);
+        int matched = 0;
+        int scanned = 0;
+        while (scanned < candidates.size() && matched < needed) {
+            List<Long> batch = candidates.subList(scanned, Math.min(scanned + VERIFY_BATCH, candidates.size()));
+            Map<Long, Object[]> rows = messageRepository.findSearchFieldsByIds(batch).stream()
+                    .collect(Collectors.toMap(row -> (Long) row[0], Function.identity()));
+            for (Long messageId : batch) {
+                scanned++;
+                Object[] row = rows.get(messageId);
+                // 已删除，或二元组都命中但原文并不连续包含关键词
+                if (row == null || !containsAll((String) row[5], terms)) {
+                    continue;
+                }
+                if (matched >= from) {
+                    pageRows.add(row);
+                }
+                if (++matched >= needed) {
+                    break;
+                }
+            }
+        }
+        boolean estimated = scanned < candidates.size();
+
+        return MessageSearchResult.builder()
+                .hits(pageRows.isEmpty() ? List.of() : buildHits(userId, pageRows, terms))
+                .total(estimated ? matched + (candidates.size() - scanned) : matched)
+                .totalEstimated(estimated)
+                .page(pageNo)
+                .size(pageSize)
+                .build();
+    }
+
+    private List<MessageSearchHit> buildHits(Long userId, List<Object[]> rows, List<String> terms) {
+        Set<Long> conversationIds = rows.stream()
+                .map(row -> (Long) row[1]).collect(Collectors.toSet());
+        Map<Long, ConversationInbox> inbox = inboxRepository
+                .findByUserIdAndConversationIdIn(userId, conversationIds).stream()
+                .collect(Collectors.toMap(ConversationInbox::getConversationId, Function.identity(), (a, b) -> a));
+
+        List<MessageSearchHit> hits = new ArrayList<>(rows.size());
+        for (Object[] message : rows) {
+            ConversationInbox row = inbox.get((Long) message[1]);
+            hits.add(MessageSearchHit.builder()
+                    .messageId((Long) message[0])
+                    .conversationId((Long) message[1])
+                    .senderId((Long) message[2])
+                    .senderRole((Message.SenderRole) message[3])
+                    .createdAt((LocalDateTime) message[4])
+                    .snippet(highlight((String) message[5], terms))
+                    .counterpartName(row != null ? displayName(row) : null)
+                    .propertyTitle(row != null ? row.getPropertyTitle() : null)
+                    .build());
+        }
+        return hits;
+    }
+
+    private boolean containsAll(String content, List<String> terms) {
+        if (content == null) {
+            return false;
+        }
+        String normalized = normalize(content);
+        return terms.stream().allMatch(normalized::contains);
+    }
+
+    /**
+     * 截取首个命中附近的片段，HTML 转义后用 <em> 标记关键词
+     * 关键词已做 NFKC + 小写规范化，规范化可能改变长度（如全角字符、「İ」），
+     * 因此逐字形簇规范化原文并记录每个规范化字符来自原文的哪一段，在规范化文本上匹配后映射回原文
+     */
+    static String highlight(String content, List<String> terms) {
+        BreakIterator clusters = BreakIterator.getCharacterInstance(Locale.ROOT);
+        clusters.setText(content);
+        StringBuilder normalized = new StringBuilder(content.length());
+        int[] originStart = new int[content.length() + 1];
+        int[] originEnd = new int[content.length() + 1];
+        for (int s = clusters.first(), e = clusters.next(); e != BreakIterator.DONE; s = e, e = clusters.next()) {
+            String part = normalize(content.substring(s, e));
+            if (normalized.length() + part.length() > originStart.length) {
+                int capacity = Math.max(originStart.length * 2, normalized.length() + part.length());
+                originStart = Arrays.copyOf(originStart, capacity);
+                originEnd = Arrays.copyOf(originEnd, capacity);
+            }
+            for (int k = 0; k < part.length(); k++) {
+                originStart[normalized.length() + k] = s;
+                originEnd[normalized.length() + k] = e;
+            }
+            normalized.append(part);
+        }
+
+        boolean[] marked = new boolean[content.length()];
+        int first = content.length();
+        for (String term : terms) {
+            int from = 0;
+            int at;
+            while (!term.isEmpty() && (at = normalized.indexOf(term, from)) >= 0) {
+                int hitStart = originStart[at];
+                Arrays.fill(marked, hitStart, originEnd[at + term.length() - 1], true);
+                first = Math.min(first, hitStart);
+                from = at + term.length();
+            }
+        }
+        if (first == content.length()) {
+            first = 0;
+        }
+        int start = Math.max(0, first - SNIPPET_LEADING);
+        int end = Math.min(content.length(), start + SNIPPET_LENGTH);
+
+        StringBuilder sb = new StringBuilder();
+        if (start > 0) {
+            sb.append("…");
+        }
+        int i = start;
+        while (i < end) {
+            int j = i;
+            while (j < end && marked[j] == marked[i]) {
+                j++;
+            }
+            String part = HtmlUtils.htmlEscape(content.substring(i, j));
+            sb.append(marked[i] ? "<em>" + part + "</em>" : part);
+            i = j;
+        }
+        if (end < content.length()) {
+            sb.append("…");
+        }
+        return sb.toString();
+    }
+
+    private String displayName(ConversationInbox row) {
+        return row.getCounterpartRealName() != null && !row.getCounterpartRealName().isBlank()
+                ? row.getCounterpartRealName() : row.getCounterpartUsername();
+    }
+
+    static String normalize(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase();
+    }
+}
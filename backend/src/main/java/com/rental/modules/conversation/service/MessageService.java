@@ -1,5 +1,6 @@
 package com.rental.modules.conversation.service;
 
+import com.rental.modules.conversation.dto.MessageSlice;
 import com.rental.modules.conversation.entity.Message;
 
 import java.util.List;
@@ -21,6 +22,16 @@ public interface MessageService {
      */
     List<Message> getMessagesByConversationId(Long conversationId);
 
+    /**
+     * 游标分页获取消息，基于 (conversation_id, id)
+     * before 与 after 均为空时返回最新一页；
+     * after 也用于增量拉取（since=lastSeenId），只返回客户端尚未见过的消息
+     * @param before 返回 id 小于该值的消息（向上翻历史）
+     * @param after 返回 id 大于该值的消息（向下翻 / 增量）
+     * @param limit 每页条数，超出上限会被截断
+     */
+    MessageSlice getMessageSlice(Long conversationId, Long before, Long after, Integer limit);
+
     /**
      * 根据ID获取消息
      */
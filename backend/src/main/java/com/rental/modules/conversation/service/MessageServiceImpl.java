@@ -2,17 +2,23 @@ package com.rental.modules.conversation.service;
 
 import com.rental.common.exception.BusinessException;
 import com.rental.common.ResultCode;
+import com.rental.modules.conversation.dto.MessageSlice;
 import com.rental.modules.conversation.entity.Conversation;
 import com.rental.modules.conversation.entity.Message;
+import com.rental.modules.conversation.event.ConversationMessageEvent;
 import com.rental.modules.conversation.repository.ConversationRepository;
 import com.rental.modules.conversation.repository.MessageRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -25,6 +31,11 @@ public class MessageServiceImpl implements MessageService {
 
     private final MessageRepository messageRepository;
     private final ConversationRepository conversationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MessageArchiveService messageArchiveService;
+
+    private static final int DEFAULT_SLICE_SIZE = 30;
+    private static final int MAX_SLICE_SIZE = 100;
 
     @Override
     @Transactional
@@ -53,7 +64,7 @@ public class MessageServiceImpl implements MessageService {
         }
         Message message = messageRepository.save(builder.build());
 
-        // 更新对话的最后消息和未读数
+        // 更新对话的最后消息和未读数（条件 UPDATE 原子自增，避免并发下丢失计数）
         String preview = content;
         if (hasImage) {
             preview = "[图片] " + content;
@@ -61,24 +72,74 @@ public class MessageServiceImpl implements MessageService {
         if (preview.length() > 500) {
             preview = preview.substring(0, 500);
         }
-        conversation.setLastMessage(preview);
-        conversation.setLastMessageAt(LocalDateTime.now());
 
         // 根据发送者角色增加对应未读数
-        if (Message.SenderRole.landlord.name().equals(senderRole)) {
-            conversation.setUnreadTenantCount(conversation.getUnreadTenantCount() + 1);
-        } else {
-            conversation.setUnreadLandlordCount(conversation.getUnreadLandlordCount() + 1);
+        int updated = Message.SenderRole.landlord.name().equals(senderRole)
+                ? conversationRepository.incrementTenantUnread(conversationId, preview, LocalDateTime.now())
+                : conversationRepository.incrementLandlordUnread(conversationId, preview, LocalDateTime.now());
+        if (updated == 0) {
+            // 校验之后对话被并发关闭
+            throw new BusinessException(ResultCode.MESSAGE_SEND_ERROR, "对话已关闭，无法发送消息");
         }
 
-        conversationRepository.save(conversation);
+        eventPublisher.publishEvent(new ConversationMessageEvent(ConversationMessageEvent.Type.SENT,
+                conversationId, conversation.getLandlordId(), conversation.getTenantId(), senderId, message));
 
         return message;
     }
 
     @Override
     public List<Message> getMessagesByConversationId(Long conversationId) {
-        return messageRepository.findByConversationIdOrderByCreatedAtAsc(conversationId);
+        // 归档消息的 id 均小于热表中的消息，先冷后热即为整体正序
+        List<Message> messages = new ArrayList<>(messageArchiveService.findAll(conversationId));
+        messages.addAll(messageRepository.findByConversationIdOrderByCreatedAtAsc(conversationId));
+        return messages;
+    }
+
+    @Override
+    public MessageSlice getMessageSlice(Long conversationId, Long before, Long after, Integer limit) {
+        if (before != null && after != null) {
+            throw new BusinessException("before 与 after 不能同时指定");
+        }
+        int size = limit == null || limit <= 0 ? DEFAULT_SLICE_SIZE : Math.min(limit, MAX_SLICE_SIZE);
+        // 多取一条用于判断是否还有更多，避免额外的 count 查询
+        PageRequest page = PageRequest.of(0, size + 1);
+
+        List<Message> messages;
+        if (after != null) {
+            // 归档消息 id 更小：先取冷存储中 after 之后的部分（通常为空，只是一次索引查询），不足再查热表
+            messages = new ArrayList<>(messageArchiveService.findAfter(conversationId, after, size + 1));
+            if (messages.size() <= size) {
+                Long cursor = messages.isEmpty() ? after : messages.get(messages.size() - 1).getId();
+                messages.addAll(messageRepository.findByConversationIdAndIdGreaterThanOrderByIdAsc(
+                        conversationId, cursor, PageRequest.of(0, size + 1 - messages.size())));
+            }
+        } else {
+            messages = new ArrayList<>(before != null
+                    ? messageRepository.findByConversationIdAndIdLessThanOrderByIdDesc(conversationId, before, page)
+                    : messageRepository.findByConversationIdOrderByIdDesc(conversationId, page));
+            // 热表已翻到底，才从冷存储补齐
+            if (messages.size() <= size) {
+                Long cursor = messages.isEmpty() ? before : messages.get(messages.size() - 1).getId();
+                messages.addAll(messageArchiveService.findBefore(conversationId, cursor, size + 1 - messages.size()));
+            }
+        }
+
+        boolean hasMore = messages.size() > size;
+        if (hasMore) {
+            messages.remove(messages.size() - 1);
+        }
+        if (after == null) {
+            // 倒序查询的结果翻转为正序返回
+            Collections.reverse(messages);
+        }
+
+        return MessageSlice.builder()
+                .messages(messages)
+                .hasMore(hasMore)
+                .prevCursor(messages.isEmpty() ? before : messages.get(0).getId())
+                .nextCursor(messages.isEmpty() ? after : messages.get(messages.size() - 1).getId())
+                .build();
     }
 
     @Override
@@ -106,6 +167,8 @@ public class MessageServiceImpl implements MessageService {
         // 删除消息
         messageRepository.delete(message);
         log.info("消息已删除: messageId={}", messageId);
+
+        publishEvent(ConversationMessageEvent.Type.DELETED, message, userId);
     }
 
     @Override
@@ -134,6 +197,17 @@ public class MessageServiceImpl implements MessageService {
         message = messageRepository.save(message);
 
         log.info("消息已撤回: messageId={}", messageId);
+
+        publishEvent(ConversationMessageEvent.Type.RECALLED, message, userId);
         return message;
     }
+
+    /**
+     * 发布消息事件（需要对话参与方信息用于推送）
+     */
+    private void publishEvent(ConversationMessageEvent.Type type, Message message, Long actorId) {
+        conversationRepository.findById(message.getConversationId()).ifPresent(conversation ->
+                eventPublisher.publishEvent(new ConversationMessageEvent(type, conversation.getId(),
+                        conversation.getLandlordId(), conversation.getTenantId(), actorId, message)));
+    }
 }
@@ -0,0 +1,224 @@
+package com.rental.modules.conversation.service;
+
+import com.rental.modules.conversation.event.ConversationMessageEvent;
+import com.rental.modules.conversation.repository.ConversationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 内存未读计数
+ * 按对话、按用户维护未读数，ConcurrentHashMap 分段加锁 + 原子计数，避免每次轮询都对 conversations 做 SUM。
+ * 数据库中的 unread_*_count 由业务事务通过条件 UPDATE 原子维护，是持久化的准确值；
+ * 这里在事务提交后跟随消息事件更新，启动时从数据库重建。
+ * 重建与消息事件并发时，新计数在独立的 Map 中构建后整体替换，期间变更的对话再从数据库校正。
+ * 已读事件以数据库提交后的值覆盖计数；已读与新消息并发时仍可能短暂漂移，由定时重建和用户连接时的按用户校正收敛。
+ * 注意：计数仅在本节点内存中，多节点部署时需改为集中存储。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UnreadCounterService {
+
+    private static final int MAX_REPLAY_ROUNDS = 5;
+
+    private final ConversationRepository conversationRepository;
+
+    // 重建时整体替换，读写前先取当前引用
+    private volatile Map<Long, ConversationCounter> conversationCounters = new ConcurrentHashMap<>();
+    private volatile Map<Long, AtomicLong> landlordTotals = new ConcurrentHashMap<>();
+    private volatile Map<Long, AtomicLong> tenantTotals = new ConcurrentHashMap<>();
+
+    // 重建完成前读请求回落到数据库
+    private volatile boolean ready = false;
+
+    // 重建期间收到消息事件的对话，替换后按数据库重新校正
+    private boolean rebuilding;
+    private final Set<Long> changedDuringRebuild = new HashSet<>();
+
+    /**
+     * 启动时及定时从数据库重建未读计数
+     * 在新的 Map 中构建后整体替换；重建期间变更的对话在替换后从数据库重新加载，直到没有新的变更
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.chat.unread.reconcile-cron:0 */10 * * * ?}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        synchronized (this) {
+            rebuilding = true;
+            changedDuringRebuild.clear();
+        }
+        int size;
+        try {
+            List<Object[]> rows = conversationRepository.findUnreadCounters();
+            Map<Long, ConversationCounter> newCounters = new ConcurrentHashMap<>();
+            Map<Long, AtomicLong> newLandlordTotals = new ConcurrentHashMap<>();
+            Map<Long, AtomicLong> newTenantTotals = new ConcurrentHashMap<>();
+            for (Object[] row : rows) {
+                int landlordUnread = ((Number) row[3]).intValue();
+                int tenantUnread = ((Number) row[4]).intValue();
+                ConversationCounter counter = newCounters.computeIfAbsent((Long) row[0], k -> new ConversationCounter());
+                counter.landlordUnread.set(landlordUnread);
+                counter.tenantUnread.set(tenantUnread);
+                totalOf(newLandlordTotals, (Long) row[1]).addAndGet(landlordUnread);
+                totalOf(newTenantTotals, (Long) row[2]).addAndGet(tenantUnread);
+            }
+            size = rows.size();
+            synchronized (this) {
+                conversationCounters = newCounters;
+                landlordTotals = newLandlordTotals;
+                tenantTotals = newTenantTotals;
+            }
+            for (int round = 0; round < MAX_REPLAY_ROUNDS; round++) {
+                List<Long> replay;
+                synchronized (this) {
+                    replay = new ArrayList<>(changedDuringRebuild);
+                    changedDuringRebuild.clear();
+                }
+                if (replay.isEmpty()) {
+                    break;
+                }
+                reload(replay);
+            }
+        } catch (RuntimeException e) {
+            log.warn("未读计数重建失败，继续使用现有数据: {}", e.getMessage());
+            return;
+        } finally {
+            synchronized (this) {
+                rebuilding = false;
+                changedDuringRebuild.clear();
+            }
+        }
+        ready = true;
+        log.info("未读计数已重建: conversations={}, 耗时 {} ms", size, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 事务提交后跟随消息事件更新计数
+     * 优先级最高，保证实时推送读取到的是更新后的未读数
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageEvent(ConversationMessageEvent event) {
+        markChanged(event.getConversationId());
+        switch (event.getType()) {
+            case SENT -> increment(event.getConversationId(), event.getLandlordId(), event.getTenantId(),
+                    !event.isActorLandlord());
+            case READ -> reload(List.of(event.getConversationId()));
+            default -> { }
+        }
+    }
+
+    /**
+     * 按数据库校正单个用户的计数
+     * 复用重建的计数查询：用户参与的对话逐个覆盖，用户自身的两类总数直接置为数据库合计
+     */
+    public void reconcileUser(Long userId) {
+        if (!ready) {
+            return;
+        }
+        List<Object[]> rows = conversationRepository.findUnreadCountersByParticipant(userId);
+        apply(rows);
+        long landlordUnread = 0;
+        long tenantUnread = 0;
+        for (Object[] row : rows) {
+            if (userId.equals(row[1])) {
+                landlordUnread += ((Number) row[3]).longValue();
+            }
+            if (userId.equals(row[2])) {
+                tenantUnread += ((Number) row[4]).longValue();
+            }
+        }
+        totalOf(landlordTotals, userId).set(landlordUnread);
+        totalOf(tenantTotals, userId).set(tenantUnread);
+    }
+
+    /**
+     * 获取用户的未读消息总数
+     */
+    public long getUserUnread(Long userId, String role) {
+        boolean landlord = "landlord".equals(role);
+        if (!ready) {
+            return landlord ? conversationRepository.countUnreadByLandlordId(userId)
+                    : conversationRepository.countUnreadByTenantId(userId);
+        }
+        AtomicLong total = (landlord ? landlordTotals : tenantTotals).get(userId);
+        return total == null ? 0 : Math.max(0, total.get());
+    }
+
+    /**
+     * 获取对话中某一方的未读数
+     */
+    public int getConversationUnread(Long conversationId, boolean landlord) {
+        ConversationCounter counter = conversationCounters.get(conversationId);
+        if (counter == null) {
+            return 0;
+        }
+        return landlord ? counter.landlordUnread.get() : counter.tenantUnread.get();
+    }
+
+    private void increment(Long conversationId, Long landlordId, Long tenantId, boolean toLandlord) {
+        ConversationCounter counter = counterOf(conversationId);
+        if (toLandlord) {
+            counter.landlordUnread.incrementAndGet();
+            totalOf(landlordTotals, landlordId).incrementAndGet();
+        } else {
+            counter.tenantUnread.incrementAndGet();
+            totalOf(tenantTotals, tenantId).incrementAndGet();
+        }
+    }
+
+    private synchronized void markChanged(Long conversationId) {
+        if (rebuilding) {
+            changedDuringRebuild.add(conversationId);
+        }
+    }
+
+    /**
+     * 以数据库中的值覆盖指定对话的计数，用户总数按差值调整
+     */
+    private void reload(List<Long> conversationIds) {
+        apply(conversationRepository.findUnreadCountersByIds(conversationIds));
+    }
+
+    private void apply(List<Object[]> rows) {
+        for (Object[] row : rows) {
+            ConversationCounter counter = counterOf((Long) row[0]);
+            int landlordUnread = ((Number) row[3]).intValue();
+            int tenantUnread = ((Number) row[4]).intValue();
+            totalOf(landlordTotals, (Long) row[1]).addAndGet(landlordUnread - counter.landlordUnread.getAndSet(landlordUnread));
+            totalOf(tenantTotals, (Long) row[2]).addAndGet(tenantUnread - counter.tenantUnread.getAndSet(tenantUnread));
+        }
+    }
+
+    private ConversationCounter counterOf(Long conversationId) {
+        return conversationCounters.computeIfAbsent(conversationId, k -> new ConversationCounter());
+    }
+
+    private AtomicLong totalOf(Map<Long, AtomicLong> totals, Long userId) {
+        return totals.computeIfAbsent(userId, k -> new AtomicLong());
+    }
+
+    /**
+     * 单个对话双方的未读数
+     */
+    private static class ConversationCounter {
+        private final AtomicInteger landlordUnread = new AtomicInteger();
+        private final AtomicInteger tenantUnread = new AtomicInteger();
+    }
+}
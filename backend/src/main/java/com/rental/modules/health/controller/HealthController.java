@@ -0,0 +1,43 @@
+package com.rental.modules.health.controller;
+
+import com.rental.common.Result;
+import com.rental.modules.health.dto.BackendHealth;
+import com.rental.modules.health.service.BackendHealthMonitor;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 外部依赖状态控制器
+ * 返回后台探测的内存状态，不发起外部调用，可供监控与前端高频轮询
+ */
+@RestController
+@RequestMapping("/health")
+@RequiredArgsConstructor
+@Tag(name = "系统状态", description = "外部依赖健康状态")
+public class HealthController {
+
+    private final BackendHealthMonitor healthMonitor;
+
+    /**
+     * 外部依赖汇总状态
+     */
+    @GetMapping("/status")
+    @Operation(summary = "外部依赖汇总状态", description = "ML 服务、LLM 节点与支付监控服务的最近探测结果；overall 为 UP / DEGRADED / DOWN")
+    public ResponseEntity<Result<Map<String, Object>>> getStatus() {
+        List<BackendHealth> backends = healthMonitor.getStatuses(false);
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("overall", healthMonitor.overallStatus());
+        status.put("backends", backends);
+        status.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(Result.success(status));
+    }
+}
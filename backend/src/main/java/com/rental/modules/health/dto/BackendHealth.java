@@ -0,0 +1,59 @@
+package com.rental.modules.health.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 外部依赖健康状态 DTO（后台探测结果快照）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BackendHealth {
+    /**
+     * 依赖名称，如 ml、payment、llm:gpu-1
+     */
+    private String name;
+
+    /**
+     * 依赖类型：ml / llm / payment
+     */
+    private String type;
+
+    /**
+     * UP / DOWN / UNKNOWN（尚未探测）
+     */
+    private String status;
+
+    /**
+     * 最近一次探测耗时（毫秒）
+     */
+    private Long latencyMs;
+
+    /**
+     * 最近一次探测时间
+     */
+    private LocalDateTime checkedAt;
+
+    /**
+     * 最近一次探测成功的时间
+     */
+    private LocalDateTime lastSuccessAt;
+
+    /**
+     * 连续失败次数
+     */
+    private int consecutiveFailures;
+
+    /**
+     * 最近一次失败原因（仅管理员接口返回）
+     */
+    private String lastError;
+}
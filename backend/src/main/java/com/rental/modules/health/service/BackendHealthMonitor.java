@@ -0,0 +1,261 @@
+package com.rental.modules.health.service;
+
+import com.rental.common.http.OutboundHttpClients;
+import com.rental.config.HealthProbeConfig;
+import com.rental.modules.ai.client.LlmEndpoint;
+import com.rental.modules.ai.client.LlmRouter;
+import com.rental.modules.ai.config.AiConfig;
+import com.rental.modules.health.dto.BackendHealth;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * 外部依赖后台健康探测
+ * 定时并行探测 ML 服务、各 LLM 节点与支付监控服务，状态、延迟与最近错误保存在内存中：
+ * - /ml/status 与 /health/status 直接读取内存状态，不再随请求同步调用外部服务
+ * - 连续失败达到阈值判定为 DOWN，一次成功即恢复；尚未探测（UNKNOWN）视为可用
+ * - LLM 节点状态同步到 {@link LlmEndpoint}，路由优先跳过 DOWN 的节点；ML 服务 DOWN 时远程调用直接失败、走兜底
+ */
+@Slf4j
+@Component
+public class BackendHealthMonitor {
+
+    public static final String ML = "ml";
+    public static final String PAYMENT = "payment";
+    public static final String LLM_PREFIX = "llm:";
+
+    public static final String UP = "UP";
+    public static final String DOWN = "DOWN";
+    public static final String UNKNOWN = "UNKNOWN";
+    public static final String DEGRADED = "DEGRADED";
+
+    private static final String CLIENT_NAME = "health";
+    private static final String ML_HEALTH_ENDPOINT = "/api/v1/health";
+    private static final String PAYMENT_HEALTH_ENDPOINT = "/api/v1/health";
+    private static final int ERROR_MESSAGE_CHARS = 200;
+
+    private final HealthProbeConfig config;
+    private final WebClient webClient;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, State> states = new ConcurrentHashMap<>();
+
+    /**
+     * 探测目标
+     * @param acceptAnyResponse 为 true 时只要服务有非 5xx 响应即视为可用（云 API 的探测地址可能需要鉴权）
+     * @param listener          状态在可用与不可用之间切换时回调
+     */
+    private record Target(String name, String type, String url, String authorization,
+                          boolean acceptAnyResponse, Consumer<Boolean> listener) {
+    }
+
+    private static final class State {
+        final Target target;
+        volatile String status = UNKNOWN;
+        volatile Long latencyMs;
+        volatile LocalDateTime checkedAt;
+        volatile LocalDateTime lastSuccessAt;
+        volatile int consecutiveFailures;
+        volatile String lastError;
+
+        State(Target target) {
+            this.target = target;
+        }
+    }
+
+    public BackendHealthMonitor(HealthProbeConfig config, OutboundHttpClients outboundHttpClients, LlmRouter llmRouter,
+                                @Value("${app.ml.service.url:http://localhost:5000}") String mlServiceUrl,
+                                @Value("${app.payment.monitor.api-url:http://localhost:5001}") String paymentMonitorUrl,
+                                MeterRegistry meterRegistry) {
+        this.config = config;
+        this.webClient = outboundHttpClients.client(CLIENT_NAME);
+        this.meterRegistry = meterRegistry;
+
+        register(new Target(ML, "ml", trimSlash(mlServiceUrl) + ML_HEALTH_ENDPOINT, null, false, up -> { }));
+        register(new Target(PAYMENT, "payment", trimSlash(paymentMonitorUrl) + PAYMENT_HEALTH_ENDPOINT,
+                null, false, up -> { }));
+        for (LlmEndpoint endpoint : llmRouter.getEndpoints()) {
+            register(llmTarget(endpoint));
+        }
+    }
+
+    /**
+     * 是否可用：DOWN 之外（含尚未探测）均视为可用；探测关闭时始终可用
+     */
+    public boolean isAvailable(String name) {
+        State state = states.get(name);
+        return !config.isEnabled() || state == null || !DOWN.equals(state.status);
+    }
+
+    /**
+     * 单个依赖的状态快照，未注册返回 null
+     */
+    public BackendHealth getHealth(String name, boolean includeError) {
+        State state = states.get(name);
+        return state != null ? snapshot(state, includeError) : null;
+    }
+
+    /**
+     * 全部依赖的状态快照
+     * @param includeError 是否包含最近错误信息（可能含内部地址，仅管理员接口返回）
+     */
+    public List<BackendHealth> getStatuses(boolean includeError) {
+        return states.values().stream()
+                .map(state -> snapshot(state, includeError))
+                .sorted(Comparator.comparing(BackendHealth::getName))
+                .toList();
+    }
+
+    /**
+     * 汇总状态：全部可用为 UP，全部不可用为 DOWN，否则为 DEGRADED
+     */
+    public String overallStatus() {
+        long down = states.values().stream().filter(s -> DOWN.equals(s.status)).count();
+        if (down == 0) {
+            return UP;
+        }
+        return down == states.size() ? DOWN : DEGRADED;
+    }
+
+    /**
+     * 并行探测全部依赖；单个目标超时由 app.health.timeout 控制
+     */
+    @Scheduled(initialDelayString = "${app.health.initial-delay:5000}", fixedDelayString = "${app.health.interval:15000}")
+    public void probeAll() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        try {
+            Flux.fromIterable(states.values())
+                    .flatMap(this::probe)
+                    .then()
+                    .block(config.getTimeout().multipliedBy(2));
+        } catch (Exception e) {
+            log.warn("外部依赖健康探测未在预期时间内完成: {}", e.getMessage());
+        }
+    }
+
+    private Mono<Void> probe(State state) {
+        Target target = state.target;
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            WebClient.RequestHeadersSpec<?> request = webClient.get().uri(target.url());
+            if (target.authorization() != null) {
+                request = request.header(HttpHeaders.AUTHORIZATION, target.authorization());
+            }
+            return request.exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode()))
+                    .timeout(config.getTimeout())
+                    .doOnNext(status -> record(state, System.nanoTime() - start,
+                            accepts(target, status) ? null : "HTTP " + status.value()))
+                    .doOnError(e -> record(state, System.nanoTime() - start, errorMessage(e)))
+                    .onErrorResume(e -> Mono.empty())
+                    .then();
+        });
+    }
+
+    private void record(State state, long elapsedNanos, String error) {
+        Target target = state.target;
+        boolean wasAvailable;
+        boolean available;
+        synchronized (state) {
+            wasAvailable = !DOWN.equals(state.status);
+            state.latencyMs = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+            state.checkedAt = LocalDateTime.now();
+            if (error == null) {
+                state.status = UP;
+                state.consecutiveFailures = 0;
+                state.lastSuccessAt = state.checkedAt;
+            } else {
+                state.consecutiveFailures++;
+                state.lastError = error;
+                if (state.consecutiveFailures >= config.getFailureThreshold()) {
+                    state.status = DOWN;
+                }
+            }
+            available = !DOWN.equals(state.status);
+        }
+        meterRegistry.timer("backend.health.probe", "backend", target.name(), "outcome", error == null ? "success" : "error")
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (wasAvailable != available) {
+            if (available) {
+                log.info("外部依赖恢复可用: backend={}, latencyMs={}", target.name(), state.latencyMs);
+            } else {
+                log.warn("外部依赖判定为不可用: backend={}, failures={}, err={}",
+                        target.name(), state.consecutiveFailures, error);
+            }
+            target.listener().accept(available);
+        }
+    }
+
+    private void register(Target target) {
+        State state = new State(target);
+        states.put(target.name(), state);
+        Gauge.builder("backend.health.up", state, s -> switch (s.status) {
+                    case UP -> 1.0;
+                    case DOWN -> 0.0;
+                    default -> Double.NaN;
+                })
+                .description("外部依赖后台探测状态：1 可用，0 不可用")
+                .tag("backend", target.name())
+                .register(meterRegistry);
+    }
+
+    private static Target llmTarget(LlmEndpoint endpoint) {
+        AiConfig.Endpoint config = endpoint.getConfig();
+        String name = LLM_PREFIX + endpoint.getName();
+        Consumer<Boolean> listener = endpoint::setProbeHealthy;
+        if (config.isOllama()) {
+            String url = config.getUrl() == null || config.getUrl().isEmpty() ? "http://localhost:11434" : config.getUrl();
+            return new Target(name, "llm", trimSlash(url) + "/api/tags", null, false, listener);
+        }
+        // OpenAI 兼容接口：url 为 chat/completions 地址，探测同一服务的模型列表
+        String url = config.getUrl() == null ? "" : config.getUrl().replaceAll("/chat/completions/?$", "/models");
+        String authorization = "Bearer " + (config.getApiKey() != null ? config.getApiKey() : "");
+        return new Target(name, "llm", url, authorization, true, listener);
+    }
+
+    private static boolean accepts(Target target, HttpStatusCode status) {
+        return target.acceptAnyResponse() ? !status.is5xxServerError() : status.is2xxSuccessful();
+    }
+
+    private static BackendHealth snapshot(State state, boolean includeError) {
+        synchronized (state) {
+            return BackendHealth.builder()
+                    .name(state.target.name())
+                    .type(state.target.type())
+                    .status(state.status)
+                    .latencyMs(state.latencyMs)
+                    .checkedAt(state.checkedAt)
+                    .lastSuccessAt(state.lastSuccessAt)
+                    .consecutiveFailures(state.consecutiveFailures)
+                    .lastError(includeError ? state.lastError : null)
+                    .build();
+        }
+    }
+
+    private static String errorMessage(Throwable e) {
+        String message = e instanceof TimeoutException ? "探测超时" : e.getClass().getSimpleName() + ": " + e.getMessage();
+        return message.length() > ERROR_MESSAGE_CHARS ? message.substring(0, ERROR_MESSAGE_CHARS) : message;
+    }
+
+    private static String trimSlash(String url) {
+        return url.replaceAll("/$", "");
+    }
+}
@@ -4,6 +4,9 @@ import com.rental.modules.ml.dto.PricePredictionRequest;
 import com.rental.modules.ml.dto.PricePredictionResponse;
 import com.rental.modules.ml.dto.RecommendationRequest;
 import com.rental.modules.ml.dto.RecommendationResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
 
 /**
  * ML 服务客户端接口
@@ -13,12 +16,20 @@ public interface MlServiceClient {
      * 租金价格预测
      */
     PricePredictionResponse predictPrice(PricePredictionRequest request);
+    /**
+     * 批量租金价格预测，结果与请求一一对应、顺序一致
+     */
+    List<PricePredictionResponse> predictPrices(List<PricePredictionRequest> requests);
+    /**
+     * 调用影子（候选）模型服务预测租金，不重试、不经过线上服务的熔断与舱壁；未配置影子服务时返回空
+     */
+    Mono<PricePredictionResponse> predictPriceShadow(PricePredictionRequest request);
     /**
      * 获取个性化房源推荐
      */
     RecommendationResponse getRecommendations(RecommendationRequest request);
     /**
-     * 健康检查
+     * 健康状态：读取后台探测结果（BackendHealthMonitor），不发起外部调用
      */
     boolean healthCheck();
 }
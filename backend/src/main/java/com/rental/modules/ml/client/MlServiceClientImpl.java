@@ -1,32 +1,64 @@
 package com.rental.modules.ml.client;
 
+import com.rental.common.ResultCode;
+import com.rental.common.http.OutboundHttpClients;
+import com.rental.common.util.MicroBatcher;
+import com.rental.config.MlBatchConfig;
+import com.rental.config.MlShadowConfig;
+import com.rental.modules.health.service.BackendHealthMonitor;
+import com.rental.modules.ml.dto.BatchPricePredictionRequest;
 import com.rental.modules.ml.dto.PricePredictionRequest;
 import com.rental.modules.ml.dto.PricePredictionResponse;
 import com.rental.modules.ml.dto.RecommendationRequest;
 import com.rental.modules.ml.dto.RecommendationResponse;
 import com.rental.modules.ml.exception.MlServiceException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.http.*;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.*;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * ML 服务客户端实现
+ * 使用连接池化的 WebClient，超时与重试见 app.http.clients.ml。
+ * 并发的单条预测在 app.ml.batch.window 内合并为一次批量调用；ML 服务不支持批量接口（404）时退回逐条调用
  */
 @Slf4j
 @Component
 public class MlServiceClientImpl implements MlServiceClient {
 
-    private final RestTemplate mlRestTemplate;
+    private static final String CLIENT_NAME = "ml";
+    private static final String SHADOW_CLIENT_NAME = "ml-shadow";
+
+    private final OutboundHttpClients outboundHttpClients;
+    private final WebClient webClient;
     private final String mlServiceUrl;
+    private final MlBatchConfig batchConfig;
+    private final BackendHealthMonitor healthMonitor;
+    private final MlShadowConfig shadowConfig;
+    private final WebClient shadowWebClient;
+    private final MicroBatcher<PricePredictionRequest, PricePredictionResponse> predictBatcher;
+    private final DistributionSummary batchSize;
+    private volatile boolean batchSupported = true;
 
     private static final String PREDICT_ENDPOINT = "/api/v1/predict";
+    private static final String PREDICT_BATCH_ENDPOINT = "/api/v1/predict/batch";
     private static final String RECOMMEND_ENDPOINT = "/api/v1/recommend";
-    private static final String HEALTH_ENDPOINT = "/api/v1/health";
 
     // 中文城市名到英文的映射（用于 ML API）
     private static final Map<String, String> CHINESE_TO_ENGLISH_CITY = new HashMap<>();
@@ -45,11 +77,40 @@ public class MlServiceClientImpl implements MlServiceClient {
         CHINESE_TO_ENGLISH_CITY.put("苏州", "Suzhou");
     }
 
+    /**
+     * 转换为模型训练数据中的城市名（中文城市名转英文，其余原样返回）
+     */
+    public static String toModelCity(String city) {
+        return CHINESE_TO_ENGLISH_CITY.getOrDefault(city, city);
+    }
+
+    /**
+     * ML 服务批量接口的响应，predictions 与请求 items 一一对应
+     */
+    @Data
+    private static class BatchResult {
+        private List<PricePredictionResponse> predictions;
+    }
+
     public MlServiceClientImpl(
-            RestTemplate mlRestTemplate,
-            @Qualifier("mlServiceUrl") String mlServiceUrl) {
-        this.mlRestTemplate = mlRestTemplate;
+            OutboundHttpClients outboundHttpClients,
+            @Qualifier("mlServiceUrl") String mlServiceUrl,
+            MlBatchConfig batchConfig,
+            BackendHealthMonitor healthMonitor,
+            MlShadowConfig shadowConfig,
+            MeterRegistry meterRegistry) {
+        this.outboundHttpClients = outboundHttpClients;
+        this.webClient = outboundHttpClients.client(CLIENT_NAME);
         this.mlServiceUrl = mlServiceUrl;
+        this.batchConfig = batchConfig;
+        this.healthMonitor = healthMonitor;
+        this.shadowConfig = shadowConfig;
+        this.shadowWebClient = outboundHttpClients.client(SHADOW_CLIENT_NAME);
+        this.predictBatcher = new MicroBatcher<>(batchConfig.getMaxSize(), batchConfig.getWindow(),
+                batch -> predictChunk(batch).toFuture());
+        this.batchSize = DistributionSummary.builder("ml.predict.batch.size")
+                .description("每次调用 ML 服务预测的房源条数")
+                .register(meterRegistry);
     }
 
     @Override
@@ -57,14 +118,7 @@ public class MlServiceClientImpl implements MlServiceClient {
         String url = mlServiceUrl + PREDICT_ENDPOINT;
         log.info("调用 ML 预测服务: {}", url);
 
-        // 转换城市名为英文（ML 模型只识别英文城市名）
-        String cityEnglish = CHINESE_TO_ENGLISH_CITY.get(request.getCity());
-        if (cityEnglish != null) {
-            log.info("城市名转换: {} -> {}", request.getCity(), cityEnglish);
-            request.setCity(cityEnglish);
-        } else {
-            log.info("使用原始城市名: {}", request.getCity());
-        }
+        toModelCity(request);
 
         log.info("ML 请求体: bedrooms={}, area={}, city={}, region={}, bathrooms={}, propertyType={}, decoration={}, floor={}, totalFloors={}, orientation={}, hasParking={}, hasElevator={}, hasBalcony={}",
                 request.getBedrooms(), request.getArea(), request.getCity(), request.getRegion(),
@@ -73,24 +127,101 @@ public class MlServiceClientImpl implements MlServiceClient {
                 request.getHasParking(), request.getHasElevator(), request.getHasBalcony());
 
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<PricePredictionRequest> entity = new HttpEntity<>(request, headers);
+            PricePredictionResponse response = batchConfig.isEnabled()
+                    ? predictBatcher.execute(request)
+                    : predictChunk(List.of(request)).block().get(0);
+            log.info("预测成功: predictedPrice={}", response.getPredictedPrice());
+            return response;
+        } catch (WebClientException e) {
+            log.error("ML 预测服务调用失败: {}", e.getMessage());
+            throw new MlServiceException("ML 服务不可用: " + e.getMessage());
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            log.warn("ML 服务熔断或繁忙，跳过调用: {}", e.getMessage());
+            throw new MlServiceException(ResultCode.ML_SERVICE_UNAVAILABLE.getCode(), "ML 服务繁忙或暂不可用，请稍后重试");
+        }
+    }
 
-            ResponseEntity<PricePredictionResponse> response =
-                mlRestTemplate.postForEntity(url, entity, PricePredictionResponse.class);
+    @Override
+    public List<PricePredictionResponse> predictPrices(List<PricePredictionRequest> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        log.info("调用 ML 批量预测服务: count={}", requests.size());
+        requests.forEach(this::toModelCity);
 
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                log.info("预测成功: predictedPrice={}", response.getBody().getPredictedPrice());
-                return response.getBody();
-            }
+        try {
+            List<PricePredictionResponse> responses = Flux.fromIterable(partition(requests, batchConfig.getMaxSize()))
+                    .concatMap(this::predictChunk)
+                    .flatMapIterable(chunk -> chunk)
+                    .collectList()
+                    .block();
+            log.info("批量预测成功: count={}", responses.size());
+            return responses;
+        } catch (WebClientException e) {
+            log.error("ML 批量预测服务调用失败: {}", e.getMessage());
+            throw new MlServiceException("ML 服务不可用: " + e.getMessage());
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            log.warn("ML 服务熔断或繁忙，跳过调用: {}", e.getMessage());
+            throw new MlServiceException(ResultCode.ML_SERVICE_UNAVAILABLE.getCode(), "ML 服务繁忙或暂不可用，请稍后重试");
+        }
+    }
 
-            throw new MlServiceException("ML 服务返回异常状态: " + response.getStatusCode());
+    /**
+     * 转换城市名为英文（ML 模型只识别英文城市名）
+     */
+    private void toModelCity(PricePredictionRequest request) {
+        String cityEnglish = CHINESE_TO_ENGLISH_CITY.get(request.getCity());
+        if (cityEnglish != null) {
+            log.debug("城市名转换: {} -> {}", request.getCity(), cityEnglish);
+            request.setCity(cityEnglish);
+        }
+    }
 
-        } catch (RestClientException e) {
-            log.error("ML 预测服务调用失败: {}", e.getMessage());
-            throw new MlServiceException("ML 服务不可用: " + e.getMessage());
+    /**
+     * 一次上游调用：单条走原预测接口，多条走批量接口；批量接口不存在（旧版 ML 服务）时改为逐条并发调用
+     */
+    private Mono<List<PricePredictionResponse>> predictChunk(List<PricePredictionRequest> chunk) {
+        batchSize.record(chunk.size());
+        if (chunk.size() == 1 || !batchSupported) {
+            return Flux.fromIterable(chunk)
+                    .flatMapSequential(request -> postAsync(mlServiceUrl + PREDICT_ENDPOINT, request,
+                            PricePredictionResponse.class))
+                    .collectList();
+        }
+        return postAsync(mlServiceUrl + PREDICT_BATCH_ENDPOINT, new BatchPricePredictionRequest(chunk), BatchResult.class)
+                .map(BatchResult::getPredictions)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> {
+                    log.warn("ML 服务不支持批量预测接口，改为逐条调用");
+                    batchSupported = false;
+                    return predictChunk(chunk);
+                });
+    }
+
+    private static <T> List<List<T>> partition(List<T> list, int size) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < list.size(); i += size) {
+            chunks.add(list.subList(i, Math.min(list.size(), i + size)));
+        }
+        return chunks;
+    }
+
+    @Override
+    public Mono<PricePredictionResponse> predictPriceShadow(PricePredictionRequest request) {
+        String shadowUrl = shadowConfig.getUrl();
+        if (shadowUrl == null || shadowUrl.isBlank()) {
+            return Mono.empty();
         }
+        // 线上请求对象仍被调用方持有，城市名转换在副本上进行
+        PricePredictionRequest copy = new PricePredictionRequest();
+        BeanUtils.copyProperties(request, copy);
+        toModelCity(copy);
+        return shadowWebClient.post()
+                .uri(shadowUrl.replaceAll("/$", "") + PREDICT_ENDPOINT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(copy)
+                .retrieve()
+                .bodyToMono(PricePredictionResponse.class)
+                .timeout(shadowConfig.getTimeout());
     }
 
     @Override
@@ -99,37 +230,42 @@ public class MlServiceClientImpl implements MlServiceClient {
         log.info("调用 ML 推荐服务: {}", url);
 
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<RecommendationRequest> entity = new HttpEntity<>(request, headers);
-
-            ResponseEntity<RecommendationResponse> response =
-                mlRestTemplate.postForEntity(url, entity, RecommendationResponse.class);
-
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                log.info("推荐成功: count={}", response.getBody().getTotalCount());
-                return response.getBody();
-            }
-
-            throw new MlServiceException("ML 服务返回异常状态: " + response.getStatusCode());
-
-        } catch (RestClientException e) {
+            RecommendationResponse response = post(url, request, RecommendationResponse.class);
+            log.info("推荐成功: count={}", response.getTotalCount());
+            return response;
+        } catch (WebClientException e) {
             log.error("ML 推荐服务调用失败: {}", e.getMessage());
             throw new MlServiceException("ML 服务不可用: " + e.getMessage());
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            log.warn("ML 服务熔断或繁忙，跳过调用: {}", e.getMessage());
+            throw new MlServiceException(ResultCode.ML_SERVICE_UNAVAILABLE.getCode(), "ML 服务繁忙或暂不可用，请稍后重试");
         }
     }
 
     @Override
     public boolean healthCheck() {
-        String url = mlServiceUrl + HEALTH_ENDPOINT;
-        log.info("ML 服务健康检查: {}", url);
+        return healthMonitor.isAvailable(BackendHealthMonitor.ML);
+    }
 
-        try {
-            ResponseEntity<String> response = mlRestTemplate.getForEntity(url, String.class);
-            return response.getStatusCode().is2xxSuccessful();
-        } catch (Exception e) {
-            log.warn("ML 服务健康检查失败: {}", e.getMessage());
-            return false;
+    /**
+     * POST JSON 并解析响应；非 2xx 抛出 WebClientResponseException，按配置重试并经过熔断与舱壁
+     * 后台探测判定 ML 服务不可用时直接失败，不等待连接超时
+     */
+    private <T> T post(String url, Object body, Class<T> responseType) {
+        return postAsync(url, body, responseType).block();
+    }
+
+    private <T> Mono<T> postAsync(String url, Object body, Class<T> responseType) {
+        if (!healthMonitor.isAvailable(BackendHealthMonitor.ML)) {
+            return Mono.error(() -> new MlServiceException(ResultCode.ML_SERVICE_UNAVAILABLE.getCode(),
+                    "ML 服务暂不可用，请稍后重试"));
         }
+        return outboundHttpClients.guard(CLIENT_NAME, webClient.post()
+                        .uri(url)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(body)
+                        .retrieve()
+                        .bodyToMono(responseType))
+                .switchIfEmpty(Mono.error(() -> new MlServiceException("ML 服务返回空响应")));
     }
 }
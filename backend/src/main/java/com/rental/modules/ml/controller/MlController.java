@@ -1,10 +1,16 @@
 package com.rental.modules.ml.controller;
 
 import com.rental.common.Result;
+import com.rental.modules.health.dto.BackendHealth;
+import com.rental.modules.health.service.BackendHealthMonitor;
+import com.rental.modules.ml.dto.BatchPricePredictionRequest;
+import com.rental.modules.ml.dto.BatchPricePredictionResponse;
+import com.rental.modules.ml.dto.MarketStats;
 import com.rental.modules.ml.dto.PricePredictionRequest;
 import com.rental.modules.ml.dto.PricePredictionResponse;
 import com.rental.modules.ml.dto.RecommendationRequest;
 import com.rental.modules.ml.dto.RecommendationResponse;
+import com.rental.modules.ml.service.MarketStatsService;
 import com.rental.modules.ml.service.MlService;
 import com.rental.modules.property.entity.Property;
 import com.rental.modules.property.service.PropertyService;
@@ -15,6 +21,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -30,6 +37,8 @@ public class MlController {
 
     private final MlService mlService;
     private final PropertyService propertyService;
+    private final BackendHealthMonitor healthMonitor;
+    private final MarketStatsService marketStatsService;
 
     /**
      * 租金预测接口
@@ -47,6 +56,21 @@ public class MlController {
         return ResponseEntity.ok(Result.success(response));
     }
 
+    /**
+     * 批量租金预测接口（批量调价、批量导入）
+     */
+    @PostMapping("/predict/batch")
+    @PreAuthorize("hasAnyRole('landlord', 'admin')")
+    @Operation(summary = "批量租金预测", description = "一次预测多套房源的租金，结果与请求顺序一致，单条失败不影响其他条目")
+    public ResponseEntity<Result<BatchPricePredictionResponse>> predictPrices(
+            @RequestBody BatchPricePredictionRequest request) {
+        log.info("收到批量租金预测请求: count={}", request.getItems() != null ? request.getItems().size() : 0);
+
+        BatchPricePredictionResponse response = mlService.predictPrices(request);
+
+        return ResponseEntity.ok(Result.success(response));
+    }
+
     /**
      * 个性化推荐接口
      */
@@ -64,17 +88,24 @@ public class MlController {
     }
 
     /**
-     * ML 服务状态检查
+     * ML 服务状态检查（读取后台探测结果，不同步调用 ML 服务）
      */
     @GetMapping("/status")
     @Operation(summary = "ML 服务状态", description = "检查 ML 服务是否可用")
     public ResponseEntity<Result<Map<String, Object>>> getMlServiceStatus() {
-        boolean available = mlService.isMlServiceAvailable();
-
-        return ResponseEntity.ok(Result.success(Map.of(
-            "status", available ? "available" : "unavailable",
-            "timestamp", System.currentTimeMillis()
-        )));
+        boolean localModel = mlService.isLocalModelAvailable();
+        // 本地模型可用时租金预测不依赖远程服务
+        boolean available = localModel || mlService.isMlServiceAvailable();
+        BackendHealth remote = healthMonitor.getHealth(BackendHealthMonitor.ML, false);
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("status", available ? "available" : "unavailable");
+        status.put("localModel", localModel);
+        status.put("remote", remote.getStatus());
+        status.put("remoteLatencyMs", remote.getLatencyMs());
+        status.put("checkedAt", remote.getCheckedAt());
+        status.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(Result.success(status));
     }
 
     /**
@@ -109,6 +140,19 @@ public class MlController {
         return ResponseEntity.ok(Result.success(result));
     }
 
+    /**
+     * 查询租金行情（同城市/区域/户型在架房源的租金分位数，读取内存中的统计，不扫描房源表）
+     */
+    @GetMapping("/market-stats")
+    @PreAuthorize("hasAnyRole('tenant', 'landlord', 'admin')")
+    @Operation(summary = "查询租金行情", description = "返回租金与每平米租金的 25/50/75 分位数与样本数；样本不足时放宽到城市+户型、城市")
+    public ResponseEntity<Result<MarketStats>> getMarketStats(
+            @RequestParam String city,
+            @RequestParam(required = false) String region,
+            @RequestParam(required = false) Integer bedrooms) {
+        return ResponseEntity.ok(Result.success(marketStatsService.getStats(city, region, bedrooms)));
+    }
+
     /**
      * 查询最接近的房源（返回数据库中最匹配的一个，用于定价参考）
      */
@@ -0,0 +1,21 @@
+package com.rental.modules.ml.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 批量租金预测请求 DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchPricePredictionRequest implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<PricePredictionRequest> items;
+}
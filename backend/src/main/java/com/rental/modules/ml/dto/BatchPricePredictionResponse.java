@@ -0,0 +1,32 @@
+package com.rental.modules.ml.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 批量租金预测响应 DTO
+ * results 与请求 items 一一对应；单条失败时该条 prediction 为空、error 为原因，不影响其他条目
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchPricePredictionResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<Item> results;
+    private Integer successCount;
+    private Long responseTimeMs;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item implements Serializable {
+        private PricePredictionResponse prediction;
+        private String error;
+    }
+}
@@ -0,0 +1,60 @@
+package com.rental.modules.ml.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 租金行情 DTO：同城市/区域/户型在架房源的租金与每平米租金分位数
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarketStats {
+
+    /**
+     * 实际统计范围；样本不足时比查询条件更宽，region / bedrooms 为 null 表示不限
+     */
+    private String city;
+
+    private String region;
+
+    private Integer bedrooms;
+
+    /**
+     * 是否因样本不足放宽了统计范围
+     */
+    private boolean broadened;
+
+    /**
+     * 统计范围内的在架房源数
+     */
+    private long count;
+
+    /**
+     * 月租金（元）
+     */
+    private Band price;
+
+    /**
+     * 每平米月租金（元），不含面积缺失的房源
+     */
+    private Band pricePerSqm;
+
+    /**
+     * 分位数的相对误差上限
+     */
+    private double relativeAccuracy;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Band {
+        private long count;
+        private double p25;
+        private double median;
+        private double p75;
+    }
+}
@@ -0,0 +1,45 @@
+package com.rental.modules.ml.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 租金预测准确率 DTO（按模型版本与城市统计，预测值与房源挂牌价对比）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PredictionAccuracy {
+
+    private String modelVersion;
+
+    private String city;
+
+    /**
+     * 已评估的预测条数
+     */
+    private long count;
+
+    /**
+     * 平均绝对误差（元/月）
+     */
+    private double mae;
+
+    /**
+     * 均方根误差（元/月）
+     */
+    private double rmse;
+
+    /**
+     * 平均绝对百分比误差（%）
+     */
+    private double mape;
+
+    /**
+     * 平均偏差（元/月），正数表示预测整体偏高
+     */
+    private double bias;
+}
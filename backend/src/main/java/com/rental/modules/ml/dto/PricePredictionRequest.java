@@ -27,4 +27,7 @@ public class PricePredictionRequest implements Serializable {
     private Boolean hasParking;         // 是否有停车位
     private Boolean hasElevator;        // 是否有电梯
     private Boolean hasBalcony;         // 是否有阳台
+
+    // 已发布房源的ID（编辑房源、批量调价时传入），用于将预测与挂牌价对比统计准确率
+    private Long propertyId;
 }
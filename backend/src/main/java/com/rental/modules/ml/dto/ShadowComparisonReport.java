@@ -0,0 +1,100 @@
+package com.rental.modules.ml.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 影子模型对比报告 DTO：候选模型与线上模型对同一批请求的预测差异，以及两者按挂牌价评估的误差
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShadowComparisonReport {
+
+    private boolean enabled;
+
+    /**
+     * 转发给候选模型的请求比例
+     */
+    private double sampleRate;
+
+    /**
+     * 候选模型版本（影子服务响应中的版本号）
+     */
+    private String shadowModelVersion;
+
+    /**
+     * 统计窗口内出现过的线上模型版本
+     */
+    private List<String> productionModelVersions;
+
+    /**
+     * 当前统计窗口的开始时间（候选模型版本变化时重新开始）
+     */
+    private LocalDateTime windowStartedAt;
+
+    /**
+     * 自启动以来转发、成功、失败与因并发已满丢弃的影子调用数
+     */
+    private long sampled;
+
+    private long completed;
+
+    private long failed;
+
+    private long dropped;
+
+    /**
+     * 统计窗口内的成对预测数
+     */
+    private int pairs;
+
+    /**
+     * 平均绝对差异（元/月）
+     */
+    private double meanAbsDiff;
+
+    /**
+     * 平均相对差异（%），正值表示候选模型整体偏高
+     */
+    private double meanPctDiff;
+
+    /**
+     * 相对差异绝对值的平均数、中位数、P95 与最大值（%）
+     */
+    private double meanAbsPctDiff;
+
+    private double p50AbsPctDiff;
+
+    private double p95AbsPctDiff;
+
+    private double maxAbsPctDiff;
+
+    /**
+     * 相对差异超过阈值的比例（%）
+     */
+    private double divergedRate;
+
+    /**
+     * 分歧阈值（%）
+     */
+    private double divergenceThreshold;
+
+    /**
+     * 影子调用耗时中位数与 P95（毫秒）
+     */
+    private long shadowLatencyP50Ms;
+
+    private long shadowLatencyP95Ms;
+
+    /**
+     * 候选模型（版本前缀 shadow:）与线上模型按挂牌价评估的误差，见 /admin/ml/accuracy
+     */
+    private List<PredictionAccuracy> accuracy;
+}
@@ -0,0 +1,49 @@
+package com.rental.modules.ml.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 房源公允租金实体
+ * 由 FairPriceScoringJob 后台批量预测写入；房源的高于/低于市场百分比由 Property.priceScore 按当前挂牌价实时计算，
+ * 挂牌价变化无需重新预测，只有影响预测的特征或模型版本变化时才重新打分
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "listing_price_scores")
+public class ListingPriceScore {
+
+    @Id
+    @Column(name = "property_id")
+    private Long propertyId;
+
+    /**
+     * 模型预测的公允租金（元/月）
+     */
+    @Column(name = "fair_price", nullable = false, precision = 10, scale = 2)
+    private BigDecimal fairPrice;
+
+    /**
+     * 打分时的模型版本（local:版本@导出时间 或 remote:版本）
+     */
+    @Column(name = "model_version", nullable = false, length = 100)
+    private String modelVersion;
+
+    /**
+     * 打分时参与预测的房源特征摘要，特征变化后重新打分
+     */
+    @Column(name = "features_hash", nullable = false)
+    private Integer featuresHash;
+
+    @Column(name = "scored_at", nullable = false)
+    private LocalDateTime scoredAt;
+}
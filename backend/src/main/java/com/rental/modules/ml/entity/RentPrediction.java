@@ -0,0 +1,76 @@
+package com.rental.modules.ml.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 租金预测记录实体
+ * 每次预测由 PredictionRecorder 异步批量写入；带房源ID的记录由 PredictionAccuracyTracker
+ * 按房源挂牌价回填 actualPrice 与 predictionError，用于统计模型在真实房源上的误差
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "rent_predictions", indexes = {
+        @Index(name = "idx_property_version", columnList = "property_id, model_version"),
+        @Index(name = "idx_model_created", columnList = "model_version, created_at")
+})
+public class RentPrediction {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 房源ID；定价页为尚未发布的房源预测时为空
+     */
+    @Column(name = "property_id")
+    private Long propertyId;
+
+    @Column(name = "predicted_price", nullable = false, precision = 10, scale = 2)
+    private BigDecimal predictedPrice;
+
+    /**
+     * 挂牌租金，由准确率统计任务回填
+     */
+    @Column(name = "actual_price", precision = 10, scale = 2)
+    private BigDecimal actualPrice;
+
+    @Column(name = "model_version", nullable = false, length = 50)
+    private String modelVersion;
+
+    @Column(name = "algorithm_name", length = 100)
+    private String algorithmName;
+
+    /**
+     * 预测时的特征（补全默认值后的请求 JSON）
+     */
+    @Column(name = "features_snapshot", nullable = false, columnDefinition = "JSON")
+    private String featuresSnapshot;
+
+    @Column(name = "prediction_confidence", precision = 5, scale = 4)
+    private BigDecimal predictionConfidence;
+
+    /**
+     * |predictedPrice - actualPrice|
+     */
+    @Column(name = "prediction_error", precision = 10, scale = 2)
+    private BigDecimal predictionError;
+
+    /**
+     * 预测来源等元数据（JSON），如 {"source":"local"}
+     */
+    @Column(name = "model_metadata", columnDefinition = "JSON")
+    private String modelMetadata;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,142 @@
+package com.rental.modules.ml.local;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rental.modules.ml.dto.PricePredictionResponse;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 由 rent-price-ml/export_model.py 导出的租金模型（预处理参数 + XGBoost 树）
+ * 加载后不可变，可被多个线程同时使用；每个线程复用自己的特征向量
+ */
+@Getter
+public final class LocalRentModel {
+
+    private static final String FORMAT = "rent-xgb-v1";
+
+    private final RentFeatureEncoder encoder;
+    private final XgbTreeEnsemble ensemble;
+    private final String modelVersion;
+    private final String algorithm;
+    private final String exportedAt;
+    private final List<PricePredictionResponse.FeatureImportance> featureImportance;
+
+    private final ThreadLocal<float[]> buffers;
+
+    private LocalRentModel(RentFeatureEncoder encoder, XgbTreeEnsemble ensemble, String modelVersion,
+                           String algorithm, String exportedAt,
+                           List<PricePredictionResponse.FeatureImportance> featureImportance) {
+        this.encoder = encoder;
+        this.ensemble = ensemble;
+        this.modelVersion = modelVersion;
+        this.algorithm = algorithm;
+        this.exportedAt = exportedAt;
+        this.featureImportance = featureImportance;
+        this.buffers = ThreadLocal.withInitial(() -> new float[encoder.getDimension()]);
+    }
+
+    /**
+     * 当前线程复用的特征向量，内容在每次编码时被覆盖
+     */
+    public float[] buffer() {
+        return buffers.get();
+    }
+
+    public float score(float[] features) {
+        return ensemble.predict(features);
+    }
+
+    /**
+     * 按列名预测一条记录（一致性测试用）
+     */
+    public float predict(Map<String, ?> record) {
+        float[] features = buffer();
+        encoder.encode(record, features);
+        return score(features);
+    }
+
+    public static LocalRentModel load(InputStream in) throws IOException {
+        JsonNode root = new ObjectMapper().readTree(in);
+        if (!FORMAT.equals(root.path("format").asText())) {
+            throw new IOException("不支持的模型格式: " + root.path("format").asText());
+        }
+
+        JsonNode numeric = root.path("numeric");
+        String[] numericNames = new String[numeric.size()];
+        float[] medians = new float[numeric.size()];
+        for (int i = 0; i < numeric.size(); i++) {
+            numericNames[i] = numeric.get(i).path("name").asText();
+            medians[i] = (float) numeric.get(i).path("median").asDouble();
+        }
+
+        JsonNode categorical = root.path("categorical");
+        String[] categoricalNames = new String[categorical.size()];
+        String[] mostFrequent = new String[categorical.size()];
+        List<List<String>> categories = new ArrayList<>(categorical.size());
+        for (int c = 0; c < categorical.size(); c++) {
+            JsonNode column = categorical.get(c);
+            categoricalNames[c] = column.path("name").asText();
+            mostFrequent[c] = column.path("most_frequent").asText();
+            List<String> values = new ArrayList<>(column.path("categories").size());
+            column.path("categories").forEach(v -> values.add(v.asText()));
+            categories.add(values);
+        }
+        RentFeatureEncoder encoder = new RentFeatureEncoder(numericNames, medians, categoricalNames, mostFrequent,
+                categories, root.path("zero_as_missing").asBoolean(false));
+
+        XgbTreeEnsemble.Builder builder = new XgbTreeEnsemble.Builder((float) root.path("base_score").asDouble());
+        for (JsonNode tree : root.path("trees")) {
+            builder.addTree(intArray(tree.path("left")), intArray(tree.path("right")), intArray(tree.path("feature")),
+                    floatArray(tree.path("threshold")), booleanArray(tree.path("default_left")));
+        }
+        XgbTreeEnsemble ensemble = builder.build();
+        if (ensemble.getTreeCount() == 0) {
+            throw new IOException("模型不包含任何树");
+        }
+        if (ensemble.getFeatureCount() > encoder.getDimension()) {
+            throw new IOException("模型特征维度(" + ensemble.getFeatureCount() + ")超出预处理输出维度("
+                    + encoder.getDimension() + ")");
+        }
+
+        List<PricePredictionResponse.FeatureImportance> importance = new ArrayList<>();
+        for (JsonNode node : root.path("feature_importance")) {
+            PricePredictionResponse.FeatureImportance item = new PricePredictionResponse.FeatureImportance();
+            item.setFeature(node.path("feature").asText());
+            item.setImportance(node.path("importance").asDouble());
+            importance.add(item);
+        }
+
+        return new LocalRentModel(encoder, ensemble, root.path("model_version").asText("1.0"),
+                root.path("algorithm").asText("XGBoost"), root.path("exported_at").asText(null), List.copyOf(importance));
+    }
+
+    private static int[] intArray(JsonNode node) {
+        int[] values = new int[node.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = node.get(i).asInt();
+        }
+        return values;
+    }
+
+    private static float[] floatArray(JsonNode node) {
+        float[] values = new float[node.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (float) node.get(i).asDouble();
+        }
+        return values;
+    }
+
+    private static boolean[] booleanArray(JsonNode node) {
+        boolean[] values = new boolean[node.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = node.get(i).asInt() != 0;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,206 @@
+package com.rental.modules.ml.local;
+
+import com.rental.config.MlLocalModelConfig;
+import com.rental.modules.ml.client.MlServiceClientImpl;
+import com.rental.modules.ml.dto.PricePredictionRequest;
+import com.rental.modules.ml.dto.PricePredictionResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JVM 内租金预测
+ * 按 rent-price-ml/app/main.py 的 /api/v1/predict 相同规则把请求转成训练数据的一行，
+ * 经导出的预处理参数编码后由 XGBoost 树打分，省去到 Python 服务的网络往返与 pandas 开销。
+ * 返回结构与远程服务一致（置信区间为预测值 ±10%）
+ */
+@Slf4j
+@Component
+public class LocalRentPricePredictor {
+
+    private final MlLocalModelConfig config;
+    private final Timer predictTimer;
+
+    private volatile LocalRentModel model;
+    private Columns columns;
+
+    /**
+     * 训练数据各列在编码器中的位置（数值列、类别列各自的句柄，不存在为 -1）
+     */
+    private record Column(int numeric, int categorical) {
+        static Column of(RentFeatureEncoder encoder, String name) {
+            return new Column(encoder.numericColumn(name), encoder.categoricalColumn(name));
+        }
+    }
+
+    private record Columns(Column landlordId, Column title, Column city, Column region, Column address,
+                           Column bedrooms, Column bathrooms, Column area, Column totalFloors,
+                           Column orientation, Column decoration, Column description, Column status,
+                           Column viewCount, Column createdAt) {
+    }
+
+    public LocalRentPricePredictor(MlLocalModelConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.predictTimer = Timer.builder("ml.predict.local")
+                .description("JVM 内租金预测耗时")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        Path path = Paths.get(config.getModelPath());
+        if (!Files.exists(path)) {
+            log.info("未找到本地租金模型 {}，租金预测使用远程 ML 服务（可在 rent-price-ml 执行 python export_model.py 导出）",
+                    path.toAbsolutePath());
+            return;
+        }
+        try (InputStream in = Files.newInputStream(path)) {
+            LocalRentModel loaded = LocalRentModel.load(in);
+            RentFeatureEncoder encoder = loaded.getEncoder();
+            this.columns = new Columns(
+                    Column.of(encoder, "landlord_id"), Column.of(encoder, "title"), Column.of(encoder, "city"),
+                    Column.of(encoder, "region"), Column.of(encoder, "address"), Column.of(encoder, "bedrooms"),
+                    Column.of(encoder, "bathrooms"), Column.of(encoder, "area"), Column.of(encoder, "total_floors"),
+                    Column.of(encoder, "orientation"), Column.of(encoder, "decoration"),
+                    Column.of(encoder, "description"), Column.of(encoder, "status"),
+                    Column.of(encoder, "view_count"), Column.of(encoder, "created_at"));
+            this.model = loaded;
+            log.info("本地租金模型已加载: trees={}, nodes={}, features={}, version={}, exportedAt={}",
+                    loaded.getEnsemble().getTreeCount(), loaded.getEnsemble().getNodeCount(),
+                    encoder.getDimension(), loaded.getModelVersion(), loaded.getExportedAt());
+        } catch (Exception e) {
+            log.warn("本地租金模型加载失败，租金预测使用远程 ML 服务: path={}, err={}", path, e.getMessage());
+        }
+    }
+
+    public boolean isAvailable() {
+        return model != null;
+    }
+
+    /**
+     * 已加载模型的版本标识（版本号 + 导出时间），未加载返回 null
+     */
+    public String modelVersion() {
+        LocalRentModel current = model;
+        return current != null ? current.getModelVersion() + "@" + current.getExportedAt() : null;
+    }
+
+    /**
+     * 预测租金；调用前需确认 {@link #isAvailable()}
+     */
+    public PricePredictionResponse predict(PricePredictionRequest request) {
+        LocalRentModel current = model;
+        if (current == null) {
+            throw new IllegalStateException("本地租金模型未加载");
+        }
+        long start = System.nanoTime();
+        float[] features = current.buffer();
+        encode(current.getEncoder(), request, features);
+        double prediction = current.score(features);
+        long elapsed = System.nanoTime() - start;
+        predictTimer.record(elapsed, TimeUnit.NANOSECONDS);
+
+        double uncertainty = prediction * 0.1;
+        PricePredictionResponse response = new PricePredictionResponse();
+        response.setPredictedPrice(round2(prediction));
+        response.setCurrency("CNY");
+        response.setConfidence(0.85);
+        response.setLowerBound(round2(prediction - uncertainty));
+        response.setUpperBound(round2(prediction + uncertainty));
+        response.setModelVersion(current.getModelVersion());
+        response.setAlgorithmName(current.getAlgorithm());
+        response.setFeatureImportance(current.getFeatureImportance());
+        response.setResponseTimeMs(TimeUnit.NANOSECONDS.toMillis(elapsed));
+        return response;
+    }
+
+    /**
+     * 与 main.py 的记录构造一致：区域缺省为城市，卫生间数取整，装修、描述等按相同规则生成
+     */
+    private void encode(RentFeatureEncoder encoder, PricePredictionRequest request, float[] out) {
+        String city = MlServiceClientImpl.toModelCity(request.getCity().trim());
+        String region = request.getRegion() != null && !request.getRegion().isEmpty() ? request.getRegion() : city;
+        String propertyType = strip(request.getPropertyType(), "Apartment");
+        int totalFloors = request.getTotalFloors() != null ? request.getTotalFloors() : 10;
+        int floor = request.getFloor() != null ? request.getFloor() : 1;
+
+        encoder.reset(out);
+        set(encoder, columns.landlordId(), 1, out);
+        set(encoder, columns.title(), propertyType + " in " + city, out);
+        set(encoder, columns.city(), city, out);
+        set(encoder, columns.region(), region, out);
+        set(encoder, columns.address(), region, out);
+        set(encoder, columns.bedrooms(), request.getBedrooms(), out);
+        set(encoder, columns.bathrooms(), request.getBathrooms() != null ? (int) request.getBathrooms().doubleValue() : 1, out);
+        set(encoder, columns.area(), request.getArea(), out);
+        set(encoder, columns.totalFloors(), totalFloors, out);
+        set(encoder, columns.orientation(), strip(request.getOrientation(), "North"), out);
+        set(encoder, columns.decoration(), mapDecoration(strip(request.getDecoration(), "Unfurnished")), out);
+        set(encoder, columns.description(), "Floor " + floor + "/" + totalFloors
+                + ", Parking: " + pyBool(request.getHasParking())
+                + ", Elevator: " + pyBool(request.getHasElevator())
+                + ", Balcony: " + pyBool(request.getHasBalcony()), out);
+        set(encoder, columns.status(), "available", out);
+        set(encoder, columns.viewCount(), 0, out);
+        set(encoder, columns.createdAt(), LocalDate.now().toString(), out);
+        encoder.finish(out);
+    }
+
+    private static void set(RentFeatureEncoder encoder, Column column, double value, float[] out) {
+        if (column.numeric() >= 0) {
+            encoder.setNumeric(column.numeric(), value, out);
+        } else if (column.categorical() >= 0) {
+            // 训练时该列为字符串类型，按 Python 的 str() 形式匹配词表
+            encoder.setCategorical(column.categorical(), value == Math.rint(value)
+                    ? String.valueOf((long) value) : String.valueOf(value), out);
+        }
+    }
+
+    private static void set(RentFeatureEncoder encoder, Column column, String value, float[] out) {
+        if (column.categorical() >= 0) {
+            encoder.setCategorical(column.categorical(), value, out);
+        }
+    }
+
+    /**
+     * 与 main.py 的 map_property_type_to_furnishing 一致（包括 Unfurnished 也含 furnished 而映射为 fine）
+     */
+    static String mapDecoration(String decoration) {
+        String lower = decoration.toLowerCase();
+        switch (lower) {
+            case "rough", "simple", "fine", "luxury" -> {
+                return lower;
+            }
+            default -> {
+                if (lower.contains("furnished")) {
+                    return "fine";
+                }
+                return lower.contains("semi") ? "simple" : "rough";
+            }
+        }
+    }
+
+    private static String strip(String value, String defaultValue) {
+        return value != null && !value.isBlank() ? value.trim() : defaultValue;
+    }
+
+    private static String pyBool(Boolean value) {
+        return Boolean.TRUE.equals(value) ? "True" : "False";
+    }
+
+    private static double round2(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,144 @@
+package com.rental.modules.ml.local;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 租金模型的特征预处理，复刻训练时的 ColumnTransformer：
+ * 数值列缺失时填中位数；类别列缺失时填众数，再按词表 one-hot（未见过的取值全为 0）。
+ * 输出列顺序为全部数值列，之后依次为各类别列的 one-hot 块。
+ * 调用方先 {@link #reset(float[])} 写入默认值，再逐列覆盖，向量由调用方复用
+ */
+public final class RentFeatureEncoder {
+
+    private final String[] numericNames;
+    private final float[] numericDefaults;
+    private final String[] categoricalNames;
+    private final int[] categoricalOffsets;
+    private final int[] categoricalDefaults;
+    private final List<Map<String, Integer>> vocabularies;
+    private final Map<String, Integer> numericIndex = new HashMap<>();
+    private final Map<String, Integer> categoricalIndex = new HashMap<>();
+    private final boolean zeroAsMissing;
+    private final int dimension;
+
+    RentFeatureEncoder(String[] numericNames, float[] numericDefaults, String[] categoricalNames,
+                       String[] mostFrequent, List<List<String>> categories, boolean zeroAsMissing) {
+        this.numericNames = numericNames;
+        this.numericDefaults = numericDefaults;
+        this.categoricalNames = categoricalNames;
+        this.categoricalOffsets = new int[categoricalNames.length];
+        this.categoricalDefaults = new int[categoricalNames.length];
+        this.vocabularies = new ArrayList<>(categoricalNames.length);
+        this.zeroAsMissing = zeroAsMissing;
+
+        for (int i = 0; i < numericNames.length; i++) {
+            numericIndex.put(numericNames[i], i);
+        }
+        int offset = numericNames.length;
+        for (int c = 0; c < categoricalNames.length; c++) {
+            categoricalIndex.put(categoricalNames[c], c);
+            Map<String, Integer> vocabulary = new HashMap<>();
+            List<String> values = categories.get(c);
+            for (int v = 0; v < values.size(); v++) {
+                vocabulary.put(values.get(v), v);
+            }
+            vocabularies.add(vocabulary);
+            categoricalOffsets[c] = offset;
+            categoricalDefaults[c] = vocabulary.getOrDefault(mostFrequent[c], -1);
+            offset += values.size();
+        }
+        this.dimension = offset;
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * 数值列句柄，列不存在（训练时未使用）返回 -1
+     */
+    public int numericColumn(String name) {
+        return numericIndex.getOrDefault(name, -1);
+    }
+
+    /**
+     * 类别列句柄，列不存在（训练时未使用）返回 -1
+     */
+    public int categoricalColumn(String name) {
+        return categoricalIndex.getOrDefault(name, -1);
+    }
+
+    /**
+     * 写入全部列的填充值（数值列中位数、类别列众数）
+     */
+    public void reset(float[] out) {
+        System.arraycopy(numericDefaults, 0, out, 0, numericDefaults.length);
+        for (int i = numericDefaults.length; i < dimension; i++) {
+            out[i] = 0f;
+        }
+        for (int c = 0; c < categoricalNames.length; c++) {
+            if (categoricalDefaults[c] >= 0) {
+                out[categoricalOffsets[c] + categoricalDefaults[c]] = 1f;
+            }
+        }
+    }
+
+    public void setNumeric(int column, double value, float[] out) {
+        if (column >= 0) {
+            out[column] = Double.isNaN(value) ? numericDefaults[column] : (float) value;
+        }
+    }
+
+    /**
+     * 设置类别列取值；null 视为缺失（保留众数），词表外的取值整块为 0
+     */
+    public void setCategorical(int column, String value, float[] out) {
+        if (column < 0 || value == null) {
+            return;
+        }
+        int offset = categoricalOffsets[column];
+        int end = column + 1 < categoricalOffsets.length ? categoricalOffsets[column + 1] : dimension;
+        for (int i = offset; i < end; i++) {
+            out[i] = 0f;
+        }
+        Integer index = vocabularies.get(column).get(value);
+        if (index != null) {
+            out[offset + index] = 1f;
+        }
+    }
+
+    /**
+     * 预处理输出为稀疏矩阵训练时，XGBoost 把 0 当作缺失值；打分前做同样的转换
+     */
+    public void finish(float[] out) {
+        if (!zeroAsMissing) {
+            return;
+        }
+        for (int i = 0; i < dimension; i++) {
+            if (out[i] == 0f) {
+                out[i] = Float.NaN;
+            }
+        }
+    }
+
+    /**
+     * 按列名编码一条记录（一致性测试与调试用）；数值列接受 Number，其余取值按字符串处理
+     */
+    public void encode(Map<String, ?> record, float[] out) {
+        reset(out);
+        for (int i = 0; i < numericNames.length; i++) {
+            Object value = record.get(numericNames[i]);
+            if (value instanceof Number number) {
+                setNumeric(i, number.doubleValue(), out);
+            }
+        }
+        for (int c = 0; c < categoricalNames.length; c++) {
+            Object value = record.get(categoricalNames[c]);
+            setCategorical(c, value != null ? String.valueOf(value) : null, out);
+        }
+        finish(out);
+    }
+}
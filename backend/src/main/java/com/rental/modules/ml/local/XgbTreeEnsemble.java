@@ -0,0 +1,140 @@
+package com.rental.modules.ml.local;
+
+import java.util.Arrays;
+
+/**
+ * XGBoost 回归树集成（reg:squarederror）的 JVM 内打分
+ * 所有树的节点展平到同一组基本类型数组中，打分只做数组下标跳转与 float 比较，不分配对象。
+ * 分裂规则与 XGBoost 一致：特征值 &lt; 阈值走左子树，缺失值（NaN）按 defaultLeft 走；
+ * 叶子值按树的顺序以 float 累加到 baseScore 上，与 XGBoost CPU 预测的累加方式相同
+ */
+public final class XgbTreeEnsemble {
+
+    private final float baseScore;
+    private final int[] roots;
+    private final int[] left;
+    private final int[] right;
+    private final int[] feature;
+    private final float[] threshold;
+    private final boolean[] defaultLeft;
+    private final int featureCount;
+
+    XgbTreeEnsemble(float baseScore, int[] roots, int[] left, int[] right, int[] feature,
+                    float[] threshold, boolean[] defaultLeft) {
+        this.baseScore = baseScore;
+        this.roots = roots;
+        this.left = left;
+        this.right = right;
+        this.feature = feature;
+        this.threshold = threshold;
+        this.defaultLeft = defaultLeft;
+        int maxFeature = -1;
+        for (int i = 0; i < left.length; i++) {
+            if (left[i] >= 0) {
+                maxFeature = Math.max(maxFeature, feature[i]);
+            }
+        }
+        this.featureCount = maxFeature + 1;
+    }
+
+    /**
+     * 按 XGBoost 原生 JSON 的单棵树数组追加节点（子节点下标为树内下标，-1 表示叶子）
+     */
+    static final class Builder {
+        private final float baseScore;
+        private int[] roots = new int[16];
+        private int treeCount;
+        private int[] left = new int[1024];
+        private int[] right = new int[1024];
+        private int[] feature = new int[1024];
+        private float[] threshold = new float[1024];
+        private boolean[] defaultLeft = new boolean[1024];
+        private int nodeCount;
+
+        Builder(float baseScore) {
+            this.baseScore = baseScore;
+        }
+
+        Builder addTree(int[] treeLeft, int[] treeRight, int[] treeFeature, float[] treeThreshold, boolean[] treeDefaultLeft) {
+            int n = treeLeft.length;
+            if (treeRight.length != n || treeFeature.length != n || treeThreshold.length != n || treeDefaultLeft.length != n) {
+                throw new IllegalArgumentException("树节点数组长度不一致: tree=" + treeCount);
+            }
+            ensureCapacity(nodeCount + n);
+            if (treeCount == roots.length) {
+                roots = Arrays.copyOf(roots, roots.length * 2);
+            }
+            int offset = nodeCount;
+            roots[treeCount++] = offset;
+            for (int i = 0; i < n; i++) {
+                boolean leaf = treeLeft[i] < 0;
+                left[offset + i] = leaf ? -1 : offset + treeLeft[i];
+                right[offset + i] = leaf ? -1 : offset + treeRight[i];
+                feature[offset + i] = treeFeature[i];
+                threshold[offset + i] = treeThreshold[i];
+                defaultLeft[offset + i] = treeDefaultLeft[i];
+            }
+            nodeCount += n;
+            return this;
+        }
+
+        XgbTreeEnsemble build() {
+            return new XgbTreeEnsemble(baseScore,
+                    Arrays.copyOf(roots, treeCount),
+                    Arrays.copyOf(left, nodeCount),
+                    Arrays.copyOf(right, nodeCount),
+                    Arrays.copyOf(feature, nodeCount),
+                    Arrays.copyOf(threshold, nodeCount),
+                    Arrays.copyOf(defaultLeft, nodeCount));
+        }
+
+        private void ensureCapacity(int required) {
+            if (required <= left.length) {
+                return;
+            }
+            int size = Math.max(required, left.length * 2);
+            left = Arrays.copyOf(left, size);
+            right = Arrays.copyOf(right, size);
+            feature = Arrays.copyOf(feature, size);
+            threshold = Arrays.copyOf(threshold, size);
+            defaultLeft = Arrays.copyOf(defaultLeft, size);
+        }
+    }
+
+    /**
+     * 对一行特征打分
+     * @param features 预处理后的特征向量，缺失值为 NaN
+     */
+    public float predict(float[] features) {
+        float sum = baseScore;
+        for (int root : roots) {
+            int node = root;
+            while (left[node] >= 0) {
+                float value = features[feature[node]];
+                if (Float.isNaN(value)) {
+                    node = defaultLeft[node] ? left[node] : right[node];
+                } else {
+                    node = value < threshold[node] ? left[node] : right[node];
+                }
+            }
+            // 叶子节点的 threshold 存放叶子值
+            sum += threshold[node];
+        }
+        return sum;
+    }
+
+    public int getTreeCount() {
+        return roots.length;
+    }
+
+    public int getNodeCount() {
+        return left.length;
+    }
+
+    /**
+     * 树中用到的最大特征下标 + 1，用于校验与预处理输出的维度
+     */
+    public int getFeatureCount() {
+        return featureCount;
+    }
+}
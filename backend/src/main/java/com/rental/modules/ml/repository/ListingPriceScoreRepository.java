@@ -0,0 +1,12 @@
+package com.rental.modules.ml.repository;
+
+import com.rental.modules.ml.entity.ListingPriceScore;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 房源公允租金仓储接口
+ */
+@Repository
+public interface ListingPriceScoreRepository extends JpaRepository<ListingPriceScore, Long> {
+}
@@ -0,0 +1,41 @@
+package com.rental.modules.ml.repository;
+
+import com.rental.modules.ml.entity.RentPrediction;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 租金预测记录仓储接口（写入由 PredictionRecorder 经 JDBC 批量完成）
+ */
+@Repository
+public interface RentPredictionRepository extends JpaRepository<RentPrediction, Long> {
+
+    /**
+     * 待评估的预测：有房源ID、尚未回填挂牌价且早于 before，按ID升序
+     * 返回 [预测ID, 预测租金, 模型版本, 房源挂牌价, 房源城市]
+     */
+    @Query("SELECT r.id, r.predictedPrice, r.modelVersion, p.price, p.city " +
+            "FROM RentPrediction r, Property p " +
+            "WHERE p.id = r.propertyId AND r.actualPrice IS NULL AND r.id > :afterId AND r.createdAt < :before " +
+            "ORDER BY r.id")
+    List<Object[]> findUnevaluated(@Param("afterId") long afterId, @Param("before") LocalDateTime before,
+                                   Pageable pageable);
+
+    /**
+     * 已评估预测的误差汇总，按模型版本与城市分组
+     * 返回 [模型版本, 城市, 条数, 绝对误差和, 误差平方和, 相对误差和, 有符号误差和]
+     */
+    @Query("SELECT r.modelVersion, p.city, COUNT(r), SUM(r.predictionError), " +
+            "SUM(r.predictionError * r.predictionError), SUM(r.predictionError / r.actualPrice), " +
+            "SUM(r.predictedPrice - r.actualPrice) " +
+            "FROM RentPrediction r, Property p " +
+            "WHERE p.id = r.propertyId AND r.predictionError IS NOT NULL AND r.actualPrice > 0 " +
+            "GROUP BY r.modelVersion, p.city")
+    List<Object[]> summarizeErrors();
+}
@@ -0,0 +1,214 @@
+package com.rental.modules.ml.service;
+
+import com.rental.config.MlScoringConfig;
+import com.rental.modules.ml.dto.BatchPricePredictionRequest;
+import com.rental.modules.ml.dto.BatchPricePredictionResponse;
+import com.rental.modules.ml.dto.PricePredictionRequest;
+import com.rental.modules.ml.dto.PricePredictionResponse;
+import com.rental.modules.ml.entity.ListingPriceScore;
+import com.rental.modules.ml.local.LocalRentPricePredictor;
+import com.rental.modules.ml.repository.ListingPriceScoreRepository;
+import com.rental.modules.property.entity.Property;
+import com.rental.modules.property.event.PropertyChangedEvent;
+import com.rental.modules.property.repository.PropertyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 房源公允租金后台打分
+ * 定时取出全部上架房源的预测特征（不加载简介），与 listing_price_scores 中的特征摘要和模型版本比较，
+ * 只为新房源、特征变化或模型版本过期的房源重新预测；待打分房源分批经 MlService.predictPrices 并行预测
+ * （本地模型可用时在 JVM 内完成，否则批量调用 ML 服务），结果按批写回。
+ * 挂牌价不参与预测，高于/低于市场的百分比由 Property.priceScore 按当前挂牌价实时计算
+ */
+@Slf4j
+@Component
+public class FairPriceScoringJob {
+
+    private final MlScoringConfig config;
+    private final MlService mlService;
+    private final LocalRentPricePredictor localRentPricePredictor;
+    private final PropertyRepository propertyRepository;
+    private final ListingPriceScoreRepository scoreRepository;
+    private final ThreadPoolTaskExecutor executor;
+    private final Counter scored;
+    private final Counter failed;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * 待打分房源及其特征摘要
+     */
+    private record Candidate(Long propertyId, PricePredictionRequest request, int featuresHash) {
+    }
+
+    public FairPriceScoringJob(MlScoringConfig config, MlService mlService,
+                               LocalRentPricePredictor localRentPricePredictor,
+                               PropertyRepository propertyRepository, ListingPriceScoreRepository scoreRepository,
+                               @Qualifier("fairPriceExecutor") ThreadPoolTaskExecutor executor,
+                               MeterRegistry meterRegistry) {
+        this.config = config;
+        this.mlService = mlService;
+        this.localRentPricePredictor = localRentPricePredictor;
+        this.propertyRepository = propertyRepository;
+        this.scoreRepository = scoreRepository;
+        this.executor = executor;
+        this.scored = meterRegistry.counter("ml.fair_price.scored", "result", "success");
+        this.failed = meterRegistry.counter("ml.fair_price.scored", "result", "failed");
+    }
+
+    @Scheduled(initialDelayString = "${app.ml.scoring.initial-delay:60000}",
+            fixedDelayString = "${app.ml.scoring.interval:600000}")
+    public void run() {
+        if (!config.isEnabled() || !running.compareAndSet(false, true)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            Map<Long, ListingPriceScore> existing = new HashMap<>();
+            scoreRepository.findAll().forEach(score -> existing.put(score.getPropertyId(), score));
+
+            // 本地模型可用时已知当前版本，可直接判断过期；远程服务的版本要等首批结果返回后才知道
+            String knownVersion = localVersion();
+            List<Candidate> candidates = new ArrayList<>();
+            List<Candidate> unchanged = new ArrayList<>();
+            for (Object[] row : propertyRepository.findPricingFeaturesByStatus(Property.PropertyStatus.available)) {
+                Candidate candidate = toCandidate(row);
+                ListingPriceScore score = existing.get(candidate.propertyId());
+                if (score == null || score.getFeaturesHash() != candidate.featuresHash()
+                        || (knownVersion != null && !knownVersion.equals(score.getModelVersion()))) {
+                    candidates.add(candidate);
+                } else {
+                    unchanged.add(candidate);
+                }
+            }
+
+            String scoredVersion = score(candidates);
+            List<Candidate> unprobed = unchanged;
+            if (knownVersion == null && scoredVersion == null && !unchanged.isEmpty()) {
+                // 没有待打分房源时，用一套已打分房源探测 ML 服务当前的模型版本，否则服务换模型后不会被发现
+                scoredVersion = scoreBatch(unchanged.subList(0, 1));
+                unprobed = unchanged.subList(1, unchanged.size());
+            }
+            String version = scoredVersion;
+            if (knownVersion == null && version != null) {
+                List<Candidate> stale = unprobed.stream()
+                        .filter(c -> !version.equals(existing.get(c.propertyId()).getModelVersion()))
+                        .toList();
+                if (!stale.isEmpty()) {
+                    log.info("ML 服务模型版本为 {}，重新打分 {} 套版本过期的房源", version, stale.size());
+                    score(stale);
+                }
+            }
+            if (!candidates.isEmpty()) {
+                log.info("公允租金打分完成: candidates={}, elapsed={}ms", candidates.size(),
+                        System.currentTimeMillis() - start);
+            }
+        } catch (Exception e) {
+            log.warn("公允租金打分失败: {}", e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * 房源删除时移除其打分
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        if (event.getType() == PropertyChangedEvent.Type.DELETED && scoreRepository.existsById(event.getPropertyId())) {
+            scoreRepository.deleteById(event.getPropertyId());
+        }
+    }
+
+    /**
+     * 分批并行预测并写回，返回结果中的模型版本（全部失败时为 null）
+     */
+    private String score(List<Candidate> candidates) {
+        List<CompletableFuture<String>> batches = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i += config.getBatchSize()) {
+            List<Candidate> batch = candidates.subList(i, Math.min(candidates.size(), i + config.getBatchSize()));
+            batches.add(CompletableFuture.supplyAsync(() -> scoreBatch(batch), executor));
+        }
+        String version = null;
+        for (CompletableFuture<String> batch : batches) {
+            String batchVersion = batch.join();
+            if (batchVersion != null) {
+                version = batchVersion;
+            }
+        }
+        return version;
+    }
+
+    private String scoreBatch(List<Candidate> batch) {
+        try {
+            // 后台打分不写 rent_predictions，准确率只统计用户请求的预测
+            BatchPricePredictionResponse response = mlService.predictPrices(new BatchPricePredictionRequest(
+                    batch.stream().map(Candidate::request).toList()), false);
+            String local = localVersion();
+            String version = null;
+            LocalDateTime now = LocalDateTime.now();
+            List<ListingPriceScore> scores = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                PricePredictionResponse prediction = response.getResults().get(i).getPrediction();
+                if (prediction == null || prediction.getPredictedPrice() == null) {
+                    failed.increment();
+                    continue;
+                }
+                version = local != null ? local : "remote:" + prediction.getModelVersion();
+                scores.add(ListingPriceScore.builder()
+                        .propertyId(batch.get(i).propertyId())
+                        .fairPrice(BigDecimal.valueOf(prediction.getPredictedPrice()).setScale(2, RoundingMode.HALF_UP))
+                        .modelVersion(version)
+                        .featuresHash(batch.get(i).featuresHash())
+                        .scoredAt(now)
+                        .build());
+            }
+            scoreRepository.saveAll(scores);
+            scored.increment(scores.size());
+            return version;
+        } catch (Exception e) {
+            failed.increment(batch.size());
+            log.warn("公允租金打分批次失败: size={}, err={}", batch.size(), e.getMessage());
+            return null;
+        }
+    }
+
+    private String localVersion() {
+        String version = localRentPricePredictor.modelVersion();
+        return version != null ? "local:" + version : null;
+    }
+
+    private static Candidate toCandidate(Object[] row) {
+        PricePredictionRequest request = new PricePredictionRequest();
+        request.setPropertyId((Long) row[0]);
+        request.setCity((String) row[1]);
+        request.setRegion((String) row[2]);
+        request.setBedrooms((Integer) row[3]);
+        request.setBathrooms((Double) row[4]);
+        request.setArea(row[5] != null ? ((BigDecimal) row[5]).doubleValue() : null);
+        request.setTotalFloors((Integer) row[6]);
+        request.setOrientation(row[7] != null ? ((Property.Orientation) row[7]).name() : null);
+        request.setDecoration(row[8] != null ? ((Property.Decoration) row[8]).name() : null);
+        int featuresHash = Objects.hash(request.getCity(), request.getRegion(), request.getBedrooms(),
+                request.getBathrooms(), request.getArea(), request.getTotalFloors(),
+                request.getOrientation(), request.getDecoration());
+        return new Candidate(request.getPropertyId(), request, featuresHash);
+    }
+}
@@ -0,0 +1,286 @@
+package com.rental.modules.ml.service;
+
+import com.rental.common.util.QuantileSketch;
+import com.rental.config.MarketStatsConfig;
+import com.rental.modules.ml.dto.MarketStats;
+import com.rental.modules.property.entity.Property;
+import com.rental.modules.property.event.PropertyChangedEvent;
+import com.rental.modules.property.repository.PropertyRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 租金行情统计
+ * 为每个 (城市, 区域, 户型) 组合及其放宽后的范围（城市+户型、城市+区域、城市）维护在架房源租金与每平米租金的分位数草图，
+ * 启动时全量构建，之后跟随房源事件增量更新（先撤销房源原来的样本再加入新样本），每天定时全量重建一次纠正偏差。
+ * 查询直接读取内存中的草图，不扫描房源表、不调用 ML 服务
+ */
+@Slf4j
+@Component
+public class MarketStatsService {
+
+    private static final String ANY = "*";
+
+    private final MarketStatsConfig config;
+    private final PropertyRepository propertyRepository;
+
+    private Map<String, Cell> cells = new HashMap<>();
+    private Map<Long, Listing> listings = new HashMap<>();
+    private boolean rebuilding;
+    private final Set<Long> changedDuringRebuild = new HashSet<>();
+
+    /**
+     * 房源计入草图时的取值，撤销时按同样的值减回
+     */
+    private record Listing(String city, String region, Integer bedrooms, double price, double pricePerSqm) {
+    }
+
+    /**
+     * 查询范围，region / bedrooms 为 null 表示不限
+     */
+    private record Scope(String city, String region, Integer bedrooms) {
+    }
+
+    private static final class Cell {
+        final QuantileSketch price;
+        final QuantileSketch pricePerSqm;
+
+        Cell(double relativeAccuracy) {
+            this.price = new QuantileSketch(relativeAccuracy);
+            this.pricePerSqm = new QuantileSketch(relativeAccuracy);
+        }
+    }
+
+    public MarketStatsService(MarketStatsConfig config, PropertyRepository propertyRepository,
+                              MeterRegistry meterRegistry) {
+        this.config = config;
+        this.propertyRepository = propertyRepository;
+        Gauge.builder("market.stats.listings", this, MarketStatsService::listingCount)
+                .description("计入租金行情统计的在架房源数")
+                .register(meterRegistry);
+        Gauge.builder("market.stats.cells", this, MarketStatsService::cellCount)
+                .description("租金行情统计的范围数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 查询租金行情：指定范围样本不足 min-samples 时依次放宽为 城市+户型、城市；都不足时取样本最多的范围
+     */
+    public MarketStats getStats(String city, String region, Integer bedrooms) {
+        String cityKey = normalize(city);
+        if (cityKey == null) {
+            throw new IllegalArgumentException("城市不能为空");
+        }
+        String regionKey = normalize(region);
+        List<Scope> ladder = new ArrayList<>(new LinkedHashSet<>(List.of(
+                new Scope(city.trim(), regionKey != null ? region.trim() : null, bedrooms),
+                new Scope(city.trim(), null, bedrooms),
+                new Scope(city.trim(), null, null))));
+
+        synchronized (this) {
+            Scope chosen = null;
+            Cell chosenCell = null;
+            for (Scope scope : ladder) {
+                Cell cell = cells.get(key(cityKey, normalize(scope.region()), scope.bedrooms()));
+                if (cell == null) {
+                    continue;
+                }
+                if (cell.price.count() >= config.getMinSamples()) {
+                    chosen = scope;
+                    chosenCell = cell;
+                    break;
+                }
+                if (chosenCell == null || cell.price.count() > chosenCell.price.count()) {
+                    chosen = scope;
+                    chosenCell = cell;
+                }
+            }
+            Scope scope = chosen != null ? chosen : ladder.get(0);
+            MarketStats.MarketStatsBuilder stats = MarketStats.builder()
+                    .city(scope.city())
+                    .region(scope.region())
+                    .bedrooms(scope.bedrooms())
+                    .broadened(!scope.equals(ladder.get(0)))
+                    .relativeAccuracy(config.getRelativeAccuracy());
+            if (chosenCell != null) {
+                stats.count(chosenCell.price.count())
+                        .price(band(chosenCell.price, 1))
+                        .pricePerSqm(band(chosenCell.pricePerSqm, 10));
+            }
+            return stats.build();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * 全量重建：在锁外从房源表构建新草图后整体替换；重建期间变更的房源在替换后重新应用
+     */
+    @Scheduled(cron = "${app.market-stats.rebuild-cron:0 15 4 * * ?}")
+    public void rebuild() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        synchronized (this) {
+            rebuilding = true;
+            changedDuringRebuild.clear();
+        }
+        List<Long> replay;
+        try {
+            Map<String, Cell> newCells = new HashMap<>();
+            Map<Long, Listing> newListings = new HashMap<>();
+            for (Object[] row : propertyRepository.findMarketFeaturesByStatus(Property.PropertyStatus.available)) {
+                Listing listing = toListing(row);
+                if (listing != null) {
+                    newListings.put((Long) row[0], listing);
+                    add(newCells, listing);
+                }
+            }
+            synchronized (this) {
+                cells = newCells;
+                listings = newListings;
+                replay = new ArrayList<>(changedDuringRebuild);
+                rebuilding = false;
+                changedDuringRebuild.clear();
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                rebuilding = false;
+                changedDuringRebuild.clear();
+            }
+            log.warn("租金行情统计重建失败，继续使用现有数据: {}", e.getMessage());
+            return;
+        }
+        replay.forEach(this::refresh);
+        log.info("租金行情统计重建完成: listings={}, cells={}, 耗时 {} ms",
+                listingCount(), cellCount(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        try {
+            if (event.getType() == PropertyChangedEvent.Type.DELETED) {
+                apply(event.getPropertyId(), null);
+            } else {
+                refresh(event.getPropertyId());
+            }
+        } catch (RuntimeException e) {
+            log.warn("租金行情统计更新失败: propertyId={}, err={}", event.getPropertyId(), e.getMessage());
+        }
+    }
+
+    private void refresh(Long propertyId) {
+        List<Object[]> rows = propertyRepository.findMarketFeaturesById(propertyId, Property.PropertyStatus.available);
+        apply(propertyId, rows.isEmpty() ? null : toListing(rows.get(0)));
+    }
+
+    /**
+     * 撤销房源原来的样本并加入新样本；listing 为 null 表示房源已下架或删除
+     */
+    private synchronized void apply(Long propertyId, Listing listing) {
+        if (rebuilding) {
+            changedDuringRebuild.add(propertyId);
+        }
+        Listing previous = listing != null ? listings.put(propertyId, listing) : listings.remove(propertyId);
+        if (previous != null) {
+            for (String key : keys(previous)) {
+                Cell cell = cells.get(key);
+                if (cell != null) {
+                    cell.price.remove(previous.price());
+                    cell.pricePerSqm.remove(previous.pricePerSqm());
+                    if (cell.price.isEmpty()) {
+                        cells.remove(key);
+                    }
+                }
+            }
+        }
+        if (listing != null) {
+            add(cells, listing);
+        }
+    }
+
+    private void add(Map<String, Cell> target, Listing listing) {
+        for (String key : keys(listing)) {
+            Cell cell = target.computeIfAbsent(key, k -> new Cell(config.getRelativeAccuracy()));
+            cell.price.add(listing.price());
+            cell.pricePerSqm.add(listing.pricePerSqm());
+        }
+    }
+
+    /**
+     * 房源计入的全部范围：(城市, 区域, 户型)、(城市, *, 户型)、(城市, 区域, *)、(城市, *, *)
+     */
+    private static Set<String> keys(Listing listing) {
+        Set<String> keys = new LinkedHashSet<>(4);
+        keys.add(key(listing.city(), listing.region(), listing.bedrooms()));
+        keys.add(key(listing.city(), null, listing.bedrooms()));
+        keys.add(key(listing.city(), listing.region(), null));
+        keys.add(key(listing.city(), null, null));
+        return keys;
+    }
+
+    private static String key(String city, String region, Integer bedrooms) {
+        return city + '|' + (region != null ? region : ANY) + '|' + (bedrooms != null ? bedrooms : ANY);
+    }
+
+    /**
+     * [ID, 城市, 区域, 卧室数, 面积, 租金] 转为样本；城市或租金缺失的房源不计入
+     */
+    private static Listing toListing(Object[] row) {
+        String city = normalize((String) row[1]);
+        BigDecimal price = (BigDecimal) row[5];
+        if (city == null || price == null || price.signum() <= 0) {
+            return null;
+        }
+        BigDecimal area = (BigDecimal) row[4];
+        double pricePerSqm = area != null && area.signum() > 0 ? price.doubleValue() / area.doubleValue() : Double.NaN;
+        return new Listing(city, normalize((String) row[2]), (Integer) row[3], price.doubleValue(), pricePerSqm);
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static MarketStats.Band band(QuantileSketch sketch, int scale) {
+        if (sketch.isEmpty()) {
+            return null;
+        }
+        return new MarketStats.Band(sketch.count(),
+                round(sketch.quantile(0.25), scale), round(sketch.quantile(0.5), scale), round(sketch.quantile(0.75), scale));
+    }
+
+    private static double round(double value, int scale) {
+        return Math.round(value * scale) / (double) scale;
+    }
+
+    private synchronized int listingCount() {
+        return listings.size();
+    }
+
+    private synchronized int cellCount() {
+        return cells.size();
+    }
+}
@@ -1,14 +1,29 @@
 package com.rental.modules.ml.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rental.common.util.SingleFlight;
+import com.rental.config.MlBatchConfig;
 import com.rental.modules.ml.client.MlServiceClient;
+import com.rental.modules.ml.dto.BatchPricePredictionRequest;
+import com.rental.modules.ml.dto.BatchPricePredictionResponse;
 import com.rental.modules.ml.dto.PricePredictionRequest;
 import com.rental.modules.ml.dto.PricePredictionResponse;
 import com.rental.modules.ml.dto.RecommendationRequest;
 import com.rental.modules.ml.dto.RecommendationResponse;
+import com.rental.modules.ml.exception.MlServiceException;
+import com.rental.modules.ml.local.LocalRentPricePredictor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
 /**
  * ML 服务包装层
  */
@@ -18,6 +33,25 @@ import org.springframework.stereotype.Service;
 public class MlService {
 
     private final MlServiceClient mlServiceClient;
+    private final LocalRentPricePredictor localRentPricePredictor;
+    private final PredictionCache predictionCache;
+    private final MlBatchConfig batchConfig;
+    private final PredictionRecorder predictionRecorder;
+    private final ShadowComparisonService shadowComparison;
+
+    // 相同参数的并发请求只调用一次 ML 服务，key 为补全默认值后的请求内容
+    private final SingleFlight<String, PricePredictionResponse> predictFlight = new SingleFlight<>();
+    private final SingleFlight<String, RecommendationResponse> recommendFlight = new SingleFlight<>();
+
+    // 最近一次成功结果，ML 服务不可用（含熔断打开）时作为降级返回
+    private final Cache<String, PricePredictionResponse> lastGoodPredictions = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(Duration.ofHours(24))
+            .build();
+    private final Cache<String, RecommendationResponse> lastGoodRecommendations = Caffeine.newBuilder()
+            .maximumSize(2000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
 
     /**
      * 预测房源租金
@@ -31,33 +65,132 @@ public class MlService {
                 request.getBathrooms(), request.getPropertyType(), request.getDecoration(),
                 request.getFloor(), request.getTotalFloors(), request.getOrientation());
 
-        // 设置默认值，避免 ML 服务报错
-        if (request.getFloor() == null) {
-            request.setFloor(2); // 默认中楼层
-        }
-        if (request.getOrientation() == null) {
-            request.setOrientation("南");
-        }
-        if (request.getHasParking() == null) {
-            request.setHasParking(false);
+        applyDefaults(request);
+
+        String cacheKey = predictionCache.key(request);
+        PricePredictionResponse cached = predictionCache.get(cacheKey);
+        if (cached != null) {
+            log.debug("租金预测命中缓存: key={}", cacheKey);
+            recordPrediction(request, cached, "cache");
+            return cached;
         }
-        if (request.getHasElevator() == null) {
-            request.setHasElevator(false);
+
+        // 优先使用 JVM 内模型，未加载或预测异常时调用远程 ML 服务
+        PricePredictionResponse response = null;
+        String source = "local";
+        if (localRentPricePredictor.isAvailable()) {
+            try {
+                response = localRentPricePredictor.predict(request);
+                predictionCache.put(cacheKey, PredictionCache.SOURCE_LOCAL, localRentPricePredictor.modelVersion(), response);
+            } catch (RuntimeException e) {
+                log.warn("本地租金模型预测失败，改用 ML 服务: {}", e.getMessage());
+            }
         }
-        if (request.getHasBalcony() == null) {
-            request.setHasBalcony(false);
+        if (response == null) {
+            source = "remote";
+            String key = request.toString();
+            // 降级返回的旧结果不写入预测缓存，服务恢复后立即使用新结果
+            response = withFallback(key, lastGoodPredictions,
+                    () -> predictFlight.execute(key, () -> mlServiceClient.predictPrice(request)),
+                    fresh -> predictionCache.put(cacheKey, PredictionCache.SOURCE_REMOTE, fresh.getModelVersion(), fresh));
         }
 
-        // 调用 ML 服务
-        PricePredictionResponse response = mlServiceClient.predictPrice(request);
-
         // 记录预测日志
         log.info("租金预测完成: predictedPrice={}, confidence={}",
                 response.getPredictedPrice(), response.getConfidence());
+        recordPrediction(request, response, source);
 
         return response;
     }
 
+    /**
+     * 批量预测房源租金（后台批量调价、批量导入）
+     * 逐条校验与补全默认值，命中缓存或本地模型可用的直接返回，其余合并为批量调用 ML 服务；
+     * 单条参数错误或 ML 服务不可用只影响对应条目
+     */
+    public BatchPricePredictionResponse predictPrices(BatchPricePredictionRequest batch) {
+        return predictPrices(batch, true);
+    }
+
+    /**
+     * 批量预测房源租金
+     * @param record 是否记录预测并转发影子对比；后台公允租金打分会周期性地为全部上架房源预测，
+     *               不记录，避免淹没按用户请求统计的预测准确率
+     */
+    public BatchPricePredictionResponse predictPrices(BatchPricePredictionRequest batch, boolean record) {
+        long start = System.currentTimeMillis();
+        List<PricePredictionRequest> items = batch.getItems() != null ? batch.getItems() : List.of();
+        if (items.size() > batchConfig.getMaxRequestItems()) {
+            throw new IllegalArgumentException("单次最多预测 " + batchConfig.getMaxRequestItems() + " 条");
+        }
+
+        BatchPricePredictionResponse.Item[] results = new BatchPricePredictionResponse.Item[items.size()];
+        List<Integer> remote = new ArrayList<>();
+        List<String> remoteCacheKeys = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            PricePredictionRequest request = items.get(i);
+            try {
+                validatePredictionRequest(request);
+            } catch (IllegalArgumentException e) {
+                results[i] = new BatchPricePredictionResponse.Item(null, e.getMessage());
+                continue;
+            }
+            applyDefaults(request);
+
+            String cacheKey = predictionCache.key(request);
+            PricePredictionResponse response = predictionCache.get(cacheKey);
+            String source = "cache";
+            if (response == null && localRentPricePredictor.isAvailable()) {
+                source = "local";
+                try {
+                    response = localRentPricePredictor.predict(request);
+                    predictionCache.put(cacheKey, PredictionCache.SOURCE_LOCAL, localRentPricePredictor.modelVersion(), response);
+                } catch (RuntimeException e) {
+                    log.warn("本地租金模型预测失败，改用 ML 服务: {}", e.getMessage());
+                }
+            }
+            if (response != null) {
+                if (record) {
+                    recordPrediction(request, response, source);
+                }
+                results[i] = new BatchPricePredictionResponse.Item(response, null);
+            } else {
+                remote.add(i);
+                remoteCacheKeys.add(cacheKey);
+            }
+        }
+
+        if (!remote.isEmpty()) {
+            // 降级结果的 key 与单条预测一致（ML 客户端会改写城市名，须在调用前生成）
+            List<String> fallbackKeys = remote.stream().map(i -> items.get(i).toString()).toList();
+            try {
+                List<PricePredictionResponse> responses = mlServiceClient.predictPrices(
+                        remote.stream().map(items::get).toList());
+                for (int j = 0; j < remote.size(); j++) {
+                    PricePredictionResponse response = responses.get(j);
+                    lastGoodPredictions.put(fallbackKeys.get(j), response);
+                    predictionCache.put(remoteCacheKeys.get(j), PredictionCache.SOURCE_REMOTE, response.getModelVersion(), response);
+                    if (record) {
+                        recordPrediction(items.get(remote.get(j)), response, "remote");
+                    }
+                    results[remote.get(j)] = new BatchPricePredictionResponse.Item(response, null);
+                }
+            } catch (MlServiceException e) {
+                log.warn("ML 服务批量预测失败，使用最近一次成功结果: count={}, err={}", remote.size(), e.getMessage());
+                for (int j = 0; j < remote.size(); j++) {
+                    PricePredictionResponse cached = lastGoodPredictions.getIfPresent(fallbackKeys.get(j));
+                    results[remote.get(j)] = new BatchPricePredictionResponse.Item(cached,
+                            cached != null ? null : e.getMessage());
+                }
+            }
+        }
+
+        int successCount = (int) Arrays.stream(results).filter(item -> item.getPrediction() != null).count();
+        log.info("批量租金预测完成: total={}, success={}, remote={}", items.size(), successCount, remote.size());
+        return new BatchPricePredictionResponse(Arrays.asList(results), successCount,
+                System.currentTimeMillis() - start);
+    }
+
     /**
      * 获取个性化推荐
      */
@@ -68,7 +201,9 @@ public class MlService {
         }
 
         // 调用 ML 服务
-        RecommendationResponse response = mlServiceClient.getRecommendations(request);
+        String key = request.toString();
+        RecommendationResponse response = withFallback(key, lastGoodRecommendations,
+                () -> recommendFlight.execute(key, () -> mlServiceClient.getRecommendations(request)), fresh -> { });
 
         log.info("推荐完成: count={}", response.getTotalCount());
 
@@ -82,6 +217,61 @@ public class MlService {
         return mlServiceClient.healthCheck();
     }
 
+    /**
+     * 记录线上预测，并按比例异步转发给候选模型做影子对比
+     */
+    private void recordPrediction(PricePredictionRequest request, PricePredictionResponse response, String source) {
+        predictionRecorder.record(request, response, source);
+        shadowComparison.submit(request, response);
+    }
+
+    /**
+     * JVM 内租金模型是否已加载
+     */
+    public boolean isLocalModelAvailable() {
+        return localRentPricePredictor.isAvailable();
+    }
+
+    /**
+     * 调用成功时记录结果并交给 onSuccess；ML 服务不可用时返回同一请求最近一次成功的结果，没有则继续抛出
+     */
+    private <T> T withFallback(String key, Cache<String, T> lastGood, Supplier<T> call, Consumer<T> onSuccess) {
+        try {
+            T response = call.get();
+            lastGood.put(key, response);
+            onSuccess.accept(response);
+            return response;
+        } catch (MlServiceException e) {
+            T cached = lastGood.getIfPresent(key);
+            if (cached == null) {
+                throw e;
+            }
+            log.warn("ML 服务不可用，返回最近一次成功结果: {}", e.getMessage());
+            return cached;
+        }
+    }
+
+    /**
+     * 设置默认值，避免 ML 服务报错
+     */
+    private void applyDefaults(PricePredictionRequest request) {
+        if (request.getFloor() == null) {
+            request.setFloor(2); // 默认中楼层
+        }
+        if (request.getOrientation() == null) {
+            request.setOrientation("南");
+        }
+        if (request.getHasParking() == null) {
+            request.setHasParking(false);
+        }
+        if (request.getHasElevator() == null) {
+            request.setHasElevator(false);
+        }
+        if (request.getHasBalcony() == null) {
+            request.setHasBalcony(false);
+        }
+    }
+
     private void validatePredictionRequest(PricePredictionRequest request) {
         if (request.getBedrooms() == null) {
             throw new IllegalArgumentException("卧室数量不能为空");
@@ -0,0 +1,185 @@
+package com.rental.modules.ml.service;
+
+import com.rental.config.MlTrackingConfig;
+import com.rental.modules.ml.dto.PredictionAccuracy;
+import com.rental.modules.ml.repository.RentPredictionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 租金预测准确率统计
+ * 定时把带房源ID、超过 evaluation-delay 的预测与房源挂牌价关联，回填 actual_price 与 prediction_error，
+ * 并把误差累加到内存中按（模型版本, 城市）分组的统计量；每轮只处理上次之后的新记录。
+ * 首轮从数据库汇总已评估记录初始化统计量
+ */
+@Slf4j
+@Component
+public class PredictionAccuracyTracker {
+
+    private static final String UPDATE_SQL =
+            "UPDATE rent_predictions SET actual_price = ?, prediction_error = ? WHERE id = ?";
+
+    private final MlTrackingConfig config;
+    private final RentPredictionRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Key, ErrorStats> stats = new ConcurrentHashMap<>();
+    private volatile boolean initialized;
+    private long lastEvaluatedId;
+
+    private record Key(String modelVersion, String city) {
+    }
+
+    /**
+     * 误差累加量，读写在同一对象锁内
+     */
+    private static final class ErrorStats {
+        private long count;
+        private double sumAbs;
+        private double sumSquared;
+        private double sumRelative;
+        private double sumSigned;
+
+        synchronized void add(long n, double abs, double squared, double relative, double signed) {
+            count += n;
+            sumAbs += abs;
+            sumSquared += squared;
+            sumRelative += relative;
+            sumSigned += signed;
+        }
+
+        synchronized PredictionAccuracy snapshot(Key key) {
+            return PredictionAccuracy.builder()
+                    .modelVersion(key.modelVersion())
+                    .city(key.city())
+                    .count(count)
+                    .mae(round2(sumAbs / count))
+                    .rmse(round2(Math.sqrt(sumSquared / count)))
+                    .mape(round2(sumRelative / count * 100))
+                    .bias(round2(sumSigned / count))
+                    .build();
+        }
+    }
+
+    public PredictionAccuracyTracker(MlTrackingConfig config, RentPredictionRepository repository,
+                                     JdbcTemplate jdbcTemplate) {
+        this.config = config;
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 当前统计结果，按评估条数降序
+     */
+    public List<PredictionAccuracy> getAccuracy() {
+        List<PredictionAccuracy> result = new ArrayList<>();
+        stats.forEach((key, value) -> result.add(value.snapshot(key)));
+        result.sort(Comparator.comparingLong(PredictionAccuracy::getCount).reversed());
+        return result;
+    }
+
+    public boolean isInitialized() {
+        return initialized;
+    }
+
+    @Scheduled(initialDelayString = "${app.ml.tracking.flush-interval:2000}",
+            fixedDelayString = "${app.ml.tracking.evaluate-interval:600000}")
+    public void evaluate() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        try {
+            if (!initialized) {
+                loadTotals();
+                initialized = true;
+            }
+            int evaluated = 0;
+            int page;
+            do {
+                page = evaluateNext();
+                evaluated += page;
+            } while (page > 0 && evaluated < config.getEvaluateBatchSize());
+            if (evaluated > 0) {
+                log.info("租金预测准确率统计: 本轮评估 {} 条", evaluated);
+            }
+        } catch (Exception e) {
+            log.warn("租金预测准确率统计失败: {}", e.getMessage());
+        }
+    }
+
+    private void loadTotals() {
+        for (Object[] row : repository.summarizeErrors()) {
+            stats.computeIfAbsent(new Key((String) row[0], (String) row[1]), k -> new ErrorStats())
+                    .add(((Number) row[2]).longValue(), toDouble(row[3]), toDouble(row[4]),
+                            toDouble(row[5]), toDouble(row[6]));
+        }
+        log.info("租金预测准确率统计已初始化: groups={}", stats.size());
+    }
+
+    /**
+     * 评估下一页未评估的预测，返回读取的条数
+     */
+    private int evaluateNext() {
+        int pageSize = Math.min(500, config.getEvaluateBatchSize());
+        LocalDateTime before = LocalDateTime.now().minus(config.getEvaluationDelay());
+        List<Object[]> rows = repository.findUnevaluated(lastEvaluatedId, before, PageRequest.of(0, pageSize));
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> updates = new ArrayList<>(rows.size());
+        Map<Key, double[]> delta = new HashMap<>();
+        long maxId = lastEvaluatedId;
+        for (Object[] row : rows) {
+            long id = ((Number) row[0]).longValue();
+            maxId = Math.max(maxId, id);
+            BigDecimal predicted = (BigDecimal) row[1];
+            BigDecimal actual = (BigDecimal) row[3];
+            if (actual == null) {
+                continue;
+            }
+            BigDecimal error = predicted.subtract(actual).abs().setScale(2, RoundingMode.HALF_UP);
+            updates.add(new Object[]{actual, error, id});
+            if (actual.signum() <= 0) {
+                continue;
+            }
+            double signed = predicted.subtract(actual).doubleValue();
+            double abs = Math.abs(signed);
+            double[] d = delta.computeIfAbsent(new Key((String) row[2], (String) row[4]), k -> new double[5]);
+            d[0]++;
+            d[1] += abs;
+            d[2] += abs * abs;
+            d[3] += abs / actual.doubleValue();
+            d[4] += signed;
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+        }
+        // 回填成功后再推进位置并计入统计，失败时下一轮重新处理
+        lastEvaluatedId = maxId;
+        delta.forEach((key, d) -> stats.computeIfAbsent(key, k -> new ErrorStats())
+                .add((long) d[0], d[1], d[2], d[3], d[4]));
+        return rows.size();
+    }
+
+    private static double toDouble(Object value) {
+        return value != null ? ((Number) value).doubleValue() : 0;
+    }
+
+    private static double round2(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,125 @@
+package com.rental.modules.ml.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rental.config.MlCacheConfig;
+import com.rental.modules.ml.client.MlServiceClientImpl;
+import com.rental.modules.ml.dto.PricePredictionRequest;
+import com.rental.modules.ml.dto.PricePredictionResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 租金预测结果缓存
+ * 房东在定价页每改一个字段就会重新预测，且大量房源的（城市、区域、户型、面积）组合相同。
+ * key 为补全默认值后归一化的特征（城市统一为模型使用的英文名、文本去空白并转小写、面积按桶取整），
+ * 结果按来源（本地模型 / ML 服务）记录写入时的模型版本，每个来源各自维护当前版本；
+ * 某一来源版本变化后，该来源的旧结果在读取时被丢弃，另一来源的缓存不受影响。
+ * 命中率通过 cache.gets{cache=ml.predict} 等指标导出
+ */
+@Slf4j
+@Component
+public class PredictionCache {
+
+    public static final String SOURCE_LOCAL = "local";
+    public static final String SOURCE_REMOTE = "remote";
+
+    private final MlCacheConfig config;
+    private final Cache<String, Entry> cache;
+    private final Counter invalidations;
+    private final Map<String, String> modelVersions = new ConcurrentHashMap<>();
+
+    /**
+     * 缓存条目：预测结果及其来源和模型版本
+     */
+    private record Entry(String source, String version, PricePredictionResponse response) {
+    }
+
+    public PredictionCache(MlCacheConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "ml.predict");
+        this.invalidations = Counter.builder("ml.predict.cache.invalidations")
+                .description("模型版本变化导致的租金预测缓存失效次数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 缓存 key；需在补全默认值之后调用
+     */
+    public String key(PricePredictionRequest request) {
+        return String.join("|",
+                MlServiceClientImpl.toModelCity(request.getCity().trim()).toLowerCase(Locale.ROOT),
+                text(request.getRegion()),
+                String.valueOf(request.getBedrooms()),
+                request.getBathrooms() != null ? String.valueOf(request.getBathrooms().intValue()) : "",
+                areaBucket(request.getArea()),
+                text(request.getPropertyType()),
+                text(request.getDecoration()),
+                String.valueOf(request.getFloor()),
+                String.valueOf(request.getTotalFloors()),
+                text(request.getOrientation()),
+                String.valueOf(request.getHasParking()),
+                String.valueOf(request.getHasElevator()),
+                String.valueOf(request.getHasBalcony()));
+    }
+
+    public PricePredictionResponse get(String key) {
+        if (!config.isEnabled()) {
+            return null;
+        }
+        Entry entry = cache.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!Objects.equals(entry.version(), modelVersions.get(entry.source()))) {
+            cache.asMap().remove(key, entry);
+            return null;
+        }
+        return entry.response();
+    }
+
+    /**
+     * 写入预测结果；该来源的模型版本变化时，之前写入的同来源结果随之失效
+     */
+    public void put(String key, String source, String version, PricePredictionResponse response) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        String previous = modelVersions.put(source, version);
+        if (previous != null && !Objects.equals(previous, version)) {
+            log.info("{} 租金模型版本变化({} -> {})，该来源的预测缓存失效", source, previous, version);
+            invalidations.increment();
+        }
+        cache.put(key, new Entry(source, version, response));
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+        modelVersions.clear();
+    }
+
+    private String areaBucket(Double area) {
+        double bucket = config.getAreaBucket();
+        if (bucket <= 0) {
+            return String.valueOf(area);
+        }
+        return String.valueOf(Math.round(area / bucket));
+    }
+
+    private static String text(String value) {
+        return value != null ? value.strip().toLowerCase(Locale.ROOT) : "";
+    }
+}
@@ -0,0 +1,155 @@
+package com.rental.modules.ml.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rental.config.MlTrackingConfig;
+import com.rental.modules.ml.dto.PricePredictionRequest;
+import com.rental.modules.ml.dto.PricePredictionResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 租金预测记录写入器
+ * 预测接口只把结果放入有界内存队列（队列满时丢弃并计数，从不阻塞），后台定时取出并以 JDBC 批量插入 rent_predictions；
+ * 某批插入失败（如房源ID不存在违反外键）时逐条重试，跳过有问题的记录
+ */
+@Slf4j
+@Component
+public class PredictionRecorder {
+
+    private static final String INSERT_SQL = "INSERT INTO rent_predictions (property_id, predicted_price, " +
+            "model_version, algorithm_name, features_snapshot, prediction_confidence, model_metadata, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final MlTrackingConfig config;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BlockingQueue<Pending> queue;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+
+    /**
+     * 待写入的预测；metadata 写入 model_metadata，至少包含 source（local / remote / cache / shadow）
+     */
+    private record Pending(PricePredictionRequest request, PricePredictionResponse response,
+                           Map<String, Object> metadata, LocalDateTime createdAt) {
+    }
+
+    public PredictionRecorder(MlTrackingConfig config, JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        this.written = meterRegistry.counter("ml.prediction.record", "result", "written");
+        this.dropped = meterRegistry.counter("ml.prediction.record", "result", "dropped");
+        this.failed = meterRegistry.counter("ml.prediction.record", "result", "failed");
+        Gauge.builder("ml.prediction.record.queue", queue, BlockingQueue::size)
+                .description("等待写入 rent_predictions 的预测数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 记录一次预测（非阻塞）
+     */
+    public void record(PricePredictionRequest request, PricePredictionResponse response, String source) {
+        record(request, response, Map.of("source", source));
+    }
+
+    /**
+     * 记录一次影子模型预测（非阻塞），同时保存同一请求的线上预测，便于按条对比
+     */
+    public void recordShadow(PricePredictionRequest request, PricePredictionResponse shadow,
+                             PricePredictionResponse production) {
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("source", "shadow");
+        metadata.put("productionPrice", production.getPredictedPrice());
+        metadata.put("productionVersion", production.getModelVersion());
+        record(request, shadow, metadata);
+    }
+
+    private void record(PricePredictionRequest request, PricePredictionResponse response, Map<String, Object> metadata) {
+        if (!config.isEnabled() || response == null || response.getPredictedPrice() == null) {
+            return;
+        }
+        if (!queue.offer(new Pending(request, response, metadata, LocalDateTime.now()))) {
+            dropped.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.ml.tracking.flush-interval:2000}")
+    public void flush() {
+        List<Pending> batch = new ArrayList<>(config.getBatchSize());
+        while (queue.drainTo(batch, config.getBatchSize()) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void write(List<Pending> batch) {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            rows.add(toRow(pending));
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+            written.increment(rows.size());
+        } catch (DataAccessException e) {
+            log.warn("预测记录批量写入失败，改为逐条写入: count={}, err={}", rows.size(), e.getMessage());
+            for (Object[] row : rows) {
+                try {
+                    jdbcTemplate.update(INSERT_SQL, row);
+                    written.increment();
+                } catch (DataAccessException rowError) {
+                    failed.increment();
+                    log.debug("预测记录写入失败: propertyId={}, err={}", row[0], rowError.getMessage());
+                }
+            }
+        }
+    }
+
+    private Object[] toRow(Pending pending) {
+        PricePredictionResponse response = pending.response();
+        return new Object[]{
+                pending.request().getPropertyId(),
+                BigDecimal.valueOf(response.getPredictedPrice()).setScale(2, RoundingMode.HALF_UP),
+                response.getModelVersion() != null ? response.getModelVersion() : "unknown",
+                response.getAlgorithmName(),
+                toJson(pending.request()),
+                response.getConfidence() != null
+                        ? BigDecimal.valueOf(response.getConfidence()).setScale(4, RoundingMode.HALF_UP) : null,
+                toJson(pending.metadata()),
+                Timestamp.valueOf(pending.createdAt())
+        };
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            return "{}";
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.rental.modules.ml.service;
+
+import com.rental.config.MlShadowConfig;
+import com.rental.modules.ml.client.MlServiceClient;
+import com.rental.modules.ml.dto.PredictionAccuracy;
+import com.rental.modules.ml.dto.PricePredictionRequest;
+import com.rental.modules.ml.dto.PricePredictionResponse;
+import com.rental.modules.ml.dto.ShadowComparisonReport;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 租金模型影子对比
+ * 线上预测完成后按 app.ml.shadow.sample-rate 抽样，把同一请求异步转发给候选模型服务，不影响线上响应：
+ * - 成对预测保存在固定大小的环形窗口中，报告时计算差异分布；候选模型版本变化时窗口重新开始
+ * - 候选模型预测以 shadow:版本 写入 rent_predictions（model_metadata 中带线上预测值），
+ *   由 PredictionAccuracyTracker 按挂牌价评估误差，与线上模型并列出现在报告中
+ * - 同时进行中的影子调用数有上限，超出直接丢弃
+ */
+@Slf4j
+@Component
+public class ShadowComparisonService {
+
+    public static final String SHADOW_VERSION_PREFIX = "shadow:";
+
+    private final MlShadowConfig config;
+    private final MlServiceClient mlServiceClient;
+    private final PredictionRecorder predictionRecorder;
+    private final PredictionAccuracyTracker accuracyTracker;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter sampled;
+    private final Counter completed;
+    private final Counter failed;
+    private final Counter dropped;
+    private final Timer latency;
+    private final DistributionSummary divergence;
+
+    private final double[] productionPrices;
+    private final double[] shadowPrices;
+    private final long[] latencies;
+    private int cursor;
+    private int count;
+    private String shadowVersion;
+    private final Set<String> productionVersions = new LinkedHashSet<>();
+    private LocalDateTime windowStartedAt = LocalDateTime.now();
+
+    public ShadowComparisonService(MlShadowConfig config, MlServiceClient mlServiceClient,
+                                   PredictionRecorder predictionRecorder, PredictionAccuracyTracker accuracyTracker,
+                                   MeterRegistry meterRegistry) {
+        this.config = config;
+        this.mlServiceClient = mlServiceClient;
+        this.predictionRecorder = predictionRecorder;
+        this.accuracyTracker = accuracyTracker;
+        int windowSize = Math.max(1, config.getWindowSize());
+        this.productionPrices = new double[windowSize];
+        this.shadowPrices = new double[windowSize];
+        this.latencies = new long[windowSize];
+        this.sampled = meterRegistry.counter("ml.shadow.requests", "result", "sampled");
+        this.completed = meterRegistry.counter("ml.shadow.requests", "result", "completed");
+        this.failed = meterRegistry.counter("ml.shadow.requests", "result", "failed");
+        this.dropped = meterRegistry.counter("ml.shadow.requests", "result", "dropped");
+        this.latency = meterRegistry.timer("ml.shadow.latency");
+        this.divergence = DistributionSummary.builder("ml.shadow.divergence")
+                .description("候选模型与线上模型预测的相对差异绝对值（%）")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 按比例把一次线上预测转发给候选模型（非阻塞）
+     */
+    public void submit(PricePredictionRequest request, PricePredictionResponse production) {
+        if (!config.isEnabled() || config.getUrl() == null || config.getUrl().isBlank()
+                || production == null || production.getPredictedPrice() == null
+                || ThreadLocalRandom.current().nextDouble() >= config.getSampleRate()) {
+            return;
+        }
+        if (inFlight.incrementAndGet() > config.getMaxInFlight()) {
+            inFlight.decrementAndGet();
+            dropped.increment();
+            return;
+        }
+        sampled.increment();
+        long start = System.nanoTime();
+        try {
+            mlServiceClient.predictPriceShadow(request)
+                    .doFinally(signal -> inFlight.decrementAndGet())
+                    .subscribe(shadow -> onShadow(request, production, shadow, System.nanoTime() - start),
+                            e -> {
+                                failed.increment();
+                                log.debug("影子模型调用失败: {}", e.getMessage());
+                            });
+        } catch (RuntimeException e) {
+            inFlight.decrementAndGet();
+            failed.increment();
+            log.debug("影子模型调用失败: {}", e.getMessage());
+        }
+    }
+
+    public ShadowComparisonReport getReport() {
+        double[] production;
+        double[] shadow;
+        long[] elapsed;
+        String version;
+        List<String> versions;
+        LocalDateTime startedAt;
+        synchronized (this) {
+            production = Arrays.copyOf(productionPrices, count);
+            shadow = Arrays.copyOf(shadowPrices, count);
+            elapsed = Arrays.copyOf(latencies, count);
+            version = shadowVersion;
+            versions = List.copyOf(productionVersions);
+            startedAt = windowStartedAt;
+        }
+
+        int pairs = production.length;
+        double absDiffSum = 0;
+        double pctDiffSum = 0;
+        double[] absPct = new double[pairs];
+        int diverged = 0;
+        for (int i = 0; i < pairs; i++) {
+            double diff = shadow[i] - production[i];
+            double pct = diff * 100 / production[i];
+            absDiffSum += Math.abs(diff);
+            pctDiffSum += pct;
+            absPct[i] = Math.abs(pct);
+            if (absPct[i] > config.getDivergenceThreshold() * 100) {
+                diverged++;
+            }
+        }
+        Arrays.sort(absPct);
+        Arrays.sort(elapsed);
+
+        Set<String> compared = new LinkedHashSet<>(versions);
+        if (version != null) {
+            compared.add(SHADOW_VERSION_PREFIX + version);
+        }
+        List<PredictionAccuracy> accuracy = accuracyTracker.getAccuracy().stream()
+                .filter(row -> compared.contains(row.getModelVersion()))
+                .toList();
+
+        return ShadowComparisonReport.builder()
+                .enabled(config.isEnabled())
+                .sampleRate(config.getSampleRate())
+                .shadowModelVersion(version)
+                .productionModelVersions(versions)
+                .windowStartedAt(startedAt)
+                .sampled((long) sampled.count())
+                .completed((long) completed.count())
+                .failed((long) failed.count())
+                .dropped((long) dropped.count())
+                .pairs(pairs)
+                .meanAbsDiff(pairs > 0 ? round(absDiffSum / pairs) : 0)
+                .meanPctDiff(pairs > 0 ? round(pctDiffSum / pairs) : 0)
+                .meanAbsPctDiff(pairs > 0 ? round(Arrays.stream(absPct).sum() / pairs) : 0)
+                .p50AbsPctDiff(round(percentile(absPct, 0.5)))
+                .p95AbsPctDiff(round(percentile(absPct, 0.95)))
+                .maxAbsPctDiff(pairs > 0 ? round(absPct[pairs - 1]) : 0)
+                .divergedRate(pairs > 0 ? round(diverged * 100.0 / pairs) : 0)
+                .divergenceThreshold(config.getDivergenceThreshold() * 100)
+                .shadowLatencyP50Ms(TimeUnit.NANOSECONDS.toMillis(percentile(elapsed, 0.5)))
+                .shadowLatencyP95Ms(TimeUnit.NANOSECONDS.toMillis(percentile(elapsed, 0.95)))
+                .accuracy(accuracy)
+                .build();
+    }
+
+    private void onShadow(PricePredictionRequest request, PricePredictionResponse production,
+                          PricePredictionResponse shadow, long elapsedNanos) {
+        if (shadow.getPredictedPrice() == null || production.getPredictedPrice() <= 0) {
+            failed.increment();
+            return;
+        }
+        completed.increment();
+        latency.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        String version = shadow.getModelVersion() != null ? shadow.getModelVersion() : "unknown";
+        double productionPrice = production.getPredictedPrice();
+        double shadowPrice = shadow.getPredictedPrice();
+        divergence.record(Math.abs(shadowPrice - productionPrice) * 100 / productionPrice);
+
+        synchronized (this) {
+            if (!version.equals(shadowVersion)) {
+                if (shadowVersion != null) {
+                    log.info("候选模型版本变化({} -> {})，影子对比窗口重新开始", shadowVersion, version);
+                }
+                shadowVersion = version;
+                productionVersions.clear();
+                cursor = 0;
+                count = 0;
+                windowStartedAt = LocalDateTime.now();
+            }
+            productionPrices[cursor] = productionPrice;
+            shadowPrices[cursor] = shadowPrice;
+            latencies[cursor] = elapsedNanos;
+            cursor = (cursor + 1) % productionPrices.length;
+            count = Math.min(count + 1, productionPrices.length);
+            if (production.getModelVersion() != null) {
+                productionVersions.add(production.getModelVersion());
+            }
+        }
+
+        // 以 shadow: 前缀区分版本，候选模型与线上模型版本号相同时误差统计也不会混在一起
+        shadow.setModelVersion(SHADOW_VERSION_PREFIX + version);
+        predictionRecorder.recordShadow(request, shadow, production);
+    }
+
+    private static double percentile(double[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
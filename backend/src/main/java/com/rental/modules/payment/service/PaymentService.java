@@ -9,7 +9,7 @@ import com.rental.modules.payment.dto.ReviewPaymentRequest;
 import com.rental.modules.payment.entity.PaymentOrder;
 import com.rental.modules.payment.repository.PaymentOrderRepository;
 import com.rental.modules.property.entity.Property;
-import com.rental.modules.property.repository.PropertyRepository;
+import com.rental.modules.property.service.PropertyService;
 import com.rental.modules.user.entity.UserEntity;
 import com.rental.modules.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -34,7 +34,7 @@ public class PaymentService {
 
     private final PaymentOrderRepository paymentOrderRepository;
     private final UserRepository userRepository;
-    private final PropertyRepository propertyRepository;
+    private final PropertyService propertyService;
     private final EmailService emailService;
     private final RentalContractRepository contractRepository;
 
@@ -80,9 +80,9 @@ public class PaymentService {
         order = paymentOrderRepository.save(order);
         log.info("支付订单创建成功: orderNo={}", orderNo);
 
-        // 将房源状态改为下架
+        // 将房源状态改为下架（经 PropertyService 发布状态变更事件，推荐、行情统计与估价任务随之更新）
         if (request.getPropertyId() != null) {
-            propertyRepository.updateStatus(request.getPropertyId(), Property.PropertyStatus.offline);
+            propertyService.updateStatus(request.getPropertyId(), Property.PropertyStatus.offline);
             log.info("房源已下架: propertyId={}", request.getPropertyId());
         }
 
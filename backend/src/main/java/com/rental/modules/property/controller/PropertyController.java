@@ -47,7 +47,8 @@ public class PropertyController {
      * 获取房源列表（支持筛选和关键词搜索）
      */
     @GetMapping
-    @Operation(summary = "获取房源列表", description = "支持关键词搜索、城市、区域、价格、卧室数等条件筛选")
+    @Operation(summary = "获取房源列表", description = "支持关键词搜索、城市、区域、价格、卧室数、高于/低于市场百分比等条件筛选；" +
+            "sort=value 按性价比（低于市场最多）排序，sort=overpriced 按高于市场最多排序")
     public ResponseEntity<Result<List<Property>>> getListings(
             @RequestParam(required = false) String q,
             @RequestParam(required = false) String city,
@@ -56,10 +57,13 @@ public class PropertyController {
             @RequestParam(required = false) BigDecimal maxPrice,
             @RequestParam(required = false) Integer bedrooms,
             @RequestParam(required = false) String status,
+            @RequestParam(required = false) Double minPriceScore,
+            @RequestParam(required = false) Double maxPriceScore,
+            @RequestParam(required = false) String sort,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
 
-        Pageable pageable = PageRequest.of(page, size);
+        Pageable pageable = PageRequest.of(page, size, propertyService.listingSort(sort));
         Property.PropertyStatus propertyStatus = null;
         if (status != null && !status.isEmpty()) {
             propertyStatus = Property.PropertyStatus.valueOf(status);
@@ -73,7 +77,7 @@ public class PropertyController {
 
         // 否则使用原有筛选功能
         Page<Property> listings = propertyService.findByFilters(
-                city, region, minPrice, maxPrice, bedrooms, propertyStatus, pageable);
+                city, region, minPrice, maxPrice, bedrooms, propertyStatus, minPriceScore, maxPriceScore, pageable);
 
         return ResponseEntity.ok(Result.success(listings.getContent()));
     }
@@ -31,6 +31,19 @@ public class Property {
      */
     @Formula("(SELECT u.username FROM users u WHERE u.id = landlord_id)")
     private String landlordUsername;
+
+    /**
+     * 模型预测的公允租金（后台打分写入 listing_price_scores），未打分为空
+     */
+    @Formula("(SELECT s.fair_price FROM listing_price_scores s WHERE s.property_id = id)")
+    private BigDecimal fairPrice;
+
+    /**
+     * 挂牌价高于公允租金的百分比（负数表示低于市场），按当前挂牌价实时计算，未打分为空
+     */
+    @Formula("(SELECT ROUND((price - s.fair_price) * 100 / s.fair_price, 1) FROM listing_price_scores s " +
+            "WHERE s.property_id = id AND s.fair_price > 0)")
+    private Double priceScore;
     @Column(nullable = false, length = 200)
     private String title;
     @Column(nullable = false, length = 50)
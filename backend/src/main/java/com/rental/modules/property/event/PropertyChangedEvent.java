@@ -0,0 +1,25 @@
+package com.rental.modules.property.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 房源变更事件
+ * 房源增删改、状态变化和图片变化时发布，供冗余了房源信息的读模型/索引同步
+ */
+@Getter
+@AllArgsConstructor
+public class PropertyChangedEvent {
+
+    public enum Type {
+        CREATED,        // 新建
+        UPDATED,        // 信息修改
+        STATUS_CHANGED, // 状态变化（审核、上下架）
+        IMAGES_CHANGED, // 图片上传、删除或排序
+        DELETED         // 删除
+    }
+
+    private final Type type;
+
+    private final Long propertyId;
+}
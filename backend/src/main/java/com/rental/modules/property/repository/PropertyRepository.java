@@ -3,6 +3,8 @@ package com.rental.modules.property.repository;
 import com.rental.modules.property.entity.Property;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.JpaSort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -17,6 +19,16 @@ import java.util.Optional;
  */
 @Repository
 public interface PropertyRepository extends JpaRepository<Property, Long> {
+
+    /**
+     * 按价格评分排序，未打分的房源始终排在最后（@Query 查询不支持 nullsLast，用 COALESCE 把空值换成排序末端的哨兵值）
+     * 仅适用于以 p 为别名的 @Query 查询
+     */
+    static Sort byPriceScore(Sort.Direction direction) {
+        String sentinel = direction.isAscending() ? "1.0E9" : "-1.0E9";
+        return JpaSort.unsafe(direction, "COALESCE(p.priceScore, " + sentinel + ")")
+                .and(Sort.by(Sort.Direction.DESC, "id"));
+    }
     /**
      * 根据房东ID查找房源
      */
@@ -52,6 +64,50 @@ public interface PropertyRepository extends JpaRepository<Property, Long> {
      */
     Page<Property> findByStatus(Property.PropertyStatus status, Pageable pageable);
 
+    /**
+     * 全部房源的ID与更新时间（向量索引启动时增量同步用）
+     */
+    @Query("SELECT p.id, p.updatedAt FROM Property p")
+    List<Object[]> findAllIdAndUpdatedAt();
+
+    /**
+     * 指定状态房源的租金预测特征（公允租金打分用，不加载简介等大字段）
+     * 返回 [ID, 城市, 区域, 卧室数, 卫生间数, 面积, 总楼层, 朝向, 装修]
+     */
+    @Query("SELECT p.id, p.city, p.region, p.bedrooms, p.bathrooms, p.area, p.totalFloors, p.orientation, p.decoration " +
+           "FROM Property p WHERE p.status = :status")
+    List<Object[]> findPricingFeaturesByStatus(@Param("status") Property.PropertyStatus status);
+
+    /**
+     * 指定状态房源的行情统计字段（租金行情草图用）
+     * 返回 [ID, 城市, 区域, 卧室数, 面积, 租金]
+     */
+    @Query("SELECT p.id, p.city, p.region, p.bedrooms, p.area, p.price FROM Property p WHERE p.status = :status")
+    List<Object[]> findMarketFeaturesByStatus(@Param("status") Property.PropertyStatus status);
+
+    /**
+     * 单个房源的行情统计字段，房源不存在或不是指定状态时返回空列表
+     */
+    @Query("SELECT p.id, p.city, p.region, p.bedrooms, p.area, p.price FROM Property p " +
+           "WHERE p.id = :id AND p.status = :status")
+    List<Object[]> findMarketFeaturesById(@Param("id") Long id, @Param("status") Property.PropertyStatus status);
+
+    /**
+     * 指定状态房源的推荐打分字段（不加载简介等大字段），供租客推荐的内存候选目录使用
+     * 返回 [ID, 城市, 区域, 卧室数, 卫生间数, 面积, 租金, 总楼层, 朝向, 装修]
+     */
+    @Query("SELECT p.id, p.city, p.region, p.bedrooms, p.bathrooms, p.area, p.price, p.totalFloors, " +
+           "p.orientation, p.decoration FROM Property p WHERE p.status = :status")
+    List<Object[]> findRecommendationFeaturesByStatus(@Param("status") Property.PropertyStatus status);
+
+    /**
+     * 单个房源的推荐打分字段，房源不存在或不是指定状态时返回空列表
+     */
+    @Query("SELECT p.id, p.city, p.region, p.bedrooms, p.bathrooms, p.area, p.price, p.totalFloors, " +
+           "p.orientation, p.decoration FROM Property p WHERE p.id = :id AND p.status = :status")
+    List<Object[]> findRecommendationFeaturesById(@Param("id") Long id,
+                                                  @Param("status") Property.PropertyStatus status);
+
     /**
      * 自定义查询：筛选房源
      */
@@ -71,6 +127,29 @@ public interface PropertyRepository extends JpaRepository<Property, Long> {
             @Param("status") Property.PropertyStatus status,
             Pageable pageable);
 
+    /**
+     * 筛选房源，并按高于/低于市场的百分比（priceScore）筛选；未打分的房源不参与分数筛选
+     */
+    @Query("SELECT p FROM Property p WHERE " +
+           "(:city IS NULL OR p.city = :city) AND " +
+           "(:region IS NULL OR p.region = :region) AND " +
+           "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
+           "(:maxPrice IS NULL OR p.price <= :maxPrice) AND " +
+           "(:bedrooms IS NULL OR p.bedrooms = :bedrooms) AND " +
+           "(:status IS NULL OR p.status = :status) AND " +
+           "(:minPriceScore IS NULL OR p.priceScore >= :minPriceScore) AND " +
+           "(:maxPriceScore IS NULL OR p.priceScore <= :maxPriceScore)")
+    Page<Property> findByFiltersAndPriceScore(
+            @Param("city") String city,
+            @Param("region") String region,
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice,
+            @Param("bedrooms") Integer bedrooms,
+            @Param("status") Property.PropertyStatus status,
+            @Param("minPriceScore") Double minPriceScore,
+            @Param("maxPriceScore") Double maxPriceScore,
+            Pageable pageable);
+
     /**
      * 根据关键词搜索房源标题（模糊匹配）
      */
@@ -120,6 +199,14 @@ public interface PropertyRepository extends JpaRepository<Property, Long> {
     @Query("UPDATE Property p SET p.status = :status WHERE p.id = :id")
     int updateStatus(@Param("id") Long id, @Param("status") Property.PropertyStatus status);
 
+    /**
+     * 删除房源前解除租金预测记录的关联：预测记录保留，property_id 置空
+     * （rent_predictions 外键为 ON DELETE SET NULL；旧库外键仍为 RESTRICT 时由此保证可删除）
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE rent_predictions SET property_id = NULL WHERE property_id = :id", nativeQuery = true)
+    int detachRentPredictions(@Param("id") Long id);
+
     /**
      * 统计房东房源数量
      */
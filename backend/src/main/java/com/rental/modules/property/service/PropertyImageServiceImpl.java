@@ -2,11 +2,13 @@ package com.rental.modules.property.service;
 
 import com.rental.common.service.ImageStorageService;
 import com.rental.modules.property.entity.PropertyImage;
+import com.rental.modules.property.event.PropertyChangedEvent;
 import com.rental.modules.property.repository.PropertyImageRepository;
 import com.rental.modules.property.repository.PropertyRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -25,6 +27,7 @@ public class PropertyImageServiceImpl implements PropertyImageService {
     private final PropertyImageRepository propertyImageRepository;
     private final PropertyRepository propertyRepository;
     private final ImageStorageService imageStorageService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${server.servlet.context-path:}")
     private String contextPath;
@@ -62,6 +65,7 @@ public class PropertyImageServiceImpl implements PropertyImageService {
             }
         }
 
+        eventPublisher.publishEvent(new PropertyChangedEvent(PropertyChangedEvent.Type.IMAGES_CHANGED, propertyId));
         return images;
     }
 
@@ -94,6 +98,8 @@ public class PropertyImageServiceImpl implements PropertyImageService {
         // 删除数据库记录
         propertyImageRepository.delete(image);
         log.info("房源图片删除成功: id={}", imageId);
+        eventPublisher.publishEvent(new PropertyChangedEvent(
+                PropertyChangedEvent.Type.IMAGES_CHANGED, image.getPropertyId()));
     }
 
     @Override
@@ -116,5 +122,6 @@ public class PropertyImageServiceImpl implements PropertyImageService {
         }
 
         log.info("房源 {} 图片排序更新成功", propertyId);
+        eventPublisher.publishEvent(new PropertyChangedEvent(PropertyChangedEvent.Type.IMAGES_CHANGED, propertyId));
     }
 }
@@ -3,7 +3,9 @@ package com.rental.modules.property.service;
 import com.rental.modules.property.entity.Property;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,6 +33,21 @@ public interface PropertyService {
             Integer bedrooms, Property.PropertyStatus status,
             Pageable pageable);
 
+    /**
+     * 筛选房源，并按挂牌价高于/低于公允租金的百分比筛选（为空表示不限）
+     */
+    Page<Property> findByFilters(
+            String city, String region,
+            BigDecimal minPrice, BigDecimal maxPrice,
+            Integer bedrooms, Property.PropertyStatus status,
+            Double minPriceScore, Double maxPriceScore,
+            Pageable pageable);
+
+    /**
+     * 列表排序：value 低于市场最多的在前，overpriced 高于市场最多的在前；未打分的房源排在最后
+     */
+    Sort listingSort(String sort);
+
     /**
      * 根据关键词搜索房源
      */
@@ -43,6 +60,11 @@ public interface PropertyService {
 
     Optional<Property> findById(Long id);
 
+    /**
+     * 按ID批量查询房源，返回顺序不保证与入参一致
+     */
+    List<Property> findByIds(Collection<Long> ids);
+
     Property findByIdOrThrow(Long id);
 
     Property createProperty(Property property);
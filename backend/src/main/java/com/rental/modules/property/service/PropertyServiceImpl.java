@@ -3,15 +3,19 @@ package com.rental.modules.property.service;
 import com.rental.common.exception.BusinessException;
 import com.rental.common.ResultCode;
 import com.rental.modules.property.entity.Property;
+import com.rental.modules.property.event.PropertyChangedEvent;
 import com.rental.modules.property.repository.PropertyRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,6 +32,7 @@ import java.util.regex.Pattern;
 public class PropertyServiceImpl implements PropertyService {
 
     private final PropertyRepository propertyRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public List<Property> findByLandlordId(Long landlordId) {
@@ -64,6 +69,33 @@ public class PropertyServiceImpl implements PropertyService {
                 city, region, minPrice, maxPrice, bedrooms, status, pageable);
     }
 
+    @Override
+    public Page<Property> findByFilters(
+            String city, String region,
+            BigDecimal minPrice, BigDecimal maxPrice,
+            Integer bedrooms, Property.PropertyStatus status,
+            Double minPriceScore, Double maxPriceScore,
+            Pageable pageable) {
+        if (minPriceScore == null && maxPriceScore == null) {
+            return propertyRepository.findByFilters(
+                    city, region, minPrice, maxPrice, bedrooms, status, pageable);
+        }
+        return propertyRepository.findByFiltersAndPriceScore(
+                city, region, minPrice, maxPrice, bedrooms, status, minPriceScore, maxPriceScore, pageable);
+    }
+
+    @Override
+    public Sort listingSort(String sort) {
+        if (sort == null) {
+            return Sort.unsorted();
+        }
+        return switch (sort) {
+            case "value" -> PropertyRepository.byPriceScore(Sort.Direction.ASC);
+            case "overpriced" -> PropertyRepository.byPriceScore(Sort.Direction.DESC);
+            default -> Sort.unsorted();
+        };
+    }
+
     @Override
     public Page<Property> searchByKeyword(String keyword, Property.PropertyStatus status, Pageable pageable) {
         return propertyRepository.findByTitleContaining(keyword, status, pageable);
@@ -485,6 +517,11 @@ public class PropertyServiceImpl implements PropertyService {
         return propertyRepository.findById(id);
     }
 
+    @Override
+    public List<Property> findByIds(Collection<Long> ids) {
+        return ids.isEmpty() ? List.of() : propertyRepository.findAllById(ids);
+    }
+
     @Override
     public Property findByIdOrThrow(Long id) {
         return propertyRepository.findById(id)
@@ -495,7 +532,9 @@ public class PropertyServiceImpl implements PropertyService {
     @Transactional
     public Property createProperty(Property property) {
         log.info("创建房源: title={}, landlordId={}", property.getTitle(), property.getLandlordId());
-        return propertyRepository.save(property);
+        Property saved = propertyRepository.save(property);
+        eventPublisher.publishEvent(new PropertyChangedEvent(PropertyChangedEvent.Type.CREATED, saved.getId()));
+        return saved;
     }
 
     @Override
@@ -505,7 +544,9 @@ public class PropertyServiceImpl implements PropertyService {
             throw new BusinessException(ResultCode.PROPERTY_NOT_FOUND);
         }
         log.info("更新房源: id={}", property.getId());
-        return propertyRepository.save(property);
+        Property saved = propertyRepository.save(property);
+        eventPublisher.publishEvent(new PropertyChangedEvent(PropertyChangedEvent.Type.UPDATED, saved.getId()));
+        return saved;
     }
 
     @Override
@@ -514,7 +555,9 @@ public class PropertyServiceImpl implements PropertyService {
         Property property = findByIdOrThrow(id);
         property.setStatus(status);
         log.info("更新房源状态: id={}, status={}", id, status);
-        return propertyRepository.save(property);
+        Property saved = propertyRepository.save(property);
+        eventPublisher.publishEvent(new PropertyChangedEvent(PropertyChangedEvent.Type.STATUS_CHANGED, id));
+        return saved;
     }
 
     @Override
@@ -524,7 +567,9 @@ public class PropertyServiceImpl implements PropertyService {
             throw new BusinessException(ResultCode.PROPERTY_NOT_FOUND);
         }
         log.info("删除房源: id={}", id);
+        propertyRepository.detachRentPredictions(id);
         propertyRepository.deleteById(id);
+        eventPublisher.publishEvent(new PropertyChangedEvent(PropertyChangedEvent.Type.DELETED, id));
     }
 
     @Override
@@ -563,7 +608,9 @@ public class PropertyServiceImpl implements PropertyService {
         // 通过设置为 available（可租），拒绝设置为 offline（下架）
         property.setStatus(approved ? Property.PropertyStatus.available : Property.PropertyStatus.offline);
         log.info("审核房源: id={}, approved={}, newStatus={}", id, approved, property.getStatus());
-        return propertyRepository.save(property);
+        Property saved = propertyRepository.save(property);
+        eventPublisher.publishEvent(new PropertyChangedEvent(PropertyChangedEvent.Type.STATUS_CHANGED, id));
+        return saved;
     }
 
     @Override
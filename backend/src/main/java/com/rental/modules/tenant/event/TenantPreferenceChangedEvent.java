@@ -0,0 +1,15 @@
+package com.rental.modules.tenant.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 租客偏好变更事件
+ * 偏好设置保存后发布，供按用户缓存的推荐结果失效
+ */
+@Getter
+@AllArgsConstructor
+public class TenantPreferenceChangedEvent {
+
+    private final Long userId;
+}
@@ -0,0 +1,735 @@
+package com.rental.modules.tenant.service;
+
+import com.rental.modules.property.entity.Property;
+import com.rental.modules.tenant.entity.TenantPreference;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 推荐候选目录的不可变列式快照
+ * 在架房源的打分字段按列存为基本类型数组：租金 int、面积 float、卧室数 byte，城市与区域为字典ID，朝向与装修为枚举编码。
+ * 行按 (城市, 卧室数, 租金, ID) 排序，城市、户型与预算带都对应连续的行区间，剪枝只需二分查找；
+ * 只跳过得分上界低于当前前 K 名的区间，剪枝不改变结果。
+ * 房源变化时由 {@link #with(Row, Row)} 复制出新快照（写时复制，O(n) 数组拷贝），持有旧快照的查询不受影响，读取无需加锁。
+ * 打分按块逐列计算：每个维度在不分配对象的紧凑循环里累加到分数缓冲区，再由基本类型的小顶堆选出前 K 个
+ */
+final class ListingCatalog {
+
+    // 相似度评分权重配置
+    static final double WEIGHT_BUDGET = 20.0;      // 预算权重
+    static final double WEIGHT_CITY = 20.0;        // 城市权重
+    static final double WEIGHT_REGION = 15.0;       // 区域权重
+    static final double WEIGHT_BEDROOMS = 10.0;     // 卧室数权重
+    static final double WEIGHT_BATHROOMS = 8.0;     // 卫生间数权重
+    static final double WEIGHT_AREA = 10.0;        // 面积权重
+    static final double WEIGHT_FLOORS = 4.0;       // 楼层权重
+    static final double WEIGHT_ORIENTATION = 1.5;    // 朝向权重
+    static final double WEIGHT_DECORATION = 1.5;    // 装修权重
+
+    // 预算差异容忍度（超过此差异得0分）
+    static final int BUDGET_TOLERANCE = 500;
+
+    // 超出预算达到该值后预算得分为0，以此作为候选的预算带上限
+    static final int BUDGET_BAND = BUDGET_TOLERANCE * 4;
+
+    /**
+     * 缺失值编码：租金缺失视为无穷大（预算得分为0，排在预算带之外），其余编码不与任何偏好相等
+     */
+    static final int MISSING_PRICE = Integer.MAX_VALUE;
+    static final byte MISSING_CODE = -1;
+    private static final byte NO_MATCH = -2;
+    private static final int NO_REGION = 0;
+    private static final String NO_CITY = "";
+
+    private static final int CHUNK = 1024;
+
+    // 英文城市名（小写）到中文名的映射（用于中英文城市名匹配，不区分大小写）
+    private static final Map<String, String> CITY_ALIASES = Map.ofEntries(
+            Map.entry("beijing", "北京"),
+            Map.entry("shanghai", "上海"),
+            Map.entry("guangzhou", "广州"),
+            Map.entry("shenzhen", "深圳"),
+            Map.entry("hangzhou", "杭州"),
+            Map.entry("chengdu", "成都"),
+            Map.entry("wuhan", "武汉"),
+            Map.entry("xi'an", "西安"),
+            Map.entry("xian", "西安"),
+            Map.entry("nanjing", "南京"),
+            Map.entry("chongqing", "重庆"),
+            Map.entry("tianjin", "天津"),
+            Map.entry("suzhou", "苏州"),
+            Map.entry("zhengzhou", "郑州"),
+            Map.entry("changsha", "长沙"),
+            Map.entry("qingdao", "青岛"),
+            Map.entry("shenyang", "沈阳"),
+            Map.entry("dalian", "大连"),
+            Map.entry("xiamen", "厦门"),
+            Map.entry("kunming", "昆明"),
+            Map.entry("harbin", "哈尔滨")
+    );
+
+    static final ListingCatalog EMPTY = build(List.of());
+
+    // 列
+    private final int size;
+    private final long[] ids;
+    private final int[] cityIds;
+    private final byte[] bedrooms;
+    private final int[] prices;
+    private final float[] areas;
+    private final float[] bathrooms;
+    private final short[] totalFloors;
+    private final int[] regionIds;
+    private final byte[] orientations;
+    private final byte[] decorations;
+
+    // 字典：城市键、区域名 ↔ ID；区域 ID 0 表示无区域
+    private final String[] cities;
+    private final Map<String, Integer> cityIndex;
+    private final String[] regions;
+    private final Map<String, Integer> regionIndex;
+
+    // 分组：(城市, 卧室数) 相同的连续行，第 g 组为 [groupStart[g], groupStart[g + 1])
+    private final int groups;
+    private final int[] groupStart;
+    private final int[] groupCity;
+    private final byte[] groupBedrooms;
+
+    /**
+     * 房源的打分字段，已换算为列存储的编码
+     */
+    record Row(long id, String cityKey, String region, byte bedrooms, float bathrooms, float area, int price,
+               short totalFloors, byte orientation, byte decoration) {
+
+        static Row of(long id, String city, String region, Integer bedrooms, Double bathrooms, BigDecimal area,
+                      BigDecimal price, Integer totalFloors, Property.Orientation orientation,
+                      Property.Decoration decoration) {
+            return new Row(id,
+                    ListingCatalog.cityKey(city),
+                    blankToNull(region),
+                    bedroomsCode(bedrooms),
+                    bathrooms != null ? bathrooms.floatValue() : Float.NaN,
+                    area != null ? area.floatValue() : Float.NaN,
+                    price != null ? price.intValue() : MISSING_PRICE,
+                    totalFloors != null ? (short) Math.max(0, Math.min(totalFloors, Short.MAX_VALUE)) : MISSING_CODE,
+                    orientation != null ? (byte) orientation.ordinal() : MISSING_CODE,
+                    decoration != null ? (byte) decoration.ordinal() : MISSING_CODE);
+        }
+    }
+
+    /**
+     * 单次推荐使用的偏好，预先换算为与列相同的编码
+     */
+    static final class Criteria {
+        final Integer budget;
+        final String city;
+        final String cityKey;
+        final String region;
+        final Integer bedrooms;
+        final byte bedroomsCode;
+        final boolean hasBathrooms;
+        final float bathrooms;
+        final boolean hasArea;
+        final double minArea;
+        final double maxArea;
+        final boolean hasFloors;
+        final int minFloors;
+        final int maxFloors;
+        final byte orientation;
+        final byte decoration;
+
+        Criteria(TenantPreference preferences) {
+            this.budget = preferences.getBudget();
+            this.city = blankToNull(preferences.getCity());
+            this.cityKey = cityKey(city);
+            this.region = blankToNull(preferences.getRegion());
+            this.bedrooms = preferences.getBedrooms();
+            this.bedroomsCode = bedrooms != null && bedrooms >= 0 && bedrooms <= Byte.MAX_VALUE
+                    ? bedrooms.byteValue() : NO_MATCH;
+            this.hasBathrooms = preferences.getBathrooms() != null;
+            this.bathrooms = hasBathrooms ? preferences.getBathrooms() : Float.NaN;
+            this.hasArea = preferences.getMinArea() != null || preferences.getMaxArea() != null;
+            this.minArea = preferences.getMinArea() != null ? preferences.getMinArea().doubleValue() : 0.0;
+            this.maxArea = preferences.getMaxArea() != null ? preferences.getMaxArea().doubleValue() : 1000.0;
+            this.hasFloors = preferences.getMinFloors() != null || preferences.getMaxFloors() != null;
+            this.minFloors = preferences.getMinFloors() != null ? preferences.getMinFloors() : 1;
+            this.maxFloors = preferences.getMaxFloors() != null ? preferences.getMaxFloors() : 100;
+            this.orientation = enumCode(Property.Orientation.class, preferences.getOrientation());
+            this.decoration = enumCode(Property.Decoration.class, preferences.getDecoration());
+        }
+    }
+
+    private ListingCatalog(int size, String[] cities, Map<String, Integer> cityIndex,
+                           String[] regions, Map<String, Integer> regionIndex) {
+        this.size = size;
+        this.ids = new long[size];
+        this.cityIds = new int[size];
+        this.bedrooms = new byte[size];
+        this.prices = new int[size];
+        this.areas = new float[size];
+        this.bathrooms = new float[size];
+        this.totalFloors = new short[size];
+        this.regionIds = new int[size];
+        this.orientations = new byte[size];
+        this.decorations = new byte[size];
+        this.cities = cities;
+        this.cityIndex = cityIndex;
+        this.regions = regions;
+        this.regionIndex = regionIndex;
+        this.groupStart = new int[size + 1];
+        this.groupCity = new int[size];
+        this.groupBedrooms = new byte[size];
+        this.groups = 0;
+    }
+
+    private ListingCatalog(ListingCatalog rows) {
+        this.size = rows.size;
+        this.ids = rows.ids;
+        this.cityIds = rows.cityIds;
+        this.bedrooms = rows.bedrooms;
+        this.prices = rows.prices;
+        this.areas = rows.areas;
+        this.bathrooms = rows.bathrooms;
+        this.totalFloors = rows.totalFloors;
+        this.regionIds = rows.regionIds;
+        this.orientations = rows.orientations;
+        this.decorations = rows.decorations;
+        this.cities = rows.cities;
+        this.cityIndex = rows.cityIndex;
+        this.regions = rows.regions;
+        this.regionIndex = rows.regionIndex;
+        this.groupStart = rows.groupStart;
+        this.groupCity = rows.groupCity;
+        this.groupBedrooms = rows.groupBedrooms;
+
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || cityIds[i] != cityIds[i - 1] || bedrooms[i] != bedrooms[i - 1]) {
+                groupStart[count] = i;
+                groupCity[count] = cityIds[i];
+                groupBedrooms[count] = bedrooms[i];
+                count++;
+            }
+        }
+        groupStart[count] = size;
+        this.groups = count;
+    }
+
+    /**
+     * 由全部房源构建快照；城市ID按城市键排序分配，之后新增的城市追加在字典末尾
+     */
+    static ListingCatalog build(Collection<Row> rows) {
+        TreeSet<String> cityKeys = new TreeSet<>();
+        TreeSet<String> regionNames = new TreeSet<>();
+        for (Row row : rows) {
+            cityKeys.add(row.cityKey() != null ? row.cityKey() : NO_CITY);
+            if (row.region() != null) {
+                regionNames.add(row.region());
+            }
+        }
+        String[] cities = cityKeys.toArray(String[]::new);
+        Map<String, Integer> cityIndex = new HashMap<>(cities.length * 2);
+        for (int i = 0; i < cities.length; i++) {
+            cityIndex.put(cities[i], i);
+        }
+        String[] regions = new String[regionNames.size() + 1];
+        Map<String, Integer> regionIndex = new HashMap<>(regions.length * 2);
+        int r = NO_REGION + 1;
+        for (String region : regionNames) {
+            regions[r] = region;
+            regionIndex.put(region, r++);
+        }
+
+        Row[] sorted = rows.toArray(Row[]::new);
+        Arrays.sort(sorted, Comparator.comparing((Row row) -> row.cityKey() != null ? row.cityKey() : NO_CITY)
+                .thenComparingInt(Row::bedrooms)
+                .thenComparingInt(Row::price)
+                .thenComparingLong(Row::id));
+        ListingCatalog columns = new ListingCatalog(sorted.length, cities, cityIndex, regions, regionIndex);
+        for (int i = 0; i < sorted.length; i++) {
+            columns.write(i, sorted[i]);
+        }
+        return new ListingCatalog(columns);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 写时复制：返回去掉 removed、加入 added 后的新快照（任一可为 null），当前快照保持不变
+     */
+    ListingCatalog with(Row removed, Row added) {
+        String[] newCities = cities;
+        Map<String, Integer> newCityIndex = cityIndex;
+        String[] newRegions = regions;
+        Map<String, Integer> newRegionIndex = regionIndex;
+        if (added != null) {
+            String cityKey = added.cityKey() != null ? added.cityKey() : NO_CITY;
+            if (!cityIndex.containsKey(cityKey)) {
+                newCities = Arrays.copyOf(cities, cities.length + 1);
+                newCities[cities.length] = cityKey;
+                newCityIndex = new HashMap<>(cityIndex);
+                newCityIndex.put(cityKey, cities.length);
+            }
+            if (added.region() != null && !regionIndex.containsKey(added.region())) {
+                newRegions = Arrays.copyOf(regions, regions.length + 1);
+                newRegions[regions.length] = added.region();
+                newRegionIndex = new HashMap<>(regionIndex);
+                newRegionIndex.put(added.region(), regions.length);
+            }
+        }
+
+        int skip = removed != null ? indexOf(removed) : -1;
+        int insertAt = added != null
+                ? insertionPoint(newCityIndex.get(added.cityKey() != null ? added.cityKey() : NO_CITY), added)
+                : -1;
+        if (skip < 0 && added == null) {
+            return this;
+        }
+        ListingCatalog next = new ListingCatalog(size - (skip >= 0 ? 1 : 0) + (added != null ? 1 : 0),
+                newCities, newCityIndex, newRegions, newRegionIndex);
+        int src = 0;
+        int dst = 0;
+        boolean insertPending = added != null;
+        while (true) {
+            int cut = size;
+            if (insertPending) {
+                cut = Math.min(cut, insertAt);
+            }
+            if (skip >= 0) {
+                cut = Math.min(cut, skip);
+            }
+            copyRows(src, next, dst, cut - src);
+            dst += cut - src;
+            src = cut;
+            if (insertPending && insertAt == src) {
+                next.write(dst++, added);
+                insertPending = false;
+            } else if (skip == src) {
+                src++;
+                skip = -1;
+            } else {
+                break;
+            }
+        }
+        return new ListingCatalog(next);
+    }
+
+    /**
+     * 按偏好选出得分最高的 limit 套房源ID（得分降序，同分ID小的在前）。
+     * 设置了城市偏好时只看该城市的行；其余行按「户型是否一致 × 是否在预算带内」分为四类区间，按可达最高分从高到低扫描：
+     * 户型一致且在预算带内 → 其他户型在预算带内 → 户型一致超出预算带 → 其他户型超出预算带（卧室数权重小于预算权重）。
+     * 堆已满且某类区间的得分上界（总分减去必然拿不到的卧室数或预算得分）低于堆中最低分时跳过该类，结果与全量打分一致。
+     * regionScorer 按区域名给出区域得分，每个区域每次查询只调用一次
+     */
+    long[] topK(Criteria criteria, int limit, ToDoubleFunction<String> regionScorer) {
+        int gFrom = 0;
+        int gTo = groups;
+        if (criteria.cityKey != null) {
+            Integer cityId = cityIndex.get(criteria.cityKey);
+            if (cityId == null) {
+                return new long[0];
+            }
+            gFrom = lowerBound(groupCity, 0, groups, cityId);
+            gTo = lowerBound(groupCity, gFrom, groups, cityId + 1);
+        }
+        long cap = criteria.budget != null ? (long) criteria.budget + BUDGET_BAND : Long.MAX_VALUE;
+        double[] regionScores = criteria.region != null
+                ? regionScores(groupStart[gFrom], groupStart[gTo], regionScorer)
+                : null;
+        double[] buffer = new double[CHUNK];
+        TopK top = new TopK(limit);
+
+        for (int pass = 0; pass < 4; pass++) {
+            boolean sameBedrooms = pass % 2 == 0;
+            boolean inBand = pass < 2;
+            double bound = upperBound(criteria, regionScores, sameBedrooms, inBand);
+            for (int g = gFrom; g < gTo; g++) {
+                if (top.isFull() && bound < top.minScore()) {
+                    break;
+                }
+                boolean matches = criteria.bedrooms == null || groupBedrooms[g] == criteria.bedroomsCode;
+                if (matches != sameBedrooms) {
+                    continue;
+                }
+                int bandEnd = bandEnd(g, cap);
+                if (inBand) {
+                    score(criteria, regionScores, buffer, groupStart[g], bandEnd, top);
+                } else {
+                    score(criteria, regionScores, buffer, bandEnd, groupStart[g + 1], top);
+                }
+            }
+        }
+        return top.bestFirst();
+    }
+
+    /**
+     * 一类区间内任意行可达的最高得分：各维度取满分（区域取区间内出现过的最高分），
+     * 户型不一致时卧室数得0分，超出预算带时预算得0分。按 {@link #score} 相同的顺序累加，浮点舍入下仍是上界
+     */
+    private static double upperBound(Criteria c, double[] regionScores, boolean sameBedrooms, boolean inBand) {
+        double bound = c.cityKey != null ? 100 * WEIGHT_CITY : 0;
+        if (c.budget != null) {
+            bound += (inBand ? 100 : 0) * WEIGHT_BUDGET;
+        }
+        if (regionScores != null) {
+            double best = 0;
+            for (double regionScore : regionScores) {
+                best = Math.max(best, regionScore);
+            }
+            bound += best * WEIGHT_REGION;
+        }
+        if (c.bedrooms != null) {
+            bound += sameBedrooms ? 100 * WEIGHT_BEDROOMS : 0;
+        }
+        if (c.hasBathrooms) {
+            bound += 100 * WEIGHT_BATHROOMS;
+        }
+        if (c.hasArea) {
+            bound += 100 * WEIGHT_AREA;
+        }
+        if (c.hasFloors) {
+            bound += 100 * WEIGHT_FLOORS;
+        }
+        if (c.orientation != MISSING_CODE) {
+            bound += 100 * WEIGHT_ORIENTATION;
+        }
+        if (c.decoration != MISSING_CODE) {
+            bound += 100 * WEIGHT_DECORATION;
+        }
+        return bound;
+    }
+
+    /**
+     * 打分内核：对 [from, to) 的行逐块计算加权得分（未除以总权重，不影响排序）并送入堆
+     */
+    private void score(Criteria c, double[] regionScores, double[] buf, int from, int to, TopK top) {
+        for (int start = from; start < to; start += CHUNK) {
+            int n = Math.min(to - start, CHUNK);
+            Arrays.fill(buf, 0, n, c.cityKey != null ? 100 * WEIGHT_CITY : 0);
+
+            // 1. 预算：低于或等于预算得满分，超出容忍度内按比例扣分，再超出按预算带扣分
+            if (c.budget != null) {
+                double budget = c.budget;
+                for (int i = 0; i < n; i++) {
+                    double over = prices[start + i] - budget;
+                    double s = over <= 0 ? 100
+                            : over <= BUDGET_TOLERANCE ? 100 * (1 - over / BUDGET_TOLERANCE)
+                            : over < BUDGET_BAND ? 100 * (1 - over / BUDGET_BAND)
+                            : 0;
+                    buf[i] += s * WEIGHT_BUDGET;
+                }
+            }
+            // 3. 区域：查询前按区域算好的得分表
+            if (regionScores != null) {
+                for (int i = 0; i < n; i++) {
+                    buf[i] += regionScores[regionIds[start + i]] * WEIGHT_REGION;
+                }
+            }
+            // 4. 卧室数：相同得满分
+            if (c.bedrooms != null) {
+                byte want = c.bedroomsCode;
+                for (int i = 0; i < n; i++) {
+                    buf[i] += bedrooms[start + i] == want ? 100 * WEIGHT_BEDROOMS : 0;
+                }
+            }
+            // 5. 卫生间数：相同得满分（NaN 不等于任何值）
+            if (c.hasBathrooms) {
+                float want = c.bathrooms;
+                for (int i = 0; i < n; i++) {
+                    buf[i] += bathrooms[start + i] == want ? 100 * WEIGHT_BATHROOMS : 0;
+                }
+            }
+            // 6. 面积：范围内越接近中点分数越高，范围外按差异扣分；面积缺失得0分
+            if (c.hasArea) {
+                double min = c.minArea;
+                double max = c.maxArea;
+                double range = max - min;
+                double mid = (min + max) / 2;
+                for (int i = 0; i < n; i++) {
+                    double a = areas[start + i];
+                    double s = a >= min && a <= max ? (range > 0 ? 100 * (1 - Math.abs(a - mid) / range) : 100)
+                            : a < min ? Math.max(0, 100 - (min - a))
+                            : a > max ? Math.max(0, 100 - (a - max))
+                            : 0;
+                    buf[i] += s * WEIGHT_AREA;
+                }
+            }
+            // 7. 楼层：总楼层在偏好范围内得满分
+            if (c.hasFloors) {
+                int min = c.minFloors;
+                int max = c.maxFloors;
+                for (int i = 0; i < n; i++) {
+                    int f = totalFloors[start + i];
+                    buf[i] += f >= 0 && f >= min && f <= max ? 100 * WEIGHT_FLOORS : 0;
+                }
+            }
+            // 8. 朝向、9. 装修：相同得满分
+            if (c.orientation != MISSING_CODE) {
+                byte want = c.orientation;
+                for (int i = 0; i < n; i++) {
+                    buf[i] += orientations[start + i] == want ? 100 * WEIGHT_ORIENTATION : 0;
+                }
+            }
+            if (c.decoration != MISSING_CODE) {
+                byte want = c.decoration;
+                for (int i = 0; i < n; i++) {
+                    buf[i] += decorations[start + i] == want ? 100 * WEIGHT_DECORATION : 0;
+                }
+            }
+
+            for (int i = 0; i < n; i++) {
+                top.offer(buf[i], ids[start + i]);
+            }
+        }
+    }
+
+    /**
+     * 区间内出现过的区域各调用一次 regionScorer，得到按区域ID索引的得分表；无区域得0分
+     */
+    private double[] regionScores(int from, int to, ToDoubleFunction<String> regionScorer) {
+        boolean[] seen = new boolean[regions.length];
+        for (int i = from; i < to; i++) {
+            seen[regionIds[i]] = true;
+        }
+        double[] scores = new double[regions.length];
+        for (int r = NO_REGION + 1; r < regions.length; r++) {
+            if (seen[r]) {
+                scores[r] = regionScorer.applyAsDouble(regions[r]);
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * 第 g 组中租金不超过 cap 的行的结束位置（组内按租金升序）
+     */
+    private int bandEnd(int g, long cap) {
+        int lo = groupStart[g];
+        int hi = groupStart[g + 1];
+        if (cap == Long.MAX_VALUE) {
+            return hi;
+        }
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (prices[mid] <= cap) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int indexOf(Row row) {
+        Integer cityId = cityIndex.get(row.cityKey() != null ? row.cityKey() : NO_CITY);
+        if (cityId == null) {
+            return -1;
+        }
+        int i = insertionPoint(cityId, row);
+        return i < size && ids[i] == row.id() ? i : -1;
+    }
+
+    /**
+     * 按排序键 (城市ID, 卧室数, 租金, ID) 二分查找第一个不小于该行的位置
+     */
+    private int insertionPoint(int cityId, Row row) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = Integer.compare(cityIds[mid], cityId);
+            if (cmp == 0) {
+                cmp = Byte.compare(bedrooms[mid], row.bedrooms());
+            }
+            if (cmp == 0) {
+                cmp = Integer.compare(prices[mid], row.price());
+            }
+            if (cmp == 0) {
+                cmp = Long.compare(ids[mid], row.id());
+            }
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private void write(int i, Row row) {
+        ids[i] = row.id();
+        cityIds[i] = cityIndex.get(row.cityKey() != null ? row.cityKey() : NO_CITY);
+        bedrooms[i] = row.bedrooms();
+        prices[i] = row.price();
+        areas[i] = row.area();
+        bathrooms[i] = row.bathrooms();
+        totalFloors[i] = row.totalFloors();
+        regionIds[i] = row.region() != null ? regionIndex.get(row.region()) : NO_REGION;
+        orientations[i] = row.orientation();
+        decorations[i] = row.decoration();
+    }
+
+    private void copyRows(int from, ListingCatalog target, int to, int length) {
+        if (length <= 0) {
+            return;
+        }
+        System.arraycopy(ids, from, target.ids, to, length);
+        System.arraycopy(cityIds, from, target.cityIds, to, length);
+        System.arraycopy(bedrooms, from, target.bedrooms, to, length);
+        System.arraycopy(prices, from, target.prices, to, length);
+        System.arraycopy(areas, from, target.areas, to, length);
+        System.arraycopy(bathrooms, from, target.bathrooms, to, length);
+        System.arraycopy(totalFloors, from, target.totalFloors, to, length);
+        System.arraycopy(regionIds, from, target.regionIds, to, length);
+        System.arraycopy(orientations, from, target.orientations, to, length);
+        System.arraycopy(decorations, from, target.decorations, to, length);
+    }
+
+    private static int lowerBound(int[] values, int from, int to, int key) {
+        int lo = from;
+        int hi = to;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * 城市的归一化键：转小写后将英文城市名换成中文名（兼容中英文，英文不区分大小写）
+     */
+    static String cityKey(String city) {
+        city = blankToNull(city);
+        if (city == null) {
+            return null;
+        }
+        String lower = city.toLowerCase(Locale.ROOT);
+        String alias = CITY_ALIASES.get(lower);
+        return alias != null ? alias : lower;
+    }
+
+    private static byte bedroomsCode(Integer bedrooms) {
+        return bedrooms != null ? (byte) Math.max(0, Math.min(bedrooms, Byte.MAX_VALUE)) : MISSING_CODE;
+    }
+
+    private static <E extends Enum<E>> byte enumCode(Class<E> type, String name) {
+        name = blankToNull(name);
+        if (name == null) {
+            return MISSING_CODE;
+        }
+        try {
+            return (byte) Enum.valueOf(type, name).ordinal();
+        } catch (IllegalArgumentException e) {
+            return NO_MATCH;
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    /**
+     * 保留得分最高的 K 个房源的小顶堆：堆顶是当前最差的（分低，同分时ID大）
+     */
+    static final class TopK {
+        private final int capacity;
+        private final double[] scores;
+        private final long[] ids;
+        private int size;
+
+        TopK(int capacity) {
+            this.capacity = Math.max(0, capacity);
+            this.scores = new double[this.capacity];
+            this.ids = new long[this.capacity];
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isFull() {
+            return size == capacity;
+        }
+
+        /**
+         * 堆中最低分；容量为0时为正无穷，任何区间都无需扫描
+         */
+        double minScore() {
+            return size > 0 ? scores[0] : Double.POSITIVE_INFINITY;
+        }
+
+        void offer(double score, long id) {
+            if (size < capacity) {
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (!worse(score, id, scores[parent], ids[parent])) {
+                        break;
+                    }
+                    scores[i] = scores[parent];
+                    ids[i] = ids[parent];
+                    i = parent;
+                }
+                scores[i] = score;
+                ids[i] = id;
+            } else if (capacity > 0 && worse(scores[0], ids[0], score, id)) {
+                siftDown(score, id);
+            }
+        }
+
+        /**
+         * 按得分降序取出全部ID；取出后堆为空
+         */
+        long[] bestFirst() {
+            long[] result = new long[size];
+            for (int k = size - 1; k >= 0; k--) {
+                result[k] = ids[0];
+                size--;
+                if (size > 0) {
+                    siftDown(scores[size], ids[size]);
+                }
+            }
+            return result;
+        }
+
+        private void siftDown(double score, long id) {
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && worse(scores[child + 1], ids[child + 1], scores[child], ids[child])) {
+                    child++;
+                }
+                if (!worse(scores[child], ids[child], score, id)) {
+                    break;
+                }
+                scores[i] = scores[child];
+                ids[i] = ids[child];
+                i = child;
+            }
+            scores[i] = score;
+            ids[i] = id;
+        }
+
+        private static boolean worse(double s1, long id1, double s2, long id2) {
+            return s1 < s2 || (s1 == s2 && id1 > id2);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.rental.modules.tenant.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rental.common.service.AmapGeocodingClient;
+import com.rental.config.RecommendationConfig;
+import com.rental.modules.property.entity.Property;
+import com.rental.modules.property.event.PropertyChangedEvent;
+import com.rental.modules.property.repository.PropertyRepository;
+import com.rental.modules.region.entity.Region;
+import com.rental.modules.region.repository.RegionRepository;
+import com.rental.modules.tenant.event.TenantPreferenceChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 租客个性化推荐
+ * 在架房源的打分字段常驻内存，存为不可变的列式快照 {@link ListingCatalog}，不再每次加载全部房源实体：
+ * - 设置了城市偏好时只在该城市内取候选，不同城市的房源不推荐
+ * - 候选逐层放宽：先取户型一致且租金在预算带内的房源，不足 limit 套再加入其他户型，仍不足再加入超出预算带的房源
+ * - 打分内核逐列在基本类型数组上计算，小顶堆保留得分最高的 limit 套
+ * 结果按用户缓存房源ID，偏好保存或相关城市的房源变化时失效；快照启动时全量构建，之后跟随房源事件写时复制
+ */
+@Slf4j
+@Service
+public class RecommendationService {
+
+    // 区域间最大距离（公里），超过此距离得0分
+    private static final int REGION_MAX_DISTANCE = 50;
+
+    private final RecommendationConfig config;
+    private final TenantPreferenceService preferenceService;
+    private final PropertyRepository propertyRepository;
+    private final RegionRepository regionRepository;
+    private final AmapGeocodingClient amapGeocodingClient;
+    private final Cache<Long, Recommendation> cache;
+
+    // 区域坐标缓存：key为"城市_区域"，value为[经度, 纬度]
+    private final Map<String, double[]> regionCoordinateCache = new ConcurrentHashMap<>();
+
+    /**
+     * 当前快照，查询直接读取；房源行的原值用于在快照中定位并撤销旧行，写入在 this 上串行
+     */
+    private volatile ListingCatalog catalog = ListingCatalog.EMPTY;
+    private Map<Long, ListingCatalog.Row> rows = new HashMap<>();
+    private volatile boolean ready;
+    private boolean rebuilding;
+    private final Set<Long> changedDuringRebuild = new HashSet<>();
+
+    /**
+     * 快照或偏好每变化一次加一；计算期间有变化的结果不写入缓存，避免缓存旧结果
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * 缓存的推荐结果；cityKey 为 null 表示用户未设置城市偏好，任何城市的房源变化都会使其失效
+     */
+    private record Recommendation(String cityKey, List<Long> propertyIds) {
+    }
+
+    public RecommendationService(RecommendationConfig config, TenantPreferenceService preferenceService,
+                                 PropertyRepository propertyRepository, RegionRepository regionRepository,
+                                 AmapGeocodingClient amapGeocodingClient, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.preferenceService = preferenceService;
+        this.propertyRepository = propertyRepository;
+        this.regionRepository = regionRepository;
+        this.amapGeocodingClient = amapGeocodingClient;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getCacheMaxSize())
+                .expireAfterWrite(config.getCacheTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "tenant.recommendation");
+        Gauge.builder("tenant.recommendation.catalog.listings", this, s -> s.catalog.size())
+                .description("推荐候选目录中的在架房源数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 用户的推荐房源ID，按相似度降序；未设置任何偏好时返回ID最小的 limit 套在架房源
+     */
+    public List<Long> recommend(Long userId) {
+        Recommendation cached = cache.getIfPresent(userId);
+        if (cached != null) {
+            return cached.propertyIds();
+        }
+        long startGeneration = generation.get();
+        ListingCatalog.Criteria criteria = new ListingCatalog.Criteria(preferenceService.getPreferences(userId));
+        long[] top = catalog.topK(criteria, config.getLimit(),
+                region -> calculateRegionScore(criteria.city, criteria.region, region));
+        List<Long> ids = Arrays.stream(top).boxed().toList();
+        log.debug("用户 {} 的推荐结果: {}", userId, ids);
+        if (ready && generation.get() == startGeneration) {
+            Recommendation recommendation = new Recommendation(criteria.cityKey, ids);
+            cache.put(userId, recommendation);
+            // 核对与写入之间可能有房源或偏好变化且失效已先执行：写入后再核对一次，变化了就撤回这条结果
+            if (generation.get() != startGeneration) {
+                cache.asMap().remove(userId, recommendation);
+            }
+        }
+        return ids;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * 全量重建：从房源表读取打分字段构建新快照后整体替换；重建期间变更的房源在替换后重新应用
+     */
+    @Scheduled(cron = "${app.recommendation.rebuild-cron:0 20 4 * * ?}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        synchronized (this) {
+            rebuilding = true;
+            changedDuringRebuild.clear();
+        }
+        List<Long> replay;
+        try {
+            Map<Long, ListingCatalog.Row> newRows = new HashMap<>();
+            for (Object[] row : propertyRepository.findRecommendationFeaturesByStatus(Property.PropertyStatus.available)) {
+                ListingCatalog.Row parsed = toRow(row);
+                newRows.put(parsed.id(), parsed);
+            }
+            ListingCatalog newCatalog = ListingCatalog.build(newRows.values());
+            synchronized (this) {
+                catalog = newCatalog;
+                rows = newRows;
+                replay = new ArrayList<>(changedDuringRebuild);
+                rebuilding = false;
+                changedDuringRebuild.clear();
+                generation.incrementAndGet();
+                cache.invalidateAll();
+                ready = true;
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                rebuilding = false;
+                changedDuringRebuild.clear();
+            }
+            log.warn("推荐候选目录重建失败，继续使用现有数据: {}", e.getMessage());
+            return;
+        }
+        replay.forEach(this::refresh);
+        log.info("推荐候选目录重建完成: listings={}, 耗时 {} ms", catalog.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        if (event.getType() == PropertyChangedEvent.Type.IMAGES_CHANGED) {
+            return;
+        }
+        try {
+            if (event.getType() == PropertyChangedEvent.Type.DELETED) {
+                apply(event.getPropertyId(), null);
+            } else {
+                refresh(event.getPropertyId());
+            }
+        } catch (RuntimeException e) {
+            log.warn("推荐候选目录更新失败: propertyId={}, err={}", event.getPropertyId(), e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPreferenceChanged(TenantPreferenceChangedEvent event) {
+        generation.incrementAndGet();
+        cache.invalidate(event.getUserId());
+    }
+
+    private void refresh(Long propertyId) {
+        List<Object[]> found = propertyRepository.findRecommendationFeaturesById(propertyId, Property.PropertyStatus.available);
+        apply(propertyId, found.isEmpty() ? null : toRow(found.get(0)));
+    }
+
+    /**
+     * 用新值替换快照中的房源（写时复制）并使相关城市的缓存失效；row 为 null 表示房源已下架或删除
+     */
+    private synchronized void apply(Long propertyId, ListingCatalog.Row row) {
+        if (rebuilding) {
+            changedDuringRebuild.add(propertyId);
+        }
+        ListingCatalog.Row previous = row != null ? rows.put(propertyId, row) : rows.remove(propertyId);
+        if (previous == null && row == null) {
+            return;
+        }
+        generation.incrementAndGet();
+        catalog = catalog.with(previous, row);
+
+        Set<String> cities = new HashSet<>();
+        if (previous != null) {
+            cities.add(previous.cityKey());
+        }
+        if (row != null) {
+            cities.add(row.cityKey());
+        }
+        cache.asMap().values().removeIf(r -> r.cityKey() == null || cities.contains(r.cityKey()));
+    }
+
+    /**
+     * [ID, 城市, 区域, 卧室数, 卫生间数, 面积, 租金, 总楼层, 朝向, 装修] 转为快照行
+     */
+    private static ListingCatalog.Row toRow(Object[] row) {
+        return ListingCatalog.Row.of((Long) row[0], (String) row[1], (String) row[2], (Integer) row[3],
+                (Double) row[4], (BigDecimal) row[5], (BigDecimal) row[6], (Integer) row[7],
+                (Property.Orientation) row[8], (Property.Decoration) row[9]);
+    }
+
+    /**
+     * 计算区域相似度得分
+     * 根据区域经纬度坐标计算距离，距离越近分数越高
+     */
+    private double calculateRegionScore(String city, String prefRegion, String propRegion) {
+        if (prefRegion == null || propRegion == null) {
+            return 0;
+        }
+        // 完全相同
+        if (prefRegion.equalsIgnoreCase(propRegion)) {
+            return 100;
+        }
+
+        // 获取偏好区域和房源区域的坐标
+        double[] prefCoords = getRegionCoordinates(city, prefRegion);
+        double[] propCoords = getRegionCoordinates(city, propRegion);
+
+        // 如果无法获取坐标，回退到原来的简单匹配逻辑
+        if (prefCoords == null || propCoords == null) {
+            log.debug("无法获取区域坐标，回退到字符串匹配: {} vs {}", prefRegion, propRegion);
+            return 30;
+        }
+
+        // 计算球面距离
+        double distance = calculateDistance(prefCoords[0], prefCoords[1], propCoords[0], propCoords[1]);
+
+        // 根据距离计算得分
+        return calculateDistanceScore(distance, REGION_MAX_DISTANCE);
+    }
+
+    /**
+     * 根据城市和区域名称获取坐标
+     * 优先从Region表获取，其次从高德API获取
+     */
+    private double[] getRegionCoordinates(String city, String region) {
+        if (city == null || region == null || city.isEmpty() || region.isEmpty()) {
+            return null;
+        }
+
+        String cacheKey = city + "_" + region;
+
+        // 先从内存缓存获取
+        double[] cached = regionCoordinateCache.get(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        // 从数据库Region表获取
+        try {
+            Optional<Region> regionOpt = regionRepository.findByCityAndNameAny(city, region);
+            if (regionOpt.isPresent()) {
+                Region r = regionOpt.get();
+                double[] coords = {r.getLongitude().doubleValue(), r.getLatitude().doubleValue()};
+                regionCoordinateCache.put(cacheKey, coords);
+                log.debug("从数据库获取区域坐标: {}_{} -> {}, {}", city, region, coords[0], coords[1]);
+                return coords;
+            }
+        } catch (Exception e) {
+            log.warn("从数据库查询区域 {} 坐标失败: {}", cacheKey, e.getMessage());
+        }
+
+        // 尝试通过高德API获取
+        try {
+            double[] coords = amapGeocodingClient.geocode(city + region);
+            if (coords != null) {
+                regionCoordinateCache.put(cacheKey, coords);
+                log.debug("从高德API获取区域坐标: {}_{} -> {}, {}", city, region, coords[0], coords[1]);
+                return coords;
+            }
+        } catch (Exception e) {
+            log.warn("从高德API获取区域 {} 坐标失败: {}", cacheKey, e.getMessage());
+        }
+
+        return null;
+    }
+
+    /**
+     * 计算两点之间的球面距离（公里）
+     */
+    private static double calculateDistance(double lon1, double lat1, double lon2, double lat2) {
+        final double R = 6371; // 地球半径（公里）
+        double latDistance = Math.toRadians(lat2 - lat1);
+        double lonDistance = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        return R * c;
+    }
+
+    /**
+     * 根据距离计算相似度评分
+     */
+    private static double calculateDistanceScore(double distance, double maxDistance) {
+        if (distance == 0) {
+            return 100;
+        } else if (distance <= maxDistance) {
+            return 100 * (1 - distance / maxDistance);
+        } else {
+            return 0;
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.rental.modules.tenant.service;
 
 import com.rental.modules.tenant.entity.TenantPreference;
+import com.rental.modules.tenant.event.TenantPreferenceChangedEvent;
 import com.rental.modules.tenant.repository.TenantPreferenceRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,6 +16,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class TenantPreferenceService {
 
     private final TenantPreferenceRepository repository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * 获取用户偏好设置
@@ -51,6 +54,8 @@ public class TenantPreferenceService {
         existing.setOrientation(preferences.getOrientation());
         existing.setDecoration(preferences.getDecoration());
 
-        return repository.save(existing);
+        TenantPreference saved = repository.save(existing);
+        eventPublisher.publishEvent(new TenantPreferenceChangedEvent(userId));
+        return saved;
     }
 }
@@ -0,0 +1,19 @@
+package com.rental.modules.user.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 用户资料变更事件
+ * 用户名或真实姓名变化时发布，供冗余了用户展示名的读模型同步
+ */
+@Getter
+@AllArgsConstructor
+public class UserProfileChangedEvent {
+
+    private final Long userId;
+
+    private final String username;
+
+    private final String realName;
+}
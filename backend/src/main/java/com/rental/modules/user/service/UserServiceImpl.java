@@ -4,9 +4,11 @@ import com.rental.common.exception.BusinessException;
 import com.rental.common.ResultCode;
 import com.rental.common.service.EmailService;
 import com.rental.modules.user.entity.UserEntity;
+import com.rental.modules.user.event.UserProfileChangedEvent;
 import com.rental.modules.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
@@ -23,6 +25,7 @@ import java.util.Random;
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final EmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public Optional<UserEntity> findById(Long id) {
@@ -123,7 +126,13 @@ public class UserServiceImpl implements UserService {
 
         log.info("更新用户资料: userId={}, username={}, phone={}, realName={}",
                 id, username, phone, realName);
-        return userRepository.save(userEntity);
+        userEntity = userRepository.save(userEntity);
+
+        if (username != null || realName != null) {
+            eventPublisher.publishEvent(new UserProfileChangedEvent(
+                    userEntity.getId(), userEntity.getUsername(), userEntity.getRealName()));
+        }
+        return userEntity;
     }
 
     @Override
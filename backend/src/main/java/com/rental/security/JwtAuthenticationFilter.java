@@ -20,6 +20,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.Set;
 
 /**
  * JWT 认证过滤器
@@ -33,6 +34,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private static final String AUTHORIZATION_HEADER = "Authorization";
     private static final String BEARER_PREFIX = "Bearer ";
+    private static final String TOKEN_PARAM = "access_token";
+    /**
+     * 允许通过查询参数携带 Token 的端点（相对 context-path），仅限浏览器 EventSource 订阅的会话推送；
+     * AI 流式接口由 fetch 发起，可以设置请求头，不在此列
+     */
+    private static final Set<String> QUERY_TOKEN_PATHS = Set.of("/conversations/stream");
 
     @Override
     protected void doFilterInternal(
@@ -88,6 +95,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith(BEARER_PREFIX)) {
             return bearerToken.substring(BEARER_PREFIX.length());
         }
+        // EventSource 无法设置请求头，会话实时推送端点允许通过查询参数传递 Token
+        if ("GET".equals(request.getMethod()) && QUERY_TOKEN_PATHS.contains(request.getServletPath())) {
+            return request.getParameter(TOKEN_PARAM);
+        }
         return null;
     }
 }
@@ -119,9 +119,9 @@ CREATE TABLE IF NOT EXISTS properties (
 -- ============================================
 CREATE TABLE IF NOT EXISTS rent_predictions (
     id BIGINT UNSIGNED NOT NULL AUTO_INCREMENT COMMENT '预测记录主键ID',
-    property_id BIGINT UNSIGNED NOT NULL COMMENT '房源ID，外键关联properties.id',
+    property_id BIGINT UNSIGNED DEFAULT NULL COMMENT '房源ID，外键关联properties.id（定价页为未发布房源预测时为空）',
     predicted_price DECIMAL(10,2) NOT NULL COMMENT '机器学习模型预测的租金价格（元/月）',
-    actual_price DECIMAL(10,2) DEFAULT NULL COMMENT '实际租金价格（成交后填入，用于模型评估）',
+    actual_price DECIMAL(10,2) DEFAULT NULL COMMENT '实际租金价格（准确率统计任务按房源挂牌价回填，用于模型评估）',
     model_version VARCHAR(50) NOT NULL COMMENT '模型版本号，如: v1.0 / v2.1_20240901',
     algorithm_name VARCHAR(100) DEFAULT NULL COMMENT '使用的算法名称，如: RandomForest / XGBoost / NeuralNetwork',
     features_snapshot JSON NOT NULL COMMENT '特征快照（JSON格式），存储预测时使用的特征数据',
@@ -135,8 +135,27 @@ CREATE TABLE IF NOT EXISTS rent_predictions (
     KEY idx_created_at (created_at),
     KEY idx_prediction_accuracy (prediction_error),
     CONSTRAINT fk_rent_predictions_property FOREIGN KEY (property_id)
-        REFERENCES properties(id) ON DELETE RESTRICT ON UPDATE CASCADE
+        REFERENCES properties(id) ON DELETE SET NULL ON UPDATE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='租金预测结果表';
+-- 若 rent_predictions 表已存在，可执行以下迁移，删除已有预测记录的房源时保留预测、解除关联：
+-- ALTER TABLE rent_predictions DROP FOREIGN KEY fk_rent_predictions_property;
+-- ALTER TABLE rent_predictions ADD CONSTRAINT fk_rent_predictions_property FOREIGN KEY (property_id)
+--     REFERENCES properties(id) ON DELETE SET NULL ON UPDATE CASCADE;
+
+-- ============================================
+-- 4.1 房源公允租金表 (listing_price_scores)
+-- 用途: 后台按模型为上架房源预测的公允租金，高于/低于市场的百分比按当前挂牌价实时计算
+-- ============================================
+CREATE TABLE IF NOT EXISTS listing_price_scores (
+    property_id BIGINT UNSIGNED NOT NULL COMMENT '房源ID',
+    fair_price DECIMAL(10,2) NOT NULL COMMENT '模型预测的公允租金（元/月）',
+    model_version VARCHAR(100) NOT NULL COMMENT '打分时的模型版本',
+    features_hash INT NOT NULL COMMENT '打分时房源特征摘要，特征变化后重新打分',
+    scored_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '打分时间',
+    PRIMARY KEY (property_id),
+    CONSTRAINT fk_listing_price_scores_property FOREIGN KEY (property_id)
+        REFERENCES properties(id) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='房源公允租金表';
 
 -- ============================================
 -- 5. 租客偏好设置表 (tenant_preferences)
@@ -236,6 +255,8 @@ CREATE TABLE IF NOT EXISTS conversations (
     KEY idx_landlord_id (landlord_id),
     KEY idx_tenant_id (tenant_id),
     KEY idx_last_message_at (last_message_at),
+    KEY idx_landlord_last_message (landlord_id, last_message_at),
+    KEY idx_tenant_last_message (tenant_id, last_message_at),
     CONSTRAINT fk_conversations_property FOREIGN KEY (property_id)
         REFERENCES properties(id) ON DELETE CASCADE ON UPDATE CASCADE,
     CONSTRAINT fk_conversations_landlord FOREIGN KEY (landlord_id)
@@ -264,6 +285,7 @@ CREATE TABLE IF NOT EXISTS messages (
     KEY idx_sender_id (sender_id),
     KEY idx_created_at (created_at),
     KEY idx_conversation_created (conversation_id, created_at),
+    KEY idx_conversation_id_id (conversation_id, id),
     CONSTRAINT fk_messages_conversation FOREIGN KEY (conversation_id)
         REFERENCES conversations(id) ON DELETE CASCADE ON UPDATE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='消息表';
@@ -271,6 +293,71 @@ CREATE TABLE IF NOT EXISTS messages (
 -- 若 messages 表已存在，可执行以下迁移以支持图片存库：
 -- ALTER TABLE messages ADD COLUMN image_data MEDIUMBLOB NULL COMMENT '图片二进制数据' AFTER image_url;
 -- ALTER TABLE messages ADD COLUMN image_content_type VARCHAR(100) NULL COMMENT '图片MIME类型' AFTER image_data;
+-- 消息游标分页（before/after/since）所需索引：
+-- ALTER TABLE messages ADD KEY idx_conversation_id_id (conversation_id, id);
+
+-- ============================================
+-- 10.1 对话收件箱读模型 (conversation_inbox)
+-- 用途: 每个对话为房东、租客各一行，冗余对方展示名、房源标题/封面、最后消息和未读数，
+--       由消息/用户资料/房源事件维护，列表按 (user_id, last_message_at, id) 游标分页
+-- ============================================
+CREATE TABLE IF NOT EXISTS conversation_inbox (
+    id BIGINT UNSIGNED NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    user_id BIGINT UNSIGNED NOT NULL COMMENT '收件箱所属用户ID',
+    role ENUM('tenant', 'landlord') NOT NULL COMMENT '所属用户在对话中的角色',
+    conversation_id BIGINT UNSIGNED NOT NULL COMMENT '对话ID',
+    counterpart_id BIGINT UNSIGNED NOT NULL COMMENT '对方用户ID',
+    counterpart_username VARCHAR(50) DEFAULT NULL COMMENT '对方用户名',
+    counterpart_real_name VARCHAR(50) DEFAULT NULL COMMENT '对方真实姓名',
+    property_id BIGINT UNSIGNED NOT NULL COMMENT '房源ID',
+    property_title VARCHAR(200) DEFAULT NULL COMMENT '房源标题',
+    property_cover_url VARCHAR(500) DEFAULT NULL COMMENT '房源封面图',
+    last_message VARCHAR(500) DEFAULT NULL COMMENT '最后一条消息预览',
+    last_message_at TIMESTAMP NOT NULL COMMENT '最后消息时间（无消息时为对话创建时间）',
+    unread_count INT UNSIGNED NOT NULL DEFAULT 0 COMMENT '未读消息数',
+    status ENUM('active', 'closed') NOT NULL DEFAULT 'active' COMMENT '对话状态',
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_user_conversation (user_id, conversation_id),
+    KEY idx_user_last_message (user_id, last_message_at, id),
+    KEY idx_counterpart_id (counterpart_id),
+    KEY idx_property_id (property_id),
+    KEY idx_conversation_id (conversation_id),
+    CONSTRAINT fk_inbox_conversation FOREIGN KEY (conversation_id)
+        REFERENCES conversations(id) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='对话收件箱读模型';
+
+-- ============================================
+-- 10.2 消息冷存储 (message_archives)
+-- 用途: 已关闭且长期无新消息的对话，其消息按 id 分块压缩（gzip JSON）归档后从 messages 删除；
+--       messages 有外键，InnoDB 分区表不支持外键，因此采用冷热分表而非按月分区
+-- ============================================
+CREATE TABLE IF NOT EXISTS message_archives (
+    id BIGINT UNSIGNED NOT NULL AUTO_INCREMENT COMMENT '归档块主键ID',
+    conversation_id BIGINT UNSIGNED NOT NULL COMMENT '对话ID',
+    first_message_id BIGINT UNSIGNED NOT NULL COMMENT '块内最小消息ID',
+    last_message_id BIGINT UNSIGNED NOT NULL COMMENT '块内最大消息ID',
+    message_count INT UNSIGNED NOT NULL COMMENT '块内消息条数',
+    payload LONGBLOB NOT NULL COMMENT 'gzip 压缩的消息 JSON 数组',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '归档时间',
+    PRIMARY KEY (id),
+    KEY idx_archive_conversation_first (conversation_id, first_message_id),
+    KEY idx_archive_conversation_last (conversation_id, last_message_id),
+    CONSTRAINT fk_archives_conversation FOREIGN KEY (conversation_id)
+        REFERENCES conversations(id) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='消息冷存储归档表';
+
+-- 归档消息的图片：图片二进制不进入 gzip JSON 归档块，按消息 ID 单独存放，只为返回的消息加载
+CREATE TABLE IF NOT EXISTS message_archive_images (
+    message_id BIGINT UNSIGNED NOT NULL COMMENT '消息ID（原 messages.id）',
+    conversation_id BIGINT UNSIGNED NOT NULL COMMENT '对话ID',
+    content_type VARCHAR(100) DEFAULT NULL COMMENT '图片MIME类型',
+    data MEDIUMBLOB NOT NULL COMMENT '图片二进制数据',
+    PRIMARY KEY (message_id),
+    KEY idx_archive_image_conversation (conversation_id),
+    CONSTRAINT fk_archive_images_conversation FOREIGN KEY (conversation_id)
+        REFERENCES conversations(id) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='归档消息图片表';
 
 -- ============================================
 -- 11. 租房合同表 (rental_contract)
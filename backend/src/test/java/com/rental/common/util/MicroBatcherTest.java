@@ -0,0 +1,67 @@
+package com.rental.common.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 微批合并测试
+ * 运行方式：在 backend 目录执行 mvn test -Dtest=MicroBatcherTest
+ */
+class MicroBatcherTest {
+
+    @Test
+    @DisplayName("TC-UTIL-001: 窗口内的并发请求合并为一次调用，结果按顺序拆回各调用方")
+    void submit_mergesWithinWindow() {
+        List<List<Integer>> calls = new CopyOnWriteArrayList<>();
+        MicroBatcher<Integer, String> batcher = new MicroBatcher<>(100, Duration.ofMillis(50), batch -> {
+            calls.add(List.copyOf(batch));
+            return CompletableFuture.completedFuture(batch.stream().map(i -> "r" + i).toList());
+        });
+
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(batcher.submit(i));
+        }
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("r" + i, futures.get(i).join());
+        }
+        assertEquals(1, calls.size());
+        assertEquals(List.of(0, 1, 2, 3, 4), calls.get(0));
+    }
+
+    @Test
+    @DisplayName("TC-UTIL-002: 攒满 maxBatchSize 立即发出，不等窗口到期")
+    void submit_flushesWhenFull() {
+        List<List<Integer>> calls = new CopyOnWriteArrayList<>();
+        MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>(2, Duration.ofHours(1), batch -> {
+            calls.add(List.copyOf(batch));
+            return CompletableFuture.completedFuture(batch);
+        });
+
+        CompletableFuture<Integer> first = batcher.submit(1);
+        CompletableFuture<Integer> second = batcher.submit(2);
+
+        assertEquals(1, first.join());
+        assertEquals(2, second.join());
+        assertEquals(List.of(List.of(1, 2)), calls);
+    }
+
+    @Test
+    @DisplayName("TC-UTIL-003: 批量调用失败时同批调用方收到原始异常")
+    void execute_propagatesBatchFailure() {
+        MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>(10, Duration.ofMillis(1),
+                batch -> CompletableFuture.failedFuture(new IllegalStateException("upstream down")));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> batcher.execute(1));
+        assertEquals("upstream down", e.getMessage());
+    }
+}
@@ -0,0 +1,60 @@
+package com.rental.common.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 可删除分位数草图测试
+ * 运行方式：在 backend 目录执行 mvn test -Dtest=QuantileSketchTest
+ */
+class QuantileSketchTest {
+
+    @Test
+    @DisplayName("TC-UTIL-004: 分位数相对误差不超过设定值，撤销样本后与只加入剩余样本的结果一致")
+    void quantile_withinRelativeAccuracy_andSupportsRemoval() {
+        Random random = new Random(42);
+        double[] values = new double[20000];
+        QuantileSketch sketch = new QuantileSketch(0.01);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.exp(7 + random.nextGaussian() * 0.6); // 月租约 300～20000
+            sketch.add(values[i]);
+        }
+        assertEquals(values.length, sketch.count());
+        assertQuantilesAccurate(values, sketch);
+
+        // 撤销前一半样本（模拟下架、调价）
+        QuantileSketch remaining = new QuantileSketch(0.01);
+        for (int i = 0; i < values.length; i++) {
+            if (i < values.length / 2) {
+                assertTrue(sketch.remove(values[i]));
+            } else {
+                remaining.add(values[i]);
+            }
+        }
+        double[] rest = Arrays.copyOfRange(values, values.length / 2, values.length);
+        assertEquals(rest.length, sketch.count());
+        assertQuantilesAccurate(rest, sketch);
+        for (double q : new double[]{0.25, 0.5, 0.75}) {
+            assertEquals(remaining.quantile(q), sketch.quantile(q));
+        }
+
+        assertFalse(new QuantileSketch(0.01).remove(1000), "空草图没有可撤销的样本");
+        assertTrue(Double.isNaN(new QuantileSketch(0.01).quantile(0.5)));
+    }
+
+    private static void assertQuantilesAccurate(double[] values, QuantileSketch sketch) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for (double q : new double[]{0.0, 0.25, 0.5, 0.75, 0.95, 1.0}) {
+            double exact = sorted[(int) Math.floor(q * (sorted.length - 1))];
+            double estimate = sketch.quantile(q);
+            assertTrue(Math.abs(estimate - exact) <= exact * 0.01 + 1e-9,
+                    "q=" + q + " exact=" + exact + " estimate=" + estimate);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.rental.modules.ai.cache;
+
+import com.rental.modules.ai.client.LlmRouter;
+import com.rental.modules.ai.config.AiConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LLM 结果缓存 key 测试
+ * 运行方式：在 backend 目录执行 mvn test -Dtest=LlmResultCacheTest
+ */
+class LlmResultCacheTest {
+
+    @Test
+    @DisplayName("TC-LLM-201: 查询归一化合并同义写法，数字段之间保留一个分隔")
+    void normalizeQuery_keepsSeparatorBetweenDigitRuns() {
+        assertEquals("杭州二室5000以内", LlmResultCache.normalizeQuery("杭州 两室 5000以内"));
+        assertEquals("杭州二室5000以内", LlmResultCache.normalizeQuery("杭州两居室，5k以下"));
+        assertEquals("3000-5000", LlmResultCache.normalizeQuery("3000-5000"));
+        assertEquals("3000-5000", LlmResultCache.normalizeQuery("3000 5000"));
+        assertEquals("3000-5000", LlmResultCache.normalizeQuery("3k~5k"));
+        assertEquals("12000以内", LlmResultCache.normalizeQuery("12,000元以内"));
+        assertNotEquals(LlmResultCache.normalizeQuery("30005000"), LlmResultCache.normalizeQuery("3000 5000"));
+    }
+
+    @Test
+    @DisplayName("TC-LLM-202: 缓存 key 包含路由各节点的模型")
+    void criteriaKey_includesRouterModels() {
+        AiConfig single = new AiConfig();
+        single.getRouter().getEndpoints().add(endpoint("ollama", "qwen2.5:7b"));
+        AiConfig mixed = new AiConfig();
+        mixed.getRouter().getEndpoints().add(endpoint("ollama", "qwen2.5:7b"));
+        mixed.getRouter().getEndpoints().add(endpoint("openai", "gpt-4o-mini"));
+
+        String singleKey = newCache(single).criteriaKey("杭州两室");
+        String mixedKey = newCache(mixed).criteriaKey("杭州两室");
+        assertTrue(mixedKey.contains("openai:gpt-4o-mini"));
+        assertNotEquals(singleKey, mixedKey);
+    }
+
+    private static LlmResultCache newCache(AiConfig aiConfig) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        return new LlmResultCache(aiConfig, new LlmRouter(aiConfig, registry), registry);
+    }
+
+    private static AiConfig.Endpoint endpoint(String provider, String model) {
+        AiConfig.Endpoint endpoint = new AiConfig.Endpoint();
+        endpoint.setProvider(provider);
+        endpoint.setUrl("http://localhost:1");
+        endpoint.setModel(model);
+        return endpoint;
+    }
+}
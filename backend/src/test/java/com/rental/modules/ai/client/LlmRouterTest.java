@@ -0,0 +1,128 @@
+package com.rental.modules.ai.client;
+
+import com.rental.common.http.OutboundHttpClients;
+import com.rental.config.HttpClientConfig;
+import com.rental.modules.ai.config.AiConfig;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LLM 多节点路由测试：使用本地桩服务模拟 Ollama /api/chat
+ * 运行方式：在 backend 目录执行 mvn test -Dtest=LlmRouterTest
+ */
+class LlmRouterTest {
+
+    private final List<HttpServer> servers = new ArrayList<>();
+
+    @AfterEach
+    void stopServers() {
+        servers.forEach(server -> server.stop(0));
+    }
+
+    @Test
+    @DisplayName("TC-LLM-001: 首选节点超过对冲等待时间未返回时，取另一节点的结果")
+    void complete_slowPrimary_returnsHedgedAnswer() {
+        AiConfig aiConfig = new AiConfig();
+        // 慢节点权重更高，保证首发请求落在慢节点上
+        aiConfig.getRouter().getEndpoints().add(endpoint("slow", startStub("slow", 3000), 10, 4));
+        aiConfig.getRouter().getEndpoints().add(endpoint("fast", startStub("fast", 0), 1, 4));
+        aiConfig.getRouter().getHedge().setInitialDelay(Duration.ofMillis(200));
+
+        LlmClient client = newClient(aiConfig);
+
+        long start = System.nanoTime();
+        String answer = client.complete("test", "你好");
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertEquals("fast", answer);
+        assertTrue(elapsedMillis < 2000, "对冲请求应在慢节点返回前结束，实际耗时 " + elapsedMillis + "ms");
+    }
+
+    @Test
+    @DisplayName("TC-LLM-002: 按负载选择节点，全部达到并发上限时不再分配")
+    void acquire_respectsLoadAndConcurrencyLimit() {
+        AiConfig aiConfig = new AiConfig();
+        aiConfig.getRouter().getEndpoints().add(endpoint("a", "http://localhost:1", 1, 1));
+        aiConfig.getRouter().getEndpoints().add(endpoint("b", "http://localhost:2", 1, 1));
+        LlmRouter router = new LlmRouter(aiConfig, new SimpleMeterRegistry());
+
+        LlmEndpoint first = router.acquire(List.of());
+        LlmEndpoint second = router.acquire(List.of());
+
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNotSame(first, second);
+        assertNull(router.acquire(List.of()));
+
+        first.release();
+        assertSame(first, router.acquire(List.of()));
+    }
+
+    private LlmClient newClient(AiConfig aiConfig) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        OutboundHttpClients outboundHttpClients = new OutboundHttpClients(new HttpClientConfig(), WebClient.builder(),
+                meterRegistry, CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults());
+        LlmRouter router = new LlmRouter(aiConfig, meterRegistry);
+        return new LlmClientImpl(aiConfig, router, new LlmScheduler(aiConfig, router, meterRegistry),
+                outboundHttpClients, meterRegistry);
+    }
+
+    private static AiConfig.Endpoint endpoint(String name, String url, int weight, int maxConcurrency) {
+        AiConfig.Endpoint endpoint = new AiConfig.Endpoint();
+        endpoint.setName(name);
+        endpoint.setUrl(url);
+        endpoint.setWeight(weight);
+        endpoint.setMaxConcurrency(maxConcurrency);
+        return endpoint;
+    }
+
+    /**
+     * 启动一个 Ollama 桩服务，延迟 delayMillis 后返回固定回答
+     */
+    private String startStub(String answer, long delayMillis) {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/api/chat", exchange -> {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                byte[] body = ("{\"message\":{\"role\":\"assistant\",\"content\":\"" + answer + "\"},\"done\":true}")
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                try {
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                } catch (IOException ignored) {
+                    // 对冲胜出后客户端会取消慢请求，连接可能已关闭
+                }
+            });
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.start();
+            servers.add(server);
+            return "http://127.0.0.1:" + server.getAddress().getPort();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
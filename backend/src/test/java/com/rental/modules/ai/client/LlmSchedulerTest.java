@@ -0,0 +1,103 @@
+package com.rental.modules.ai.client;
+
+import com.rental.modules.ai.config.AiConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LLM 调度器测试：优先级排队、截止时间、低优先级降级与名额比例
+ * 运行方式：在 backend 目录执行 mvn test -Dtest=LlmSchedulerTest
+ */
+class LlmSchedulerTest {
+
+    @Test
+    @DisplayName("TC-LLM-101: 名额释放后高优先级请求先获得，同级按到达顺序")
+    void release_grantsHigherPriorityFirst() {
+        LlmScheduler scheduler = newScheduler(1, new AiConfig());
+        LlmScheduler.Ticket held = scheduler.acquire("chat").block();
+        assertNotNull(held);
+
+        List<String> order = new ArrayList<>();
+        AtomicReference<LlmScheduler.Ticket> granted = new AtomicReference<>();
+        scheduler.acquire("chat").subscribe(t -> { order.add("chat"); granted.set(t); });
+        scheduler.acquire("search-parse").subscribe(t -> { order.add("search-parse"); granted.set(t); });
+        assertEquals(1, scheduler.queueDepth(LlmPriority.INTERACTIVE));
+        assertEquals(1, scheduler.queueDepth(LlmPriority.CHAT));
+
+        scheduler.release(held);
+        assertEquals(List.of("search-parse"), order);
+
+        scheduler.release(granted.get());
+        assertEquals(List.of("search-parse", "chat"), order);
+        // 重复归还不会多放出名额
+        scheduler.release(held);
+        scheduler.release(granted.get());
+        assertNotNull(scheduler.acquire("chat").block(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    @DisplayName("TC-LLM-102: 排队超过截止时间的请求被丢弃")
+    void acquire_pastDeadline_rejected() {
+        AiConfig aiConfig = new AiConfig();
+        aiConfig.getScheduler().getClasses().get(LlmPriority.CHAT).setMaxWait(Duration.ofMillis(100));
+        LlmScheduler scheduler = newScheduler(1, aiConfig);
+        assertNotNull(scheduler.acquire("chat").block());
+
+        LlmOverloadedException e = assertThrows(LlmOverloadedException.class,
+                () -> scheduler.acquire("chat").block(Duration.ofSeconds(2)));
+        assertEquals("deadline", e.getReason());
+        assertEquals(0, scheduler.queueDepth(LlmPriority.CHAT));
+    }
+
+    @Test
+    @DisplayName("TC-LLM-103: 有高优先级排队时后台请求直接降级，取消的排队请求不占名额")
+    void background_shedWhenBusy() {
+        LlmScheduler scheduler = newScheduler(1, new AiConfig());
+        LlmScheduler.Ticket held = scheduler.acquire("chat").block();
+        Disposable waiting = scheduler.acquire("search-answer").subscribe();
+
+        LlmOverloadedException e = assertThrows(LlmOverloadedException.class,
+                () -> scheduler.acquire("suggest").block(Duration.ofSeconds(1)));
+        assertEquals("shed", e.getReason());
+
+        waiting.dispose();
+        assertEquals(0, scheduler.queueDepth(LlmPriority.INTERACTIVE));
+        scheduler.release(held);
+        assertNotNull(scheduler.acquire("suggest").block(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    @DisplayName("TC-LLM-104: 后台请求最多占用一半名额，为搜索预留余量")
+    void background_limitedByMaxShare() {
+        LlmScheduler scheduler = newScheduler(4, new AiConfig());
+        assertNotNull(scheduler.acquire("suggest").block());
+        assertNotNull(scheduler.acquire("suggest").block());
+
+        AtomicReference<LlmScheduler.Ticket> third = new AtomicReference<>();
+        scheduler.acquire("suggest").subscribe(third::set);
+        assertNull(third.get());
+        assertEquals(1, scheduler.queueDepth(LlmPriority.BACKGROUND));
+
+        assertNotNull(scheduler.acquire("search-parse").block(Duration.ofSeconds(1)));
+        assertNotNull(scheduler.acquire("search-parse").block(Duration.ofSeconds(1)));
+    }
+
+    private static LlmScheduler newScheduler(int maxConcurrency, AiConfig aiConfig) {
+        AiConfig.Endpoint endpoint = new AiConfig.Endpoint();
+        endpoint.setName("stub");
+        endpoint.setUrl("http://localhost:1");
+        endpoint.setMaxConcurrency(maxConcurrency);
+        aiConfig.getRouter().getEndpoints().add(endpoint);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new LlmScheduler(aiConfig, new LlmRouter(aiConfig, meterRegistry), meterRegistry);
+    }
+}
@@ -0,0 +1,129 @@
+package com.rental.modules.ai.vector;
+
+import com.rental.modules.ai.embedding.EmbeddingProvider;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HNSW 向量索引测试：与暴力检索对比召回率，并验证更新、删除与持久化
+ * 运行方式：在 backend 目录执行 mvn test -Dtest=HnswIndexTest
+ */
+class HnswIndexTest {
+
+    private static final int DIMENSION = 32;
+    private static final int COUNT = 2000;
+
+    @Test
+    @DisplayName("TC-VEC-001: top-10 召回率不低于 0.9")
+    void recallAgainstBruteForce() {
+        float[][] vectors = randomVectors(COUNT, new Random(7));
+        HnswIndex index = build(vectors);
+
+        Random random = new Random(11);
+        int hits = 0;
+        int queries = 50;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomVectors(1, random)[0];
+            Set<Long> expected = bruteForce(vectors, query, 10);
+            for (HnswIndex.Result r : index.search(query, 10, 100)) {
+                if (expected.contains(r.id())) {
+                    hits++;
+                }
+            }
+        }
+        double recall = hits / (queries * 10.0);
+        assertTrue(recall >= 0.9, "recall=" + recall);
+    }
+
+    @Test
+    @DisplayName("TC-VEC-002: 更新与删除后不再返回旧向量，压缩后结果一致")
+    void updateAndRemove() {
+        float[][] vectors = randomVectors(COUNT, new Random(7));
+        HnswIndex index = build(vectors);
+
+        assertEquals(0L, index.search(vectors[0], 1, 50).get(0).id());
+        index.add(0L, vectors[1]);
+        assertEquals(COUNT, index.size());
+        // ID 0 已替换为与 ID 1 相同的向量
+        Set<Long> top2 = new HashSet<>();
+        index.search(vectors[1], 2, 50).forEach(r -> top2.add(r.id()));
+        assertEquals(Set.of(0L, 1L), top2);
+
+        assertTrue(index.remove(1L));
+        assertFalse(index.remove(1L));
+        assertTrue(index.search(vectors[1], 5, 50).stream().noneMatch(r -> r.id() == 1L));
+
+        HnswIndex compacted = index.compact();
+        assertEquals(index.size(), compacted.size());
+        assertEquals(0.0, compacted.deletedRatio());
+        assertEquals(2L, compacted.search(vectors[2], 1, 50).get(0).id());
+    }
+
+    @Test
+    @DisplayName("TC-VEC-003: 写出再读入后查询结果不变")
+    void persistRoundTrip() throws IOException {
+        float[][] vectors = randomVectors(500, new Random(3));
+        HnswIndex index = build(vectors);
+        index.remove(5L);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeTo(new DataOutputStream(bytes));
+        HnswIndex loaded = HnswIndex.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(index.size(), loaded.size());
+        assertFalse(loaded.contains(5L));
+        float[] query = randomVectors(1, new Random(99))[0];
+        assertEquals(index.search(query, 10, 64), loaded.search(query, 10, 64));
+    }
+
+    private static HnswIndex build(float[][] vectors) {
+        HnswIndex index = new HnswIndex(DIMENSION, 16, 200);
+        for (int i = 0; i < vectors.length; i++) {
+            index.add(i, vectors[i]);
+        }
+        return index;
+    }
+
+    private static float[][] randomVectors(int count, Random random) {
+        float[][] vectors = new float[count][DIMENSION];
+        for (float[] v : vectors) {
+            for (int i = 0; i < DIMENSION; i++) {
+                v[i] = (float) random.nextGaussian();
+            }
+            EmbeddingProvider.normalize(v);
+        }
+        return vectors;
+    }
+
+    private static Set<Long> bruteForce(float[][] vectors, float[] query, int k) {
+        List<Integer> nearest = IntStream.range(0, vectors.length).boxed()
+                .sorted(Comparator.comparingDouble(i -> -dot(vectors[i], query)))
+                .limit(k)
+                .toList();
+        Set<Long> ids = new HashSet<>();
+        nearest.forEach(i -> ids.add((long) i));
+        return ids;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,79 @@
+package com.rental.modules.conversation.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.rental.modules.conversation.entity.Message;
+import com.rental.modules.conversation.repository.MessageArchiveImageRepository;
+import com.rental.modules.conversation.repository.MessageArchiveRepository;
+import com.rental.modules.conversation.repository.MessageRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 消息冷归档测试
+ * 运行方式：在 backend 目录执行 mvn test -Dtest=MessageArchiveServiceTest
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class MessageArchiveServiceTest {
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private MessageArchiveRepository archiveRepository;
+
+    @Autowired
+    private MessageArchiveImageRepository archiveImageRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @DisplayName("TC-MSG-003: 分块归档后热表清空，图片在数据库内复制到归档图片表，读取时按需附加")
+    void archiveConversation_movesTextAndImages() {
+        Message first = save(7L, "押金什么时候退", null);
+        Message image = save(7L, "[图片]", new byte[]{1, 2, 3});
+        Message last = save(7L, "下周一", null);
+        Message other = save(8L, "其他对话", new byte[]{9});
+        entityManager.flush();
+        entityManager.clear();
+
+        MessageArchiveServiceImpl service = new MessageArchiveServiceImpl(messageRepository, archiveRepository,
+                archiveImageRepository, new ObjectMapper().registerModule(new JavaTimeModule()));
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+
+        List<Long> archived = service.archiveConversation(7L);
+        entityManager.clear();
+
+        assertEquals(List.of(first.getId(), image.getId(), last.getId()), archived);
+        assertEquals(2, archiveRepository.count());
+        assertEquals(List.of(other.getId()), messageRepository.findAll().stream().map(Message::getId).toList());
+        assertEquals(1, archiveImageRepository.count());
+
+        List<Message> restored = service.findAll(7L);
+        assertEquals(List.of("押金什么时候退", "[图片]", "下周一"), restored.stream().map(Message::getContent).toList());
+        assertArrayEquals(new byte[]{1, 2, 3}, restored.get(1).getImageData());
+        assertNull(restored.get(0).getImageData());
+    }
+
+    private Message save(Long conversationId, String content, byte[] imageData) {
+        return messageRepository.save(Message.builder()
+                .conversationId(conversationId)
+                .senderId(1L)
+                .senderRole(Message.SenderRole.tenant)
+                .content(content)
+                .imageData(imageData)
+                .imageContentType(imageData != null ? "image/png" : null)
+                .build());
+    }
+}
@@ -0,0 +1,44 @@
+package com.rental.modules.conversation.service;
+
+import com.rental.modules.conversation.search.NgramTokenizer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 消息检索高亮测试
+ * 运行方式：在 backend 目录执行 mvn test -Dtest=MessageSearchHighlightTest
+ */
+class MessageSearchHighlightTest {
+
+    @Test
+    @DisplayName("TC-MSG-001: 规范化改变长度时高亮区间仍对应原文")
+    void highlight_mapsNormalizedOffsetsBackToOriginal() {
+        // 「İ」小写后变为两个字符，命中在末尾时按小写文本的偏移标记会越界
+        assertEquals("İstanbul <em>押金</em>",
+                MessageSearchServiceImpl.highlight("İstanbul 押金", terms("押金")));
+        // 全角字母经 NFKC 变为半角，关键词按半角输入也能命中并标记原文
+        assertEquals("<em>ＡＢＣ</em>小区 &lt;押金&gt;",
+                MessageSearchServiceImpl.highlight("ＡＢＣ小区 <押金>", terms("abc")));
+        // 多个关键词，未命中的关键词不影响片段
+        assertEquals("İİ<em>押金</em>和<em>租金</em>",
+                MessageSearchServiceImpl.highlight("İİ押金和租金", terms("押金", "租金", "物业")));
+    }
+
+    @Test
+    @DisplayName("TC-MSG-002: 关键词按分词器的分隔规则切成片段，标点分隔的关键词也能校验和高亮")
+    void segments_splitOnPunctuationLikeTokenizer() {
+        List<String> terms = NgramTokenizer.segments("押金,合同 ＡＢＣ-1");
+        assertEquals(List.of("押金", "合同", "abc", "1"), terms);
+        assertEquals("<em>合同</em>里的<em>押金</em>条款 <em>ABC</em>",
+                MessageSearchServiceImpl.highlight("合同里的押金条款 ABC", List.of("押金", "合同", "abc")));
+    }
+
+    private static List<String> terms(String... keywords) {
+        return Arrays.stream(keywords).map(MessageSearchServiceImpl::normalize).toList();
+    }
+}
@@ -0,0 +1,116 @@
+package com.rental.modules.health.service;
+
+import com.rental.common.http.OutboundHttpClients;
+import com.rental.config.HealthProbeConfig;
+import com.rental.config.HttpClientConfig;
+import com.rental.modules.ai.client.LlmEndpoint;
+import com.rental.modules.ai.client.LlmRouter;
+import com.rental.modules.ai.config.AiConfig;
+import com.rental.modules.health.dto.BackendHealth;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 外部依赖后台健康探测测试：使用本地桩服务模拟 ML 服务与 Ollama 节点
+ * 运行方式：在 backend 目录执行 mvn test -Dtest=BackendHealthMonitorTest
+ */
+class BackendHealthMonitorTest {
+
+    private static final String UNREACHABLE = "http://127.0.0.1:1";
+
+    private final List<HttpServer> servers = new ArrayList<>();
+
+    @AfterEach
+    void stopServers() {
+        servers.forEach(server -> server.stop(0));
+    }
+
+    @Test
+    @DisplayName("TC-HEALTH-001: 探测结果保存在内存中，不可用的 LLM 节点在路由时被跳过")
+    void probeAll_recordsStatusAndRoutesAroundDownEndpoint() {
+        AiConfig aiConfig = new AiConfig();
+        aiConfig.getRouter().getEndpoints().add(endpoint("up", startStub("/api/tags"), 1));
+        // 不可用节点权重更高，未探测时会被优先选中
+        aiConfig.getRouter().getEndpoints().add(endpoint("down", UNREACHABLE, 10));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LlmRouter router = new LlmRouter(aiConfig, meterRegistry);
+
+        HealthProbeConfig config = new HealthProbeConfig();
+        config.setTimeout(Duration.ofSeconds(2));
+        config.setFailureThreshold(1);
+        BackendHealthMonitor monitor = new BackendHealthMonitor(config, newHttpClients(meterRegistry), router,
+                startStub("/api/v1/health"), UNREACHABLE, meterRegistry);
+
+        assertEquals(BackendHealthMonitor.UNKNOWN, monitor.getHealth(BackendHealthMonitor.ML, false).getStatus());
+        assertTrue(monitor.isAvailable(BackendHealthMonitor.PAYMENT), "尚未探测时视为可用");
+        LlmEndpoint beforeProbe = router.acquire(List.of());
+        assertEquals("down", beforeProbe.getName());
+        beforeProbe.release();
+
+        monitor.probeAll();
+
+        assertTrue(monitor.isAvailable(BackendHealthMonitor.ML));
+        assertFalse(monitor.isAvailable(BackendHealthMonitor.PAYMENT));
+        assertFalse(monitor.isAvailable(BackendHealthMonitor.LLM_PREFIX + "down"));
+        assertEquals(BackendHealthMonitor.DEGRADED, monitor.overallStatus());
+
+        BackendHealth ml = monitor.getHealth(BackendHealthMonitor.ML, true);
+        assertEquals(BackendHealthMonitor.UP, ml.getStatus());
+        assertNotNull(ml.getLatencyMs());
+        assertNotNull(ml.getLastSuccessAt());
+        assertNotNull(monitor.getHealth(BackendHealthMonitor.PAYMENT, true).getLastError());
+        assertNull(monitor.getHealth(BackendHealthMonitor.PAYMENT, false).getLastError(), "公开接口不返回错误详情");
+
+        LlmEndpoint afterProbe = router.acquire(List.of());
+        assertEquals("up", afterProbe.getName());
+        // 健康节点满载时仍可退回到探测不可用的节点
+        LlmEndpoint fallback = router.acquire(List.of());
+        assertEquals("down", fallback.getName());
+    }
+
+    private static OutboundHttpClients newHttpClients(SimpleMeterRegistry meterRegistry) {
+        return new OutboundHttpClients(new HttpClientConfig(), WebClient.builder(),
+                meterRegistry, CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults());
+    }
+
+    private static AiConfig.Endpoint endpoint(String name, String url, int weight) {
+        AiConfig.Endpoint endpoint = new AiConfig.Endpoint();
+        endpoint.setName(name);
+        endpoint.setUrl(url);
+        endpoint.setWeight(weight);
+        endpoint.setMaxConcurrency(1);
+        return endpoint;
+    }
+
+    /**
+     * 启动一个在 path 上返回 200 的桩服务
+     */
+    private String startStub(String path) {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext(path, exchange -> {
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+            });
+            server.start();
+            servers.add(server);
+            return "http://127.0.0.1:" + server.getAddress().getPort();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
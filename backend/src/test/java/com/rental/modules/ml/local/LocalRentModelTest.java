@@ -0,0 +1,118 @@
+package com.rental.modules.ml.local;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rental.config.MlLocalModelConfig;
+import com.rental.modules.ml.dto.PricePredictionRequest;
+import com.rental.modules.ml.dto.PricePredictionResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * JVM 内租金模型测试：手工构造的小模型验证分裂、缺失值与预处理规则；
+ * 随测试提交的真实模型前几棵树（rent-price-ml 下 python export_model.py --fixture）与 Python 预测值逐条对比，
+ * 本地导出全量模型后（python export_model.py）再对比全量模型
+ * 运行方式：在 backend 目录执行 mvn test -Dtest=LocalRentModelTest
+ */
+class LocalRentModelTest {
+
+    private static final Path FIXTURE = Paths.get("src/test/resources/ml/rent_model_fixture.json");
+    private static final Path PARITY_MODEL = Paths.get("src/test/resources/ml/rent_model_parity.json");
+    private static final Path PARITY_GOLDEN = Paths.get("src/test/resources/ml/rent_model_parity_golden.json");
+    private static final Path EXPORTED_MODEL = Paths.get("../rent-price-ml/models/rent_model.json");
+    private static final Path GOLDEN = Paths.get("../rent-price-ml/models/rent_model_golden.json");
+
+    @Test
+    @DisplayName("TC-ML-001: 数值/类别特征编码与逐树打分")
+    void predict_fixtureModel() throws IOException {
+        LocalRentModel model = load(FIXTURE);
+
+        assertEquals(1090f, model.predict(Map.of("area", 40, "bedrooms", 1, "city", "Beijing")));
+        assertEquals(1530f, model.predict(Map.of("area", 80, "bedrooms", 3, "city", "Shanghai")));
+        // 卧室数缺失填中位数 2；未见过的城市 one-hot 全为 0
+        assertEquals(1190f, model.predict(Map.of("area", 80, "city", "Paris")));
+    }
+
+    @Test
+    @DisplayName("TC-ML-002: 缺失值按 default_left 方向走")
+    void predict_missingValueFollowsDefaultDirection() throws IOException {
+        LocalRentModel model = load(FIXTURE);
+        float[] features = new float[model.getEncoder().getDimension()];
+        model.getEncoder().encode(Map.of("area", 80, "bedrooms", 3, "city", "Shanghai"), features);
+
+        features[3] = Float.NaN; // city_Shanghai 缺失 → 默认左 → 200
+        features[1] = Float.NaN; // bedrooms 缺失 → 默认右 → 30
+        assertEquals(1230f, model.score(features));
+    }
+
+    @Test
+    @DisplayName("TC-ML-003: 请求按 Python 服务的规则转换（中文城市名转英文），返回结构与远程一致")
+    void predictor_mapsRequestLikePythonService() {
+        MlLocalModelConfig config = new MlLocalModelConfig();
+        config.setModelPath(FIXTURE.toString());
+        LocalRentPricePredictor predictor = new LocalRentPricePredictor(config, new SimpleMeterRegistry());
+        predictor.load();
+        assertTrue(predictor.isAvailable());
+
+        PricePredictionRequest request = new PricePredictionRequest();
+        request.setBedrooms(3);
+        request.setArea(80.0);
+        request.setCity("上海");
+        PricePredictionResponse response = predictor.predict(request);
+
+        assertEquals(1530.0, response.getPredictedPrice());
+        assertEquals(1377.0, response.getLowerBound());
+        assertEquals(1683.0, response.getUpperBound());
+        assertEquals("CNY", response.getCurrency());
+        assertEquals(2, response.getFeatureImportance().size());
+        assertEquals("上海", request.getCity(), "不应修改调用方的请求对象");
+        assertEquals("fine", LocalRentPricePredictor.mapDecoration("Unfurnished"));
+        assertEquals("luxury", LocalRentPricePredictor.mapDecoration("Luxury"));
+    }
+
+    @Test
+    @DisplayName("TC-ML-004: 真实模型前几棵树与 Python Pipeline 预测值一致")
+    void parityFixture_matchesPythonGoldenOutputs() throws IOException {
+        assertMatchesGolden(PARITY_MODEL, PARITY_GOLDEN);
+    }
+
+    @Test
+    @DisplayName("TC-ML-005: 导出的全量模型与 Python Pipeline 预测值一致")
+    void exportedModel_matchesPythonGoldenOutputs() throws IOException {
+        assumeTrue(Files.exists(EXPORTED_MODEL) && Files.exists(GOLDEN), "未导出全量模型，跳过一致性测试");
+        assertMatchesGolden(EXPORTED_MODEL, GOLDEN);
+    }
+
+    private static void assertMatchesGolden(Path modelPath, Path goldenPath) throws IOException {
+        LocalRentModel model = load(modelPath);
+        JsonNode golden = new ObjectMapper().readTree(goldenPath.toFile());
+        assertTrue(golden.size() > 0);
+
+        for (JsonNode sample : golden) {
+            Map<String, Object> record = new HashMap<>();
+            sample.path("record").fields().forEachRemaining(e -> record.put(e.getKey(),
+                    e.getValue().isNull() ? null : e.getValue().isNumber() ? e.getValue().numberValue() : e.getValue().asText()));
+            double expected = sample.path("prediction").asDouble();
+            double actual = model.predict(record);
+            assertEquals(expected, actual, Math.max(1e-3, Math.abs(expected) * 1e-5), "record=" + record);
+        }
+    }
+
+    private static LocalRentModel load(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return LocalRentModel.load(in);
+        }
+    }
+}
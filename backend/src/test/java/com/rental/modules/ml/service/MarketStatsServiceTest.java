@@ -0,0 +1,93 @@
+package com.rental.modules.ml.service;
+
+import com.rental.config.MarketStatsConfig;
+import com.rental.modules.ml.dto.MarketStats;
+import com.rental.modules.property.entity.Property;
+import com.rental.modules.property.event.PropertyChangedEvent;
+import com.rental.modules.property.repository.PropertyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 租金行情统计测试
+ * 运行方式：在 backend 目录执行 mvn test -Dtest=MarketStatsServiceTest
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class MarketStatsServiceTest {
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Test
+    @DisplayName("TC-ML-023: 按城市/区域/户型返回租金分位数，样本不足时放宽范围，房源变更后增量更新")
+    void getStats_bandsBroadeningAndIncrementalUpdates() {
+        List<Property> pudong = new ArrayList<>();
+        for (int price = 4000; price <= 6500; price += 500) {
+            pudong.add(save("浦东", 2, price, Property.PropertyStatus.available));
+        }
+        save("徐汇", 2, 8000, Property.PropertyStatus.available);
+        save("徐汇", 2, 9000, Property.PropertyStatus.available);
+        save("浦东", 2, 20000, Property.PropertyStatus.rented);
+
+        MarketStatsConfig config = new MarketStatsConfig();
+        MarketStatsService service = new MarketStatsService(config, propertyRepository, new SimpleMeterRegistry());
+        service.rebuild();
+
+        MarketStats exact = service.getStats("上海", "浦东", 2);
+        assertFalse(exact.isBroadened());
+        assertEquals(6, exact.getCount());
+        assertEquals(5000, exact.getPrice().getMedian(), 5000 * 0.01);
+        assertEquals(4500, exact.getPrice().getP25(), 4500 * 0.01);
+        assertEquals(5500, exact.getPrice().getP75(), 5500 * 0.01);
+        assertEquals(62.5, exact.getPricePerSqm().getMedian(), 62.5 * 0.01);
+
+        // 徐汇只有 2 套，放宽为 上海 2室
+        MarketStats broadened = service.getStats("上海", "徐汇", 2);
+        assertTrue(broadened.isBroadened());
+        assertNull(broadened.getRegion());
+        assertEquals(2, broadened.getBedrooms());
+        assertEquals(8, broadened.getCount());
+
+        // 调价：撤销原样本再加入新样本
+        Property first = pudong.get(0);
+        first.setPrice(new BigDecimal("10000"));
+        propertyRepository.saveAndFlush(first);
+        service.onPropertyChanged(new PropertyChangedEvent(PropertyChangedEvent.Type.UPDATED, first.getId()));
+        MarketStats repriced = service.getStats("上海", "浦东", 2);
+        assertEquals(6, repriced.getCount());
+        assertEquals(5500, repriced.getPrice().getMedian(), 5500 * 0.01);
+
+        // 出租后不再计入，样本不足时放宽
+        Property second = pudong.get(1);
+        second.setStatus(Property.PropertyStatus.rented);
+        propertyRepository.saveAndFlush(second);
+        service.onPropertyChanged(new PropertyChangedEvent(PropertyChangedEvent.Type.STATUS_CHANGED, second.getId()));
+        service.onPropertyChanged(new PropertyChangedEvent(PropertyChangedEvent.Type.DELETED, pudong.get(2).getId()));
+        MarketStats afterRemoval = service.getStats("上海", "浦东", 2);
+        assertTrue(afterRemoval.isBroadened());
+        assertEquals(6, afterRemoval.getCount());
+
+        MarketStats unknown = service.getStats("拉萨", null, null);
+        assertEquals(0, unknown.getCount());
+        assertNull(unknown.getPrice());
+    }
+
+    private Property save(String region, int bedrooms, int price, Property.PropertyStatus status) {
+        return propertyRepository.save(Property.builder()
+                .landlordId(1L).title("测试房源").city("上海").region(region).address("测试路1号")
+                .bedrooms(bedrooms).bathrooms(1.0).area(new BigDecimal("80")).price(new BigDecimal(price))
+                .status(status)
+                .build());
+    }
+}
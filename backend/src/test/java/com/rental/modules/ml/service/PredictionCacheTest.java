@@ -0,0 +1,74 @@
+package com.rental.modules.ml.service;
+
+import com.rental.config.MlCacheConfig;
+import com.rental.modules.ml.dto.PricePredictionRequest;
+import com.rental.modules.ml.dto.PricePredictionResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 租金预测缓存测试
+ * 运行方式：在 backend 目录执行 mvn test -Dtest=PredictionCacheTest
+ */
+class PredictionCacheTest {
+
+    @Test
+    @DisplayName("TC-ML-011: 城市中英文、大小写、空白与同一面积桶归为同一 key")
+    void key_normalizesFeatures() {
+        MlCacheConfig config = new MlCacheConfig();
+        config.setAreaBucket(5.0);
+        PredictionCache cache = new PredictionCache(config, new SimpleMeterRegistry());
+
+        String key = cache.key(request("上海", " Pudong ", 81.0));
+        assertEquals(key, cache.key(request("Shanghai", "pudong", 79.0)));
+        assertNotEquals(key, cache.key(request("Shanghai", "pudong", 86.0)));
+        assertNotEquals(key, cache.key(request("北京", "pudong", 81.0)));
+    }
+
+    @Test
+    @DisplayName("TC-ML-012: 模型版本变化时该来源的旧结果失效")
+    void put_newModelVersionInvalidatesSameSource() {
+        PredictionCache cache = new PredictionCache(new MlCacheConfig(), new SimpleMeterRegistry());
+        PricePredictionResponse response = new PricePredictionResponse();
+
+        cache.put("a", PredictionCache.SOURCE_LOCAL, "1.0", response);
+        cache.put("b", PredictionCache.SOURCE_LOCAL, "1.0", response);
+        assertSame(response, cache.get("a"));
+
+        cache.put("c", PredictionCache.SOURCE_LOCAL, "1.1", response);
+        assertNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertSame(response, cache.get("c"));
+    }
+
+    @Test
+    @DisplayName("TC-ML-025: 本地模型与 ML 服务交替写入时互不清空")
+    void put_mixedSourcesKeepEachOther() {
+        PredictionCache cache = new PredictionCache(new MlCacheConfig(), new SimpleMeterRegistry());
+        PricePredictionResponse local = new PricePredictionResponse();
+        PricePredictionResponse remote = new PricePredictionResponse();
+
+        cache.put("a", PredictionCache.SOURCE_LOCAL, "1.0", local);
+        cache.put("b", PredictionCache.SOURCE_REMOTE, "2.0", remote);
+        cache.put("c", PredictionCache.SOURCE_LOCAL, "1.0", local);
+        assertSame(local, cache.get("a"));
+        assertSame(remote, cache.get("b"));
+
+        cache.put("d", PredictionCache.SOURCE_REMOTE, "2.1", remote);
+        assertSame(local, cache.get("a"));
+        assertNull(cache.get("b"));
+        assertSame(remote, cache.get("d"));
+    }
+
+    private static PricePredictionRequest request(String city, String region, double area) {
+        PricePredictionRequest request = new PricePredictionRequest();
+        request.setCity(city);
+        request.setRegion(region);
+        request.setBedrooms(2);
+        request.setArea(area);
+        return request;
+    }
+}
@@ -0,0 +1,215 @@
+package com.rental.modules.ml.service;
+
+import com.rental.config.MlShadowConfig;
+import com.rental.config.MlTrackingConfig;
+import com.rental.modules.ml.client.MlServiceClient;
+import com.rental.modules.ml.dto.PredictionAccuracy;
+import com.rental.modules.ml.dto.PricePredictionRequest;
+import com.rental.modules.ml.dto.PricePredictionResponse;
+import com.rental.modules.ml.dto.RecommendationRequest;
+import com.rental.modules.ml.dto.RecommendationResponse;
+import com.rental.modules.ml.dto.ShadowComparisonReport;
+import com.rental.modules.ml.entity.RentPrediction;
+import com.rental.modules.ml.repository.RentPredictionRepository;
+import com.rental.modules.property.entity.Property;
+import com.rental.modules.property.repository.PropertyRepository;
+import com.rental.modules.property.service.PropertyServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 租金预测记录与准确率统计测试
+ * 运行方式：在 backend 目录执行 mvn test -Dtest=PredictionTrackingTest
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class PredictionTrackingTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RentPredictionRepository rentPredictionRepository;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Test
+    @DisplayName("TC-ML-021: 预测批量写入后与挂牌价对比，按模型版本与城市累计误差")
+    void recordFlushAndEvaluate() {
+        MlTrackingConfig config = new MlTrackingConfig();
+        config.setEvaluationDelay(Duration.ofMinutes(-1));
+        PredictionRecorder recorder = new PredictionRecorder(config, jdbcTemplate, new SimpleMeterRegistry());
+        PredictionAccuracyTracker tracker = new PredictionAccuracyTracker(config, rentPredictionRepository, jdbcTemplate);
+
+        Property listing = propertyRepository.save(Property.builder()
+                .landlordId(1L).title("测试房源").city("上海").region("浦东").address("测试路1号")
+                .bedrooms(2).bathrooms(1.0).area(new BigDecimal("80")).price(new BigDecimal("5000"))
+                .build());
+
+        recorder.record(request(listing.getId()), response(5500.0), "local");
+        recorder.record(request(listing.getId()), response(4600.0), "remote");
+        recorder.record(request(null), response(3000.0), "local");
+        recorder.flush();
+
+        List<RentPrediction> saved = rentPredictionRepository.findAll();
+        assertEquals(3, saved.size());
+
+        tracker.evaluate();
+        List<PredictionAccuracy> accuracy = tracker.getAccuracy();
+        assertEquals(1, accuracy.size());
+        PredictionAccuracy shanghai = accuracy.get(0);
+        assertEquals("上海", shanghai.getCity());
+        assertEquals(2, shanghai.getCount());
+        assertEquals(450.0, shanghai.getMae());
+        assertEquals(9.0, shanghai.getMape());
+        assertEquals(50.0, shanghai.getBias());
+
+        // 已评估的记录不会重复计入
+        tracker.evaluate();
+        assertEquals(2, tracker.getAccuracy().get(0).getCount());
+        BigDecimal error = jdbcTemplate.queryForObject(
+                "SELECT prediction_error FROM rent_predictions WHERE predicted_price = 5500", BigDecimal.class);
+        assertEquals(0, new BigDecimal("500.00").compareTo(error));
+    }
+
+    @Test
+    @DisplayName("TC-ML-022: 影子模型成对预测的差异统计，候选模型误差与线上模型并列评估")
+    void shadowComparison_reportsDivergenceAndAccuracy() {
+        MlTrackingConfig trackingConfig = new MlTrackingConfig();
+        trackingConfig.setEvaluationDelay(Duration.ofMinutes(-1));
+        PredictionRecorder recorder = new PredictionRecorder(trackingConfig, jdbcTemplate, new SimpleMeterRegistry());
+        PredictionAccuracyTracker tracker = new PredictionAccuracyTracker(trackingConfig, rentPredictionRepository, jdbcTemplate);
+        MlShadowConfig shadowConfig = new MlShadowConfig();
+        shadowConfig.setEnabled(true);
+        shadowConfig.setUrl("http://candidate:5002");
+        shadowConfig.setSampleRate(1.0);
+        AtomicReference<String> candidateVersion = new AtomicReference<>("1.1-rc");
+        ShadowComparisonService shadow = new ShadowComparisonService(shadowConfig,
+                shadowClient(6000.0, candidateVersion), recorder, tracker, new SimpleMeterRegistry());
+
+        Property listing = propertyRepository.save(Property.builder()
+                .landlordId(1L).title("测试房源").city("上海").region("浦东").address("测试路1号")
+                .bedrooms(2).bathrooms(1.0).area(new BigDecimal("80")).price(new BigDecimal("5000"))
+                .build());
+        for (int i = 0; i < 2; i++) {
+            PricePredictionResponse production = response(5000.0);
+            recorder.record(request(listing.getId()), production, "local");
+            shadow.submit(request(listing.getId()), production);
+        }
+
+        ShadowComparisonReport report = shadow.getReport();
+        assertEquals("1.1-rc", report.getShadowModelVersion());
+        assertEquals(List.of("1.0"), report.getProductionModelVersions());
+        assertEquals(2, report.getPairs());
+        assertEquals(1000.0, report.getMeanAbsDiff());
+        assertEquals(20.0, report.getMeanPctDiff());
+        assertEquals(20.0, report.getP95AbsPctDiff());
+        assertEquals(100.0, report.getDivergedRate());
+
+        recorder.flush();
+        tracker.evaluate();
+        List<PredictionAccuracy> accuracy = shadow.getReport().getAccuracy();
+        assertEquals(2, accuracy.size());
+        PredictionAccuracy candidate = accuracy.stream()
+                .filter(row -> row.getModelVersion().equals("shadow:1.1-rc")).findFirst().orElseThrow();
+        assertEquals(1000.0, candidate.getMae());
+        String metadata = jdbcTemplate.queryForObject(
+                "SELECT model_metadata FROM rent_predictions WHERE model_version = 'shadow:1.1-rc' LIMIT 1", String.class);
+        assertTrue(metadata.contains("productionPrice") && metadata.contains("5000.0"), metadata);
+
+        // 候选模型换版本后窗口重新开始
+        candidateVersion.set("1.2-rc");
+        shadow.submit(request(listing.getId()), response(5000.0));
+        assertEquals(1, shadow.getReport().getPairs());
+        assertEquals("1.2-rc", shadow.getReport().getShadowModelVersion());
+    }
+
+    @Test
+    @DisplayName("TC-ML-024: 删除已有预测记录的房源，预测保留并解除关联")
+    void deleteProperty_withRecordedPrediction_detachesPrediction() {
+        // 与生产库一致加上外键（旧库为 RESTRICT），验证删除不会因预测记录失败
+        jdbcTemplate.execute("ALTER TABLE rent_predictions ADD CONSTRAINT fk_test_rent_predictions_property " +
+                "FOREIGN KEY (property_id) REFERENCES properties(id) ON DELETE RESTRICT");
+        PredictionRecorder recorder = new PredictionRecorder(new MlTrackingConfig(), jdbcTemplate, new SimpleMeterRegistry());
+        PropertyServiceImpl propertyService = new PropertyServiceImpl(propertyRepository, event -> { });
+
+        Property listing = propertyRepository.save(Property.builder()
+                .landlordId(1L).title("测试房源").city("上海").region("浦东").address("测试路1号")
+                .bedrooms(2).bathrooms(1.0).area(new BigDecimal("80")).price(new BigDecimal("5000"))
+                .build());
+        propertyRepository.flush();
+        recorder.record(request(listing.getId()), response(5200.0), "local");
+        recorder.flush();
+
+        propertyService.deleteProperty(listing.getId());
+        propertyRepository.flush();
+
+        assertFalse(propertyRepository.existsById(listing.getId()));
+        assertEquals(1, rentPredictionRepository.count());
+        assertNull(jdbcTemplate.queryForObject(
+                "SELECT property_id FROM rent_predictions WHERE predicted_price = 5200", Long.class));
+    }
+
+    private static MlServiceClient shadowClient(double price, AtomicReference<String> version) {
+        return new MlServiceClient() {
+            @Override
+            public PricePredictionResponse predictPrice(PricePredictionRequest request) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public List<PricePredictionResponse> predictPrices(List<PricePredictionRequest> requests) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Mono<PricePredictionResponse> predictPriceShadow(PricePredictionRequest request) {
+                PricePredictionResponse response = response(price);
+                response.setModelVersion(version.get());
+                return Mono.just(response);
+            }
+
+            @Override
+            public RecommendationResponse getRecommendations(RecommendationRequest request) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public boolean healthCheck() {
+                return true;
+            }
+        };
+    }
+
+    private static PricePredictionRequest request(Long propertyId) {
+        PricePredictionRequest request = new PricePredictionRequest();
+        request.setPropertyId(propertyId);
+        request.setCity("Shanghai");
+        request.setBedrooms(2);
+        request.setArea(80.0);
+        return request;
+    }
+
+    private static PricePredictionResponse response(double price) {
+        PricePredictionResponse response = new PricePredictionResponse();
+        response.setPredictedPrice(price);
+        response.setConfidence(0.85);
+        response.setModelVersion("1.0");
+        response.setAlgorithmName("XGBoost");
+        return response;
+    }
+}
@@ -0,0 +1,86 @@
+package com.rental.modules.property.repository;
+
+import com.rental.modules.ml.entity.ListingPriceScore;
+import com.rental.modules.ml.repository.ListingPriceScoreRepository;
+import com.rental.modules.property.entity.Property;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 房源公允租金筛选与排序测试
+ * 运行方式：在 backend 目录执行 mvn test -Dtest=PropertyPriceScoreQueryTest
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class PropertyPriceScoreQueryTest {
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private ListingPriceScoreRepository scoreRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @DisplayName("TC-PROP-011: 按高于/低于市场百分比筛选与排序，未打分的房源排最后")
+    void findByFiltersAndPriceScore_sortsByValue() {
+        Property cheap = save("低于市场", "4000", "5000");      // -20%
+        Property fair = save("接近市场", "5100", "5000");       // +2%
+        Property expensive = save("高于市场", "6500", "5000");  // +30%
+        Property unscored = save("未打分", "3000", null);
+        entityManager.flush();
+        entityManager.clear();
+
+        Sort value = PropertyRepository.byPriceScore(Sort.Direction.ASC);
+        List<Property> all = propertyRepository.findByFilters(null, null, null, null, null,
+                Property.PropertyStatus.available, PageRequest.of(0, 10, value)).getContent();
+        assertEquals(List.of(cheap.getId(), fair.getId(), expensive.getId(), unscored.getId()),
+                all.stream().map(Property::getId).toList());
+        assertEquals(-20.0, all.get(0).getPriceScore());
+        assertEquals(0, new BigDecimal("5000.00").compareTo(all.get(0).getFairPrice()));
+        assertNull(all.get(3).getPriceScore());
+
+        List<Property> overpriced = propertyRepository.findByFilters(null, null, null, null, null,
+                Property.PropertyStatus.available,
+                PageRequest.of(0, 10, PropertyRepository.byPriceScore(Sort.Direction.DESC))).getContent();
+        assertEquals(List.of(expensive.getId(), fair.getId(), cheap.getId(), unscored.getId()),
+                overpriced.stream().map(Property::getId).toList());
+
+        List<Property> bargains = propertyRepository.findByFiltersAndPriceScore(null, null, null, null, null,
+                Property.PropertyStatus.available, null, -10.0, PageRequest.of(0, 10, value)).getContent();
+        assertEquals(List.of(cheap.getId()), bargains.stream().map(Property::getId).toList());
+
+        List<Property> outliers = propertyRepository.findByFiltersAndPriceScore(null, null, null, null, null,
+                null, 25.0, null, PageRequest.of(0, 10)).getContent();
+        assertEquals(List.of(expensive.getId()), outliers.stream().map(Property::getId).toList());
+    }
+
+    private Property save(String title, String price, String fairPrice) {
+        Property property = propertyRepository.save(Property.builder()
+                .landlordId(1L).title(title).city("上海").region("浦东").address("测试路1号")
+                .bedrooms(2).bathrooms(1.0).area(new BigDecimal("80")).price(new BigDecimal(price))
+                .status(Property.PropertyStatus.available)
+                .build());
+        if (fairPrice != null) {
+            scoreRepository.save(ListingPriceScore.builder()
+                    .propertyId(property.getId()).fairPrice(new BigDecimal(fairPrice))
+                    .modelVersion("local:1.0").featuresHash(1).scoredAt(LocalDateTime.now())
+                    .build());
+        }
+        return property;
+    }
+}
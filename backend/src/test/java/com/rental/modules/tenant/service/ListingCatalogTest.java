@@ -0,0 +1,163 @@
+package com.rental.modules.tenant.service;
+
+import com.rental.modules.property.entity.Property;
+import com.rental.modules.tenant.entity.TenantPreference;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 推荐候选列式快照测试
+ * 运行方式：在 backend 目录执行 mvn test -Dtest=ListingCatalogTest
+ */
+class ListingCatalogTest {
+
+    private static final String[] CITIES = {"北京", "上海", "广州", "深圳"};
+
+    @Test
+    @DisplayName("TC-TENANT-002: 打分内核与原实现排序一致，写时复制的快照与全量构建结果相同且不影响旧快照")
+    void topK_matchesLegacyScoringAndCopyOnWriteMatchesRebuild() {
+        Random random = new Random(7);
+        Map<Long, Property> properties = new LinkedHashMap<>();
+        for (long id = 1; id <= 2000; id++) {
+            properties.put(id, property(id, random));
+        }
+        ListingCatalog catalog = ListingCatalog.build(properties.values().stream().map(ListingCatalogTest::row).toList());
+
+        // 不涉及卫生间（原实现未计入）的偏好下，与原实现逐套打分 + 全量排序的结果逐位一致
+        TenantPreference open = TenantPreference.builder()
+                .minArea(new BigDecimal("60")).maxArea(new BigDecimal("90"))
+                .orientation("south").decoration("fine").minFloors(5).maxFloors(20)
+                .build();
+        List<Long> legacy = RecommendationScoringBenchmark.LegacyScorer.recommend(new ArrayList<>(properties.values()), open)
+                .stream().map(Property::getId).toList();
+        assertEquals(legacy, ids(catalog.topK(new ListingCatalog.Criteria(open), 20, region -> 0)));
+
+        TenantPreference city = TenantPreference.builder()
+                .city("Shanghai").region("区域1").budget(5000).bedrooms(2).build();
+        ListingCatalog.Criteria cityCriteria = new ListingCatalog.Criteria(city);
+        List<Long> before = ids(catalog.topK(cityCriteria, 20, region -> region.equals("区域1") ? 100 : 30));
+
+        // 调价、换城市、下架、新增（新城市与新区域）逐一写时复制
+        ListingCatalog incremental = catalog;
+        Map<Long, ListingCatalog.Row> rows = new LinkedHashMap<>();
+        properties.values().forEach(p -> rows.put(p.getId(), row(p)));
+        for (int i = 0; i < 300; i++) {
+            long id = 1 + random.nextInt(2100);
+            ListingCatalog.Row previous = rows.get(id);
+            ListingCatalog.Row next = null;
+            if (random.nextInt(5) > 0) {
+                Property changed = property(id, random);
+                if (id > 2050) {
+                    changed.setCity("拉萨");
+                    changed.setRegion("城关");
+                }
+                next = row(changed);
+            }
+            if (next != null) {
+                rows.put(id, next);
+            } else {
+                rows.remove(id);
+            }
+            incremental = incremental.with(previous, next);
+        }
+        ListingCatalog rebuilt = ListingCatalog.build(rows.values());
+        assertEquals(rows.size(), incremental.size());
+
+        for (TenantPreference preference : List.of(open, city,
+                TenantPreference.builder().city("拉萨").build(),
+                TenantPreference.builder().budget(3000).bedrooms(3).bathrooms(1).build())) {
+            ListingCatalog.Criteria criteria = new ListingCatalog.Criteria(preference);
+            assertEquals(ids(rebuilt.topK(criteria, 20, region -> 50)), ids(incremental.topK(criteria, 20, region -> 50)));
+        }
+        assertEquals(before, ids(catalog.topK(cityCriteria, 20, region -> region.equals("区域1") ? 100 : 30)),
+                "旧快照不受写时复制影响");
+    }
+
+    @Test
+    @DisplayName("TC-TENANT-003: 设置预算与户型时剪枝不丢失高分房源，结果与原实现全量打分一致")
+    void topK_withBudgetAndBedrooms_matchesLegacyScoring() {
+        // 20 套以上同户型房源远超预算（得分 3100），另一户型正好在预算内（得分 4000）时也必须被选中
+        List<Property> listings = new ArrayList<>();
+        for (long id = 1; id <= 25; id++) {
+            listings.add(Property.builder().id(id).city("上海").bedrooms(2).price(BigDecimal.valueOf(4900)).build());
+        }
+        listings.add(Property.builder().id(100L).city("上海").bedrooms(3).price(BigDecimal.valueOf(3000)).build());
+        TenantPreference tight = TenantPreference.builder().city("上海").budget(3000).bedrooms(2).build();
+        long[] top = ListingCatalog.build(listings.stream().map(ListingCatalogTest::row).toList())
+                .topK(new ListingCatalog.Criteria(tight), 20, region -> 0);
+        assertEquals(100L, top[0]);
+
+        Random random = new Random(11);
+        List<Property> properties = new ArrayList<>();
+        for (long id = 1; id <= 2000; id++) {
+            properties.add(property(id, random));
+        }
+        ListingCatalog catalog = ListingCatalog.build(properties.stream().map(ListingCatalogTest::row).toList());
+        for (TenantPreference preference : List.of(
+                TenantPreference.builder().city("上海").region("区域1").budget(3000).bedrooms(2).build(),
+                TenantPreference.builder().city("北京").budget(2500).bedrooms(4)
+                        .minArea(new BigDecimal("60")).maxArea(new BigDecimal("90")).build(),
+                TenantPreference.builder().budget(2200).bedrooms(1).orientation("south").build(),
+                TenantPreference.builder().city("深圳").bedrooms(3).decoration("fine").build())) {
+            List<Long> legacy = RecommendationScoringBenchmark.LegacyScorer.recommend(properties, preference)
+                    .stream().map(Property::getId).toList();
+            List<Long> columnar = ids(catalog.topK(new ListingCatalog.Criteria(preference), 20,
+                    region -> region.equalsIgnoreCase("区域1") ? 100 : 30));
+            assertEquals(legacy, columnar, preference.toString());
+        }
+    }
+
+    @Test
+    @DisplayName("TC-TENANT-004: 英文城市名不区分大小写地归一为中文城市键")
+    void cityKey_isCaseInsensitiveForEnglishAliases() {
+        String shanghai = ListingCatalog.cityKey("上海");
+        assertEquals(shanghai, ListingCatalog.cityKey("Shanghai"));
+        assertEquals(shanghai, ListingCatalog.cityKey("shanghai"));
+        assertEquals(shanghai, ListingCatalog.cityKey(" SHANGHAI "));
+        assertEquals(ListingCatalog.cityKey("西安"), ListingCatalog.cityKey("XI'AN"));
+        assertEquals("lhasa", ListingCatalog.cityKey("Lhasa"));
+        assertNull(ListingCatalog.cityKey("  "));
+
+        ListingCatalog catalog = ListingCatalog.build(List.of(row(Property.builder()
+                .id(1L).city("上海").bedrooms(2).price(BigDecimal.valueOf(4000)).build())));
+        assertArrayEquals(new long[]{1L}, catalog.topK(new ListingCatalog.Criteria(
+                TenantPreference.builder().city("SHANGHAI").build()), 20, region -> 0));
+    }
+
+    private static Property property(long id, Random random) {
+        return Property.builder()
+                .id(id)
+                .city(CITIES[random.nextInt(CITIES.length)])
+                .region("区域" + random.nextInt(5))
+                .bedrooms(1 + random.nextInt(4))
+                .bathrooms((double) (1 + random.nextInt(2)))
+                .area(BigDecimal.valueOf(30 + random.nextInt(90)))
+                .price(BigDecimal.valueOf(2000 + random.nextInt(60) * 100))
+                .totalFloors(1 + random.nextInt(30))
+                .orientation(Property.Orientation.values()[random.nextInt(4)])
+                .decoration(Property.Decoration.values()[random.nextInt(4)])
+                .build();
+    }
+
+    private static ListingCatalog.Row row(Property p) {
+        return ListingCatalog.Row.of(p.getId(), p.getCity(), p.getRegion(), p.getBedrooms(), p.getBathrooms(),
+                p.getArea(), p.getPrice(), p.getTotalFloors(), p.getOrientation(), p.getDecoration());
+    }
+
+    private static List<Long> ids(long[] ids) {
+        List<Long> list = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            list.add(id);
+        }
+        return list;
+    }
+}
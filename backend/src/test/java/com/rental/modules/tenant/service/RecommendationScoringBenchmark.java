@@ -0,0 +1,253 @@
+package com.rental.modules.tenant.service;
+
+import com.rental.modules.property.entity.Property;
+import com.rental.modules.tenant.entity.TenantPreference;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 推荐打分基准：原实现（房源实体 + BigDecimal 逐套打分后全量排序）对比列式快照内核
+ * - city：城市 + 区域 + 预算 + 户型 + 面积偏好，快照只扫描该城市、且得分上界可能进入前 K 名的区间
+ * - open：不限城市的预算 + 面积 + 朝向 + 装修偏好，两边都扫描全部房源
+ * - update：快照写时复制一次调价的耗时
+ * 原实现不含从数据库加载实体的耗时；区域坐标不可用时两边都按「同名 100 分、否则 30 分」计算
+ * 运行方式：在 backend 目录执行
+ * mvn -B test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test -Dexec.args="-cp %classpath org.openjdk.jmh.Main RecommendationScoringBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class RecommendationScoringBenchmark {
+
+    private static final int LIMIT = 20;
+
+    private static final String[] CITIES = {"北京", "上海", "广州", "深圳", "杭州", "成都", "武汉", "西安", "南京", "重庆",
+            "天津", "苏州", "郑州", "长沙", "青岛", "沈阳", "大连", "厦门", "昆明", "哈尔滨"};
+
+    @Param({"10000", "100000", "1000000"})
+    public int listings;
+
+    private List<Property> properties;
+    private ListingCatalog catalog;
+    private TenantPreference cityPreference;
+    private TenantPreference openPreference;
+    private ListingCatalog.Criteria cityCriteria;
+    private ListingCatalog.Criteria openCriteria;
+    private ToDoubleFunction<String> cityRegionScorer;
+    private ListingCatalog.Row updateFrom;
+    private ListingCatalog.Row updateTo;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        Property.Orientation[] orientations = Property.Orientation.values();
+        Property.Decoration[] decorations = Property.Decoration.values();
+        properties = new ArrayList<>(listings);
+        List<ListingCatalog.Row> rows = new ArrayList<>(listings);
+        for (long id = 1; id <= listings; id++) {
+            Property property = Property.builder()
+                    .id(id)
+                    .city(CITIES[random.nextInt(CITIES.length)])
+                    .region("区域" + random.nextInt(12))
+                    .bedrooms(1 + random.nextInt(4))
+                    .bathrooms((double) (1 + random.nextInt(2)))
+                    .area(BigDecimal.valueOf(20 + random.nextInt(1800), 1).add(BigDecimal.valueOf(20)))
+                    .price(BigDecimal.valueOf(1500 + random.nextInt(135) * 100))
+                    .totalFloors(1 + random.nextInt(40))
+                    .orientation(orientations[random.nextInt(orientations.length)])
+                    .decoration(decorations[random.nextInt(decorations.length)])
+                    .status(Property.PropertyStatus.available)
+                    .build();
+            properties.add(property);
+            rows.add(row(property));
+        }
+        catalog = ListingCatalog.build(rows);
+
+        cityPreference = TenantPreference.builder()
+                .city("Shanghai").region("区域3").budget(6000).bedrooms(2)
+                .minArea(new BigDecimal("60")).maxArea(new BigDecimal("90"))
+                .build();
+        openPreference = TenantPreference.builder()
+                .budget(5000).minArea(new BigDecimal("50")).maxArea(new BigDecimal("80"))
+                .orientation("south").decoration("fine")
+                .build();
+        cityCriteria = new ListingCatalog.Criteria(cityPreference);
+        openCriteria = new ListingCatalog.Criteria(openPreference);
+        cityRegionScorer = region -> regionScore(cityPreference.getRegion(), region);
+
+        Property target = properties.get(listings / 2);
+        updateFrom = row(target);
+        updateTo = new ListingCatalog.Row(updateFrom.id(), updateFrom.cityKey(), updateFrom.region(),
+                updateFrom.bedrooms(), updateFrom.bathrooms(), updateFrom.area(), updateFrom.price() + 300,
+                updateFrom.totalFloors(), updateFrom.orientation(), updateFrom.decoration());
+    }
+
+    @Benchmark
+    public List<Property> legacyCity() {
+        return LegacyScorer.recommend(properties, cityPreference);
+    }
+
+    @Benchmark
+    public long[] columnarCity() {
+        return catalog.topK(cityCriteria, LIMIT, cityRegionScorer);
+    }
+
+    @Benchmark
+    public List<Property> legacyOpen() {
+        return LegacyScorer.recommend(properties, openPreference);
+    }
+
+    @Benchmark
+    public long[] columnarOpen() {
+        return catalog.topK(openCriteria, LIMIT, region -> 0);
+    }
+
+    @Benchmark
+    public ListingCatalog columnarUpdate() {
+        return catalog.with(updateFrom, updateTo);
+    }
+
+    private static ListingCatalog.Row row(Property p) {
+        return ListingCatalog.Row.of(p.getId(), p.getCity(), p.getRegion(), p.getBedrooms(), p.getBathrooms(),
+                p.getArea(), p.getPrice(), p.getTotalFloors(), p.getOrientation(), p.getDecoration());
+    }
+
+    private static double regionScore(String prefRegion, String propRegion) {
+        if (prefRegion == null || propRegion == null) {
+            return 0;
+        }
+        return prefRegion.equalsIgnoreCase(propRegion) ? 100 : 30;
+    }
+
+    /**
+     * 原 TenantController 的推荐流程：对全部房源逐套计算相似度（BigDecimal 面积运算），排序后取前 20 套
+     */
+    static final class LegacyScorer {
+
+        static List<Property> recommend(List<Property> allListings, TenantPreference preferences) {
+            List<AbstractMap.SimpleEntry<Property, Double>> scoredList = new ArrayList<>();
+            for (Property p : allListings) {
+                scoredList.add(new AbstractMap.SimpleEntry<>(p, calculateSimilarity(p, preferences)));
+            }
+            scoredList.sort((e1, e2) -> Double.compare(e2.getValue(), e1.getValue()));
+            return scoredList.stream().limit(LIMIT).map(AbstractMap.SimpleEntry::getKey).toList();
+        }
+
+        private static double calculateSimilarity(Property property, TenantPreference preferences) {
+            double totalScore = 0.0;
+            double totalWeight = 0.0;
+
+            if (preferences.getCity() != null && !preferences.getCity().isEmpty()) {
+                String propCity = property.getCity();
+                if (propCity == null
+                        || !ListingCatalog.cityKey(preferences.getCity()).equals(ListingCatalog.cityKey(propCity))) {
+                    return 0;
+                }
+            }
+
+            if (preferences.getBudget() != null) {
+                double budgetScore;
+                int propPrice = property.getPrice().intValue();
+                int budget = preferences.getBudget();
+                if (propPrice <= budget) {
+                    budgetScore = 100;
+                } else {
+                    int overBudget = propPrice - budget;
+                    if (overBudget <= ListingCatalog.BUDGET_TOLERANCE) {
+                        budgetScore = 100 * (1 - (double) overBudget / ListingCatalog.BUDGET_TOLERANCE);
+                    } else {
+                        budgetScore = Math.max(0, 100 * (1 - (double) overBudget / (ListingCatalog.BUDGET_TOLERANCE * 4)));
+                    }
+                }
+                totalScore += budgetScore * ListingCatalog.WEIGHT_BUDGET;
+                totalWeight += ListingCatalog.WEIGHT_BUDGET;
+            }
+
+            if (preferences.getCity() != null && !preferences.getCity().isEmpty()) {
+                totalScore += 100 * ListingCatalog.WEIGHT_CITY;
+                totalWeight += ListingCatalog.WEIGHT_CITY;
+            }
+
+            if (preferences.getRegion() != null && !preferences.getRegion().isEmpty()) {
+                totalScore += regionScore(preferences.getRegion(), property.getRegion()) * ListingCatalog.WEIGHT_REGION;
+                totalWeight += ListingCatalog.WEIGHT_REGION;
+            }
+
+            if (preferences.getBedrooms() != null) {
+                totalScore += (preferences.getBedrooms().equals(property.getBedrooms()) ? 100 : 0)
+                        * ListingCatalog.WEIGHT_BEDROOMS;
+                totalWeight += ListingCatalog.WEIGHT_BEDROOMS;
+            }
+
+            if (preferences.getMinArea() != null || preferences.getMaxArea() != null) {
+                BigDecimal area = property.getArea();
+                BigDecimal minPref = preferences.getMinArea() != null ? preferences.getMinArea() : BigDecimal.ZERO;
+                BigDecimal maxPref = preferences.getMaxArea() != null ? preferences.getMaxArea() : new BigDecimal("1000");
+                double areaScore;
+                if (area.compareTo(minPref) >= 0 && area.compareTo(maxPref) <= 0) {
+                    BigDecimal range = maxPref.subtract(minPref);
+                    if (range.compareTo(BigDecimal.ZERO) > 0) {
+                        BigDecimal mid = minPref.add(maxPref).divide(new BigDecimal("2"));
+                        BigDecimal diff = area.subtract(mid).abs();
+                        areaScore = 100 * (1 - diff.divide(range, 4, RoundingMode.HALF_UP).doubleValue());
+                    } else {
+                        areaScore = 100;
+                    }
+                } else if (area.compareTo(minPref) < 0) {
+                    areaScore = Math.max(0, 100 - minPref.subtract(area).doubleValue());
+                } else {
+                    areaScore = Math.max(0, 100 - area.subtract(maxPref).doubleValue());
+                }
+                totalScore += areaScore * ListingCatalog.WEIGHT_AREA;
+                totalWeight += ListingCatalog.WEIGHT_AREA;
+            }
+
+            if (preferences.getMinFloors() != null || preferences.getMaxFloors() != null) {
+                Integer totalFloors = property.getTotalFloors();
+                int minPref = preferences.getMinFloors() != null ? preferences.getMinFloors() : 1;
+                int maxPref = preferences.getMaxFloors() != null ? preferences.getMaxFloors() : 100;
+                totalScore += (totalFloors != null && totalFloors >= minPref && totalFloors <= maxPref ? 100 : 0)
+                        * ListingCatalog.WEIGHT_FLOORS;
+                totalWeight += ListingCatalog.WEIGHT_FLOORS;
+            }
+
+            if (preferences.getOrientation() != null && !preferences.getOrientation().isEmpty()) {
+                totalScore += (property.getOrientation() != null
+                        && preferences.getOrientation().equals(property.getOrientation().name()) ? 100 : 0)
+                        * ListingCatalog.WEIGHT_ORIENTATION;
+                totalWeight += ListingCatalog.WEIGHT_ORIENTATION;
+            }
+
+            if (preferences.getDecoration() != null && !preferences.getDecoration().isEmpty()) {
+                totalScore += (property.getDecoration() != null
+                        && preferences.getDecoration().equals(property.getDecoration().name()) ? 100 : 0)
+                        * ListingCatalog.WEIGHT_DECORATION;
+                totalWeight += ListingCatalog.WEIGHT_DECORATION;
+            }
+
+            return totalWeight > 0 ? totalScore / totalWeight : 0.0;
+        }
+    }
+}
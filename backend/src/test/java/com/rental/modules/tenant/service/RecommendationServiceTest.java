@@ -0,0 +1,96 @@
+package com.rental.modules.tenant.service;
+
+import com.rental.common.http.OutboundHttpClients;
+import com.rental.common.service.AmapGeocodingClient;
+import com.rental.config.HttpClientConfig;
+import com.rental.config.RecommendationConfig;
+import com.rental.modules.property.entity.Property;
+import com.rental.modules.property.event.PropertyChangedEvent;
+import com.rental.modules.property.repository.PropertyRepository;
+import com.rental.modules.region.repository.RegionRepository;
+import com.rental.modules.tenant.entity.TenantPreference;
+import com.rental.modules.tenant.event.TenantPreferenceChangedEvent;
+import com.rental.modules.tenant.repository.TenantPreferenceRepository;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 租客个性化推荐测试
+ * 运行方式：在 backend 目录执行 mvn test -Dtest=RecommendationServiceTest
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class RecommendationServiceTest {
+
+    private static final Long USER_ID = 100L;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private RegionRepository regionRepository;
+
+    @Autowired
+    private TenantPreferenceRepository preferenceRepository;
+
+    @Test
+    @DisplayName("TC-TENANT-001: 城市为硬性条件，按户型与预算带逐层放宽候选，结果缓存到偏好或房源变化")
+    void recommend_prunesCandidatesAndInvalidatesCache() {
+        Property inBudget = save("上海", 2, 4500, Property.PropertyStatus.available);
+        Property slightlyOver = save("上海", 2, 5200, Property.PropertyStatus.available);
+        Property otherLayout = save("上海", 1, 4000, Property.PropertyStatus.available);
+        Property farOver = save("上海", 2, 9000, Property.PropertyStatus.available);
+        save("上海", 2, 4000, Property.PropertyStatus.rented);
+        save("北京", 2, 4000, Property.PropertyStatus.available);
+
+        List<Object> events = new ArrayList<>();
+        TenantPreferenceService preferenceService = new TenantPreferenceService(preferenceRepository, events::add);
+        preferenceService.savePreferences(USER_ID, TenantPreference.builder()
+                .city("Shanghai").budget(5000).bedrooms(2).build());
+
+        RecommendationConfig config = new RecommendationConfig();
+        config.setLimit(3);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AmapGeocodingClient amap = new AmapGeocodingClient(new OutboundHttpClients(new HttpClientConfig(),
+                WebClient.builder(), meterRegistry, CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults()));
+        RecommendationService service = new RecommendationService(config, preferenceService, propertyRepository,
+                regionRepository, amap, meterRegistry);
+        service.rebuild();
+
+        // 户型一致且在预算带内的只有 2 套，放宽户型补足；远超预算的房源、其他城市与非在架房源不参与
+        assertEquals(List.of(inBudget.getId(), slightlyOver.getId(), otherLayout.getId()), service.recommend(USER_ID));
+
+        // 调价后相关城市的缓存失效，同分时ID小的在前
+        farOver.setPrice(new BigDecimal("5000"));
+        propertyRepository.saveAndFlush(farOver);
+        service.onPropertyChanged(new PropertyChangedEvent(PropertyChangedEvent.Type.UPDATED, farOver.getId()));
+        assertEquals(List.of(inBudget.getId(), farOver.getId(), slightlyOver.getId()), service.recommend(USER_ID));
+
+        // 偏好变化后重新计算：不限户型、预算降低后按预算得分排序
+        preferenceService.savePreferences(USER_ID, TenantPreference.builder().city("上海").budget(4000).build());
+        assertTrue(events.get(events.size() - 1) instanceof TenantPreferenceChangedEvent);
+        service.onPreferenceChanged((TenantPreferenceChangedEvent) events.get(events.size() - 1));
+        assertEquals(List.of(otherLayout.getId(), farOver.getId(), slightlyOver.getId()), service.recommend(USER_ID));
+    }
+
+    private Property save(String city, int bedrooms, int price, Property.PropertyStatus status) {
+        return propertyRepository.save(Property.builder()
+                .landlordId(1L).title("测试房源").city(city).region("浦东").address("测试路1号")
+                .bedrooms(bedrooms).bathrooms(1.0).area(new BigDecimal("80")).price(new BigDecimal(price))
+                .status(status)
+                .build());
+    }
+}
@@ -94,6 +94,34 @@ export async function getSimilarProperties(city?: string, region?: string, bedro
   return data.data
 }
 
+export type MarketBand = {
+  count: number
+  p25: number
+  median: number
+  p75: number
+}
+
+export type MarketStats = {
+  city: string
+  region?: string | null
+  bedrooms?: number | null
+  broadened: boolean
+  count: number
+  price?: MarketBand | null
+  pricePerSqm?: MarketBand | null
+  relativeAccuracy: number
+}
+
+export async function getMarketStats(city: string, region?: string, bedrooms?: number): Promise<MarketStats> {
+  const params = new URLSearchParams()
+  params.append('city', city)
+  if (region) params.append('region', region)
+  if (bedrooms) params.append('bedrooms', String(bedrooms))
+
+  const { data } = await http.get<{ data: MarketStats }>(`/ml/market-stats?${params.toString()}`)
+  return data.data
+}
+
 export async function getClosestProperty(city: string, bedrooms: number, area: number): Promise<ClosestProperty | null> {
   const params = new URLSearchParams()
   params.append('city', city)
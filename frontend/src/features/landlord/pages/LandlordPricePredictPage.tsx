@@ -11,7 +11,7 @@ import {
   LoadingOutlined,
   TableOutlined
 } from '@ant-design/icons'
-import { pricePredict, getSimilarProperties, getClosestProperty, type SimilarProperty, type ClosestProperty } from '../api/landlordApi'
+import { pricePredict, getSimilarProperties, getClosestProperty, getMarketStats, type SimilarProperty, type ClosestProperty, type MarketStats } from '../api/landlordApi'
 
 // 装修选项：value 传 API，label 用 i18n
 const FURNISHING_OPTIONS_I18N: { value: string; i18nKey: string }[] = [
@@ -34,12 +34,14 @@ export function LandlordPricePredictPage() {
   } | null>(null)
   const [similarProperties, setSimilarProperties] = useState<SimilarProperty[]>([])
   const [closestProperty, setClosestProperty] = useState<ClosestProperty | null>(null)
+  const [marketStats, setMarketStats] = useState<MarketStats | null>(null)
 
   const handlePredict = async (v: any) => {
     setLoading(true)
     setResult(null)
     setSimilarProperties([])
     setClosestProperty(null)
+    setMarketStats(null)
     try {
       // 转换字段名以匹配 ML API
       const params = {
@@ -57,6 +59,7 @@ export function LandlordPricePredictPage() {
       let predictResult = null
       let similarData: SimilarProperty[] = []
       let closestData: ClosestProperty | null = null
+      let marketData: MarketStats | null = null
 
       try {
         predictResult = await pricePredict(params)
@@ -76,6 +79,12 @@ export function LandlordPricePredictPage() {
       } catch (e) {
         console.error('获取最接近房源失败:', e)
       }
+
+      try {
+        marketData = await getMarketStats(v.city, v.region, v.bedrooms)
+      } catch (e) {
+        console.error('获取租金行情失败:', e)
+      }
       
       // 如果两个都失败了，给个提示
       if (!predictResult) {
@@ -97,6 +106,7 @@ export function LandlordPricePredictPage() {
       setResult(normalized)
       setSimilarProperties(similarData)
       setClosestProperty(closestData)
+      setMarketStats(marketData && marketData.count > 0 ? marketData : null)
     } catch (error) {
       console.error('预测失败:', error)
       message.error(t('pages.predictFailed') || '预测失败，请检查输入信息')
@@ -424,6 +434,57 @@ export function LandlordPricePredictPage() {
                       )
                     })()}
 
+                    {/* 租金行情：同城市/区域/户型在架房源的租金分位数 */}
+                      {marketStats?.price && (
+                        <Card
+                          size="small"
+                          style={{
+                            background: '#fafafa',
+                            borderRadius: 12,
+                            marginBottom: 16,
+                          }}
+                          styles={{ body: { padding: 12 } }}
+                        >
+                          <div style={{ marginBottom: 8 }}>
+                            <Typography.Text strong style={{ color: '#b4a5e8', fontSize: 14 }}>
+                              {t('pages.marketBand') || '同类房源租金行情'}
+                            </Typography.Text>
+                            <Typography.Text type="secondary" style={{ fontSize: 12, marginLeft: 8 }}>
+                              ({[marketStats.city, marketStats.region, marketStats.bedrooms ? `${marketStats.bedrooms}${t('pages.bhk') || '室'}` : null]
+                                .filter(Boolean).join(' · ')}，{marketStats.count} {t('pages.listingsCount') || '套在架房源'})
+                            </Typography.Text>
+                          </div>
+                          <Row gutter={8} style={{ textAlign: 'center' }}>
+                            {[
+                              { label: 'P25', value: marketStats.price.p25 },
+                              { label: t('pages.marketMedian') || '中位数', value: marketStats.price.median },
+                              { label: 'P75', value: marketStats.price.p75 },
+                            ].map(({ label, value }) => (
+                              <Col span={8} key={label}>
+                                <Typography.Text type="secondary" style={{ fontSize: 12 }}>{label}</Typography.Text>
+                                <div>
+                                  <Typography.Text strong style={{ color: '#f97316', fontSize: 16 }}>
+                                    {'￥'}{Math.round(value).toLocaleString()}
+                                  </Typography.Text>
+                                </div>
+                              </Col>
+                            ))}
+                          </Row>
+                          {marketStats.pricePerSqm && (
+                            <div style={{ marginTop: 8, textAlign: 'center' }}>
+                              <Typography.Text type="secondary" style={{ fontSize: 12 }}>
+                                {t('pages.marketPerSqm') || '每平米'}：{'￥'}{marketStats.pricePerSqm.p25} ~ {'￥'}{marketStats.pricePerSqm.p75}
+                              </Typography.Text>
+                            </div>
+                          )}
+                          {marketStats.broadened && (
+                            <div style={{ marginTop: 6, fontSize: 12, color: '#8c8c8c' }}>
+                              {t('pages.marketBroadened') || '该区域样本较少，已扩大统计范围'}
+                            </div>
+                          )}
+                        </Card>
+                      )}
+
                     {/* 相似房源参考 - 卡片式展示 */}
                       {similarProperties.length > 0 && (
                         <Card
@@ -39,6 +39,11 @@ export type ListingsQuery = {
   maxPrice?: number
   bedrooms?: number
   status?: string
+  /** 高于/低于市场百分比筛选，如 maxPriceScore=-10 表示至少低于市场 10% */
+  minPriceScore?: number
+  maxPriceScore?: number
+  /** value：性价比最高优先；overpriced：高于市场最多优先 */
+  sort?: 'value' | 'overpriced'
   page?: number
   size?: number
 }
@@ -56,8 +61,11 @@ export type AiSearchResponse = {
   totalFound: number
 }
 
-export async function aiSearch(query: string, limit = 20): Promise<AiSearchResponse> {
-  const { data } = await http.post<SingleResponse<AiSearchResponse>>('/ai/search', { query, limit })
+// mode：keyword 按解析出的条件筛选；semantic 先按语义相似度召回再按条件过滤
+export type AiSearchMode = 'keyword' | 'semantic'
+
+export async function aiSearch(query: string, limit = 20, mode: AiSearchMode = 'keyword'): Promise<AiSearchResponse> {
+  const { data } = await http.post<SingleResponse<AiSearchResponse>>('/ai/search', { query, limit, mode })
   return data.data
 }
 
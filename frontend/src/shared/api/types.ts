@@ -14,6 +14,10 @@ export type Listing = {
   status?: 'available' | 'rented' | 'offline'
   landlordId?: number
   landlordUsername?: string
+  /** 模型预测的公允租金，未打分为空 */
+  fairPrice?: number | null
+  /** 挂牌价高于公允租金的百分比，负数表示低于市场 */
+  priceScore?: number | null
 }
 
 export type PropertyImage = {
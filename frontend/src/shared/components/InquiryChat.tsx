@@ -2,10 +2,11 @@ import { useState, useEffect, useRef } from 'react'
 import { Card, Input, Button, Space, Avatar, Spin, Typography, Dropdown, App } from 'antd'
 import { UserOutlined, ArrowLeftOutlined, SendOutlined, MessageOutlined, HomeOutlined, PictureOutlined, DeleteOutlined, RobotOutlined } from '@ant-design/icons'
 import { useNavigate } from 'react-router-dom'
-import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query'
+import { useQuery, useInfiniteQuery, useMutation, useQueryClient } from '@tanstack/react-query'
 import { getListing, getLandlordInfo, getTenantInfo } from '../../features/tenant/api/tenantApi'
 import { useAuth } from '../../features/auth/context/AuthContext'
 import { http, env } from '../api/http'
+import { authStore } from '../../features/auth/store/authStore'
 import { useTranslation } from 'react-i18next'
 
 const { TextArea } = Input
@@ -49,10 +50,20 @@ async function getConversationDetail(conversationId: number): Promise<Conversati
   return data.data.conversation
 }
 
-// 获取对话消息列表
-async function getConversationMessages(conversationId: number): Promise<Message[]> {
-  const { data } = await http.get<{ code: number; data: { conversation: ConversationDetail; messages: Message[] } }>(`/conversations/${conversationId}`)
-  return data.data.messages
+type MessageSlice = {
+  messages: Message[]
+  hasMore: boolean
+  prevCursor?: number
+  nextCursor?: number
+}
+
+// 按游标获取一页消息（不传 before 时为最新一页）
+async function getConversationMessages(conversationId: number, before?: number): Promise<MessageSlice> {
+  const { data } = await http.get<{ code: number; data: MessageSlice }>(
+    `/conversations/${conversationId}/messages/history`,
+    { params: { before } },
+  )
+  return data.data
 }
 
 // 发送消息（文字与{t('pages.image')}共用此接口，{t('pages.image')}存库）
@@ -80,15 +91,47 @@ async function recallMessageApi(messageId: number): Promise<Message> {
   return data.data
 }
 
-// AI 智能回复建议（租客咨询房东场景）
-async function getAiReplySuggestion(params: {
-  listingTitle: string
-  listingPrice: string
-  listingDescription?: string
-  recentMessages: string
-}): Promise<string> {
-  const { data } = await http.post<{ code: number; data: string }>('/ai/chat/suggest', params)
-  return data.data
+// AI 智能回复建议（租客咨询房东场景），流式返回：每收到一段文本回调一次
+async function streamAiReplySuggestion(
+  params: {
+    listingTitle: string
+    listingPrice: string
+    listingDescription?: string
+    recentMessages: string
+  },
+  onToken: (token: string) => void,
+): Promise<void> {
+  const base = env.apiBaseUrl ?? '/api'
+  const res = await fetch(`${base}/ai/chat/suggest/stream`, {
+    method: 'POST',
+    headers: { 'Content-Type': 'application/json', Accept: 'text/event-stream' },
+    body: JSON.stringify(params),
+  })
+  if (!res.ok || !res.body) throw new Error(`HTTP ${res.status}`)
+
+  const reader = res.body.getReader()
+  const decoder = new TextDecoder()
+  let buffer = ''
+  for (;;) {
+    const { done, value } = await reader.read()
+    if (done) break
+    buffer += decoder.decode(value, { stream: true })
+    // SSE 帧以空行分隔
+    let sep: number
+    while ((sep = buffer.indexOf('\n\n')) >= 0) {
+      const frame = buffer.slice(0, sep)
+      buffer = buffer.slice(sep + 2)
+      let event = 'message'
+      let data = ''
+      for (const line of frame.split('\n')) {
+        if (line.startsWith('event:')) event = line.slice(6).trim()
+        else if (line.startsWith('data:')) data += line.slice(5)
+      }
+      if (event === 'token') onToken(JSON.parse(data).content)
+      else if (event === 'error') throw new Error(JSON.parse(data).message)
+      else if (event === 'done') return
+    }
+  }
 }
 
 // 兼容旧数据：{t('pages.image')} URL 转成可访问地址
@@ -131,12 +174,16 @@ export function InquiryChat({ conversationId, userRole, listPath }: InquiryChatP
     enabled: Boolean(conversationId),
   })
 
-  // 获取消息列表
-  const messagesQ = useQuery({
+  // 获取消息列表（最新一页，向上滚动时按游标加载更早的消息）
+  const messagesQ = useInfiniteQuery({
     queryKey: ['conversation', conversationId, 'messages'],
-    queryFn: () => getConversationMessages(conversationId),
+    queryFn: ({ pageParam }) => getConversationMessages(conversationId, pageParam),
+    initialPageParam: undefined as number | undefined,
+    getNextPageParam: (lastPage) => (lastPage.hasMore ? lastPage.prevCursor : undefined),
     enabled: Boolean(conversationId),
   })
+  const messages: Message[] = (messagesQ.data?.pages ?? []).slice().reverse().flatMap((page) => page.messages)
+  const latestPage = messagesQ.data?.pages[0]
 
   // 获取房源详情
   const propertyId = conversationQ.data?.propertyId
@@ -204,10 +251,30 @@ export function InquiryChat({ conversationId, userRole, listPath }: InquiryChatP
     }
   }, [conversationId, auth.user, queryClient])
 
+  // 订阅实时推送（SSE），收到当前对话的事件后刷新消息
+  useEffect(() => {
+    const token = authStore.getToken()
+    if (!conversationId || !token) return
+    const base = env.apiBaseUrl ?? '/api'
+    const source = new EventSource(`${base}/conversations/stream?access_token=${encodeURIComponent(token)}`)
+    const refresh = (e: MessageEvent) => {
+      try {
+        const event = JSON.parse(e.data)
+        if (event.conversationId !== conversationId) return
+      } catch {
+        return
+      }
+      queryClient.invalidateQueries({ queryKey: ['conversation', conversationId, 'messages'] })
+      queryClient.invalidateQueries({ queryKey: ['conversation', conversationId] })
+    }
+    ;['message', 'recall', 'delete', 'read'].forEach((type) => source.addEventListener(type, refresh))
+    return () => source.close()
+  }, [conversationId, queryClient])
+
   // 滚动到最新消息
   useEffect(() => {
     messagesEndRef.current?.scrollIntoView({ behavior: 'smooth' })
-  }, [messagesQ.data])
+  }, [latestPage])
 
   const handleSendMessage = () => {
     if (!inputMessage.trim() && !selectedImage) {
@@ -253,17 +320,25 @@ export function InquiryChat({ conversationId, userRole, listPath }: InquiryChatP
     if (!listingQ.data) return
     setAiSuggestLoading(true)
     try {
-      const recentMessages = (messagesQ.data ?? [])
+      const recentMessages = messages
         .slice(-10)
         .map((m) => `${m.senderRole === 'tenant' ? t('pages.tenant') : t('pages.landlord')}: ${m.content}`)
         .join('\n')
-      const suggestion = await getAiReplySuggestion({
-        listingTitle: listingQ.data.title || '',
-        listingPrice: String(listingQ.data.price ?? ''),
-        listingDescription: listingQ.data.description || '',
-        recentMessages,
-      })
-      setInputMessage((prev) => (prev ? `${prev}\n${suggestion}` : suggestion))
+      // 逐段追加到输入框，首个片段前补换行
+      let first = true
+      await streamAiReplySuggestion(
+        {
+          listingTitle: listingQ.data.title || '',
+          listingPrice: String(listingQ.data.price ?? ''),
+          listingDescription: listingQ.data.description || '',
+          recentMessages,
+        },
+        (token) => {
+          const prefix = first ? '\n' : ''
+          first = false
+          setInputMessage((prev) => (prev ? `${prev}${prefix}${token}` : token))
+        },
+      )
       message.success(t('pages.aiSuggestionFilled'))
     } catch {
       message.error(t('pages.aiSuggestionFailed'))
@@ -328,7 +403,6 @@ export function InquiryChat({ conversationId, userRole, listPath }: InquiryChatP
     )
   }
 
-  const messages: Message[] = messagesQ.data ?? []
   const isTenant = userRole === 'tenant'
 
   return (
@@ -415,6 +489,13 @@ export function InquiryChat({ conversationId, userRole, listPath }: InquiryChatP
                 </div>
               ) : (
                 <div>
+                  {messagesQ.hasNextPage && (
+                    <div style={{ textAlign: 'center', marginBottom: 12 }}>
+                      <Button size="small" type="link" loading={messagesQ.isFetchingNextPage} onClick={() => messagesQ.fetchNextPage()}>
+                        {t('pages.loadEarlierMessages')}
+                      </Button>
+                    </div>
+                  )}
                   {messages.map((msg) => {
                     const isMe = (isTenant && msg.senderRole === 'tenant') || (!isTenant && msg.senderRole === 'landlord')
                     const isRecalled = msg.content === '[已撤回]'
@@ -1,6 +1,8 @@
 from fastapi import FastAPI, HTTPException
 from pydantic import BaseModel, Field, field_validator
-from model import predict_one, get_feature_importance, predict_with_confidence
+from typing import List
+import os
+from model import predict_one, predict_many, get_feature_importance, predict_with_confidence
 import time
 import uvicorn
 import logging
@@ -10,6 +12,9 @@ logger = logging.getLogger(__name__)
 
 app = FastAPI(title="Rent Price Prediction API", version="1.0")
 
+# 响应中的模型版本；影子部署候选模型时设置为不同的值，后端按版本区分对比结果
+MODEL_VERSION = os.environ.get("RENT_MODEL_VERSION", "1.0")
+
 
 class RentFeatures(BaseModel):
     Posted_On: str
@@ -119,42 +124,72 @@ def get_floor_level(total_floors: int) -> str:
         return 'high'
 
 
+def build_record(payload: NewPredictRequest) -> dict:
+    """把预测请求映射为训练数据的一行"""
+    decoration_value = map_property_type_to_furnishing(
+        payload.propertyType,
+        payload.decoration
+    )
+    floor_level = get_floor_level(payload.totalFloors)
+
+    return {
+        "landlord_id": 1,
+        "title": f"{payload.propertyType} in {payload.city}",
+        "city": payload.city,
+        "region": payload.region or payload.city,
+        "address": payload.region or payload.city,
+        "bedrooms": payload.bedrooms,
+        "bathrooms": int(payload.bathrooms),
+        "area": payload.area,
+        "price": 0,
+        "total_floors": payload.totalFloors,
+        "floor_level": floor_level,
+        "orientation": payload.orientation,
+        "decoration": decoration_value,
+        "description": f"Floor {payload.floor}/{payload.totalFloors}, "
+                      f"Parking: {payload.hasParking}, "
+                      f"Elevator: {payload.hasElevator}, "
+                      f"Balcony: {payload.hasBalcony}",
+        "status": "available",
+        "view_count": 0,
+        "created_at": time.strftime("%Y-%m-%d"),
+    }
+
+
+def top_feature_importance() -> list:
+    """聚合后的 Top 5 特征重要性"""
+    aggregated_importance = aggregate_feature_importance(get_feature_importance())
+    sorted_importance = sorted(
+        aggregated_importance.items(),
+        key=lambda x: x[1],
+        reverse=True
+    )[:5]
+    return [
+        {"feature": name, "importance": round(importance, 4)}
+        for name, importance in sorted_importance
+    ]
+
+
+def build_response(pred: float, lower: float, upper: float, feature_importance: list, response_time: int) -> dict:
+    return {
+        "predictedPrice": round(pred, 2),
+        "currency": "CNY",
+        "confidence": 0.85,
+        "lowerBound": round(lower, 2),
+        "upperBound": round(upper, 2),
+        "modelVersion": MODEL_VERSION,
+        "algorithmName": "XGBoost",
+        "featureImportance": feature_importance,
+        "responseTimeMs": response_time
+    }
+
+
 @app.post("/api/v1/predict")
 def api_v1_predict(payload: NewPredictRequest):
     start_time = int(time.time() * 1000)
 
     try:
-        # Map request fields to match training data columns
-        decoration_value = map_property_type_to_furnishing(
-            payload.propertyType,
-            payload.decoration
-        )
-        area_type = map_property_type_to_area_type(payload.propertyType)
-        floor_level = get_floor_level(payload.totalFloors)
-
-        # 构建预测记录
-        record = {
-            "landlord_id": 1,
-            "title": f"{payload.propertyType} in {payload.city}",
-            "city": payload.city,
-            "region": payload.region or payload.city,
-            "address": payload.region or payload.city,
-            "bedrooms": payload.bedrooms,
-            "bathrooms": int(payload.bathrooms),
-            "area": payload.area,
-            "price": 0,
-            "total_floors": payload.totalFloors,
-            "floor_level": floor_level,
-            "orientation": payload.orientation,
-            "decoration": decoration_value,
-            "description": f"Floor {payload.floor}/{payload.totalFloors}, "
-                          f"Parking: {payload.hasParking}, "
-                          f"Elevator: {payload.hasElevator}, "
-                          f"Balcony: {payload.hasBalcony}",
-            "status": "available",
-            "view_count": 0,
-            "created_at": time.strftime("%Y-%m-%d"),
-        }
+        record = build_record(payload)
 
         # 执行预测
         pred = predict_one(record)
@@ -162,35 +197,40 @@ def api_v1_predict(payload: NewPredictRequest):
         # 获取带置信区间的预测结果
         confidence_result = predict_with_confidence(record)
 
-        # 获取特征重要性
-        raw_importance = get_feature_importance()
+        response_time = int(time.time() * 1000) - start_time
 
-        # 将展开的特征名聚合回原始特征
-        aggregated_importance = aggregate_feature_importance(raw_importance)
+        return build_response(pred, confidence_result["lower_bound"], confidence_result["upper_bound"],
+                              top_feature_importance(), response_time)
+
+    except FileNotFoundError as e:
+        logger.error(f"Model file not found: {e}")
+        raise HTTPException(status_code=503, detail="Model not available. Please train the model first.")
+    except Exception as e:
+        logger.error(f"Prediction error: {e}")
+        raise HTTPException(status_code=500, detail=f"Prediction failed: {str(e)}")
 
-        # 排序并取Top 5
-        sorted_importance = sorted(
-            aggregated_importance.items(),
-            key=lambda x: x[1],
-            reverse=True
-        )[:5]
 
-        feature_importance_list = [
-            {"feature": name, "importance": round(importance, 4)}
-            for name, importance in sorted_importance
-        ]
+class BatchPredictRequest(BaseModel):
+    items: List[NewPredictRequest] = Field(..., min_length=1, max_length=500)
 
+
+@app.post("/api/v1/predict/batch")
+def api_v1_predict_batch(payload: BatchPredictRequest):
+    """批量预测：一次构造 DataFrame、一次模型推理，predictions 与 items 顺序一致"""
+    start_time = int(time.time() * 1000)
+
+    try:
+        records = [build_record(item) for item in payload.items]
+        preds = predict_many(records)
+        feature_importance_list = top_feature_importance()
         response_time = int(time.time() * 1000) - start_time
 
+        # 置信区间与单条接口一致：预测值 ±10%
         return {
-            "predictedPrice": round(pred, 2),
-            "currency": "CNY",
-            "confidence": 0.85,
-            "lowerBound": round(confidence_result["lower_bound"], 2),
-            "upperBound": round(confidence_result["upper_bound"], 2),
-            "modelVersion": "1.0",
-            "algorithmName": "XGBoost",
-            "featureImportance": feature_importance_list,
+            "predictions": [
+                build_response(pred, pred - pred * 0.1, pred + pred * 0.1, feature_importance_list, response_time)
+                for pred in preds
+            ],
             "responseTimeMs": response_time
         }
 
@@ -198,7 +238,7 @@ def api_v1_predict(payload: NewPredictRequest):
         logger.error(f"Model file not found: {e}")
         raise HTTPException(status_code=503, detail="Model not available. Please train the model first.")
     except Exception as e:
-        logger.error(f"Prediction error: {e}")
+        logger.error(f"Batch prediction error: {e}")
         raise HTTPException(status_code=500, detail=f"Prediction failed: {str(e)}")
 
 
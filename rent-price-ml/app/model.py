@@ -3,7 +3,8 @@ import joblib
 import pandas as pd
 import numpy as np
 
-MODEL_PATH = os.path.join("models", "model.joblib")
+# 影子部署候选模型时通过 RENT_MODEL_PATH 指定另一份模型文件
+MODEL_PATH = os.environ.get("RENT_MODEL_PATH", os.path.join("models", "model.joblib"))
 
 _model = None
 _feature_names = None
@@ -90,6 +91,16 @@ def predict_one(record: dict) -> float:
     return float(pred)
 
 
+def predict_many(records: list) -> list:
+    """
+    records: 多条样本的特征字典
+    return: 与 records 顺序一致的预测租金列表（一次 DataFrame 构造与一次模型推理）
+    """
+    model = get_model()
+    df = pd.DataFrame(records)
+    return [float(p) for p in model.predict(df)]
+
+
 def predict_with_confidence(record: dict) -> dict:
     """
     带置信区间的预测
@@ -0,0 +1,239 @@
+"""
+把 models/model.joblib（预处理 + XGBRegressor 的 Pipeline）导出为可移植的 JSON，供后端在 JVM 内直接打分：
+
+- models/rent_model.json        预处理参数（数值列中位数、类别列众数与 one-hot 词表）+ XGBoost 树结构
+- models/rent_model_golden.json 样本与 Python 模型的预测值，后端一致性测试用
+
+加 --fixture 时改为导出随后端测试提交的小夹具（前 FIXTURE_TREES 棵树、FIXTURE_SAMPLES 条样本）：
+- ../backend/src/test/resources/ml/rent_model_parity.json         one-hot 词表只保留这些树用到的取值与众数
+- ../backend/src/test/resources/ml/rent_model_parity_golden.json  同一 Pipeline 只用前 FIXTURE_TREES 棵树的预测值
+未保留的取值在全量模型中也不参与这些树的分裂，因此夹具与全量模型前 N 棵树的打分一致。
+
+树结构取自 XGBoost 原生 JSON（booster.save_raw("json")），阈值与叶子值为 float32 原值，不经过文本 dump 的精度损失。
+
+用法：python export_model.py [--fixture]   （在 rent-price-ml 目录执行，需先 python train.py）
+"""
+import json
+import os
+import sys
+import time
+
+import joblib
+import numpy as np
+import pandas as pd
+import scipy.sparse as sp
+
+MODEL_PATH = os.path.join("models", "model.joblib")
+DATA_PATH = os.path.join("data", "house_rent.csv")
+EXPORT_PATH = os.path.join("models", "rent_model.json")
+GOLDEN_PATH = os.path.join("models", "rent_model_golden.json")
+TARGET_COL = "price"
+GOLDEN_SAMPLES = 200
+
+FIXTURE_DIR = os.path.join("..", "backend", "src", "test", "resources", "ml")
+FIXTURE_PATH = os.path.join(FIXTURE_DIR, "rent_model_parity.json")
+FIXTURE_GOLDEN_PATH = os.path.join(FIXTURE_DIR, "rent_model_parity_golden.json")
+FIXTURE_TREES = 8
+FIXTURE_SAMPLES = 12
+
+# 与 app/main.py 的 aggregate_feature_importance 一致
+CATEGORICAL_PREFIXES = ["city", "region", "decoration", "orientation", "area_type", "floor_level"]
+
+
+def _to_python(value):
+    if isinstance(value, (np.integer,)):
+        return int(value)
+    if isinstance(value, (np.floating,)):
+        return None if np.isnan(value) else float(value)
+    return value
+
+
+def export_preprocessor(preprocessor):
+    numeric, categorical = [], []
+    for name, transformer, columns in preprocessor.transformers_:
+        if name == "num":
+            medians = transformer.named_steps["imputer"].statistics_
+            for column, median in zip(columns, medians):
+                numeric.append({"name": column, "median": float(median)})
+        elif name == "cat":
+            most_frequent = transformer.named_steps["imputer"].statistics_
+            categories = transformer.named_steps["onehot"].categories_
+            for column, fill, vocab in zip(columns, most_frequent, categories):
+                categorical.append({
+                    "name": column,
+                    "most_frequent": str(fill),
+                    "categories": [str(c) for c in vocab],
+                })
+        elif transformer != "drop":
+            raise ValueError(f"不支持导出的预处理步骤: {name}")
+    return numeric, categorical
+
+
+def export_trees(booster):
+    raw = json.loads(booster.save_raw("json"))
+    learner = raw["learner"]
+    objective = learner["objective"]["name"]
+    if objective != "reg:squarederror":
+        raise ValueError(f"只支持 reg:squarederror，当前为 {objective}")
+    base_score = float(str(learner["learner_model_param"]["base_score"]).strip("[]"))
+    trees = []
+    for tree in learner["gradient_booster"]["model"]["trees"]:
+        trees.append({
+            "left": tree["left_children"],
+            "right": tree["right_children"],
+            "feature": tree["split_indices"],
+            # 叶子节点的 split_conditions 即叶子值
+            "threshold": tree["split_conditions"],
+            "default_left": [int(v) for v in tree["default_left"]],
+        })
+    return base_score, trees
+
+
+def feature_importance_top5(model, numeric, categorical):
+    names = [f["name"] for f in numeric]
+    for column in categorical:
+        names.extend(f"{column['name']}_{c}" for c in column["categories"])
+    importances = model.named_steps["model"].feature_importances_
+    if len(names) != len(importances):
+        names = [f"feature_{i}" for i in range(len(importances))]
+
+    aggregated = {}
+    for name, importance in zip(names, importances.tolist()):
+        prefix, _, suffix = name.rpartition("_")
+        if prefix and (prefix in CATEGORICAL_PREFIXES or suffix.isdigit()):
+            aggregated[prefix] = aggregated.get(prefix, 0) + importance
+        elif name not in aggregated:
+            aggregated[name] = importance
+    top = sorted(aggregated.items(), key=lambda x: x[1], reverse=True)[:5]
+    return [{"feature": name, "importance": round(value, 4)} for name, value in top]
+
+
+def api_record(bedrooms, area, city, region, bathrooms, decoration, total_floors, orientation, created_at):
+    """与 app/main.py 的 /api/v1/predict 构造方式一致（固定 created_at 便于复现）"""
+    return {
+        "landlord_id": 1,
+        "title": f"Apartment in {city}",
+        "city": city,
+        "region": region,
+        "address": region,
+        "bedrooms": bedrooms,
+        "bathrooms": bathrooms,
+        "area": area,
+        "total_floors": total_floors,
+        "orientation": orientation,
+        "decoration": decoration,
+        "description": f"Floor 2/{total_floors}, Parking: False, Elevator: True, Balcony: False",
+        "status": "available",
+        "view_count": 0,
+        "created_at": created_at,
+    }
+
+
+def api_records():
+    return [
+        api_record(2, 80.0, "Shanghai", "Pudong", 1, "fine", 20, "South", "2024-01-01"),
+        api_record(1, 35.0, "Beijing", "Chaoyang", 1, "simple", 6, "北", "2024-01-01"),
+        api_record(3, 120.0, "Unknown", "Nowhere", 2, "rough", 30, "East", "2024-01-01"),
+    ]
+
+
+def prune_vocabulary(numeric, categorical, trees):
+    """只保留 trees 分裂用到的 one-hot 列（及各列众数），返回新的类别列定义与旧列号到新列号的映射"""
+    used = {f for tree in trees for f, left in zip(tree["feature"], tree["left"]) if left != -1}
+    remap = {i: i for i in range(len(numeric))}
+    old_offset = new_offset = len(numeric)
+    pruned = []
+    for column in categorical:
+        keep = [k for k, value in enumerate(column["categories"])
+                if old_offset + k in used or value == column["most_frequent"]]
+        for j, k in enumerate(keep):
+            remap[old_offset + k] = new_offset + j
+        old_offset += len(column["categories"])
+        new_offset += len(keep)
+        pruned.append({**column, "categories": [column["categories"][k] for k in keep]})
+    return pruned, remap
+
+
+def export_fixture(model, numeric, categorical, base_score, trees, zero_as_missing, X):
+    trees = trees[:FIXTURE_TREES]
+    pruned, remap = prune_vocabulary(numeric, categorical, trees)
+    fixture_trees = [{**tree, "feature": [remap[f] if left != -1 else 0
+                                          for f, left in zip(tree["feature"], tree["left"])]}
+                     for tree in trees]
+    export = {
+        "format": "rent-xgb-v1",
+        "model_version": "parity-fixture",
+        "algorithm": "XGBoost",
+        "exported_at": None,
+        "zero_as_missing": zero_as_missing,
+        "base_score": base_score,
+        "numeric": numeric,
+        "categorical": pruned,
+        "feature_importance": [],
+        "trees": fixture_trees,
+    }
+    os.makedirs(FIXTURE_DIR, exist_ok=True)
+    with open(FIXTURE_PATH, "w", encoding="utf-8") as f:
+        json.dump(export, f, ensure_ascii=False, separators=(",", ":"))
+
+    # 等间隔取样，结果不依赖随机数实现
+    step = len(X) // (FIXTURE_SAMPLES - 3)
+    samples = X.iloc[::step].head(FIXTURE_SAMPLES - 3)
+    records = [{k: _to_python(v) for k, v in row.items()} for row in samples.to_dict(orient="records")]
+    records.extend(api_records())
+    predictions = model.predict(pd.DataFrame(records), iteration_range=(0, FIXTURE_TREES))
+    golden = [{"record": r, "prediction": float(p)} for r, p in zip(records, predictions)]
+    with open(FIXTURE_GOLDEN_PATH, "w", encoding="utf-8") as f:
+        json.dump(golden, f, ensure_ascii=False, indent=1)
+
+    print(f"[OK] Parity fixture ({len(fixture_trees)} trees, {len(golden)} samples) to: {FIXTURE_DIR}")
+
+
+def main():
+    model = joblib.load(MODEL_PATH)
+    preprocessor = model.named_steps["preprocess"]
+    booster = model.named_steps["model"].get_booster()
+
+    numeric, categorical = export_preprocessor(preprocessor)
+    base_score, trees = export_trees(booster)
+
+    df = pd.read_csv(DATA_PATH)
+    X = df.drop(columns=[TARGET_COL])
+    # 预处理输出为稀疏矩阵时，XGBoost 把未存储的 0 当作缺失值，JVM 打分需一致处理
+    zero_as_missing = bool(sp.issparse(preprocessor.transform(X.head(50))))
+
+    if "--fixture" in sys.argv[1:]:
+        export_fixture(model, numeric, categorical, base_score, trees, zero_as_missing, X)
+        return
+
+    export = {
+        "format": "rent-xgb-v1",
+        "model_version": "1.0",
+        "algorithm": "XGBoost",
+        "exported_at": time.strftime("%Y-%m-%d %H:%M:%S"),
+        "zero_as_missing": zero_as_missing,
+        "base_score": base_score,
+        "numeric": numeric,
+        "categorical": categorical,
+        "feature_importance": feature_importance_top5(model, numeric, categorical),
+        "trees": trees,
+    }
+    with open(EXPORT_PATH, "w", encoding="utf-8") as f:
+        json.dump(export, f, ensure_ascii=False, separators=(",", ":"))
+
+    samples = X.sample(n=min(GOLDEN_SAMPLES, len(X)), random_state=7)
+    records = [{k: _to_python(v) for k, v in row.items()} for row in samples.to_dict(orient="records")]
+    records.extend(api_records())
+    predictions = model.predict(pd.DataFrame(records))
+    golden = [{"record": r, "prediction": float(p)} for r, p in zip(records, predictions)]
+    with open(GOLDEN_PATH, "w", encoding="utf-8") as f:
+        json.dump(golden, f, ensure_ascii=False)
+
+    print(f"[OK] trees={len(trees)}, features={len(numeric)} numeric + {len(categorical)} categorical, "
+          f"zero_as_missing={zero_as_missing}")
+    print(f"[OK] Exported model to: {EXPORT_PATH}")
+    print(f"[OK] Golden samples ({len(golden)}) to: {GOLDEN_PATH}")
+
+
+if __name__ == "__main__":
+    main()